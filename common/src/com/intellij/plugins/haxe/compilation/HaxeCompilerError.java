@@ -23,6 +23,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -70,105 +71,139 @@ public class HaxeCompilerError {
     return create(rootPath, message, true);
   }
 
-    @Nullable
-    public static HaxeCompilerError create(@NotNull String rootPath,
-                                           final String message,
-                                           boolean checkExistence)
-    {
-        Matcher m;
-
-        // Error: Library ([^\w]+) is not installed(.*)
-        if ((m = pLibraryNotInstalled.matcher(message)).matches()) {
-            return new HaxeCompilerError(CompilerMessageCategory.WARNING,
-                                         "Library " + m.group(1).trim() + 
-                                         "is not installed " +
-                                         m.group(2).trim(), "", -1, -1);
-        }
-
-        String rawPath = null, rawLine, rawColumn, text;
-
-        // ([^:]+):([\\d]+): characters ([\\d]+)-[\\d]+ :(.*)
-        if ((m = pColumnError.matcher(message)).matches()) {
-            rawPath = m.group(1);
-            rawLine = m.group(2);
-            rawColumn = m.group(3);
-            text = m.group(4).trim();
-        }
-        // ([^:]+):([\\d]+): lines [\\d]+-[\\d]+ :(.*)
-        else if ((m = pLineError.matcher(message)).matches()) {
-            rawPath = m.group(1);
-            rawLine = m.group(2);
-            rawColumn = "-1";
-            text = m.group(3).trim();
-        }
-        // ([^:]*)Error:(.*)
-        else if ((m = pBareError.matcher(message)).matches()) {
-          StringBuilder err = new StringBuilder();
-          String errType = m.group(1).trim();
-          if (!errType.isEmpty()) {
-            err.append(" (");
-            err.append(errType);
-            err.append(") ");
-          }
-          err.append(m.group(2).trim());
-          return new HaxeCompilerError(CompilerMessageCategory.ERROR,
-                                       err.toString(), "", -1, -1);
-        }
-        // Anything that doesn't match error patterns is purely informational
-        else {
-            return new HaxeCompilerError(CompilerMessageCategory.INFORMATION,
-                                         message.trim(), "", -1, -1);
-        }
-
-        // Got a real file error, so handle it
-
-        String filePath = FileUtil.toSystemIndependentName(rawPath);
-        if (!FileUtil.isAbsolute(filePath)) {
-            filePath = rootPath + "/" + filePath;
-        }
-
-        if (checkExistence &&
-            !(new File(FileUtil.toSystemDependentName(filePath)).exists())) {
-            return null;
-        }
-        
-        int line, column;
-
-        try {
-            line = Integer.parseInt(rawLine);
-        }
-        catch (NumberFormatException e) {
-            line = -1;
-        }
-
-        try {
-            column = Integer.parseInt(rawColumn);
-        }
-        catch (NumberFormatException e) {
-            column = -1;
-        }
-
-        final String warningStr = "Warning";
-        if (0 == text.indexOf(warningStr)) {
-          text = text.substring(warningStr.length()).trim();
-          final String colonChar = ":";
-          if (0 == text.indexOf(colonChar)) {
-            text = text.substring(colonChar.length()).trim();
-          }
-          return new HaxeCompilerError(CompilerMessageCategory.WARNING,
-                                       text, filePath, line, column);
-        }
-        else {
-          return new HaxeCompilerError(CompilerMessageCategory.ERROR,
-                                       text, filePath, line, column);
-        }
+  @Nullable
+  public static HaxeCompilerError create(@NotNull String rootPath,
+                                         final String message,
+                                         boolean checkExistence) {
+    return create(rootPath, message, checkExistence, pCompilerOutput.matcher(message), null);
+  }
+
+  /**
+   * Classifies a single line of compiler output with one pass of the combined pattern.
+   *
+   * @param matcher       a matcher of {@link #pCompilerOutput}; it is reset to the message, so callers
+   *                      parsing many lines can reuse a single instance.
+   * @param resolvedPaths optional cache of raw paths to resolved paths, where an empty string marks
+   *                      a file that doesn't exist.  Compiler output tends to name the same few files
+   *                      over and over, so this saves both the string building and the disk access.
+   */
+  @Nullable
+  static HaxeCompilerError create(@NotNull String rootPath,
+                                  @NotNull String message,
+                                  boolean checkExistence,
+                                  @NotNull Matcher matcher,
+                                  @Nullable Map<String, String> resolvedPaths) {
+    // Every recognized message has a colon in it; anything else is purely informational.
+    if (message.indexOf(':') < 0 || !matcher.reset(message).matches()) {
+      return new HaxeCompilerError(CompilerMessageCategory.INFORMATION, message.trim(), "", -1, -1);
+    }
+
+    // Error: Library ([^\w]+) is not installed(.*)
+    if (matcher.start(GROUP_LIBRARY) >= 0) {
+      return new HaxeCompilerError(CompilerMessageCategory.WARNING,
+                                   "Library " + matcher.group(GROUP_LIBRARY).trim() +
+                                   "is not installed " +
+                                   matcher.group(GROUP_LIBRARY_REST).trim(), "", -1, -1);
     }
 
-    static Pattern pLibraryNotInstalled = Pattern.compile
-        ("Error: Library ([\\S]+) is not installed(.*)");
-    static Pattern pBareError = Pattern.compile("([^:]*)Error:(.*)", Pattern.CASE_INSENSITIVE);
-    static Pattern pColumnError = 
-        Pattern.compile("([^:]+):([\\d]+): characters ([\\d]+)-[\\d]+ :(.*)");
-    static Pattern pLineError =
-        Pattern.compile("([^:]+):([\\d]+): lines [\\d]+-[\\d]+ :(.*)");
+    // ([^:]*)Error:(.*)
+    if (matcher.start(GROUP_PATH) < 0) {
+      StringBuilder err = new StringBuilder();
+      String errType = matcher.group(GROUP_ERROR_TYPE).trim();
+      if (!errType.isEmpty()) {
+        err.append(" (");
+        err.append(errType);
+        err.append(") ");
+      }
+      err.append(matcher.group(GROUP_ERROR_TEXT).trim());
+      return new HaxeCompilerError(CompilerMessageCategory.ERROR, err.toString(), "", -1, -1);
+    }
+
+    // ([^:]+):([\d]+): characters ([\d]+)-[\d]+ :(.*)
+    // ([^:]+):([\d]+): lines [\d]+-[\d]+ :(.*)
+    // Got a real file error, so handle it
+    final String rawPath = matcher.group(GROUP_PATH);
+    String filePath = resolvedPaths != null ? resolvedPaths.get(rawPath) : null;
+    if (filePath == null) {
+      filePath = resolvePath(rootPath, rawPath, checkExistence);
+      if (resolvedPaths != null) {
+        resolvedPaths.put(rawPath, filePath);
+      }
+    }
+    if (filePath.isEmpty()) {
+      return null;
+    }
+
+    final int line = parseInt(message, matcher.start(GROUP_LINE), matcher.end(GROUP_LINE));
+    final int column = parseInt(message, matcher.start(GROUP_COLUMN), matcher.end(GROUP_COLUMN));
+    String text = matcher.group(GROUP_TEXT).trim();
+
+    final String warningStr = "Warning";
+    if (text.startsWith(warningStr)) {
+      text = text.substring(warningStr.length()).trim();
+      final String colonChar = ":";
+      if (text.startsWith(colonChar)) {
+        text = text.substring(colonChar.length()).trim();
+      }
+      return new HaxeCompilerError(CompilerMessageCategory.WARNING,
+                                   text, filePath, line, column);
+    }
+    else {
+      return new HaxeCompilerError(CompilerMessageCategory.ERROR,
+                                   text, filePath, line, column);
+    }
+  }
+
+  /**
+   * @return the absolute, system independent path, or an empty string when the file
+   * has to exist and doesn't.
+   */
+  @NotNull
+  private static String resolvePath(@NotNull String rootPath, @NotNull String rawPath, boolean checkExistence) {
+    String filePath = FileUtil.toSystemIndependentName(rawPath);
+    if (!FileUtil.isAbsolute(filePath)) {
+      filePath = rootPath + "/" + filePath;
+    }
+    if (checkExistence && !(new File(FileUtil.toSystemDependentName(filePath)).exists())) {
+      return "";
+    }
+    return filePath;
+  }
+
+  /**
+   * Parses an unsigned number without allocating a substring; -1 if there is none.
+   */
+  private static int parseInt(@NotNull CharSequence text, int start, int end) {
+    if (start < 0 || start >= end || end - start > 9) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = start; i < end; i++) {
+      result = result * 10 + (text.charAt(i) - '0');
+    }
+    return result;
+  }
+
+  private static final int GROUP_LIBRARY = 1;
+  private static final int GROUP_LIBRARY_REST = 2;
+  private static final int GROUP_PATH = 3;
+  private static final int GROUP_LINE = 4;
+  private static final int GROUP_COLUMN = 5;
+  private static final int GROUP_TEXT = 6;
+  private static final int GROUP_ERROR_TYPE = 7;
+  private static final int GROUP_ERROR_TEXT = 8;
+
+  /**
+   * All the message shapes we understand, in the order they have to be tried:
+   * <pre>
+   *   Error: Library ([\S]+) is not installed(.*)
+   *   ([^:]+):([\d]+): characters ([\d]+)-[\d]+ :(.*)
+   *   ([^:]+):([\d]+): lines [\d]+-[\d]+ :(.*)
+   *   ([^:]*)Error:(.*)             (case insensitive)
+   * </pre>
+   */
+  static final Pattern pCompilerOutput = Pattern.compile(
+    "Error: Library ([\\S]+) is not installed(.*)" +
+    "|([^:]+):([\\d]+): (?:characters ([\\d]+)-[\\d]+|lines [\\d]+-[\\d]+) :(.*)" +
+    "|(?i:([^:]*)Error:(.*))");
 }
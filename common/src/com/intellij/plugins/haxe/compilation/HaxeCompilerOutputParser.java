@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.compilation;
+
+import com.intellij.openapi.compiler.CompilerMessageCategory;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Turns a stream of compiler output chunks into {@link HaxeCompilerError}s, one per line.
+ *
+ * Process output arrives in arbitrary chunks, so a line may be split across two of them;
+ * the unfinished tail is kept until the rest of it (or {@link #flush()}) comes in.  A single
+ * matcher and a cache of resolved file paths are reused for all lines.  Not thread safe:
+ * use one parser per output stream.
+ */
+public class HaxeCompilerOutputParser {
+  public interface Consumer {
+    void consume(@NotNull String line, @NotNull HaxeCompilerError error);
+  }
+
+  private final String myRootPath;
+  private final boolean myCheckExistence;
+  private final Consumer myConsumer;
+  private final Matcher myMatcher = HaxeCompilerError.pCompilerOutput.matcher("");
+  private final Map<String, String> myResolvedPaths = new HashMap<String, String>();
+  private final StringBuilder myPendingLine = new StringBuilder();
+
+  public HaxeCompilerOutputParser(@NotNull String rootPath, boolean checkExistence, @NotNull Consumer consumer) {
+    myRootPath = rootPath;
+    myCheckExistence = checkExistence;
+    myConsumer = consumer;
+  }
+
+  public void append(@NotNull CharSequence chunk) {
+    int lineStart = 0;
+    final int length = chunk.length();
+    for (int i = 0; i < length; i++) {
+      if (chunk.charAt(i) != '\n') {
+        continue;
+      }
+      if (myPendingLine.length() > 0) {
+        myPendingLine.append(chunk, lineStart, i);
+        processLine(myPendingLine.toString());
+        myPendingLine.setLength(0);
+      }
+      else {
+        processLine(chunk.subSequence(lineStart, i).toString());
+      }
+      lineStart = i + 1;
+    }
+    if (lineStart < length) {
+      myPendingLine.append(chunk, lineStart, length);
+    }
+  }
+
+  /**
+   * Processes whatever is left over once the stream is closed.
+   */
+  public void flush() {
+    if (myPendingLine.length() > 0) {
+      processLine(myPendingLine.toString());
+      myPendingLine.setLength(0);
+    }
+  }
+
+  private void processLine(@NotNull String line) {
+    if (line.endsWith("\r")) {
+      line = line.substring(0, line.length() - 1);
+    }
+    if (line.trim().isEmpty()) {
+      return;
+    }
+    HaxeCompilerError error = HaxeCompilerError.create(myRootPath, line, myCheckExistence, myMatcher, myResolvedPaths);
+    if (error == null) {
+      // Points to a file we can't find, so there is nothing to navigate to.
+      error = new HaxeCompilerError(CompilerMessageCategory.INFORMATION, line.trim(), "", -1, -1);
+    }
+    myConsumer.consume(line, error);
+  }
+}
@@ -21,6 +21,7 @@ import com.intellij.execution.process.BaseOSProcessHandler;
 import com.intellij.execution.process.ColoredProcessHandler;
 import com.intellij.execution.process.ProcessAdapter;
 import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.notification.Notification;
 import com.intellij.notification.NotificationListener;
 import com.intellij.notification.NotificationType;
@@ -29,6 +30,8 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.haxe.HaxeCommonBundle;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerError;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerOutputParser;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.config.NMETarget;
 import com.intellij.plugins.haxe.config.OpenFLTarget;
@@ -48,6 +51,16 @@ import java.util.List;
  * @author: Fedor.Korotkov
  */
 public class HaxeCommonCompilerUtil {
+  /**
+   * Builder parameters the IDE hands over to the external build process.
+   */
+  public static final String RUNNER_ID_PARAMETER = "RUNNER_ID";
+  public static final String TEST_MODULE_PARAMETER = "HAXE_TEST_MODULE";
+  public static final String TEST_RUNNER_CLASS_PARAMETER = "HAXE_TEST_RUNNER_CLASS";
+  public static final String DEBUG_RUNNER_ID = "HaxeDebugRunner";
+
+  private static final String UNKNOWN_PYTHON_OPTION = "Error: : unknown option `-python'";
+
   public interface CompilationContext {
     @NotNull
     HaxeModuleSettingsBase getModuleSettings();
@@ -80,7 +93,7 @@ public class HaxeCommonCompilerUtil {
 
     String getErrorRoot();
 
-    void handleOutput(String[] lines);
+    void handleOutput(@NotNull HaxeCompilerError error);
 
     HaxeTarget getHaxeTarget();
 
@@ -195,6 +208,23 @@ public class HaxeCommonCompilerUtil {
     }
 
     final BooleanValueHolder hasErrors = new BooleanValueHolder(false);
+    final BooleanValueHolder unsupportedTarget = new BooleanValueHolder(false);
+    final HaxeCompilerOutputParser.Consumer consumer = new HaxeCompilerOutputParser.Consumer() {
+      @Override
+      public void consume(@NotNull String line, @NotNull HaxeCompilerError error) {
+        if (unsupportedTarget.getValue()) {
+          return;
+        }
+        if (line.startsWith(UNKNOWN_PYTHON_OPTION)) {
+          unsupportedTarget.setValue(true);
+          return;
+        }
+        context.handleOutput(error);
+      }
+    };
+    final String errorRoot = StringUtil.notNullize(context.getErrorRoot());
+    final HaxeCompilerOutputParser stdoutParser = new HaxeCompilerOutputParser(errorRoot, true, consumer);
+    final HaxeCompilerOutputParser stderrParser = new HaxeCompilerOutputParser(errorRoot, true, consumer);
 
     try {
       final File workingDirectory = new File(FileUtil.toSystemDependentName(workingPath));
@@ -210,22 +240,20 @@ public class HaxeCommonCompilerUtil {
       handler.addProcessListener(new ProcessAdapter() {
         @Override
         public void onTextAvailable(ProcessEvent event, Key outputType) {
-          String[] lines = event.getText().split("\\n");
-          if (lines.length > 0) {
-            if (lines[0].matches("Error: : unknown option `-python'.")) {
-              handler.detachProcess();
-              handler.removeProcessListener(this);
-              context.errorHandler("Currently active Haxe toolkit doesn't supports Python target. Please install latest version of Haxe toolkit");
-              Notifications.Bus.notify(
-                new Notification("", "Current version of Haxe toolkit doesn't supports Python target", "You can download latest version of Haxe toolkit at <a href='http://haxe.org/download'>haxe.org/download</a> ", NotificationType.WARNING, NotificationListener.URL_OPENING_LISTENER));
-              return;
-            }
+          (ProcessOutputTypes.STDERR.equals(outputType) ? stderrParser : stdoutParser).append(event.getText());
+          if (unsupportedTarget.getValue()) {
+            handler.detachProcess();
+            handler.removeProcessListener(this);
+            context.errorHandler("Currently active Haxe toolkit doesn't supports Python target. Please install latest version of Haxe toolkit");
+            Notifications.Bus.notify(
+              new Notification("", "Current version of Haxe toolkit doesn't supports Python target", "You can download latest version of Haxe toolkit at <a href='http://haxe.org/download'>haxe.org/download</a> ", NotificationType.WARNING, NotificationListener.URL_OPENING_LISTENER));
           }
-          context.handleOutput(lines);
         }
 
         @Override
         public void processTerminated(ProcessEvent event) {
+          stdoutParser.flush();
+          stderrParser.flush();
           hasErrors.setValue(event.getExitCode() != 0);
           super.processTerminated(event);
         }
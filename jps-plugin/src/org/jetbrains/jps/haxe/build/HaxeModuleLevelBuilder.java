@@ -17,8 +17,13 @@
  */
 package org.jetbrains.jps.haxe.build;
 
+import com.intellij.openapi.compiler.CompilerMessageCategory;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.haxe.HaxeCommonBundle;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerError;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.module.HaxeModuleSettingsBase;
 import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
@@ -29,8 +34,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jps.ModuleChunk;
 import org.jetbrains.jps.builders.DirtyFilesHolder;
+import org.jetbrains.jps.builders.FileProcessor;
 import org.jetbrains.jps.builders.java.JavaSourceRootDescriptor;
 import org.jetbrains.jps.haxe.model.module.JpsHaxeModuleSettings;
+import org.jetbrains.jps.haxe.model.module.JpsHaxeModuleType;
 import org.jetbrains.jps.haxe.model.sdk.JpsHaxeSdkAdditionalData;
 import org.jetbrains.jps.haxe.model.sdk.JpsHaxeSdkType;
 import org.jetbrains.jps.haxe.util.JpsHaxeUtil;
@@ -47,7 +54,8 @@ import org.jetbrains.jps.util.JpsPathUtil;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -56,6 +64,9 @@ import java.util.List;
 public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
   private static final Logger LOG = Logger.getInstance(HaxeModuleLevelBuilder.class);
   @NonNls private static final String BUILDER_NAME = "haxe";
+  private static final List<String> COMPILABLE_EXTENSIONS = Arrays.asList("hx", "hxml", "nmml");
+  // Kept in the target's data directory; see getConfigStamp.
+  @NonNls private static final String CONFIG_STAMP_FILE = "haxe-config-stamp";
   private final boolean myDebugBuilder;
 
   protected HaxeModuleLevelBuilder(boolean debugBuilder) {
@@ -77,29 +88,165 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
     throws ProjectBuildException, IOException {
     boolean doneSomething = false;
 
-    // Don't do this.  HaxeCompiler already does it, and doing it here just
-    // does it again.
-//    for (final JpsModule module : chunk.getModules()) {
-//      if (module.getModuleType() == JpsHaxeModuleType.INSTANCE) {
-//        doneSomething |= processModule(context, dirtyFilesHolder, module);
-//      }
-//    }
+    for (final ModuleBuildTarget target : chunk.getTargets()) {
+      final JpsModule module = target.getModule();
+      if (module.getModuleType() != JpsHaxeModuleType.INSTANCE || target.isTests()) {
+        continue;
+      }
+      if (isDebugRunner(context) ^ myDebugBuilder) {
+        continue;
+      }
+      final String configStamp = getConfigStamp(context, target);
+      final File configStampFile = getConfigStampFile(context, target);
+      final List<String> dirtySources = collectDirtySources(target, dirtyFilesHolder);
+      if (dirtySources.isEmpty() && !context.getScope().isBuildForced(target) && configStamp.equals(readConfigStamp(configStampFile))) {
+        LOG.debug("Module " + module.getName() + " is up to date.");
+        continue;
+      }
+      if (processModule(context, target, outputConsumer)) {
+        FileUtil.writeToFile(configStampFile, configStamp);
+        doneSomething = true;
+      }
+      else {
+        FileUtil.delete(configStampFile);
+      }
+    }
 
     return doneSomething ? ExitCode.OK : ExitCode.NOTHING_DONE;
   }
 
   @Override
   public List<String> getCompilableFileExtensions() {
-    return Collections.emptyList();
+    return COMPILABLE_EXTENSIONS;
   }
 
-  private boolean processModule(final CompileContext context,
-                                final DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> holder,
-                                final JpsModule module) {
-    final boolean isDebugRunner = "HaxeDebugRunner".equals(context.getBuilderParameter("RUNNER_ID"));
-    if (isDebugRunner ^ myDebugBuilder) {
-      return false;
+  /**
+   * Collects the paths of all changed or removed Haxe sources for the target.  An empty
+   * result means that the last build output is still valid.
+   */
+  @NotNull
+  private static List<String> collectDirtySources(@NotNull final ModuleBuildTarget target,
+                                                  @NotNull DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> holder)
+    throws IOException {
+    final List<String> result = new ArrayList<String>();
+    holder.processDirtyFiles(new FileProcessor<JavaSourceRootDescriptor, ModuleBuildTarget>() {
+      @Override
+      public boolean apply(ModuleBuildTarget dirtyTarget, File file, JavaSourceRootDescriptor root) throws IOException {
+        if (target.equals(dirtyTarget) && isCompilable(file.getName())) {
+          result.add(FileUtil.toSystemIndependentName(file.getPath()));
+        }
+        return true;
+      }
+    });
+    for (String removed : holder.getRemovedFiles(target)) {
+      if (isCompilable(removed)) {
+        result.add(FileUtil.toSystemIndependentName(removed));
+      }
+    }
+    return result;
+  }
+
+  private static boolean isDebugRunner(@NotNull CompileContext context) {
+    return HaxeCommonCompilerUtil.DEBUG_RUNNER_ID.equals(context.getBuilderParameter(HaxeCommonCompilerUtil.RUNNER_ID_PARAMETER));
+  }
+
+  /**
+   * Describes everything besides the sources that the output of a target depends on: the kind of build
+   * (debug, test runner), the SDK, the module settings and the build file they point at.  A target whose
+   * stamp differs from the one stored after its last successful build is rebuilt, even with no dirty sources.
+   */
+  @NotNull
+  private static String getConfigStamp(@NotNull CompileContext context, @NotNull ModuleBuildTarget target) {
+    final JpsModule module = target.getModule();
+    final StringBuilder stamp = new StringBuilder();
+    stamp.append("debug=").append(isDebugRunner(context)).append('\n');
+    stamp.append("testRunner=").append(context.getBuilderParameter(HaxeCommonCompilerUtil.TEST_RUNNER_CLASS_PARAMETER)).append('\n');
+    stamp.append("testModule=").append(context.getBuilderParameter(HaxeCommonCompilerUtil.TEST_MODULE_PARAMETER)).append('\n');
+    final JpsSdk<JpsHaxeSdkAdditionalData> sdk = module.getSdk(JpsHaxeSdkType.INSTANCE);
+    stamp.append("sdk=").append(sdk == null ? null : sdk.getHomePath()).append('\n');
+    final JpsHaxeModuleSettings settings = JpsHaxeUtil.getModuleSettings(module);
+    if (settings == null) {
+      return stamp.toString();
+    }
+    stamp.append("buildConfig=").append(settings.getBuildConfig()).append('\n');
+    stamp.append("mainClass=").append(settings.getMainClass()).append('\n');
+    stamp.append("arguments=").append(settings.getArguments()).append('\n');
+    stamp.append("target=").append(settings.getHaxeTarget()).append('\n');
+    stamp.append("nmeTarget=").append(settings.getNmeTarget()).append('\n');
+    stamp.append("nmeFlags=").append(settings.getNmeFlags()).append('\n');
+    stamp.append("openFLTarget=").append(settings.getOpenFLTarget()).append('\n');
+    stamp.append("openFLFlags=").append(settings.getOpenFLFlags()).append('\n');
+    stamp.append("outputFileName=").append(settings.getOutputFileName()).append('\n');
+    stamp.append("outputFolder=").append(settings.getOutputFolder()).append('\n');
+    final String buildFilePath = settings.isUseHxmlToBuild() ? settings.getHxmlPath()
+                               : settings.isUseNmmlToBuild() ? settings.getNmmlPath()
+                               : settings.isUseOpenFLToBuild() ? settings.getOpenFLPath()
+                               : null;
+    if (!StringUtil.isEmpty(buildFilePath)) {
+      // Build files needn't be under a source root, so their changes don't always make sources dirty.
+      stamp.append("buildFile=").append(buildFilePath).append('@').append(new File(buildFilePath).lastModified()).append('\n');
+    }
+    return stamp.toString();
+  }
+
+  @NotNull
+  private static File getConfigStampFile(@NotNull CompileContext context, @NotNull ModuleBuildTarget target) {
+    return new File(context.getProjectDescriptor().dataManager.getDataPaths().getTargetDataRoot(target), CONFIG_STAMP_FILE);
+  }
+
+  @Nullable
+  private static String readConfigStamp(@NotNull File file) {
+    if (!file.isFile()) {
+      return null;
     }
+    try {
+      return FileUtil.loadFile(file);
+    }
+    catch (IOException e) {
+      LOG.debug("Can't read " + file, e);
+      return null;
+    }
+  }
+
+  private static boolean isCompilable(@NotNull String fileName) {
+    return COMPILABLE_EXTENSIONS.contains(FileUtilRt.getExtension(fileName).toLowerCase());
+  }
+
+  /**
+   * Collects every Haxe source of the target, so that the output can be mapped back to them.
+   */
+  @NotNull
+  private static List<String> collectAllSources(@NotNull CompileContext context, @NotNull ModuleBuildTarget target) {
+    final List<String> result = new ArrayList<String>();
+    for (JavaSourceRootDescriptor root : context.getProjectDescriptor().getBuildRootIndex().getTargetRoots(target, context)) {
+      collectSources(root.getRootFile(), result);
+    }
+    return result;
+  }
+
+  private static void collectSources(@NotNull File dir, @NotNull List<String> result) {
+    final File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        collectSources(child, result);
+      }
+      else if (isCompilable(child.getName())) {
+        result.add(FileUtil.toSystemIndependentName(child.getPath()));
+      }
+    }
+  }
+
+  private boolean processModule(final CompileContext context,
+                                final ModuleBuildTarget target,
+                                final OutputConsumer outputConsumer) throws IOException {
+    final JpsModule module = target.getModule();
+    final boolean isDebugRunner = isDebugRunner(context);
+    final String testRunnerClass = context.getBuilderParameter(HaxeCommonCompilerUtil.TEST_RUNNER_CLASS_PARAMETER);
+    final boolean isTestBuild = !StringUtil.isEmpty(testRunnerClass) &&
+                                module.getName().equals(context.getBuilderParameter(HaxeCommonCompilerUtil.TEST_MODULE_PARAMETER));
     final JpsHaxeModuleSettings moduleSettings = JpsHaxeUtil.getModuleSettings(module);
     if (moduleSettings == null) {
       context.processMessage(new CompilerMessage(
@@ -133,17 +280,21 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
 
       @Override
       public String getCompilationClass() {
-        return getModuleSettings().getMainClass();
+        return getIsTestBuild() ? testRunnerClass : getModuleSettings().getMainClass();
       }
 
       @Override
       public String getOutputFileName() {
-        return getModuleSettings().getOutputFileName();
+        final String fileName = getModuleSettings().getOutputFileName();
+        if (getHaxeTarget() != null && fileName != null) {
+          return getHaxeTarget().getTargetFileNameWithExtension(FileUtil.getNameWithoutExtension(fileName));
+        }
+        return fileName;
       }
 
       @Override
       public Boolean getIsTestBuild() {
-        return false;
+        return isTestBuild;
       }
 
       @Override
@@ -212,24 +363,22 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
       }
 
       @Override
-      public void handleOutput(String[] lines) {
-        /*for (String error : lines) {
-          final HaxeCompilerError compilerError = HaxeCompilerError.create(StringUtil.notNullize(getErrorRoot()), error);
-          context.processMessage(new CompilerMessage(
-            BUILDER_NAME,
-            BuildMessage.Kind.WARNING,
-            compilerError != null ? compilerError.getErrorMessage() : error,
-            compilerError != null ? compilerError.getPath() : null,
-            -1L, -1L, -1L,
-            compilerError != null ? (long)compilerError.getLine() : -1L,
-            compilerError != null ? (long)compilerError.getColumn() : -1L
-          ));
-        }*/
+      public void handleOutput(@NotNull HaxeCompilerError error) {
+        context.processMessage(new CompilerMessage(
+          BUILDER_NAME,
+          getMessageKind(error.getCategory()),
+          error.getErrorMessage(),
+          error.getPath().isEmpty() ? null : error.getPath(),
+          -1L, -1L, -1L,
+          (long)error.getLine(),
+          (long)error.getColumn()
+        ));
       }
 
       @Override
       public HaxeTarget getHaxeTarget() {
-        return getModuleSettings().getHaxeTarget();
+        // actually only neko target is supported for tests
+        return getIsTestBuild() ? HaxeTarget.NEKO : getModuleSettings().getHaxeTarget();
       }
 
       @Override
@@ -246,8 +395,48 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
 
     if (!compiled) {
       context.processMessage(new CompilerMessage(BUILDER_NAME, BuildMessage.Kind.ERROR, "compilation failed"));
+      return false;
     }
 
-    return compiled;
+    registerOutput(context, target, outputConsumer, moduleSettings, isDebugRunner, isTestBuild);
+    return true;
+  }
+
+  /**
+   * Maps the module's sources to the produced output, so that JPS can clean it up and
+   * check it for staleness.  Only builds driven by the user properties have an output
+   * path we know of; hxml, nmml and OpenFL builds decide it themselves.
+   */
+  private static void registerOutput(@NotNull CompileContext context,
+                                     @NotNull ModuleBuildTarget target,
+                                     @NotNull OutputConsumer outputConsumer,
+                                     @NotNull JpsHaxeModuleSettings settings,
+                                     boolean isDebug,
+                                     boolean isTestBuild) throws IOException {
+    if (!settings.isUseUserPropertiesToBuild() || isTestBuild) {
+      return;
+    }
+    final HaxeTarget haxeTarget = settings.getHaxeTarget();
+    final String fileName = settings.getOutputFileName();
+    final String outputRootUrl = JpsJavaExtensionService.getInstance().getOutputUrl(target.getModule(), false);
+    if (haxeTarget == null || StringUtil.isEmpty(fileName) || outputRootUrl == null) {
+      return;
+    }
+    final File outputFile = new File(JpsPathUtil.urlToPath(outputRootUrl) + "/" + (isDebug ? "debug" : "release"),
+                                     haxeTarget.getTargetFileNameWithExtension(FileUtil.getNameWithoutExtension(fileName)));
+    if (outputFile.exists()) {
+      outputConsumer.registerOutputFile(target, outputFile, collectAllSources(context, target));
+    }
+  }
+
+  private static BuildMessage.Kind getMessageKind(@NotNull CompilerMessageCategory category) {
+    switch (category) {
+      case ERROR:
+        return BuildMessage.Kind.ERROR;
+      case WARNING:
+        return BuildMessage.Kind.WARNING;
+      default:
+        return BuildMessage.Kind.INFO;
+    }
   }
 }
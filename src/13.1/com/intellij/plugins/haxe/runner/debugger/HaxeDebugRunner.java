@@ -48,6 +48,7 @@ import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.runner.HaxeApplicationConfiguration;
 import com.intellij.plugins.haxe.runner.NMERunningState;
 import com.intellij.plugins.haxe.runner.OpenFLRunningState;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
@@ -503,6 +504,7 @@ public class HaxeDebugRunner extends DefaultProgramRunner
                         mDeferredQueue.add(Pair.create(command, listener));
                         return;
                     }
+                    listener.mSentAt = HaxeMetrics.DEBUGGER_ROUND_TRIP.start();
                     mListenerQueue.add(listener);
                     JavaProtocol.writeCommand(mDebugSocket.getOutputStream(),
                                               command);
@@ -598,6 +600,7 @@ public class HaxeDebugRunner extends DefaultProgramRunner
                         break;
                     }
                     else {
+                        HaxeMetrics.DEBUGGER_ROUND_TRIP.stop(listener.mSentAt);
                         listener.handleMessage(messageId, message);
                     }
                 }
@@ -719,6 +722,9 @@ public class HaxeDebugRunner extends DefaultProgramRunner
 
         private abstract class MessageListener
         {
+            // When the command was written; see HaxeMetrics.Histogram.start().
+            long mSentAt = HaxeMetrics.Histogram.NOT_MEASURED;
+
             public abstract void handleMessage(int messageId,
                                                debugger.Message message);
         }
@@ -17,25 +17,49 @@
  */
 package com.intellij.plugins.haxe.compilation;
 
+import com.intellij.compiler.options.CompileStepBeforeRun;
+import com.intellij.execution.ExecutorRegistry;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.execution.executors.DefaultDebugExecutor;
 import com.intellij.openapi.compiler.CompileContext;
+import com.intellij.openapi.compiler.CompileScope;
 import com.intellij.openapi.compiler.CompileTask;
-import com.intellij.openapi.compiler.FileProcessingCompiler;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.Key;
+import com.intellij.plugins.haxe.tests.runner.HaxeTestsConfiguration;
+import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
 
 /**
  * Created by as3boyan on 03.08.14.
+ *
+ * Compilation itself happens in the external build process (see HaxeModuleLevelBuilder
+ * in jps-plugin).  This task only hands over what the build process can't know by
+ * itself: whether we are starting the debugger and which test runner to build.
  */
 public class HaxeCompilerTask implements CompileTask {
-
-  static HaxeCompiler haxeCompiler;
+  private static final Key<String> RUNNER_ID = Key.create(HaxeCommonCompilerUtil.RUNNER_ID_PARAMETER);
+  private static final Key<String> TEST_MODULE = Key.create(HaxeCommonCompilerUtil.TEST_MODULE_PARAMETER);
+  private static final Key<String> TEST_RUNNER_CLASS = Key.create(HaxeCommonCompilerUtil.TEST_RUNNER_CLASS_PARAMETER);
 
   @Override
   public boolean execute(CompileContext context) {
-    if (haxeCompiler == null) {
-      haxeCompiler = new HaxeCompiler();
+    final CompileScope scope = context.getCompileScope();
+
+    final boolean isDebug = ExecutorRegistry.getInstance()
+      .isStarting(context.getProject(), DefaultDebugExecutor.EXECUTOR_ID, HaxeCommonCompilerUtil.DEBUG_RUNNER_ID);
+    if (isDebug) {
+      scope.putUserData(RUNNER_ID, HaxeCommonCompilerUtil.DEBUG_RUNNER_ID);
+    }
+
+    final RunConfiguration runConfiguration = CompileStepBeforeRun.getRunConfiguration(scope);
+    if (runConfiguration instanceof HaxeTestsConfiguration) {
+      final HaxeTestsConfiguration testsConfiguration = (HaxeTestsConfiguration)runConfiguration;
+      final Module module = testsConfiguration.getConfigurationModule().getModule();
+      if (module != null && testsConfiguration.getRunnerClass() != null) {
+        scope.putUserData(TEST_MODULE, module.getName());
+        scope.putUserData(TEST_RUNNER_CLASS, testsConfiguration.getRunnerClass());
+      }
     }
-    
-    FileProcessingCompiler.ProcessingItem[] processingItems = haxeCompiler.getProcessingItems(context);
-    haxeCompiler.process(context, processingItems);
     return true;
   }
 }
@@ -22,11 +22,14 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.containers.ContainerUtil;
+import gnu.trove.THashMap;
 import gnu.trove.THashSet;
 import org.jdom.Element;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * @author: Fedor.Korotkov
@@ -41,7 +44,10 @@ import java.util.Set;
 public class HaxeProjectSettings implements PersistentStateComponent<Element> {
   public static final String HAXE_SETTINGS = "HaxeProjectSettings";
   public static final String DEFINES = "defines";
+  public static final String HIERARCHY_BUDGETS = "hierarchyBudgets";
   private String userCompilerDefinitions = "";
+  // Hierarchy search kind to its time budget in seconds, for kinds that don't use the default.
+  private final Map<String, Integer> hierarchySearchBudgets = new THashMap<String, Integer>();
 
   public Set<String> getUserCompilerDefinitionsAsSet() {
     return new THashSet<String>(Arrays.asList(getUserCompilerDefinitions()));
@@ -64,15 +70,51 @@ public class HaxeProjectSettings implements PersistentStateComponent<Element> {
     }), ",");
   }
 
+  public synchronized int getHierarchySearchBudget(String searchKind, int defaultSeconds) {
+    final Integer seconds = hierarchySearchBudgets.get(searchKind);
+    return seconds != null ? seconds : defaultSeconds;
+  }
+
+  public synchronized void setHierarchySearchBudget(String searchKind, int seconds) {
+    if (seconds > 0) {
+      hierarchySearchBudgets.put(searchKind, seconds);
+    }
+    else {
+      hierarchySearchBudgets.remove(searchKind);
+    }
+  }
+
   @Override
-  public void loadState(Element state) {
+  public synchronized void loadState(Element state) {
     userCompilerDefinitions = state.getAttributeValue(DEFINES, "");
+    hierarchySearchBudgets.clear();
+    // kind=seconds,kind=seconds
+    for (String budget : state.getAttributeValue(HIERARCHY_BUDGETS, "").split(",")) {
+      final int separator = budget.indexOf('=');
+      if (separator > 0) {
+        try {
+          setHierarchySearchBudget(budget.substring(0, separator).trim(), Integer.parseInt(budget.substring(separator + 1).trim()));
+        }
+        catch (NumberFormatException ignored) {
+        }
+      }
+    }
   }
 
   @Override
-  public Element getState() {
+  public synchronized Element getState() {
     final Element element = new Element(HAXE_SETTINGS);
     element.setAttribute(DEFINES, userCompilerDefinitions);
+    if (!hierarchySearchBudgets.isEmpty()) {
+      final StringBuilder budgets = new StringBuilder();
+      for (Map.Entry<String, Integer> entry : new TreeMap<String, Integer>(hierarchySearchBudgets).entrySet()) {
+        if (budgets.length() > 0) {
+          budgets.append(',');
+        }
+        budgets.append(entry.getKey()).append('=').append(entry.getValue());
+      }
+      element.setAttribute(HIERARCHY_BUDGETS, budgets.toString());
+    }
     return element;
   }
 }
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs external commands (haxe, haxelib, lime, ...) for the plugin.
+ *
+ * Every run has a deadline, is killed when the current progress indicator is
+ * canceled, and streams its output line by line to a listener as it arrives.
+ * The number of processes running at the same time is bounded, so that a burst
+ * of completion requests can't fork dozens of compilers at once.
+ */
+public class HaxeProcessExecutor {
+
+  static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.haxelib.HaxeProcessExecutor");
+
+  /** Deadline for commands that don't ask for a specific one. */
+  public static final long DEFAULT_TIMEOUT_MS = 30000;
+
+  /** How many external processes may run at the same time. */
+  public static final int MAX_CONCURRENT_PROCESSES = 4;
+
+  /** How often a waiting call checks for cancellation and its deadline. */
+  private static final long POLL_INTERVAL_MS = 50;
+
+  /** How long we wait for the output readers once the process is gone. */
+  private static final long READER_DRAIN_MS = 1000;
+
+  private static final Semaphore ourPermits = new Semaphore(MAX_CONCURRENT_PROCESSES, true);
+
+  /**
+   * Receives the output of a command, one line at a time.  Called on a pooled
+   * thread; the two streams of a process are delivered by different threads.
+   */
+  public interface LineListener {
+    void onLine(@NotNull String line, boolean isStderr);
+  }
+
+  /**
+   * How a run ended.
+   */
+  public static class Result {
+    public static final int TIMED_OUT = -1;
+    public static final int NOT_STARTED = -2;
+
+    private final int myExitCode;
+
+    private Result(int exitCode) {
+      myExitCode = exitCode;
+    }
+
+    /**
+     * @return the exit code of the process, or one of TIMED_OUT/NOT_STARTED.
+     */
+    public int getExitCode() {
+      return myExitCode;
+    }
+
+    public boolean isTimedOut() {
+      return myExitCode == TIMED_OUT;
+    }
+
+    public boolean isSuccess() {
+      return myExitCode == 0;
+    }
+  }
+
+  private HaxeProcessExecutor() {
+  }
+
+  /**
+   * Run a command, streaming its output to the listener.
+   *
+   * @param commandLineArguments a command and its arguments.
+   * @param dir directory in which to run the command; IDEA's current directory if null.
+   * @param timeoutMs how long the command may take, including waiting for a free slot.
+   * @param redirectErrorStream whether stderr should be merged into stdout (keeping
+   *                            the relative order of the lines).
+   * @param listener receives the output lines; may be null if the output is of no interest.
+   * @return how the run ended.
+   * @throws ProcessCanceledException if the progress indicator of the calling thread is
+   *                                  canceled; the process is killed first.
+   */
+  @NotNull
+  public static Result execute(@NotNull List<String> commandLineArguments,
+                               @Nullable File dir,
+                               long timeoutMs,
+                               boolean redirectErrorStream,
+                               @Nullable final LineListener listener) {
+    final long start = HaxeMetrics.EXTERNAL_PROCESS.start();
+    try {
+      final Result result = doExecute(commandLineArguments, dir, timeoutMs, redirectErrorStream, listener);
+      if (result.isTimedOut()) {
+        HaxeMetrics.PROCESS_TIMED_OUT.increment();
+      }
+      else if (result.getExitCode() == Result.NOT_STARTED) {
+        HaxeMetrics.PROCESS_NOT_STARTED.increment();
+      }
+      return result;
+    }
+    finally {
+      HaxeMetrics.EXTERNAL_PROCESS.stop(start);
+    }
+  }
+
+  @NotNull
+  private static Result doExecute(@NotNull List<String> commandLineArguments,
+                                  @Nullable File dir,
+                                  long timeoutMs,
+                                  boolean redirectErrorStream,
+                                  @Nullable final LineListener listener) {
+    final long deadline = System.currentTimeMillis() + timeoutMs;
+    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+
+    if (!acquirePermit(deadline, indicator)) {
+      LOG.warn("Timed out waiting to run " + commandLineArguments);
+      return new Result(Result.TIMED_OUT);
+    }
+    try {
+      ProcessBuilder builder = new ProcessBuilder(commandLineArguments);
+      builder.redirectErrorStream(redirectErrorStream);
+      if (dir != null) {
+        builder = builder.directory(dir);
+      }
+
+      final Process process;
+      try {
+        process = builder.start();
+      }
+      catch (IOException e) {
+        LOG.info("Could not start " + commandLineArguments + ": " + e.getMessage());
+        return new Result(Result.NOT_STARTED);
+      }
+
+      final Future<?> stdoutReader = startReader(process.getInputStream(), false, listener);
+      final Future<?> stderrReader = startReader(process.getErrorStream(), true, listener);
+
+      try {
+        Integer exitCode = waitFor(process, deadline, indicator);
+        if (exitCode == null) {
+          LOG.warn("Killed " + commandLineArguments + " after " + timeoutMs + "ms");
+          process.destroy();
+          return new Result(Result.TIMED_OUT);
+        }
+        // Let the readers deliver whatever is left in the pipes.
+        awaitReader(stdoutReader);
+        awaitReader(stderrReader);
+        return new Result(exitCode);
+      }
+      catch (ProcessCanceledException e) {
+        process.destroy();
+        throw e;
+      }
+    }
+    finally {
+      ourPermits.release();
+    }
+  }
+
+  private static boolean acquirePermit(long deadline, @Nullable ProgressIndicator indicator) {
+    try {
+      while (!ourPermits.tryAcquire(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        checkCanceled(indicator);
+        if (System.currentTimeMillis() > deadline) {
+          return false;
+        }
+      }
+      return true;
+    }
+    catch (InterruptedException e) {
+      throw new ProcessCanceledException();
+    }
+  }
+
+  /**
+   * @return the exit code, or null if the deadline passed first.
+   */
+  @Nullable
+  private static Integer waitFor(@NotNull Process process, long deadline, @Nullable ProgressIndicator indicator) {
+    while (true) {
+      try {
+        return process.exitValue();
+      }
+      catch (IllegalThreadStateException e) {
+        // Still running.
+      }
+      checkCanceled(indicator);
+      if (System.currentTimeMillis() > deadline) {
+        return null;
+      }
+      try {
+        Thread.sleep(POLL_INTERVAL_MS);
+      }
+      catch (InterruptedException e) {
+        throw new ProcessCanceledException();
+      }
+    }
+  }
+
+  private static void checkCanceled(@Nullable ProgressIndicator indicator) {
+    if (indicator != null) {
+      indicator.checkCanceled();
+    }
+  }
+
+  @NotNull
+  private static Future<?> startReader(@NotNull final InputStream stream,
+                                       final boolean isStderr,
+                                       @Nullable final LineListener listener) {
+    return ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+      @Override
+      public void run() {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+        try {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            // Even if nobody listens, the pipe has to be drained or the process blocks.
+            if (listener != null) {
+              listener.onLine(line, isStderr);
+            }
+          }
+        }
+        catch (IOException e) {
+          // The stream is closed when the process is killed.
+          LOG.debug(e);
+        }
+        finally {
+          try {
+            reader.close();
+          }
+          catch (IOException e) {
+            LOG.debug(e);
+          }
+        }
+      }
+    });
+  }
+
+  private static void awaitReader(@NotNull Future<?> reader) {
+    try {
+      reader.get(READER_DRAIN_MS, TimeUnit.MILLISECONDS);
+    }
+    catch (InterruptedException e) {
+      throw new ProcessCanceledException();
+    }
+    catch (ExecutionException e) {
+      LOG.debug(e);
+    }
+    catch (TimeoutException e) {
+      // Some grandchild holds on to the pipe.  Don't wait for it.
+      LOG.debug("Output reader didn't finish in time.");
+    }
+  }
+}
@@ -0,0 +1,644 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Reads the libraries and source paths out of an NME/OpenFL/Lime project file
+ * (project.xml, *.nmml) without running the build tool.
+ *
+ * Follows <code>&lt;include&gt;</code>s and <code>&lt;section&gt;</code>s,
+ * and, given the haxelib repository, the <code>include.xml</code> of each
+ * library as the tools do.  Evaluates the <code>if</code>/<code>unless</code> conditions the way the
+ * tools do: <code>||</code> separates alternatives, spaces or <code>&amp;&amp;</code>
+ * separate required defines, and <code>!</code> negates one.  Defines start with
+ * the ones for the build target and are changed by <code>&lt;set&gt;</code>,
+ * <code>&lt;define&gt;</code> and <code>&lt;unset&gt;</code> as the file is read.
+ *
+ * Each file is read with a streaming parser into just the elements that matter
+ * here, and kept per content hash; a file whose content hasn't changed is not
+ * parsed again, however often the project is evaluated.  A file open in an
+ * editor with unsaved changes is read from its document.
+ */
+public class HaxeProjectXmlEvaluator {
+  static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.haxelib.HaxeProjectXmlEvaluator");
+
+  private static final int MAX_PARSED_FILES = 256;
+  private static final int MAX_INCLUDE_DEPTH = 32;
+  private static final String INCLUDE_FILE = "include.xml";
+
+  private static final Set<String> RELEVANT_ELEMENTS = new HashSet<String>(Arrays.asList(
+    "section", "haxelib", "classpath", "source", "include", "set", "define", "unset"));
+
+  private static final HaxeProjectXmlEvaluator INSTANCE = new HaxeProjectXmlEvaluator();
+
+  // Guarded by itself.
+  private final Map<String, ParsedFile> myParsedFiles = new LinkedHashMap<String, ParsedFile>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, ParsedFile> eldest) {
+      return size() > MAX_PARSED_FILES;
+    }
+  };
+  // Root file to every file read when it was last evaluated.  Guarded by itself.
+  private final Map<String, Set<String>> myReadFiles = new HashMap<String, Set<String>>();
+
+  @NotNull
+  public static HaxeProjectXmlEvaluator getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the defines that the build tools set for a target.
+   *
+   * @param targetFlag the target as given on the command line, e.g. "flash".
+   * @param flags additional command line flags; -D defines and -debug are picked up.
+   * @return the defines, to pass to {@link #evaluate}.
+   */
+  @NotNull
+  public static Set<String> getTargetDefines(@NotNull String targetFlag, @Nullable String flags) {
+    Set<String> defines = new HashSet<String>();
+    if (!targetFlag.isEmpty()) {
+      defines.add(targetFlag);
+    }
+    if ("flash".equals(targetFlag) || "html5".equals(targetFlag) || "emscripten".equals(targetFlag)) {
+      defines.add("web");
+    }
+    else if ("ios".equals(targetFlag) || "android".equals(targetFlag) || "webos".equals(targetFlag)
+             || "blackberry".equals(targetFlag) || "tizen".equals(targetFlag)) {
+      defines.add("mobile");
+      defines.add("cpp");
+    }
+    else if ("windows".equals(targetFlag) || "mac".equals(targetFlag) || "linux".equals(targetFlag)) {
+      defines.add("desktop");
+      defines.add("cpp");
+    }
+    else if ("neko".equals(targetFlag)) {
+      defines.add("desktop");
+    }
+
+    if (null != flags) {
+      StringTokenizer tokenizer = new StringTokenizer(flags);
+      while (tokenizer.hasMoreTokens()) {
+        String flag = tokenizer.nextToken();
+        if (flag.equals("-debug")) {
+          defines.add("debug");
+        }
+        else if (flag.equals("-D") && tokenizer.hasMoreTokens()) {
+          defines.add(stripValue(tokenizer.nextToken()));
+        }
+        else if (flag.startsWith("-D") && flag.length() > 2) {
+          defines.add(stripValue(flag.substring(2)));
+        }
+      }
+    }
+    return defines;
+  }
+
+  private static String stripValue(@NotNull String define) {
+    int equals = define.indexOf('=');
+    return equals < 0 ? define : define.substring(0, equals);
+  }
+
+  /**
+   * Evaluate a project file.
+   *
+   * @param file the project file.
+   * @param defines the defines to start with; see {@link #getTargetDefines}.
+   * @return what the project asks for, or null if the file could not be read
+   *         or is not well formed.  Included files that can't be read are skipped.
+   */
+  @Nullable
+  public Result evaluate(@NotNull File file, @NotNull Collection<String> defines) {
+    return evaluate(file, defines, null);
+  }
+
+  /**
+   * Evaluate a project file, following the <code>include.xml</code> of the
+   * haxelibs it asks for.
+   *
+   * @param file the project file.
+   * @param defines the defines to start with; see {@link #getTargetDefines}.
+   * @param repository to find the haxelibs in; null to not follow them.
+   * @return what the project asks for, or null if the file could not be read
+   *         or is not well formed.  Included files that can't be read are skipped.
+   */
+  @Nullable
+  public Result evaluate(@NotNull File file, @NotNull Collection<String> defines, @Nullable HaxelibRepository repository) {
+    ParsedFile parsed = getParsedFile(file);
+    if (null == parsed) {
+      return null;
+    }
+    State state = new State(defines, repository);
+    evaluateFile(file, parsed, state, 0);
+
+    synchronized (myReadFiles) {
+      myReadFiles.put(getPath(file), new HashSet<String>(state.myFiles));
+    }
+    return new Result(new ArrayList<String>(state.myHaxelibs),
+                      new ArrayList<String>(state.myClasspaths),
+                      new ArrayList<String>(state.myFiles));
+  }
+
+  /**
+   * Tell whether a file was read when a project file was last evaluated, either
+   * because it is the project file itself or because it was included.
+   *
+   * @param projectFile the project file.
+   * @param path system independent path of the file to look for.
+   */
+  public boolean isReadFrom(@NotNull File projectFile, @NotNull String path) {
+    String projectFilePath = getPath(projectFile);
+    synchronized (myReadFiles) {
+      Set<String> files = myReadFiles.get(projectFilePath);
+      return null != files && files.contains(path);
+    }
+  }
+
+  private void evaluateFile(@NotNull File file, @NotNull ParsedFile parsed, @NotNull State state, int depth) {
+    String path = getPath(file);
+    state.myFiles.add(path);
+    if (!state.myIncludeStack.add(path)) {
+      LOG.debug("Include cycle through " + path);
+      return;
+    }
+    evaluateChildren(parsed.myRoot, file.getParentFile(), state, depth);
+    state.myIncludeStack.remove(path);
+  }
+
+  private void evaluateChildren(@NotNull Element element, @Nullable File dir, @NotNull State state, int depth) {
+    for (Element child : element.myChildren) {
+      if (!isEnabled(child, state)) {
+        continue;
+      }
+      String name = child.myName;
+      if (name.equals("section")) {
+        evaluateChildren(child, dir, state, depth);
+      }
+      else if (name.equals("haxelib")) {
+        addHaxelib(child.getAttribute("name"), state, depth);
+      }
+      else if (name.equals("classpath") || name.equals("source")) {
+        String sourcePath = child.getAttribute("path");
+        if (null == sourcePath) {
+          sourcePath = child.getAttribute("name");
+        }
+        File sourceDir = resolve(dir, sourcePath, state);
+        if (null != sourceDir) {
+          state.myClasspaths.add(getPath(sourceDir));
+        }
+      }
+      else if (name.equals("include")) {
+        addHaxelib(child.getAttribute("haxelib"), state, depth);
+        String includePath = child.getAttribute("path");
+        if (null == includePath) {
+          includePath = child.getAttribute("name");
+        }
+        include(resolve(dir, includePath, state), state, depth + 1);
+      }
+      else if (name.equals("set") || name.equals("define")) {
+        String define = child.getAttribute("name");
+        if (null != define && !define.isEmpty()) {
+          state.myDefines.add(define);
+          String value = child.getAttribute("value");
+          state.myValues.put(define, null == value ? "" : substitute(value, state));
+        }
+      }
+      else if (name.equals("unset")) {
+        String define = child.getAttribute("name");
+        if (null != define) {
+          state.myDefines.remove(define);
+          state.myValues.remove(define);
+        }
+      }
+    }
+  }
+
+  /**
+   * Add a haxelib, and read its <code>include.xml</code> the first time it is
+   * asked for.
+   */
+  private void addHaxelib(@Nullable String library, @NotNull State state, int depth) {
+    if (null == library || library.isEmpty()) {
+      return;
+    }
+    library = substitute(library, state);
+    if (!state.myHaxelibs.add(library) || null == state.myRepository) {
+      return;
+    }
+    File libraryDir = state.myRepository.getLibraryDirectory(library);
+    if (null != libraryDir) {
+      File include = new File(libraryDir, INCLUDE_FILE);
+      if (include.isFile()) {
+        include(include, state, depth + 1);
+      }
+    }
+  }
+
+  private void include(@Nullable File file, @NotNull State state, int depth) {
+    if (null == file) {
+      return;
+    }
+    if (file.isDirectory()) {
+      file = new File(file, INCLUDE_FILE);
+    }
+    if (depth > MAX_INCLUDE_DEPTH) {
+      LOG.debug("Includes nested too deep at " + file.getPath());
+      return;
+    }
+    ParsedFile parsed = getParsedFile(file);
+    if (null == parsed) {
+      LOG.debug("Skipping unreadable include " + file.getPath());
+      return;
+    }
+    evaluateFile(file, parsed, state, depth);
+  }
+
+  @Nullable
+  private static File resolve(@Nullable File dir, @Nullable String path, @NotNull State state) {
+    if (null == path || path.isEmpty()) {
+      return null;
+    }
+    path = substitute(path, state);
+    if (path.contains("${")) {
+      // Refers to something we can't know without the build tool, e.g. ${haxelib:name}.
+      return null;
+    }
+    File file = new File(path);
+    if (!file.isAbsolute() && null != dir) {
+      file = new File(dir, path);
+    }
+    return file;
+  }
+
+  /**
+   * Replace <code>${name}</code> with the value of a <code>&lt;set&gt;</code>
+   * define, or of an environment variable.  Unknown references are left alone.
+   */
+  @NotNull
+  static String substitute(@NotNull String text, @NotNull State state) {
+    int start = text.indexOf("${");
+    if (start < 0) {
+      return text;
+    }
+    StringBuilder result = new StringBuilder(text.length());
+    int last = 0;
+    while (start >= 0) {
+      int end = text.indexOf('}', start);
+      if (end < 0) {
+        break;
+      }
+      String name = text.substring(start + 2, end);
+      String value = state.myValues.get(name);
+      if (null == value) {
+        value = System.getenv(name);
+      }
+      result.append(text, last, start);
+      result.append(null == value ? text.substring(start, end + 1) : value);
+      last = end + 1;
+      start = text.indexOf("${", last);
+    }
+    result.append(text, last, text.length());
+    return result.toString();
+  }
+
+  private static boolean isEnabled(@NotNull Element element, @NotNull State state) {
+    String condition = element.getAttribute("if");
+    if (null != condition && !matches(condition, state.myDefines)) {
+      return false;
+    }
+    condition = element.getAttribute("unless");
+    return null == condition || !matches(condition, state.myDefines);
+  }
+
+  /**
+   * Evaluate an <code>if</code>/<code>unless</code> condition against a set of defines.
+   */
+  static boolean matches(@NotNull String condition, @NotNull Set<String> defines) {
+    for (String alternative : condition.split("\\|\\|")) {
+      boolean matched = true;
+      boolean empty = true;
+      for (String required : alternative.split("&&|\\s+")) {
+        required = required.trim();
+        if (required.isEmpty()) {
+          continue;
+        }
+        empty = false;
+        boolean negated = required.startsWith("!");
+        String define = negated ? required.substring(1) : required;
+        if (defines.contains(define) == negated) {
+          matched = false;
+          break;
+        }
+      }
+      if (matched && !empty) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get a parsed file, parsing it only if its content changed since it was last seen.
+   *
+   * @return the parsed file, or null if it can't be read or is not well formed.
+   */
+  @Nullable
+  private ParsedFile getParsedFile(@NotNull File file) {
+    String path = getPath(file);
+    if (!file.isFile()) {
+      forget(path);
+      return null;
+    }
+    ParsedFile cached;
+    synchronized (myParsedFiles) {
+      cached = myParsedFiles.get(path);
+    }
+
+    long stamp;
+    long length;
+    byte[] content = loadUnsavedContent(file);
+    if (null != content) {
+      // Never matches a time stamp, so the file is looked at again once saved.
+      stamp = -1;
+      length = content.length;
+    }
+    else {
+      stamp = file.lastModified();
+      length = file.length();
+      if (null != cached && cached.myStamp == stamp && cached.myLength == length) {
+        return cached;
+      }
+      try {
+        content = FileUtil.loadFileBytes(file);
+      }
+      catch (IOException e) {
+        LOG.debug("Can't read " + path, e);
+        forget(path);
+        return null;
+      }
+    }
+    byte[] digest = digest(content);
+
+    ParsedFile parsed;
+    if (null != cached && Arrays.equals(cached.myDigest, digest)) {
+      // Touched, but not changed.
+      parsed = new ParsedFile(stamp, length, digest, cached.myRoot);
+    }
+    else {
+      Element root = parse(content, path);
+      if (null == root) {
+        forget(path);
+        return null;
+      }
+      parsed = new ParsedFile(stamp, length, digest, root);
+    }
+    synchronized (myParsedFiles) {
+      myParsedFiles.put(path, parsed);
+    }
+    return parsed;
+  }
+
+  /**
+   * @return the content of the file's document, if it is open with unsaved
+   *         changes; null to read the file from disk.
+   */
+  @Nullable
+  private static byte[] loadUnsavedContent(@NotNull final File file) {
+    Application application = ApplicationManager.getApplication();
+    if (null == application) {
+      return null;
+    }
+    return application.runReadAction(new Computable<byte[]>() {
+      @Override
+      public byte[] compute() {
+        VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByIoFile(file);
+        if (null == virtualFile) {
+          return null;
+        }
+        FileDocumentManager manager = FileDocumentManager.getInstance();
+        Document document = manager.getCachedDocument(virtualFile);
+        if (null == document || !manager.isDocumentUnsaved(document)) {
+          return null;
+        }
+        return document.getText().getBytes(virtualFile.getCharset());
+      }
+    });
+  }
+
+  private void forget(@NotNull String path) {
+    synchronized (myParsedFiles) {
+      myParsedFiles.remove(path);
+    }
+  }
+
+  @NotNull
+  private static byte[] digest(@NotNull byte[] content) {
+    try {
+      return MessageDigest.getInstance("MD5").digest(content);
+    }
+    catch (NoSuchAlgorithmException e) {
+      // Every JRE has MD5; fall back to something that at least changes with the content.
+      return Integer.toString(Arrays.hashCode(content)).getBytes();
+    }
+  }
+
+  /**
+   * Stream through the XML, keeping only the elements that the evaluation
+   * looks at: those of {@link #RELEVANT_ELEMENTS} directly under the root
+   * element or under a section.
+   *
+   * @return the root element, or null if the content is not well formed.
+   */
+  @Nullable
+  static Element parse(@NotNull byte[] content, @NotNull String path) {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    XMLStreamReader reader = null;
+    try {
+      reader = factory.createXMLStreamReader(new ByteArrayInputStream(content));
+      Element root = null;
+      Deque<Element> open = new ArrayDeque<Element>();
+      int skippedDepth = 0;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          if (null == root) {
+            root = new Element(reader.getLocalName(), Collections.<String, String>emptyMap());
+            open.push(root);
+            continue;
+          }
+          String name = reader.getLocalName();
+          Element parent = open.peek();
+          boolean expanded = parent == root || parent.myName.equals("section");
+          if (skippedDepth > 0 || !expanded || !RELEVANT_ELEMENTS.contains(name)) {
+            skippedDepth++;
+            continue;
+          }
+          Map<String, String> attributes = new HashMap<String, String>();
+          for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+          }
+          Element element = new Element(name, attributes);
+          parent.myChildren.add(element);
+          open.push(element);
+        }
+        else if (event == XMLStreamConstants.END_ELEMENT) {
+          if (skippedDepth > 0) {
+            skippedDepth--;
+          }
+          else {
+            open.pop();
+          }
+        }
+      }
+      return root;
+    }
+    catch (XMLStreamException e) {
+      LOG.debug("Malformed project file " + path, e);
+      return null;
+    }
+    finally {
+      if (null != reader) {
+        try {
+          reader.close();
+        }
+        catch (XMLStreamException ignored) {
+        }
+      }
+    }
+  }
+
+  @NotNull
+  private static String getPath(@NotNull File file) {
+    String path;
+    try {
+      path = file.getCanonicalPath();
+    }
+    catch (IOException e) {
+      path = file.getAbsolutePath();
+    }
+    return FileUtil.toSystemIndependentName(path);
+  }
+
+  /**
+   * What a project file asks for.
+   */
+  public static class Result {
+    private final List<String> myHaxelibs;
+    private final List<String> myClasspaths;
+    private final List<String> myFiles;
+
+    Result(@NotNull List<String> haxelibs, @NotNull List<String> classpaths, @NotNull List<String> files) {
+      myHaxelibs = haxelibs;
+      myClasspaths = classpaths;
+      myFiles = files;
+    }
+
+    /**
+     * @return the names of the haxelibs, in order, without duplicates.
+     */
+    @NotNull
+    public List<String> getHaxelibs() {
+      return Collections.unmodifiableList(myHaxelibs);
+    }
+
+    /**
+     * @return the system independent paths of the source directories, in order, without duplicates.
+     */
+    @NotNull
+    public List<String> getClasspaths() {
+      return Collections.unmodifiableList(myClasspaths);
+    }
+
+    /**
+     * @return the system independent paths of the project file and every file it included.
+     */
+    @NotNull
+    public List<String> getFiles() {
+      return Collections.unmodifiableList(myFiles);
+    }
+  }
+
+  static final class State {
+    final Set<String> myDefines;
+    final Map<String, String> myValues = new HashMap<String, String>();
+    final Set<String> myHaxelibs = new LinkedHashSet<String>();
+    final Set<String> myClasspaths = new LinkedHashSet<String>();
+    final Set<String> myFiles = new LinkedHashSet<String>();
+    final Set<String> myIncludeStack = new HashSet<String>();
+    @Nullable final HaxelibRepository myRepository;
+
+    State(@NotNull Collection<String> defines, @Nullable HaxelibRepository repository) {
+      myDefines = new HashSet<String>(defines);
+      myRepository = repository;
+    }
+  }
+
+  static final class Element {
+    final String myName;
+    final Map<String, String> myAttributes;
+    final List<Element> myChildren = new ArrayList<Element>();
+
+    Element(@NotNull String name, @NotNull Map<String, String> attributes) {
+      myName = name;
+      myAttributes = attributes;
+    }
+
+    @Nullable
+    String getAttribute(@NotNull String name) {
+      return myAttributes.get(name);
+    }
+  }
+
+  private static final class ParsedFile {
+    final long myStamp;
+    final long myLength;
+    final byte[] myDigest;
+    final Element myRoot;
+
+    ParsedFile(long stamp, long length, @NotNull byte[] digest, @NotNull Element root) {
+      myStamp = stamp;
+      myLength = length;
+      myDigest = digest;
+      myRoot = root;
+    }
+  }
+}
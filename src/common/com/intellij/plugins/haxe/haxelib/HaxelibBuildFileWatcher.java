@@ -0,0 +1,185 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentAdapter;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
+import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Watches the build files (.nmml, OpenFL project.xml, .hxml) that the Haxe
+ * modules of a project are configured with, and resynchronizes the libraries
+ * of a module when its build file changes, either on disk or in an editor.
+ * Files included by a project.xml or .nmml count as part of it.
+ *
+ * Changes are collected for a short while before the resync starts, so that
+ * typing in a build file, or saving it right after, results in a single
+ * resync.  The resync itself only writes when the libraries differ from
+ * the last ones read; see {@link HaxelibProjectUpdater#resyncModules}.
+ */
+final class HaxelibBuildFileWatcher implements Disposable {
+  static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.haxelib.HaxelibBuildFileWatcher");
+
+  private static final int RESYNC_DELAY_MS = 500;
+
+  private final Project myProject;
+  private final Alarm myAlarm;
+  // Accessed on the AWT thread only.
+  private final Set<Module> myChangedModules = new LinkedHashSet<Module>();
+
+  HaxelibBuildFileWatcher(@NotNull Project project) {
+    myProject = project;
+    myAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+  }
+
+  void start() {
+    myProject.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          fileChanged(event.getPath());
+        }
+      }
+    });
+    EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentAdapter() {
+      @Override
+      public void documentChanged(DocumentEvent event) {
+        VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+        if (null != file) {
+          fileChanged(file.getPath());
+        }
+      }
+    }, this);
+  }
+
+  @Override
+  public void dispose() {
+    myChangedModules.clear();
+  }
+
+  /**
+   * Tell whether a file could be a build file, judging by its name only.
+   * Cheap enough to run on every keystroke.
+   */
+  static boolean isBuildFileName(@NotNull String path) {
+    return path.endsWith(".xml") || path.endsWith(".nmml") || path.endsWith(".hxml");
+  }
+
+  /**
+   * Get the build file that a module's libraries are read from.
+   *
+   * @param module to look up.
+   * @return the system independent path of the build file, or null if the
+   *         module is configured from properties, or with no file at all.
+   */
+  @Nullable
+  static String getBuildFilePath(@NotNull Module module) {
+    HaxeModuleSettings settings = HaxeModuleSettings.getInstance(module);
+    String path = null;
+    switch (settings.getBuildConfig()) {
+      case HaxeModuleSettings.USE_NMML:
+        path = settings.getNmmlPath();
+        break;
+      case HaxeModuleSettings.USE_OPENFL:
+        path = settings.getOpenFLPath();
+        break;
+      case HaxeModuleSettings.USE_HXML:
+        path = settings.getHxmlPath();
+        break;
+    }
+    return null == path || path.isEmpty() ? null : FileUtil.toSystemIndependentName(path);
+  }
+
+  private void fileChanged(@NotNull String path) {
+    if (!isBuildFileName(path) || myProject.isDisposed()) {
+      return;
+    }
+    boolean found = false;
+    for (Module module : ModuleUtil.getModulesOfType(myProject, HaxeModuleType.getInstance())) {
+      String buildFilePath = getBuildFilePath(module);
+      if (null != buildFilePath && (FileUtil.pathsEqual(buildFilePath, path) || isIncludedBy(buildFilePath, path))) {
+        myChangedModules.add(module);
+        found = true;
+      }
+    }
+    if (found) {
+      myAlarm.cancelAllRequests();
+      myAlarm.addRequest(new Runnable() {
+        @Override
+        public void run() {
+          resyncChangedModules();
+        }
+      }, RESYNC_DELAY_MS);
+    }
+  }
+
+  /**
+   * Tell whether a file was included by a project file, the last time the
+   * project file was read.
+   */
+  private static boolean isIncludedBy(@NotNull String buildFilePath, @NotNull String path) {
+    return !buildFilePath.endsWith(".hxml")
+           && HaxeProjectXmlEvaluator.getInstance().isReadFrom(new File(buildFilePath), path);
+  }
+
+  private void resyncChangedModules() {
+    if (myProject.isDisposed() || myChangedModules.isEmpty()) {
+      return;
+    }
+    final List<Module> modules = new ArrayList<Module>(myChangedModules);
+    myChangedModules.clear();
+
+    // Unsaved .hxml edits are read through the PSI, which must be up to date.  Project files are
+    // read straight from their documents; see HaxeProjectXmlEvaluator.
+    PsiDocumentManager.getInstance(myProject).commitAllDocuments();
+
+    LOG.debug("Build files changed for " + modules.size() + " module(s), resynchronizing.");
+    ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+      @Override
+      public void run() {
+        if (!myProject.isDisposed()) {
+          HaxelibProjectUpdater.getInstance().resyncModules(myProject, modules);
+        }
+      }
+    });
+  }
+}
@@ -29,6 +29,7 @@ import com.intellij.openapi.roots.RootProvider;
 import com.intellij.openapi.roots.impl.libraries.ProjectLibraryTable;
 import com.intellij.openapi.roots.libraries.Library;
 import com.intellij.openapi.roots.libraries.LibraryTable;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.hxml.HXMLFileType;
 import com.intellij.plugins.haxe.hxml.psi.HXMLClasspath;
@@ -40,6 +41,7 @@ import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
 import org.apache.log4j.Level;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.io.LocalFileFinder;
 
 import java.io.File;
@@ -58,6 +60,11 @@ public class HaxelibClasspathUtils {
     LOG.setLevel(Level.DEBUG);
   }
 
+  /**
+   * Project files that the build tools pick up when none is given, in order.
+   */
+  private static final String[] DEFAULT_PROJECT_FILES = {"project.xml", "Project.xml"};
+
   /**
    * Gets the libraries specified for the IDEA project; source paths and
    * class paths for project libraries excepting those named "haxelib|<lib_name>".
@@ -214,62 +221,97 @@ public class HaxelibClasspathUtils {
 
 
   /**
-   * Locate files and dependencies using 'haxelib path <name>'
+   * Locate files and dependencies of a library, as 'haxelib path <name>' would.
+   * The SDK's haxelib repository is read directly; the command is only run if
+   * the repository can't be located.
    *
    * @param name name of the base file or library to search for.
    * @return a set of path name URLs, may be an empty list.
    */
   @NotNull
   public static List<String> getHaxelibLibraryPathUrl(@NotNull Sdk sdk, @NotNull String name) {
-    List<String> strings = HaxelibCommandUtils.issueHaxelibCommand(sdk, "path",
-                                                                   name);
-    List<String> classpathUrls = new ArrayList<String>(strings.size());
-
-    for (String string : strings) {
-      if (!string.startsWith("-L") && !string.startsWith("-D")) {
-        VirtualFile file = LocalFileFinder.findFile(string);
-        if (file != null) {
-          classpathUrls.add(file.getUrl());
-        }
+    HaxeClasspath classpath = getHaxelibLibraryPath(sdk, name);
+    final List<String> classpathUrls = new ArrayList<String>(classpath.size());
+    classpath.iterate(new HaxeClasspath.Lambda() {
+      @Override
+      public boolean processEntry(HaxeClasspathEntry entry) {
+        classpathUrls.add(entry.getUrl());
+        return true;
       }
-    }
-
+    });
     return classpathUrls;
   }
 
   /**
-   * Locate files and dependencies using 'haxelib path <name>'
+   * Locate files and dependencies of a library, as 'haxelib path <name>' would.
+   * The SDK's haxelib repository is read directly; the command is only run if
+   * the repository can't be located.
    *
    * @param name name of the base file or library to search for.
    * @return a set of HaxelibItems, may be an empty list.
    */
   @NotNull
   public static HaxeClasspath getHaxelibLibraryPath(@NotNull Sdk sdk, @NotNull String name) {
-    List<String> strings = HaxelibCommandUtils.issueHaxelibCommand(sdk, "path", name);
-    HaxeClasspath classpath = new HaxeClasspath(strings.size());
-
-    for (String string : strings) {
-      if (!string.startsWith("-L") && !string.startsWith("-D")) {
-        VirtualFile file = LocalFileFinder.findFile(string);
-        if (file != null) {
-          // There are no duplicates in the return from haxelib, so no need to check contains().
-          classpath.add(new HaxelibItem(file.getPath(), file.getUrl()));
-        }
+    HaxelibRepository repository = HaxelibRepository.getInstance(sdk);
+    if (repository != null) {
+      return repository.getHaxelibClasspath(name);
+    }
+
+    List<String> paths = parseHaxelibPathOutput(HaxelibCommandUtils.issueHaxelibCommand(sdk, "path", name));
+    HaxeClasspath classpath = new HaxeClasspath(paths.size());
+
+    for (String path : paths) {
+      VirtualFile file = LocalFileFinder.findFile(path);
+      if (file != null) {
+        // There are no duplicates in the return from haxelib, so no need to check contains().
+        classpath.add(new HaxelibItem(file.getPath(), file.getUrl()));
       }
     }
 
     return classpath;
   }
 
+  /**
+   * Pick the class path directories out of the output of 'haxelib path',
+   * which mixes them with -L and -D compiler flags.
+   *
+   * @param output the lines written by haxelib.
+   * @return the class path directories, in order.
+   */
+  @NotNull
+  public static List<String> parseHaxelibPathOutput(@NotNull List<String> output) {
+    List<String> paths = new ArrayList<String>(output.size());
+    for (String string : output) {
+      if (!string.startsWith("-L") && !string.startsWith("-D") && !string.trim().isEmpty()) {
+        paths.add(string.trim());
+      }
+    }
+    return paths;
+  }
+
   /**
    * Retrieve the list of libraries known to 'haxelib', using the version of
-   * haxelib specified in the SDK.
+   * haxelib specified in the SDK.  The SDK's haxelib repository is read
+   * directly; the command is only run if the repository can't be located.
    *
    * @param sdk the SDK to get installed libraries from.
    * @return a (possibly empty) list of libraries
    */
   @NotNull
   public static List<String> getInstalledLibraries(@NotNull Sdk sdk) {
+    HaxelibRepository repository = HaxelibRepository.getInstance(sdk);
+    if (repository != null) {
+      return new ArrayList<String>(repository.getInstalledLibraries());
+    }
+    return parseHaxelibListOutput(HaxelibCommandUtils.issueHaxelibCommand(sdk, "list"));
+  }
+
+  /**
+   * @param output the lines written by 'haxelib list'.
+   * @return the library names, in order.
+   */
+  @NotNull
+  public static List<String> parseHaxelibListOutput(@NotNull List<String> output) {
 
     // haxelib list output looks like:
     //      lime-tools: 1.4.0 [1.5.6]
@@ -277,7 +319,7 @@ public class HaxelibClasspathUtils {
     // list of the available versions.
 
     List<String> installedHaxelibs = new ArrayList<String>();
-    for (String s : HaxelibCommandUtils.issueHaxelibCommand(sdk, "list")) {
+    for (String s : output) {
       installedHaxelibs.add(s.split(":")[0]);
     }
 
@@ -311,6 +353,12 @@ public class HaxelibClasspathUtils {
    */
   @NotNull
   public static List<String> getProjectDisplayInformation(@NotNull Project project, @NotNull File dir, @NotNull String executable, @NotNull Sdk sdk) {
+    // Most projects can be read without running the tool (and parsing what it prints).
+    List<String> classpaths = getProjectXmlClasspaths(dir, "flash", sdk);
+    if (null != classpaths) {
+      return classpaths;
+    }
+
     List<String> strings1 = Collections.EMPTY_LIST;
 
     if (getInstalledLibraries(sdk).contains(executable)) {
@@ -329,6 +377,77 @@ public class HaxelibClasspathUtils {
     return strings1;
   }
 
+  /**
+   * Read the classpaths of the default project file in a directory, as
+   * 'haxelib run &lt;tool&gt; display &lt;target&gt;' would list them.
+   *
+   * @param dir directory to look for project.xml in.
+   * @param targetFlag the target to evaluate conditions for.
+   * @param sdk the SDK whose haxelib repository resolves libraries.
+   * @return the classpaths; null if there is no readable project file.
+   */
+  @Nullable
+  private static List<String> getProjectXmlClasspaths(@NotNull File dir, @NotNull String targetFlag, @NotNull Sdk sdk) {
+    for (String name : DEFAULT_PROJECT_FILES) {
+      File file = new File(dir, name);
+      if (!file.isFile()) {
+        continue;
+      }
+      HaxeProjectXmlEvaluator.Result result = HaxeProjectXmlEvaluator.getInstance().evaluate(
+        file, HaxeProjectXmlEvaluator.getTargetDefines(targetFlag, null), HaxelibRepository.getInstance(sdk));
+      if (null == result) {
+        return null;
+      }
+      List<String> classpaths = new ArrayList<String>(result.getClasspaths());
+      for (String haxelib : result.getHaxelibs()) {
+        for (String url : getHaxelibLibraryPathUrl(sdk, haxelib)) {
+          String path = VfsUtilCore.urlToPath(url);
+          if (!classpaths.contains(path)) {
+            classpaths.add(path);
+          }
+        }
+      }
+      return classpaths;
+    }
+    return null;
+  }
+
+  /**
+   * Retrieves the dependent haxe libraries and source paths of an NME or
+   * OpenFL project file.  Included files are followed and if/unless conditions
+   * are evaluated for the given target.  The files are read directly: no PSI
+   * is built and the build tool is not run.
+   *
+   * @param file the project file (project.xml, *.nmml).
+   * @param targetFlag the target to evaluate conditions for, e.g. "flash".
+   * @param flags additional build flags, for their -D defines.
+   * @param libraryManager to resolve the haxelibs with.
+   * @return the classpath; null if the project file could not be read or is
+   *         not well formed.
+   */
+  @Nullable
+  public static HaxeClasspath getClasspathFromProjectXml(@NotNull File file,
+                                                         @NotNull String targetFlag,
+                                                         @Nullable String flags,
+                                                         @NotNull HaxelibLibraryCache libraryManager) {
+    HaxeProjectXmlEvaluator.Result result = HaxeProjectXmlEvaluator.getInstance().evaluate(
+      file, HaxeProjectXmlEvaluator.getTargetDefines(targetFlag, flags), libraryManager.getRepository());
+    if (null == result) {
+      return null;
+    }
+    HaxeClasspath classpath = new HaxeClasspath();
+    for (String haxelib : result.getHaxelibs()) {
+      classpath.addAll(libraryManager.getClasspathForHaxelib(haxelib));
+    }
+    for (String path : result.getClasspaths()) {
+      VirtualFile dir = LocalFileFinder.findFile(path);
+      if (null != dir) {
+        classpath.add(new HaxelibItem(path, dir.getUrl()));
+      }
+    }
+    return classpath;
+  }
+
   /**
    * Turn some text into a file, parse it using the .hxml parser, and
    * return any HXML classpaths.
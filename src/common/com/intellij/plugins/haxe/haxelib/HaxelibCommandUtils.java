@@ -25,11 +25,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * Utilities to run the haxelib command and capture its output.
@@ -85,8 +83,6 @@ public class HaxelibCommandUtils {
    */
   @NotNull
   public static List<String> issueHaxelibCommand(@NotNull Sdk sdk, String ... args) {
-    // TODO: Wrap this invocation with a timer??
-
     ArrayList<String> commandLineArguments = new ArrayList<String>();
     commandLineArguments.add(getHaxelibPath(sdk));
     for (String arg : args) {
@@ -139,90 +135,69 @@ public class HaxelibCommandUtils {
    */
   @NotNull
   public static List<String> getProcessStdout(@NotNull ArrayList<String> commandLineArguments, @Nullable File dir) {
-    List<String> strings = new ArrayList<String>();
-
-    try {
-      ProcessBuilder builder = new ProcessBuilder(commandLineArguments);
-      builder.redirectErrorStream(true);
-      if (dir != null) {
-        builder = builder.directory(dir);
-      }
-      Process process = builder.start();
-      InputStreamReader reader = new InputStreamReader(process.getInputStream());
-      Scanner scanner = new Scanner(reader);
-
-      while (scanner.hasNextLine()) {
-        String nextLine = scanner.nextLine();
-        strings.add(nextLine);
-      }
-      process.waitFor();
+    return getProcessStdout(commandLineArguments, dir, HaxeProcessExecutor.DEFAULT_TIMEOUT_MS);
+  }
 
-      /*
-      try {
-        Thread.sleep(250);
-        try {
-          process.exitValue();
-        }
-        catch (IllegalThreadStateException e) {
-          process.destroy();
-        }
-      }
-      catch (InterruptedException e) {
-        e.printStackTrace();
+  /**
+   * Run a shell command, capturing its standard output (merged with its error output).
+   *
+   * @param commandLineArguments a command and its arguments, as a list of strings.
+   * @param dir directory in which to run the command.
+   * @param timeoutMs how long to wait for the command before it is killed.
+   * @return the output of the command, as a list of strings, one line per string;
+   *         whatever was produced before the deadline if the command timed out.
+   */
+  @NotNull
+  public static List<String> getProcessStdout(@NotNull List<String> commandLineArguments, @Nullable File dir, long timeoutMs) {
+    final List<String> strings = Collections.synchronizedList(new ArrayList<String>());
+    HaxeProcessExecutor.execute(commandLineArguments, dir, timeoutMs, true, new HaxeProcessExecutor.LineListener() {
+      @Override
+      public void onLine(@NotNull String line, boolean isStderr) {
+        strings.add(line);
       }
-      */
-    }
-    catch (IOException e) {
-      e.printStackTrace();
-    }
-    catch (InterruptedException e) {
-      e.printStackTrace();
-    }
-
-    return strings;
+    });
+    return new ArrayList<String>(strings);
   }
 
   public static List<String> getProcessStderr(ArrayList<String> commandLineArguments, File dir) {
-    List<String> strings = new ArrayList<String>();
-
-    try {
-      ProcessBuilder builder = new ProcessBuilder(commandLineArguments);
-      if (dir != null) {
-        builder = builder.directory(dir);
-      }
-      Process process = builder.start();
-      InputStreamReader reader = new InputStreamReader(process.getErrorStream());
-      Scanner scanner = new Scanner(reader);
-
-      while (scanner.hasNextLine()) {
-        String nextLine = scanner.nextLine();
-        strings.add(nextLine);
-      }
+    return getProcessStderr(commandLineArguments, dir, HaxeProcessExecutor.DEFAULT_TIMEOUT_MS);
+  }
 
-      process.waitFor();
-      /*
-      try {
-        Thread.sleep(250);
-        try {
-          process.exitValue();
-        }
-        catch (IllegalThreadStateException e) {
-          process.destroy();
+  /**
+   * Run a shell command, capturing its error output.  The haxe compiler writes its
+   * completion results there.
+   *
+   * @param commandLineArguments a command and its arguments, as a list of strings.
+   * @param dir directory in which to run the command.
+   * @param timeoutMs how long to wait for the command before it is killed.
+   * @return the error output of the command, as a list of strings, one line per string.
+   */
+  @NotNull
+  public static List<String> getProcessStderr(@NotNull List<String> commandLineArguments, @Nullable File dir, long timeoutMs) {
+    final List<String> strings = Collections.synchronizedList(new ArrayList<String>());
+    HaxeProcessExecutor.execute(commandLineArguments, dir, timeoutMs, false, new HaxeProcessExecutor.LineListener() {
+      @Override
+      public void onLine(@NotNull String line, boolean isStderr) {
+        if (isStderr) {
+          strings.add(line);
         }
       }
-      catch (InterruptedException e) {
-        e.printStackTrace();
-      }
-      */
-    }
-    catch (IOException e) {
-      e.printStackTrace();
-    }
-    catch (InterruptedException e) {
-      e.printStackTrace();
-    }
+    });
+    return new ArrayList<String>(strings);
+  }
 
-    return strings;
+  /**
+   * Run a shell command, handing its output to the listener as it arrives instead of
+   * buffering it.
+   *
+   * @return how the command ended.
+   */
+  @NotNull
+  public static HaxeProcessExecutor.Result runProcess(@NotNull List<String> commandLineArguments,
+                                                      @Nullable File dir,
+                                                      long timeoutMs,
+                                                      @NotNull HaxeProcessExecutor.LineListener listener) {
+    return HaxeProcessExecutor.execute(commandLineArguments, dir, timeoutMs, false, listener);
   }
 
 
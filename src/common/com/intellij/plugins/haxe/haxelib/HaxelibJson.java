@@ -0,0 +1,179 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the few fields we need from a haxelib.json descriptor.
+ *
+ * A small recursive descent parser; objects become maps (in file order), arrays lists, strings strings and
+ * everything else is kept as its literal text.  Malformed input reads as null rather than throwing: haxelib
+ * itself is lenient about hand-edited descriptors in dev libraries.
+ */
+final class HaxelibJson {
+  private final String myText;
+  private int myPos;
+
+  private HaxelibJson(@NotNull String text) {
+    myText = text;
+  }
+
+  /**
+   * @return the top-level object of <code>text</code>, or null if it isn't a well-formed JSON object.
+   */
+  @Nullable
+  static Map<String, Object> parseObject(@NotNull String text) {
+    final HaxelibJson parser = new HaxelibJson(text);
+    try {
+      parser.skipWhitespace();
+      if (parser.myPos == text.length() || parser.peek() != '{') {
+        return null;
+      }
+      final Map<String, Object> result = parser.readObject();
+      parser.skipWhitespace();
+      return parser.myPos == text.length() ? result : null;
+    }
+    catch (IllegalStateException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private Object readValue() {
+    skipWhitespace();
+    final char c = peek();
+    if (c == '{') return readObject();
+    if (c == '[') return readArray();
+    if (c == '"') return readString();
+    final int start = myPos;
+    while (myPos < myText.length() && ",}] \t\r\n".indexOf(myText.charAt(myPos)) == -1) {
+      myPos++;
+    }
+    if (start == myPos) throw new IllegalStateException("Value expected at " + start);
+    return myText.substring(start, myPos);
+  }
+
+  @NotNull
+  private Map<String, Object> readObject() {
+    final Map<String, Object> result = new LinkedHashMap<String, Object>();
+    expect('{');
+    skipWhitespace();
+    if (peek() == '}') {
+      myPos++;
+      return result;
+    }
+    while (true) {
+      skipWhitespace();
+      final String key = readString();
+      skipWhitespace();
+      expect(':');
+      result.put(key, readValue());
+      skipWhitespace();
+      if (peek() == ',') {
+        myPos++;
+        continue;
+      }
+      expect('}');
+      return result;
+    }
+  }
+
+  @NotNull
+  private List<Object> readArray() {
+    final List<Object> result = new ArrayList<Object>();
+    expect('[');
+    skipWhitespace();
+    if (peek() == ']') {
+      myPos++;
+      return result;
+    }
+    while (true) {
+      result.add(readValue());
+      skipWhitespace();
+      if (peek() == ',') {
+        myPos++;
+        continue;
+      }
+      expect(']');
+      return result;
+    }
+  }
+
+  @NotNull
+  private String readString() {
+    expect('"');
+    final StringBuilder builder = new StringBuilder();
+    while (true) {
+      final char c = next();
+      if (c == '"') {
+        return builder.toString();
+      }
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      final char escaped = next();
+      switch (escaped) {
+        case 'n': builder.append('\n'); break;
+        case 't': builder.append('\t'); break;
+        case 'r': builder.append('\r'); break;
+        case 'b': builder.append('\b'); break;
+        case 'f': builder.append('\f'); break;
+        case 'u':
+          if (myPos + 4 > myText.length()) throw new IllegalStateException("Bad escape at " + myPos);
+          try {
+            builder.append((char)Integer.parseInt(myText.substring(myPos, myPos + 4), 16));
+          }
+          catch (NumberFormatException e) {
+            throw new IllegalStateException("Bad escape at " + myPos);
+          }
+          myPos += 4;
+          break;
+        default: builder.append(escaped);
+      }
+    }
+  }
+
+  private void skipWhitespace() {
+    while (myPos < myText.length() && Character.isWhitespace(myText.charAt(myPos))) {
+      myPos++;
+    }
+  }
+
+  private char peek() {
+    if (myPos >= myText.length()) throw new IllegalStateException("Unexpected end of input");
+    return myText.charAt(myPos);
+  }
+
+  private char next() {
+    final char c = peek();
+    myPos++;
+    return c;
+  }
+
+  private void expect(char c) {
+    if (next() != c) throw new IllegalStateException("'" + c + "' expected at " + (myPos - 1));
+  }
+}
@@ -20,6 +20,7 @@ package com.intellij.plugins.haxe.haxelib;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.plugins.haxe.util.HaxeDebugTimeLog;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import org.apache.log4j.Level;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -48,12 +49,18 @@ public final class HaxelibLibraryCache {
   private final InternalCache myCache;
   ConcurrentSkipListSet<String> knownLibraries;
   final Sdk mySdk;
+  // Read directly when it can be located; then the caches above stay unused.
+  @Nullable private final HaxelibRepository myRepository;
 
 
   public HaxelibLibraryCache(@NotNull Sdk sdk) {
     myCache = new InternalCache();
     knownLibraries = null;
     mySdk = sdk;
+    myRepository = HaxelibRepository.getInstance(sdk);
+    if (myRepository != null) {
+      return;
+    }
 
     /* TODO: EMB Note: This block of code belongs in HaxelibUtils.getInstalledLibraries.
      *       I'm leaving it here for now, to simplify the merge, but really should be moved.
@@ -92,6 +99,14 @@ public final class HaxelibLibraryCache {
     /* END of code that should be moved to HaxelibUtils.getInstalledLibraries. */
   }
 
+  /**
+   * @return the repository libraries are read from directly, or null if it couldn't be located.
+   */
+  @Nullable
+  HaxelibRepository getRepository() {
+    return myRepository;
+  }
+
   /**
    * Get a union of all of the classpaths for the given libraries.
    *
@@ -124,6 +139,11 @@ public final class HaxelibLibraryCache {
     HaxeDebugTimeLog timeLog = HaxeDebugTimeLog.startNew("getClasspathForLibrary",
                                                          HaxeDebugTimeLog.Since.Start);
     try {
+      if (myRepository != null) {
+        timeLog.stamp("Reading library classpath from " + myRepository.getRoot() + ": " + libraryName);
+        return myRepository.getHaxelibClasspath(libraryName);
+      }
+
       if (libraryIsKnown(libraryName)) {
 
         timeLog.stamp("Loading library classpath:" + libraryName);
@@ -132,10 +152,12 @@ public final class HaxelibLibraryCache {
         HaxelibLibraryEntry lib = myCache.get(libraryName);
         if (null != lib) {
           timeLog.stamp("Returning cached results");
+          HaxeMetrics.HAXELIB_CACHE_HITS.increment();
           return lib.getClasspathEntries();
         }
 
         timeLog.stamp("Cache miss");
+        HaxeMetrics.HAXELIB_CACHE_MISSES.increment();
 
         // It's not in the cache, so go get it and cache the results.
         HaxeClasspath itemList = findHaxelibPath(libraryName);
@@ -150,6 +172,7 @@ public final class HaxelibLibraryCache {
       return HaxeClasspath.EMPTY_CLASSPATH;
     }
     finally {
+      timeLog.recordTo(HaxeMetrics.HAXELIB_CLASSPATH);
       timeLog.printIfTimeExceeds(2); // Short-timed logs just clutter up the ouput.
     }
   }
@@ -162,6 +185,9 @@ public final class HaxelibLibraryCache {
    */
   @NotNull
   public HaxeClasspath findHaxelibPath(@NotNull String libraryName) {
+    if (myRepository != null) {
+      return myRepository.getHaxelibClasspath(libraryName);
+    }
     if (! libraryIsKnown(libraryName)) {
       return HaxeClasspath.EMPTY_CLASSPATH;
     }
@@ -175,13 +201,16 @@ public final class HaxelibLibraryCache {
   }
 
   /**
-   * Retrieve the known libraries, first from the cache, then, if missing,
-   * from haxelib.
+   * Retrieve the known libraries: from the repository if we read it directly,
+   * otherwise first from the cache, then, if missing, from haxelib.
    *
    * @return a collection of known libraries.
    */
   @NotNull
   private Collection<String> retrieveKnownLibraries() {
+    if (myRepository != null) {
+      return myRepository.getInstalledLibraries();
+    }
     // If we don't have the list, then load it.
     if (null == knownLibraries) {
       List<String> libs = HaxelibClasspathUtils.getInstalledLibraries(mySdk);
@@ -20,6 +20,7 @@ package com.intellij.plugins.haxe.haxelib;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.util.HaxeHelpCache;
 import org.apache.log4j.Level;
 import org.jetbrains.annotations.NotNull;
 
@@ -46,6 +47,7 @@ public class HaxelibModuleManager implements com.intellij.openapi.module.ModuleC
     LOG.debug("Project opened event (" + debugQueueCounter + ") for " + project);
 
     HaxelibProjectUpdater.getInstance().openProject(mMyModule.getProject());
+    HaxeHelpCache.getInstance().preload(mMyModule);
   }
 
   @Override
@@ -31,12 +31,15 @@ import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.ModifiableRootModel;
+import com.intellij.openapi.roots.ModuleFileIndex;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.roots.impl.libraries.ProjectLibraryTable;
 import com.intellij.openapi.roots.libraries.Library;
 import com.intellij.openapi.roots.libraries.LibraryTable;
 import com.intellij.openapi.startup.StartupManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
@@ -47,6 +50,7 @@ import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
 import com.intellij.plugins.haxe.nmml.NMMLFileType;
 import com.intellij.plugins.haxe.util.HaxeDebugTimeLog;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -57,9 +61,7 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.io.LocalFileFinder;
 
 import java.io.File;
-import java.util.Collection;
-import java.util.Hashtable;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
@@ -125,8 +127,9 @@ public class HaxelibProjectUpdater  {
   public void openProject(@NotNull Project project) {
     ProjectTracker tracker = myProjects.add(project);
     tracker.setDirty(true);
+    tracker.startWatching();
     myQueue.add(tracker);
-                                                             }
+  }
 
   /**
    * Close and possibly remove a project, if the reference count has been exhausted.
@@ -141,6 +144,7 @@ public class HaxelibProjectUpdater  {
     ProjectTracker tracker = myProjects.get(project);
     removed = myProjects.remove(project);
     if (removed) {
+      tracker.stopWatching();
       myQueue.remove(tracker);
       if (tracker.equals(myQueue.getUpdatingProject())) {
         delayed = true;
@@ -192,6 +196,20 @@ public class HaxelibProjectUpdater  {
    *                           to the module when this routine finishes.
    */
   private void resolveModuleLibraries(ProjectTracker tracker, Module module, HaxeClasspath externalClasspaths) {
+    ModuleUpdate update = computeModuleUpdate(tracker, module, externalClasspaths);
+    if (null != update) {
+      updateModules(Collections.singletonList(update));
+    }
+  }
+
+  /**
+   * Works out which managed libraries a module must gain and lose so that it
+   * has the given classpaths.  Must be called inside a read action.
+   *
+   * @return the change to make, or null if the module is up to date.
+   */
+  @Nullable
+  private ModuleUpdate computeModuleUpdate(ProjectTracker tracker, Module module, HaxeClasspath externalClasspaths) {
     HaxeClasspath toAdd;
     HaxeClasspath toRemove;
 
@@ -279,22 +297,47 @@ public class HaxelibProjectUpdater  {
       }
     });
 
-    updateModule(module, toRemove, toAdd);
+    if (toRemove.isEmpty() && toAdd.isEmpty()) {
+      return null;
+    }
+    return new ModuleUpdate(module, toRemove, toAdd);
   }
 
   /**
-   * Workhorse routine for resolveModuleLibraries.  This does the actual
-   * update of the module.  It will block until all of the running events
-   * on the AWT thread have completed, and then this will run on that thread.
+   * Workhorse routine for resolveModuleLibraries and resyncModules.  This
+   * does the actual update of the modules, all in one write action.  It will
+   * block until all of the running events on the AWT thread have completed,
+   * and then this will run on that thread.
    *
-   * @param module to update.
-   * @param toRemove libraries that need to be removed from the module.
-   * @param toAdd libraries that need to be added to the module.
+   * @param updates the changes to make.
    */
-  private void updateModule(final Module module, final HaxeClasspath toRemove, final HaxeClasspath toAdd) {
-    if ((null == toRemove || toRemove.isEmpty()) && (null == toAdd || toAdd.isEmpty())) {
+  private void updateModules(@NotNull final List<ModuleUpdate> updates) {
+    if (updates.isEmpty()) {
       return;
     }
+    for (ModuleUpdate update : updates) {
+      checkManaged(update.myToRemove, update.myToAdd);
+    }
+
+    final HaxeDebugTimeLog timeLog = new HaxeDebugTimeLog("Write action:");
+    timeLog.stamp("Queueing write action...");
+
+    doWriteAction(new Runnable() {
+      @Override
+      public void run() {
+        timeLog.stamp("<-- Time elapsed waiting for write access on the AWT thread.");
+        for (ModuleUpdate update : updates) {
+          if (!update.myModule.isDisposed()) {
+            updateModule(update.myModule, update.myToRemove, update.myToAdd, timeLog);
+          }
+        }
+      }
+    });
+
+    timeLog.print();
+  }
+
+  private static void checkManaged(@Nullable HaxeClasspath toRemove, @Nullable HaxeClasspath toAdd) {
     if (null != toRemove) {
       toRemove.iterate( new HaxeClasspath.Lambda() {
         @Override
@@ -313,75 +356,92 @@ public class HaxelibProjectUpdater  {
         }
       });
     }
+  }
 
-    final HaxeDebugTimeLog timeLog = new HaxeDebugTimeLog("Write action:");
-    timeLog.stamp("Queueing write action...");
-
-    doWriteAction(new Runnable() {
-      @Override
-      public void run() {
-        timeLog.stamp("<-- Time elapsed waiting for write access on the AWT thread.");
-        timeLog.stamp("Begin: Updating module libraries for " + module.getName());
+  /**
+   * Change the libraries of one module.  Must be called inside a write action.
+   *
+   * @param module to update.
+   * @param toRemove libraries that need to be removed from the module.
+   * @param toAdd libraries that need to be added to the module.
+   * @param timeLog where to log timing results
+   */
+  private static void updateModule(@NotNull final Module module,
+                                   @Nullable final HaxeClasspath toRemove,
+                                   @Nullable final HaxeClasspath toAdd,
+                                   @NotNull final HaxeDebugTimeLog timeLog) {
+    timeLog.stamp("Begin: Updating module libraries for " + module.getName());
 
-        ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
-        ModifiableRootModel modifiableModel = rootManager.getModifiableModel();
-        final LibraryTable libraryTable = modifiableModel.getModuleLibraryTable();
+    ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
+    ModifiableRootModel modifiableModel = rootManager.getModifiableModel();
+    final LibraryTable libraryTable = modifiableModel.getModuleLibraryTable();
 
-        // Remove unused packed "haxelib|<lib_name>" libraries from the module and project library.
-        if (null != toRemove) {
-          timeLog.stamp("Removing libraries.");
-          toRemove.iterate(new HaxeClasspath.Lambda(){
-            @Override
-            public boolean processEntry(HaxeClasspathEntry entry) {
-              Library library = libraryTable.getLibraryByName(entry.getName());
-              if (null != library) {
-                // Why use this?: ModuleHelper.removeDependency(rootManager, library);
-                libraryTable.removeLibrary(library);
-                timeLog.stamp("Removed library " + library.getName());
-              }
-              else {
-                LOG.warn(
-                  "Internal inconsistency: library to remove was not found: " +
-                  entry.getName());
-              }
-              return true;
-            }
-          });
+    // Remove unused packed "haxelib|<lib_name>" libraries from the module and project library.
+    if (null != toRemove) {
+      timeLog.stamp("Removing libraries.");
+      toRemove.iterate(new HaxeClasspath.Lambda(){
+        @Override
+        public boolean processEntry(HaxeClasspathEntry entry) {
+          Library library = libraryTable.getLibraryByName(entry.getName());
+          if (null != library) {
+            // Why use this?: ModuleHelper.removeDependency(rootManager, library);
+            libraryTable.removeLibrary(library);
+            timeLog.stamp("Removed library " + library.getName());
+          }
+          else {
+            LOG.warn(
+              "Internal inconsistency: library to remove was not found: " +
+              entry.getName());
+          }
+          return true;
         }
+      });
+    }
 
-        // Add new dependencies to modules.
-        if (null != toAdd) {
-          timeLog.stamp("Locating libraries and adding dependencies.");
-          toAdd.iterate(new HaxeClasspath.Lambda() {
-            @Override
-            public boolean processEntry(HaxeClasspathEntry entry) {
-              Library libraryByName = libraryTable.getLibraryByName(
-                entry.getName());
-              if (libraryByName == null) {
-                libraryByName = libraryTable.createLibrary(entry.getName());
-                Library.ModifiableModel libraryModifiableModel = libraryByName.getModifiableModel();
-                libraryModifiableModel.addRoot(entry.getUrl(), OrderRootType.CLASSES);
-                libraryModifiableModel.addRoot(entry.getUrl(), OrderRootType.SOURCES);
-                libraryModifiableModel.commit();
-
-                timeLog.stamp("Added library " + libraryByName.getName());
-              }
-              else {
-                LOG.warn("Internal inconsistency: library to add was already in the module's library table.");
-              }
-              return true;
-            }
-          });
+    // Add new dependencies to modules.
+    if (null != toAdd) {
+      timeLog.stamp("Locating libraries and adding dependencies.");
+      toAdd.iterate(new HaxeClasspath.Lambda() {
+        @Override
+        public boolean processEntry(HaxeClasspathEntry entry) {
+          Library libraryByName = libraryTable.getLibraryByName(
+            entry.getName());
+          if (libraryByName == null) {
+            libraryByName = libraryTable.createLibrary(entry.getName());
+            Library.ModifiableModel libraryModifiableModel = libraryByName.getModifiableModel();
+            libraryModifiableModel.addRoot(entry.getUrl(), OrderRootType.CLASSES);
+            libraryModifiableModel.addRoot(entry.getUrl(), OrderRootType.SOURCES);
+            libraryModifiableModel.commit();
+
+            timeLog.stamp("Added library " + libraryByName.getName());
+          }
+          else {
+            LOG.warn("Internal inconsistency: library to add was already in the module's library table.");
+          }
+          return true;
         }
+      });
+    }
 
-        timeLog.stamp("Committing changes to module libraries");
-        modifiableModel.commit();
+    timeLog.stamp("Committing changes to module libraries");
+    modifiableModel.commit();
 
-        timeLog.stamp("Finished: Updating module Libraries");
-      }
-    });
+    timeLog.stamp("Finished: Updating module Libraries");
+  }
 
-    timeLog.print();
+  /**
+   * A change to the managed libraries of a module.
+   */
+  private static final class ModuleUpdate {
+    final Module myModule;
+    final HaxeClasspath myToRemove;
+    final HaxeClasspath myToAdd;
+
+    ModuleUpdate(@NotNull Module module, @NotNull HaxeClasspath toRemove, @NotNull HaxeClasspath toAdd) {
+      myModule = module;
+      myToRemove = toRemove;
+      myToAdd = toAdd;
+    }
   }
 
   /**
@@ -393,7 +453,95 @@ public class HaxelibProjectUpdater  {
    * @param timeLog where to log timing results
    */
   private void syncOneModule(@NotNull final ProjectTracker tracker, @NotNull Module module, @NotNull HaxeDebugTimeLog timeLog) {
+    HaxeClasspath haxelibExternalItems = collectModuleClasspath(tracker, module, timeLog);
+    tracker.setBuildFileClasspath(module, haxelibExternalItems);
 
+    // We can't just remove all of the project classpaths from the module's
+    // library list here because we need to remove any managed classpaths that
+    // are no longer valid in the modules.  We can't do that if we don't have
+    // the list of valid ones.  :/
+    timeLog.stamp("Adding libraries to module.");
+    resolveModuleLibraries(tracker, module, haxelibExternalItems);
+    timeLog.stamp("Finished adding libraries to module.");
+  }
+
+  /**
+   * Re-reads the build files of some modules and updates the modules'
+   * libraries.  This is the incremental counterpart of a full synchronization,
+   * run when build files change: the project classpath is left alone, and
+   * nothing is written for a module whose build file still asks for the same
+   * libraries as it did at the last synchronization.
+   *
+   * The build files are read in a read action on the calling thread, which
+   * must not be the AWT thread; the changes to all of the modules are then
+   * made in a single write action.  Only one resync runs per project at a
+   * time: modules asked for while one is running are picked up by it when it
+   * is done with the current ones, and modules asked for repeatedly are read
+   * only once.
+   *
+   * @param project the modules belong to.
+   * @param modules whose build files changed.
+   */
+  void resyncModules(@NotNull Project project, @NotNull Collection<Module> modules) {
+    final ProjectTracker tracker = myProjects.get(project);
+    if (null == tracker || !tracker.queueResync(modules)) {
+      return;
+    }
+    boolean finished = false;
+    try {
+      for (List<Module> batch = tracker.takeQueuedResyncs(); !batch.isEmpty(); batch = tracker.takeQueuedResyncs()) {
+        resyncBatch(tracker, batch);
+      }
+      finished = true;
+    }
+    finally {
+      if (!finished) {
+        tracker.abortResync();
+      }
+    }
+  }
+
+  private void resyncBatch(@NotNull final ProjectTracker tracker, @NotNull final List<Module> modules) {
+    final HaxeDebugTimeLog timeLog = HaxeDebugTimeLog.startNew("resyncModules");
+    final List<ModuleUpdate> updates = ApplicationManager.getApplication().runReadAction(new Computable<List<ModuleUpdate>>() {
+      @Override
+      public List<ModuleUpdate> compute() {
+        List<ModuleUpdate> result = new ArrayList<ModuleUpdate>();
+        for (Module module : modules) {
+          if (module.isDisposed()) {
+            continue;
+          }
+          timeLog.stamp("Build file changed for module " + module.getName());
+          HaxeClasspath haxelibExternalItems = collectModuleClasspath(tracker, module, timeLog);
+          if (!tracker.setBuildFileClasspath(module, haxelibExternalItems)) {
+            timeLog.stamp("Build file libraries are unchanged.");
+            continue;
+          }
+          ModuleUpdate update = computeModuleUpdate(tracker, module, haxelibExternalItems);
+          if (null != update) {
+            result.add(update);
+          }
+        }
+        return result;
+      }
+    });
+    timeLog.stamp("Adding libraries to " + updates.size() + " module(s).");
+    updateModules(updates);
+    timeLog.stamp("Finished adding libraries to modules.");
+    timeLog.recordTo(HaxeMetrics.CLASSPATH_RESYNC);
+    timeLog.print();
+  }
+
+  /**
+   * Reads the classpaths that a module's build configuration asks for.
+   *
+   * @param tracker for the project being updated.
+   * @param module being read.
+   * @param timeLog where to log timing results
+   * @return the classpaths required by the module's build file or properties.
+   */
+  @NotNull
+  private HaxeClasspath collectModuleClasspath(@NotNull ProjectTracker tracker, @NotNull Module module, @NotNull HaxeDebugTimeLog timeLog) {
     Project project = tracker.getProject();
     HaxeClasspath haxelibExternalItems = new HaxeClasspath();
     HaxeClasspath haxelibNewItemList;
@@ -409,14 +557,21 @@ public class HaxelibProjectUpdater  {
 
         String nmmlPath = settings.getNmmlPath();
         if (nmmlPath != null && !nmmlPath.isEmpty()) {
-          VirtualFile file = LocalFileFinder.findFile(nmmlPath);
+          HaxeClasspath projectXmlItems = HaxelibClasspathUtils.getClasspathFromProjectXml(
+            new File(nmmlPath), settings.getNmeTarget().getTargetFlag(), settings.getNmeFlags(), libManager);
+          if (projectXmlItems != null) {
+            addOutsideOfModule(module, projectXmlItems, haxelibExternalItems);
+          }
+          else {
+            VirtualFile file = LocalFileFinder.findFile(nmmlPath);
 
-          if (file != null && file.getFileType().equals(NMMLFileType.INSTANCE)) {
-            VirtualFileManager.getInstance().syncRefresh();
-            PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+            if (file != null && file.getFileType().equals(NMMLFileType.INSTANCE)) {
+              VirtualFileManager.getInstance().syncRefresh();
+              PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
 
-            if (psiFile != null && psiFile instanceof XmlFile) {
-              haxelibExternalItems.addAll(HaxelibClasspathUtils.getHaxelibsFromXmlFile((XmlFile)psiFile, libManager));
+              if (psiFile != null && psiFile instanceof XmlFile) {
+                haxelibExternalItems.addAll(HaxelibClasspathUtils.getHaxelibsFromXmlFile((XmlFile)psiFile, libManager));
+              }
             }
           }
         }
@@ -429,13 +584,20 @@ public class HaxelibProjectUpdater  {
 
         String openFLXmlPath = settings.getOpenFLPath();
         if (openFLXmlPath != null && !openFLXmlPath.isEmpty()) {
-          VirtualFile file = LocalFileFinder.findFile(openFLXmlPath);
+          HaxeClasspath projectXmlItems = HaxelibClasspathUtils.getClasspathFromProjectXml(
+            new File(openFLXmlPath), settings.getOpenFLTarget().getTargetFlag(), settings.getOpenFLFlags(), libManager);
+          if (projectXmlItems != null) {
+            addOutsideOfModule(module, projectXmlItems, haxelibExternalItems);
+          }
+          else {
+            VirtualFile file = LocalFileFinder.findFile(openFLXmlPath);
 
-          if (file != null && file.getFileType().equals(XmlFileType.INSTANCE)) {
-            PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+            if (file != null && file.getFileType().equals(XmlFileType.INSTANCE)) {
+              PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
 
-            if (psiFile != null && psiFile instanceof XmlFile) {
-              haxelibExternalItems.addAll(HaxelibClasspathUtils.getHaxelibsFromXmlFile((XmlFile)psiFile, libManager));
+              if (psiFile != null && psiFile instanceof XmlFile) {
+                haxelibExternalItems.addAll(HaxelibClasspathUtils.getHaxelibsFromXmlFile((XmlFile)psiFile, libManager));
+              }
             }
           }
         }
@@ -496,14 +658,7 @@ public class HaxelibProjectUpdater  {
         timeLog.stamp("Finish loading classpaths from properties.");
         break;
     }
-
-    // We can't just remove all of the project classpaths from the module's
-    // library list here because we need to remove any managed classpaths that
-    // are no longer valid in the modules.  We can't do that if we don't have
-    // the list of valid ones.  :/
-    timeLog.stamp("Adding libraries to module.");
-    resolveModuleLibraries(tracker, module, haxelibExternalItems);
-    timeLog.stamp("Finished adding libraries to module.");
+    return haxelibExternalItems;
   }
 
 
@@ -535,6 +690,7 @@ public class HaxelibProjectUpdater  {
       }
     }
     timeLog.stamp("Completed.");
+    timeLog.recordTo(HaxeMetrics.CLASSPATH_SYNC);
     timeLog.print();
   }
 
@@ -715,6 +871,44 @@ public class HaxelibProjectUpdater  {
     });
   }
 
+  /**
+   * Add the entries of a classpath that are not part of a module's content.
+   * Source paths of a project file usually point into the module itself,
+   * and must not be added to it a second time, as a library.
+   *
+   * @param module whose content is skipped.
+   * @param from entries to add.
+   * @param to classpath to add them to.
+   */
+  private static void addOutsideOfModule(@NotNull Module module, @NotNull HaxeClasspath from, @NotNull final HaxeClasspath to) {
+    final ModuleFileIndex fileIndex = ModuleRootManager.getInstance(module).getFileIndex();
+    from.iterate(new HaxeClasspath.Lambda() {
+      @Override
+      public boolean processEntry(HaxeClasspathEntry entry) {
+        VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(entry.getUrl());
+        if (null == file || !fileIndex.isInContent(file)) {
+          to.add(entry);
+        }
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Tell whether two classpaths contain the same entries, regardless of order.
+   */
+  private static boolean hasSameEntries(@NotNull HaxeClasspath one, @NotNull final HaxeClasspath other) {
+    if (one.size() != other.size()) {
+      return false;
+    }
+    return one.iterate(new HaxeClasspath.Lambda() {
+      @Override
+      public boolean processEntry(HaxeClasspathEntry entry) {
+        return other.contains(entry);
+      }
+    });
+  }
+
   /**
    * Cause a synchronous write action to be run on the AWT thread.
    *
@@ -872,6 +1066,22 @@ public class HaxelibProjectUpdater  {
     boolean myIsUpdating;
     ProjectClasspathCache myCache;
     HaxelibLibraryCacheManager mySdkManager;
+    HaxelibBuildFileWatcher myWatcher;
+
+    /**
+     * What each module's build file asked for at the last synchronization,
+     * keyed by module name.  Lets a build file change be compared against
+     * the previous contents, so that edits that don't touch the libraries
+     * cost nothing.
+     */
+    final Map<String, HaxeClasspath> myBuildFileClasspaths;
+
+    /**
+     * Modules whose build files changed and have yet to be read, and whether
+     * a thread is reading them; see {@link #resyncModules}.  Guarded by this.
+     */
+    final Set<Module> myQueuedResyncs;
+    boolean myIsResyncing;
 
     // TODO: Determine if we need to track whether the project is still open.
 
@@ -890,6 +1100,96 @@ public class HaxelibProjectUpdater  {
       myReferenceCount = 0;
       myCache = new ProjectClasspathCache();
       mySdkManager = new HaxelibLibraryCacheManager();
+      myBuildFileClasspaths = new HashMap<String, HaxeClasspath>();
+      myQueuedResyncs = new LinkedHashSet<Module>();
+      myIsResyncing = false;
+    }
+
+    /**
+     * Queue modules for resynchronization.
+     *
+     * @return true if the caller is to run the resync; false if another
+     *         thread is running one, which will pick the modules up.
+     */
+    public boolean queueResync(@NotNull Collection<Module> modules) {
+      synchronized(this) {
+        myQueuedResyncs.addAll(modules);
+        if (myIsResyncing) {
+          return false;
+        }
+        myIsResyncing = true;
+        return true;
+      }
+    }
+
+    /**
+     * Take the modules queued for resynchronization.  When there are none,
+     * the resync is over and the next {@link #queueResync} starts a new one.
+     */
+    @NotNull
+    public List<Module> takeQueuedResyncs() {
+      synchronized(this) {
+        List<Module> modules = new ArrayList<Module>(myQueuedResyncs);
+        myQueuedResyncs.clear();
+        if (modules.isEmpty()) {
+          myIsResyncing = false;
+        }
+        return modules;
+      }
+    }
+
+    /**
+     * End a resync that failed, leaving what is still queued for the next one.
+     */
+    public void abortResync() {
+      synchronized(this) {
+        myIsResyncing = false;
+      }
+    }
+
+    /**
+     * Start watching the build files of the project's modules.  Does nothing
+     * if they are already watched.
+     */
+    public void startWatching() {
+      synchronized(this) {
+        if (null == myWatcher) {
+          myWatcher = new HaxelibBuildFileWatcher(myProject);
+          Disposer.register(myProject, myWatcher);
+          myWatcher.start();
+        }
+      }
+    }
+
+    /**
+     * Stop watching the build files of the project's modules.
+     */
+    public void stopWatching() {
+      HaxelibBuildFileWatcher watcher;
+      synchronized(this) {
+        watcher = myWatcher;
+        myWatcher = null;
+      }
+      if (null != watcher) {
+        Disposer.dispose(watcher);
+      }
+    }
+
+    /**
+     * Record the classpaths that a module's build file asks for.
+     *
+     * @param module that was read.
+     * @param classpath read from the module's build file.
+     * @return true if the classpaths differ from the ones recorded last time
+     *         (or nothing was recorded yet).
+     */
+    public boolean setBuildFileClasspath(@NotNull Module module, @NotNull HaxeClasspath classpath) {
+      HaxeClasspath copy = new HaxeClasspath(classpath);
+      HaxeClasspath previous;
+      synchronized(this) {
+        previous = myBuildFileClasspaths.put(module.getName(), copy);
+      }
+      return null == previous || !hasSameEntries(previous, copy);
     }
 
     /**
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads a haxelib repository straight from disk, instead of asking the 'haxelib' command.
+ *
+ * The repository holds a directory per library (dots in the name are stored as commas), with a
+ * <code>.current</code> file naming the selected version, an optional <code>.dev</code> file pointing at a
+ * development checkout, and a directory per installed version (again with commas for dots).  The class path of
+ * a library is the <code>classPath</code> of its haxelib.json, and <code>haxelib path</code> adds the class
+ * paths of its dependencies.
+ *
+ * What was read is kept while the time stamps of the files and directories it came from stay the same.  The
+ * repository is read with java.io rather than through the VFS, so time stamps are what tells that haxelib changed
+ * it; this also covers development checkouts outside the repository.
+ */
+public class HaxelibRepository {
+  static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.haxelib.HaxelibRepository");
+
+  private static final String CURRENT_FILE = ".current";
+  private static final String DEV_FILE = ".dev";
+  private static final String DESCRIPTOR_FILE = "haxelib.json";
+
+  private static final ConcurrentMap<String, HaxelibRepository> ourRepositories = new ConcurrentHashMap<String, HaxelibRepository>();
+  // haxelib executable to its repository path.  Failed lookups aren't kept, so a repository set up later is found.
+  private static final ConcurrentMap<String, String> ourRootPaths = new ConcurrentHashMap<String, String>();
+
+  @NotNull private final File myRoot;
+  private volatile InstalledLibraries myLibraries;
+  private final ConcurrentMap<String, LibraryVersion> myCurrentVersions = new ConcurrentHashMap<String, LibraryVersion>();
+
+  HaxelibRepository(@NotNull File root) {
+    myRoot = root;
+  }
+
+  /**
+   * @return the repository the SDK's haxelib uses, or null if it can't be located.  Once found, the location is
+   * kept for each haxelib executable.
+   */
+  @Nullable
+  public static HaxelibRepository getInstance(@NotNull Sdk sdk) {
+    final String haxelibPath = HaxelibCommandUtils.getHaxelibPath(sdk);
+    String key = ourRootPaths.get(haxelibPath);
+    if (key == null) {
+      final File root = findRepositoryRoot(sdk);
+      if (root == null) {
+        return null;
+      }
+      key = FileUtil.toSystemIndependentName(root.getAbsolutePath());
+      ourRootPaths.put(haxelibPath, key);
+    }
+    HaxelibRepository repository = ourRepositories.get(key);
+    if (repository == null) {
+      final HaxelibRepository newRepository = new HaxelibRepository(new File(key));
+      repository = ourRepositories.putIfAbsent(key, newRepository);
+      if (repository == null) {
+        repository = newRepository;
+      }
+    }
+    return repository;
+  }
+
+  /**
+   * Locates the repository the way haxelib does: the HAXELIB_PATH environment variable, then the
+   * <code>.haxelib</code> file in the user's home (and <code>/etc</code> on unix systems).  Only if none of
+   * them is set do we ask <code>haxelib config</code>.
+   */
+  @Nullable
+  static File findRepositoryRoot(@NotNull Sdk sdk) {
+    final String env = System.getenv("HAXELIB_PATH");
+    if (env != null && new File(env).isDirectory()) {
+      return new File(env);
+    }
+    final List<File> configFiles = new ArrayList<File>();
+    configFiles.add(new File(SystemInfo.isWindows ? System.getenv("HOMEDRIVE") + System.getenv("HOMEPATH")
+                                                  : System.getProperty("user.home"), ".haxelib"));
+    if (!SystemInfo.isWindows) {
+      configFiles.add(new File("/etc/.haxelib"));
+    }
+    for (File configFile : configFiles) {
+      final String path = readFirstLine(configFile);
+      if (path != null && new File(path).isDirectory()) {
+        return new File(path);
+      }
+    }
+    final List<String> output = HaxelibCommandUtils.issueHaxelibCommand(sdk, "config");
+    for (int i = output.size() - 1; i >= 0; i--) {
+      final String path = output.get(i).trim();
+      if (!path.isEmpty() && new File(path).isDirectory()) {
+        return new File(path);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Drops everything read so far; the next query reads the repository again.
+   */
+  public void invalidate() {
+    myLibraries = null;
+    myCurrentVersions.clear();
+  }
+
+  @NotNull
+  public File getRoot() {
+    return myRoot;
+  }
+
+  /**
+   * @return the installed libraries, sorted by name; what <code>haxelib list</code> shows.
+   */
+  @NotNull
+  public List<String> getInstalledLibraries() {
+    // Installing or removing a library adds or deletes a directory, which changes the root's time stamp.
+    final long stamp = myRoot.lastModified();
+    InstalledLibraries libraries = myLibraries;
+    if (libraries == null || libraries.myStamp != stamp) {
+      final List<String> names = new ArrayList<String>();
+      final File[] children = myRoot.listFiles();
+      if (children != null) {
+        for (File child : children) {
+          if (isLibraryDirectory(child)) {
+            names.add(child.getName().replace(',', '.'));
+          }
+        }
+      }
+      Collections.sort(names, String.CASE_INSENSITIVE_ORDER);
+      libraries = new InstalledLibraries(stamp, Collections.unmodifiableList(names));
+      myLibraries = libraries;
+    }
+    return libraries.myNames;
+  }
+
+  /**
+   * @return whether a directory is a library of a repository: it has a <code>.current</code> or <code>.dev</code>
+   * file.
+   */
+  public static boolean isLibraryDirectory(@NotNull File dir) {
+    return dir.isDirectory() && (new File(dir, CURRENT_FILE).isFile() || new File(dir, DEV_FILE).isFile());
+  }
+
+  /**
+   * @param libraryDir a library directory of a repository; see {@link #isLibraryDirectory}.
+   * @return the development checkout that <code>.dev</code> points at, else the version directory that
+   * <code>.current</code> selects; null if neither exists.
+   */
+  @Nullable
+  public static File findActiveVersionDirectory(@NotNull File libraryDir) {
+    final String devPath = readFirstLine(new File(libraryDir, DEV_FILE));
+    if (devPath != null && new File(devPath).isDirectory()) {
+      return new File(devPath);
+    }
+    final String versionName = readFirstLine(new File(libraryDir, CURRENT_FILE));
+    final File versionDir = versionName == null ? null : new File(libraryDir, versionName.replace('.', ','));
+    return versionDir != null && versionDir.isDirectory() ? versionDir : null;
+  }
+
+  /**
+   * @return the directory of the library's active version (see {@link #findActiveVersionDirectory}), or null if
+   * the library isn't installed.
+   */
+  @Nullable
+  public File getLibraryDirectory(@NotNull String libraryName) {
+    return findActiveVersionDirectory(findLibraryDirectory(libraryName));
+  }
+
+  /**
+   * @return whether the library is installed; names are matched ignoring case, as haxelib does.
+   */
+  public boolean isInstalled(@NotNull String libraryName) {
+    return findInstalledName(libraryName) != null;
+  }
+
+  @Nullable
+  private String findInstalledName(@NotNull String libraryName) {
+    for (String installed : getInstalledLibraries()) {
+      if (installed.equalsIgnoreCase(libraryName)) {
+        return installed;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the directory of a library in the repository, matching its name ignoring case; it may not exist.
+   */
+  @NotNull
+  private File findLibraryDirectory(@NotNull String libraryName) {
+    final File exact = new File(myRoot, libraryName.replace('.', ','));
+    if (exact.isDirectory()) {
+      return exact;
+    }
+    final String installed = findInstalledName(libraryName);
+    return installed == null ? exact : new File(myRoot, installed.replace('.', ','));
+  }
+
+  /**
+   * @return the version <code>.current</code> selects, "dev" for a development checkout, or null if the library
+   * isn't installed.
+   */
+  @Nullable
+  public String getCurrentVersion(@NotNull String libraryName) {
+    final LibraryVersion version = getVersion(libraryName, null);
+    return version == null ? null : version.myVersion;
+  }
+
+  /**
+   * @return the class path directories of the library and of its dependencies, the library's first, without
+   * duplicates; what <code>haxelib path</code> lists.  Empty if the library isn't installed.
+   */
+  @NotNull
+  public List<File> getClasspath(@NotNull String libraryName) {
+    final Set<File> classpath = new LinkedHashSet<File>();
+    collectClasspath(libraryName, null, classpath, new HashSet<String>());
+    return new ArrayList<File>(classpath);
+  }
+
+  /**
+   * @return {@link #getClasspath} as class path entries.
+   */
+  @NotNull
+  public HaxeClasspath getHaxelibClasspath(@NotNull String libraryName) {
+    final List<File> directories = getClasspath(libraryName);
+    final HaxeClasspath classpath = new HaxeClasspath(directories.size());
+    for (File directory : directories) {
+      final String path = FileUtil.toSystemIndependentName(directory.getPath());
+      classpath.add(new HaxelibItem(path, VfsUtilCore.pathToUrl(path)));
+    }
+    return classpath;
+  }
+
+  private void collectClasspath(@NotNull String libraryName, @Nullable String requestedVersion,
+                                @NotNull Set<File> classpath, @NotNull Set<String> visited) {
+    if (!visited.add(libraryName)) {
+      return;
+    }
+    final LibraryVersion version = getVersion(libraryName, requestedVersion);
+    if (version == null) {
+      return;
+    }
+    if (version.myClasspath.isDirectory()) {
+      classpath.add(version.myClasspath);
+    }
+    for (Map.Entry<String, String> dependency : version.myDependencies.entrySet()) {
+      collectClasspath(dependency.getKey(), dependency.getValue(), classpath, visited);
+    }
+  }
+
+  /**
+   * @param requestedVersion a version a dependency asks for; null or empty for the current one.  A development
+   *                         checkout wins over any version, as with haxelib.
+   */
+  @Nullable
+  private LibraryVersion getVersion(@NotNull String libraryName, @Nullable String requestedVersion) {
+    final File libraryDir = findLibraryDirectory(libraryName);
+    final boolean current = StringUtil.isEmpty(requestedVersion);
+    if (current) {
+      final LibraryVersion cached = myCurrentVersions.get(libraryName);
+      if (cached != null && cached.isUpToDate(libraryDir)) {
+        return cached;
+      }
+    }
+    LibraryVersion version = null;
+    final String devPath = readFirstLine(new File(libraryDir, DEV_FILE));
+    if (devPath != null && new File(devPath).isDirectory()) {
+      version = LibraryVersion.read("dev", libraryDir, new File(devPath));
+    }
+    else {
+      String versionName = current ? null : requestedVersion;
+      if (versionName == null || !new File(libraryDir, versionName.replace('.', ',')).isDirectory()) {
+        versionName = readFirstLine(new File(libraryDir, CURRENT_FILE));
+      }
+      final File versionDir = versionName == null ? null : new File(libraryDir, versionName.replace('.', ','));
+      if (versionDir != null && versionDir.isDirectory()) {
+        version = LibraryVersion.read(versionName, libraryDir, versionDir);
+      }
+    }
+    if (current && version != null) {
+      myCurrentVersions.put(libraryName, version);
+    }
+    return version;
+  }
+
+  @Nullable
+  private static String readFirstLine(@NotNull File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      final String text = FileUtil.loadFile(file).trim();
+      final int newline = text.indexOf('\n');
+      final String line = (newline == -1 ? text : text.substring(0, newline)).trim();
+      return line.isEmpty() ? null : line;
+    }
+    catch (IOException e) {
+      LOG.info("Can't read " + file, e);
+      return null;
+    }
+  }
+
+  private static class InstalledLibraries {
+    final long myStamp;
+    @NotNull final List<String> myNames;
+
+    InstalledLibraries(long stamp, @NotNull List<String> names) {
+      myStamp = stamp;
+      myNames = names;
+    }
+  }
+
+  /**
+   * An installed version of a library, as described by its haxelib.json.
+   */
+  private static class LibraryVersion {
+    @NotNull final String myVersion;
+    @NotNull final File myDirectory;
+    @NotNull final File myClasspath;
+    // Library name to the version asked for; empty for any.
+    @NotNull final Map<String, String> myDependencies;
+    // Time stamps of the library directory, its .current and .dev files and the descriptor, when read.
+    @NotNull private final long[] myStamps;
+
+    LibraryVersion(@NotNull String version,
+                   @NotNull File libraryDir,
+                   @NotNull File directory,
+                   @NotNull File classpath,
+                   @NotNull Map<String, String> dependencies) {
+      myVersion = version;
+      myDirectory = directory;
+      myClasspath = classpath;
+      myDependencies = dependencies;
+      myStamps = getStamps(libraryDir, directory);
+    }
+
+    /**
+     * @return whether this is still what <code>haxelib set</code> and <code>haxelib dev</code> last selected
+     * in the library directory, with the same descriptor.
+     */
+    boolean isUpToDate(@NotNull File libraryDir) {
+      return Arrays.equals(myStamps, getStamps(libraryDir, myDirectory));
+    }
+
+    @NotNull
+    private static long[] getStamps(@NotNull File libraryDir, @NotNull File versionDir) {
+      return new long[]{
+        libraryDir.lastModified(),
+        new File(libraryDir, CURRENT_FILE).lastModified(),
+        new File(libraryDir, DEV_FILE).lastModified(),
+        new File(versionDir, DESCRIPTOR_FILE).lastModified()
+      };
+    }
+
+    @NotNull
+    static LibraryVersion read(@NotNull String version, @NotNull File libraryDir, @NotNull File dir) {
+      final File descriptor = new File(dir, DESCRIPTOR_FILE);
+      Map<String, Object> json = null;
+      if (descriptor.isFile()) {
+        try {
+          json = HaxelibJson.parseObject(FileUtil.loadFile(descriptor));
+        }
+        catch (IOException e) {
+          LOG.info("Can't read " + descriptor, e);
+        }
+        if (json == null) {
+          LOG.info("Malformed " + descriptor);
+        }
+      }
+      File classpath = dir;
+      final Map<String, String> dependencies = new LinkedHashMap<String, String>();
+      if (json != null) {
+        final Object classPath = json.get("classPath");
+        if (classPath instanceof String && !((String)classPath).isEmpty()) {
+          classpath = new File(FileUtil.toCanonicalPath(new File(dir, (String)classPath).getPath()));
+        }
+        final Object dependencyMap = json.get("dependencies");
+        if (dependencyMap instanceof Map) {
+          for (Map.Entry<?, ?> entry : ((Map<?, ?>)dependencyMap).entrySet()) {
+            final Object dependencyVersion = entry.getValue();
+            dependencies.put((String)entry.getKey(), dependencyVersion instanceof String ? (String)dependencyVersion : "");
+          }
+        }
+      }
+      return new LibraryVersion(version, libraryDir, dir, classpath, dependencies);
+    }
+  }
+}
@@ -19,6 +19,8 @@ package com.intellij.plugins.haxe.ide;
 
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.plugins.haxe.hxml.psi.HXMLDefine;
 import com.intellij.plugins.haxe.hxml.psi.HXMLTypes;
@@ -33,13 +35,15 @@ import java.util.List;
  */
 public class HXMLDefineCompletionContributor extends CompletionContributor {
   public HXMLDefineCompletionContributor() {
-    final List<HXMLCompletionItem> defines = HaxeHelpCache.getInstance().getDefines();
     extend(CompletionType.BASIC, PlatformPatterns.psiElement(HXMLTypes.VALUE).withParent(HXMLDefine.class),
            new CompletionProvider<CompletionParameters>() {
              @Override
              protected void addCompletions(@NotNull CompletionParameters parameters,
                                            ProcessingContext context,
                                            @NotNull CompletionResultSet result) {
+               // Whatever the compiler has told us so far; the first request may come before that.
+               final Module module = ModuleUtilCore.findModuleForPsiElement(parameters.getOriginalFile());
+               final List<HXMLCompletionItem> defines = HaxeHelpCache.getInstance().getDefines(module);
                for (int i = 0; i < defines.size(); i++) {
                  HXMLCompletionItem completionItem = defines.get(i);
                  result.addElement(LookupElementBuilder.create(completionItem.name).withTailText(" " + completionItem.description, true));
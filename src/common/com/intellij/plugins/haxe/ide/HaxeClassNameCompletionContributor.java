@@ -28,6 +28,7 @@ import com.intellij.patterns.PsiElementPattern;
 import com.intellij.patterns.StandardPatterns;
 import com.intellij.plugins.haxe.ide.index.HaxeClassInfo;
 import com.intellij.plugins.haxe.ide.index.HaxeComponentIndex;
+import com.intellij.plugins.haxe.ide.index.HaxePackageIndex;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.util.HaxeAddImportHelper;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
@@ -86,7 +87,16 @@ public class HaxeClassNameCompletionContributor extends CompletionContributor {
     final Project project = targetFile.getProject();
     final GlobalSearchScope scope = HaxeResolveUtil.getScopeForElement(targetFile);
     final MyProcessor processor = new MyProcessor(resultSet, prefixPackage, insertHandler);
-    HaxeComponentIndex.processAll(project, processor, scope);
+    if (prefixPackage != null) {
+      for (String packageName : HaxePackageIndex.findPackagesIgnoreCase(prefixPackage, scope)) {
+        for (HaxeClassInfo classInfo : HaxePackageIndex.getClasses(packageName, scope)) {
+          processor.process(Pair.create(classInfo.getValue(), new HaxeClassInfo(packageName, classInfo.getType())));
+        }
+      }
+    }
+    else {
+      HaxeComponentIndex.processAll(project, processor, scope);
+    }
 
     if (insertHandler != null) {
       targetFile.acceptChildren(new HaxeRecursiveVisitor() {
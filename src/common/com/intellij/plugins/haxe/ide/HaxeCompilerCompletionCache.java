@@ -0,0 +1,213 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Short-lived results of the compiler based completion.
+ *
+ * The completion popup is often asked for the same thing twice in a row (auto-popup
+ * followed by an explicit invocation, or backspace and retyping the same letter);
+ * the compiler would give the same answer each time, so we remember its results for a
+ * few seconds.  The completion result set refilters them by the current prefix.
+ *
+ * Also keeps the compiler arguments reported by 'lime display', which only change
+ * when the project.xml does.
+ */
+public class HaxeCompilerCompletionCache {
+  /** How long a --display result stays valid; other files may change in the meantime. */
+  static final long DISPLAY_RESULT_LIFETIME_MS = 30000;
+  private static final int MAX_DISPLAY_RESULTS = 16;
+
+  private final Map<DisplayKey, DisplayResult> myDisplayResults = new LinkedHashMap<DisplayKey, DisplayResult>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<DisplayKey, DisplayResult> eldest) {
+      return size() > MAX_DISPLAY_RESULTS;
+    }
+  };
+
+  private final Map<String, DisplayArguments> myDisplayArguments = new HashMap<String, DisplayArguments>();
+
+  public static HaxeCompilerCompletionCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, HaxeCompilerCompletionCache.class);
+  }
+
+  @Nullable
+  public synchronized List<LookupElement> getDisplayResult(@NotNull DisplayKey key) {
+    DisplayResult result = myDisplayResults.get(key);
+    if (result == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - result.created > DISPLAY_RESULT_LIFETIME_MS) {
+      myDisplayResults.remove(key);
+      return null;
+    }
+    return result.elements;
+  }
+
+  public synchronized void putDisplayResult(@NotNull DisplayKey key, @NotNull List<LookupElement> elements) {
+    myDisplayResults.put(key, new DisplayResult(elements));
+  }
+
+  /**
+   * @param projectFile the project.xml the arguments were generated from, if we could find it.
+   * @return the cached 'lime display' output, or null if there is none or the project file
+   * has changed since.
+   */
+  @Nullable
+  public synchronized List<String> getOpenFLDisplayArguments(@NotNull Module module,
+                                                             @NotNull String targetFlag,
+                                                             @Nullable VirtualFile projectFile) {
+    DisplayArguments arguments = myDisplayArguments.get(module.getModuleFilePath() + targetFlag);
+    if (arguments == null || arguments.projectFileStamp != getStamp(projectFile)) {
+      return null;
+    }
+    return arguments.arguments;
+  }
+
+  public synchronized void putOpenFLDisplayArguments(@NotNull Module module,
+                                                     @NotNull String targetFlag,
+                                                     @Nullable VirtualFile projectFile,
+                                                     @NotNull List<String> arguments) {
+    myDisplayArguments.put(module.getModuleFilePath() + targetFlag, new DisplayArguments(arguments, getStamp(projectFile)));
+  }
+
+  public synchronized void clear() {
+    myDisplayResults.clear();
+    myDisplayArguments.clear();
+  }
+
+  private static long getStamp(@Nullable VirtualFile file) {
+    return file == null || !file.isValid() ? -1 : file.getModificationStamp();
+  }
+
+  /**
+   * Identifies a --display request.  The file content is kept as a digest, taken without
+   * the identifier being completed, so that typing or deleting letters of that identifier
+   * still finds the earlier result; keys don't hold on to copies of the document.
+   */
+  public static class DisplayKey {
+    private final String myModulePath;
+    private final String myBuildConfig;
+    private final String myFilePath;
+    private final int myAnchorOffset;
+    private final byte[] myContentDigest;
+
+    /**
+     * @param buildConfig  whatever identifies the build configuration the compiler is run with.
+     * @param text         the document text.
+     * @param anchorOffset where the completed identifier starts; the compiler is asked about this offset.
+     * @param caretOffset  where the completed identifier ends.
+     */
+    public DisplayKey(@NotNull Module module,
+                      @NotNull String buildConfig,
+                      @NotNull String filePath,
+                      @NotNull CharSequence text,
+                      int anchorOffset,
+                      int caretOffset) {
+      myModulePath = module.getModuleFilePath();
+      myBuildConfig = buildConfig;
+      myFilePath = filePath;
+      myAnchorOffset = anchorOffset;
+      final int end = Math.max(anchorOffset, caretOffset);
+      final MessageDigest digest = createDigest();
+      update(digest, text, 0, anchorOffset);
+      update(digest, text, end, text.length());
+      myContentDigest = digest.digest();
+    }
+
+    @NotNull
+    private static MessageDigest createDigest() {
+      try {
+        return MessageDigest.getInstance("MD5");
+      }
+      catch (NoSuchAlgorithmException e) {
+        // Every JRE has MD5.
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private static void update(@NotNull MessageDigest digest, @NotNull CharSequence text, int start, int end) {
+      final byte[] buffer = new byte[Math.min(8192, 2 * (end - start))];
+      int length = 0;
+      for (int i = start; i < end; i++) {
+        final char c = text.charAt(i);
+        buffer[length++] = (byte)(c >> 8);
+        buffer[length++] = (byte)c;
+        if (length == buffer.length) {
+          digest.update(buffer, 0, length);
+          length = 0;
+        }
+      }
+      digest.update(buffer, 0, length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof DisplayKey)) return false;
+
+      DisplayKey key = (DisplayKey)o;
+      return myAnchorOffset == key.myAnchorOffset &&
+             myModulePath.equals(key.myModulePath) &&
+             myBuildConfig.equals(key.myBuildConfig) &&
+             myFilePath.equals(key.myFilePath) &&
+             Arrays.equals(myContentDigest, key.myContentDigest);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = myModulePath.hashCode();
+      result = 31 * result + myBuildConfig.hashCode();
+      result = 31 * result + myFilePath.hashCode();
+      result = 31 * result + myAnchorOffset;
+      result = 31 * result + Arrays.hashCode(myContentDigest);
+      return result;
+    }
+  }
+
+  private static class DisplayResult {
+    final List<LookupElement> elements;
+    final long created = System.currentTimeMillis();
+
+    DisplayResult(@NotNull List<LookupElement> elements) {
+      this.elements = elements;
+    }
+  }
+
+  private static class DisplayArguments {
+    final List<String> arguments;
+    final long projectFileStamp;
+
+    DisplayArguments(@NotNull List<String> arguments, long projectFileStamp) {
+      this.arguments = arguments;
+      this.projectFileStamp = projectFileStamp;
+    }
+  }
+}
@@ -19,9 +19,11 @@ package com.intellij.plugins.haxe.ide;
 
 import com.google.common.base.Joiner;
 import com.intellij.codeInsight.completion.*;
+import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.compiler.ant.BuildProperties;
 import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.impl.FileDocumentManagerImpl;
@@ -30,6 +32,7 @@ import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.PlatformPatterns;
+import com.intellij.plugins.haxe.haxelib.HaxeProcessExecutor;
 import com.intellij.plugins.haxe.haxelib.HaxelibCommandUtils;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
@@ -47,18 +50,25 @@ import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.LineSeparator;
 import com.intellij.util.ProcessingContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.io.LocalFileFinder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Created by as3boyan on 25.11.14.
  */
 public class HaxeCompilerCompletionContributor extends CompletionContributor {
-  static HashMap<String, List<String>> openFLDisplayArguments = new HashMap<String, List<String>>();
+  // Completion is interactive; don't let a stuck compiler hold the popup for longer than this.
+  private static final long COMPLETION_TIMEOUT_MS = 10000;
+  // `lime display` may first have to rebuild the project's tools, which takes much longer than a --display run.
+  // Its answer is cached per project file, so this wait is paid once.
+  private static final long LIME_DISPLAY_TIMEOUT_MS = 180000;
+
+  private static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.ide.HaxeCompilerCompletionContributor");
 
   public HaxeCompilerCompletionContributor() {
     //Trigger completion only on HaxeReferenceExpressions
@@ -99,6 +109,19 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
                  if (ModuleUtil.getModuleType(moduleForFile).equals(HaxeModuleType.getInstance())) {
                    //Get module settings
                    HaxeModuleSettings moduleSettings = HaxeModuleSettings.getInstance(moduleForFile);
+
+                   //Same question as last time? Then the compiler would give the same answer.
+                   HaxeCompilerCompletionCache cache = HaxeCompilerCompletionCache.getInstance(project);
+                   HaxeCompilerCompletionCache.DisplayKey displayKey =
+                     new HaxeCompilerCompletionCache.DisplayKey(moduleForFile, getBuildConfigKey(moduleSettings),
+                                                                file.getVirtualFile().getPath(), document.getCharsSequence(),
+                                                                parent, parameters.getOffset());
+                   List<LookupElement> elements = cache.getDisplayResult(displayKey);
+                   if (elements != null) {
+                     result.addAllElements(elements);
+                     return;
+                   }
+
                    int buildConfig = moduleSettings.getBuildConfig();
                    switch (buildConfig) {
                      case HaxeModuleSettings.USE_HXML:
@@ -112,9 +135,10 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
                            commandLineArguments.add(file.getVirtualFile().getPath() + "@" + Integer.toString(offset));
 
                            List<String> stderr =
-                             HaxelibCommandUtils.getProcessStderr(commandLineArguments, BuildProperties.getProjectBaseDir(project));
+                             HaxelibCommandUtils.getProcessStderr(commandLineArguments, BuildProperties.getProjectBaseDir(project),
+                                                                  COMPLETION_TIMEOUT_MS);
 
-                           getCompletionFromXml(result, project, stderr);
+                           elements = getCompletionFromXml(project, stderr);
                          }
                        }
                        break;
@@ -124,8 +148,9 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
                        break;
                      case HaxeModuleSettingsBaseImpl.USE_OPENFL:
                        String targetFlag = moduleSettings.getOpenFLTarget().getTargetFlag();
+                       VirtualFile projectFile = findOpenFLProjectFile(moduleSettings, project);
 
-                       List<String> stdout = openFLDisplayArguments.get(moduleForFile.getModuleFilePath() + targetFlag);
+                       List<String> stdout = cache.getOpenFLDisplayArguments(moduleForFile, targetFlag, projectFile);
                        if (stdout == null) {
                          commandLineArguments.add(HaxelibCommandUtils.getHaxelibPath(moduleForFile));
                          commandLineArguments.add("run");
@@ -135,10 +160,24 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
 
                          commandLineArguments.add(targetFlag);
 
-                         stdout = HaxelibCommandUtils.getProcessStdout(commandLineArguments,
-                                                                       BuildProperties.getProjectBaseDir(project));
+                         final List<String> output = Collections.synchronizedList(new ArrayList<String>());
+                         HaxeProcessExecutor.Result limeResult =
+                           HaxeProcessExecutor.execute(commandLineArguments, BuildProperties.getProjectBaseDir(project),
+                                                       LIME_DISPLAY_TIMEOUT_MS, true, new HaxeProcessExecutor.LineListener() {
+                               @Override
+                               public void onLine(@NotNull String line, boolean isStderr) {
+                                 output.add(line);
+                               }
+                             });
+                         if (limeResult.isTimedOut()) {
+                           // Partial arguments would make the compiler fail; don't run it, and don't remember them.
+                           LOG.warn("'lime display " + targetFlag + "' didn't finish within " + LIME_DISPLAY_TIMEOUT_MS / 1000
+                                    + " seconds; no compiler completion this time.");
+                           break;
+                         }
+                         stdout = new ArrayList<String>(output);
 
-                         openFLDisplayArguments.put(moduleForFile.getModuleFilePath() + targetFlag, stdout);
+                         cache.putOpenFLDisplayArguments(moduleForFile, targetFlag, projectFile, stdout);
                        }
 
                        commandLineArguments.clear();
@@ -151,9 +190,10 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
                        commandLineArguments.add(file.getVirtualFile().getPath() + "@" + Integer.toString(offset));
 
                        List<String> stderr =
-                         HaxelibCommandUtils.getProcessStderr(commandLineArguments, BuildProperties.getProjectBaseDir(project));
+                         HaxelibCommandUtils.getProcessStderr(commandLineArguments, BuildProperties.getProjectBaseDir(project),
+                                                              COMPLETION_TIMEOUT_MS);
 
-                       getCompletionFromXml(result, project, stderr);
+                       elements = getCompletionFromXml(project, stderr);
                        break;
                      case HaxeModuleSettingsBaseImpl.USE_PROPERTIES:
                        String arguments = moduleSettings.getArguments();
@@ -164,18 +204,46 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
                          commandLineArguments.add(file.getVirtualFile().getPath() + "@" + Integer.toString(offset));
 
                          List<String> stderr1 =
-                           HaxelibCommandUtils.getProcessStderr(commandLineArguments, BuildProperties.getProjectBaseDir(project));
+                           HaxelibCommandUtils.getProcessStderr(commandLineArguments, BuildProperties.getProjectBaseDir(project),
+                                                                COMPLETION_TIMEOUT_MS);
 
-                         getCompletionFromXml(result, project, stderr1);
+                         elements = getCompletionFromXml(project, stderr1);
                        }
                        break;
                    }
+
+                   if (elements != null && !elements.isEmpty()) {
+                     cache.putDisplayResult(displayKey, elements);
+                     result.addAllElements(elements);
+                   }
                  }
                }
              }
            });
   }
 
+  /**
+   * Everything in the module settings that changes how the compiler sees the project.
+   */
+  @NotNull
+  private static String getBuildConfigKey(@NotNull HaxeModuleSettings settings) {
+    return settings.getBuildConfig() + "|" + settings.getHxmlPath() + "|" + settings.getOpenFLPath() + "|" +
+           settings.getOpenFLTarget() + "|" + settings.getArguments();
+  }
+
+  /**
+   * @return the project.xml 'lime display' reads: the configured one, or the one in the project directory.
+   */
+  @Nullable
+  private static VirtualFile findOpenFLProjectFile(@NotNull HaxeModuleSettings settings, @NotNull Project project) {
+    String openFLPath = settings.getOpenFLPath();
+    if (openFLPath != null && !openFLPath.isEmpty()) {
+      return LocalFileFinder.findFile(openFLPath);
+    }
+    VirtualFile baseDir = project.getBaseDir();
+    return baseDir == null ? null : baseDir.findChild("project.xml");
+  }
+
   private void formatAndAddCompilerArguments(ArrayList<String> commandLineArguments, List<String> stdout) {
     for (int i = 0; i < stdout.size(); i++) {
       String s = stdout.get(i).trim();
@@ -185,7 +253,9 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
     }
   }
 
-  private void getCompletionFromXml(CompletionResultSet result, Project project, List<String> stderr) {
+  @NotNull
+  private List<LookupElement> getCompletionFromXml(Project project, List<String> stderr) {
+    List<LookupElement> elements = new ArrayList<LookupElement>();
     if (!stderr.isEmpty() && !stderr.get(0).contains("Error") && stderr.size() > 1) {
       String s = Joiner.on("").join(stderr);
       PsiFile fileFromText = PsiFileFactory.getInstance(project).createFileFromText("data.xml", XmlFileType.INSTANCE, s);
@@ -229,11 +299,12 @@ public class HaxeCompilerCompletionContributor extends CompletionContributor {
 
               lookupElementBuilder = lookupElementBuilder.withTailText(" " + text, true);
             }
-            result.addElement(lookupElementBuilder);
+            elements.add(lookupElementBuilder);
           }
         }
       }
     }
+    return elements;
   }
 
   private String getFormattedText(String text1) {
@@ -67,9 +67,7 @@ public class HaxeLineMarkerProvider implements LineMarkerProvider {
   }
 
   private static void collectClassMarkers(Collection<LineMarkerInfo> result, @NotNull HaxeClass haxeClass) {
-    final List<HaxeClass> supers = HaxeResolveUtil.tyrResolveClassesByQName(haxeClass.getHaxeExtendsList());
-    supers.addAll(HaxeResolveUtil.tyrResolveClassesByQName(haxeClass.getHaxeImplementsList()));
-    final List<HaxeNamedComponent> superItems = HaxeResolveUtil.findNamedSubComponents(supers.toArray(new HaxeClass[supers.size()]));
+    final HaxeClassMemberTable memberTable = HaxeClassMemberTable.getInstance(haxeClass);
 
     final List<HaxeClass> subClasses = HaxeInheritanceDefinitionsSearchExecutor.getItemsByQName(haxeClass);
     final List<HaxeNamedComponent> subItems = new ArrayList<HaxeNamedComponent>();
@@ -81,7 +79,7 @@ public class HaxeLineMarkerProvider implements LineMarkerProvider {
     for (HaxeNamedComponent haxeNamedComponent : HaxeResolveUtil.getNamedSubComponents(haxeClass)) {
       final HaxeComponentType type = HaxeComponentType.typeOf(haxeNamedComponent);
       if (type == HaxeComponentType.METHOD || type == HaxeComponentType.FIELD) {
-        LineMarkerInfo item = tryCreateOverrideMarker(haxeNamedComponent, superItems);
+        LineMarkerInfo item = tryCreateOverrideMarker(haxeNamedComponent, memberTable);
         if (item != null) {
           result.add(item);
         }
@@ -102,17 +100,12 @@ public class HaxeLineMarkerProvider implements LineMarkerProvider {
 
   @Nullable
   private static LineMarkerInfo tryCreateOverrideMarker(final HaxeNamedComponent namedComponent,
-                                                        List<HaxeNamedComponent> superItems) {
+                                                        HaxeClassMemberTable memberTable) {
     final String methodName = namedComponent.getName();
     if (methodName == null) {
       return null;
     }
-    final List<HaxeNamedComponent> filteredSuperItems = ContainerUtil.filter(superItems, new Condition<HaxeNamedComponent>() {
-      @Override
-      public boolean value(HaxeNamedComponent component) {
-        return methodName.equals(component.getName());
-      }
-    });
+    final List<HaxeNamedComponent> filteredSuperItems = memberTable.findInheritedMembers(methodName);
     if (filteredSuperItems.isEmpty()) {
       return null;
     }
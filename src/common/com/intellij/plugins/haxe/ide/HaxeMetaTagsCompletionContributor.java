@@ -19,6 +19,8 @@ package com.intellij.plugins.haxe.ide;
 
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.util.HaxeHelpCache;
@@ -32,12 +34,15 @@ import java.util.List;
  */
 public class HaxeMetaTagsCompletionContributor extends CompletionContributor {
   public HaxeMetaTagsCompletionContributor() {
-    final List<HXMLCompletionItem> metaTags = HaxeHelpCache.getInstance().getMetaTags();
     extend(CompletionType.BASIC, PlatformPatterns.psiElement(HaxeTokenTypes.MACRO_ID), new CompletionProvider<CompletionParameters>() {
       @Override
       protected void addCompletions(@NotNull CompletionParameters parameters,
                                     ProcessingContext context,
                                     @NotNull CompletionResultSet result) {
+        // Whatever the compiler has told us so far; the first request may come before that.
+        final Module module = ModuleUtilCore.findModuleForPsiElement(parameters.getOriginalFile());
+        final List<HXMLCompletionItem> metaTags =
+          HaxeHelpCache.getInstance().getMetaTags(module, getFirstLetter(result.getPrefixMatcher().getPrefix()));
         for (int i = 0; i < metaTags.size(); i++) {
           HXMLCompletionItem completionItem = metaTags.get(i);
           result.addElement(LookupElementBuilder.create(completionItem.name).withTailText(" " + completionItem.description, true));
@@ -45,4 +50,18 @@ public class HaxeMetaTagsCompletionContributor extends CompletionContributor {
       }
     });
   }
+
+  /**
+   * Completion matches on the first letter of the prefix at least, so only the
+   * tags starting with it have to be offered.
+   */
+  @NotNull
+  private static String getFirstLetter(@NotNull String prefix) {
+    for (int i = 0; i < prefix.length(); i++) {
+      if (Character.isLetterOrDigit(prefix.charAt(i))) {
+        return prefix.substring(i, i + 1);
+      }
+    }
+    return "";
+  }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.actions;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+
+import java.io.IOException;
+
+/**
+ * Saves the performance metrics collected so far as JSON, to be attached to a bug report.
+ */
+public class HaxeMetricsDumpAction extends AnAction implements DumbAware {
+  private static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.ide.actions.HaxeMetricsDumpAction");
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    final Project project = e.getData(CommonDataKeys.PROJECT);
+    final FileSaverDescriptor descriptor = new FileSaverDescriptor(HaxeBundle.message("haxe.metrics.dump.title"),
+                                                                   HaxeBundle.message("haxe.metrics.dump.description"),
+                                                                   "json");
+    final VirtualFileWrapper target =
+      FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project).save(null, "haxe-metrics.json");
+    if (target == null) {
+      return;
+    }
+    try {
+      FileUtil.writeToFile(target.getFile(), HaxeMetrics.toJson());
+    }
+    catch (IOException ex) {
+      LOG.info(ex);
+      Messages.showErrorDialog(project, ex.getMessage(), HaxeBundle.message("haxe.metrics.dump.title"));
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.actions;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.testFramework.LightVirtualFile;
+
+/**
+ * Shows the performance metrics collected so far in an editor tab.
+ */
+public class HaxeMetricsReportAction extends AnAction implements DumbAware {
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    final String report = HaxeMetrics.buildReport();
+    final Project project = e.getData(CommonDataKeys.PROJECT);
+    if (project == null) {
+      Messages.showInfoMessage(report, HaxeBundle.message("haxe.metrics.report.title"));
+      return;
+    }
+    final LightVirtualFile file =
+      new LightVirtualFile(HaxeBundle.message("haxe.metrics.report.file"), PlainTextFileType.INSTANCE, report);
+    file.setWritable(false);
+    FileEditorManager.getInstance(project).openFile(file, true);
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.annotator;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.annotation.Annotation;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.AnnotationSession;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Segment;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.plugins.haxe.lang.psi.HaxeSignatureModificationTracker;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiFileRange;
+import com.intellij.xml.util.XmlStringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Diagnostics of one declaration (class, method or field), recorded once and replayed on later
+ * daemon passes while no Haxe signature, no project root and, for a method, nothing inside the
+ * method has changed.  Typing inside a method body therefore re-analyses that method only.
+ *
+ * Ranges are kept as smart pointers, so edits elsewhere in the file move them along.
+ */
+class HaxeSemanticAnalysisCache {
+  private static final Key<HaxeSemanticAnalysisCache> CACHE_KEY = Key.create("HAXE_SEMANTIC_ANALYSIS_CACHE");
+
+  interface Checker<T extends PsiElement> {
+    void check(@NotNull T element, @NotNull AnnotationHolder holder);
+  }
+
+  private final long mySignatureModificationCount;
+  private final long myRootModificationCount;
+  private final long myOwnModificationCount;
+  @NotNull private final List<RecordedAnnotation> myAnnotations;
+
+  private HaxeSemanticAnalysisCache(long signatureModificationCount,
+                                    long rootModificationCount,
+                                    long ownModificationCount,
+                                    @NotNull List<RecordedAnnotation> annotations) {
+    mySignatureModificationCount = signatureModificationCount;
+    myRootModificationCount = rootModificationCount;
+    myOwnModificationCount = ownModificationCount;
+    myAnnotations = annotations;
+  }
+
+  static <T extends PsiElement> void annotate(@NotNull T element, @NotNull AnnotationHolder holder, @NotNull Checker<T> checker) {
+    final Project project = element.getProject();
+    final long signatureModificationCount = HaxeSignatureModificationTracker.getInstance(project).getModificationCount();
+    final long rootModificationCount = ProjectRootManager.getInstance(project).getModificationCount();
+    final long ownModificationCount = HaxeSignatureModificationTracker.getOwnModificationCount(element);
+
+    final HaxeSemanticAnalysisCache cache = element.getUserData(CACHE_KEY);
+    if (cache != null
+        && cache.mySignatureModificationCount == signatureModificationCount
+        && cache.myRootModificationCount == rootModificationCount
+        && cache.myOwnModificationCount == ownModificationCount
+        && cache.replay(holder)) {
+      return;
+    }
+
+    final RecordingHolder recorder = new RecordingHolder(holder);
+    checker.check(element, recorder);
+    final HaxeSemanticAnalysisCache result = new HaxeSemanticAnalysisCache(
+      signatureModificationCount, rootModificationCount, ownModificationCount, recorder.getRecorded(element.getContainingFile()));
+    element.putUserData(CACHE_KEY, result);
+    result.replay(holder);
+  }
+
+  /**
+   * @return false, having created nothing, if the range of an annotation was lost.
+   */
+  private boolean replay(@NotNull AnnotationHolder holder) {
+    final List<TextRange> ranges = new ArrayList<TextRange>(myAnnotations.size());
+    for (RecordedAnnotation recorded : myAnnotations) {
+      final Segment range = recorded.myRange == null ? null : recorded.myRange.getRange();
+      if (recorded.myRange != null && range == null) {
+        return false;
+      }
+      ranges.add(range == null ? null : TextRange.create(range));
+    }
+    for (int i = 0; i < myAnnotations.size(); i++) {
+      final Annotation from = myAnnotations.get(i).myAnnotation;
+      final TextRange range = ranges.get(i) == null ? new TextRange(from.getStartOffset(), from.getEndOffset()) : ranges.get(i);
+      final Annotation to = holder.createAnnotation(from.getSeverity(), range, from.getMessage());
+      copyAttributes(from, to, range.getStartOffset() - from.getStartOffset());
+    }
+    return true;
+  }
+
+  private static void copyAttributes(@NotNull Annotation from, @NotNull Annotation to, int shift) {
+    to.setTooltip(from.getTooltip());
+    to.setHighlightType(from.getHighlightType());
+    to.setTextAttributes(from.getTextAttributes());
+    to.setEnforcedTextAttributes(from.getEnforcedTextAttributes());
+    to.setAfterEndOfLine(from.isAfterEndOfLine());
+    to.setFileLevelAnnotation(from.isFileLevelAnnotation());
+    to.setGutterIconRenderer(from.getGutterIconRenderer());
+    to.setProblemGroup(from.getProblemGroup());
+    to.setNeedsUpdateOnTyping(from.needsUpdateOnTyping());
+    final List<Annotation.QuickFixInfo> fixes = from.getQuickFixes();
+    if (fixes != null) {
+      for (Annotation.QuickFixInfo fix : fixes) {
+        to.registerFix(fix.quickFix, fix.textRange == null ? null : fix.textRange.shiftRight(shift), fix.key);
+      }
+    }
+  }
+
+  private static class RecordedAnnotation {
+    // Null if the file can't hold smart pointers; the recorded offsets are used as they are.
+    @Nullable final SmartPsiFileRange myRange;
+    @NotNull final Annotation myAnnotation;
+
+    RecordedAnnotation(@Nullable SmartPsiFileRange range, @NotNull Annotation annotation) {
+      myRange = range;
+      myAnnotation = annotation;
+    }
+  }
+
+  /**
+   * Keeps the annotations the checkers create, with everything set on them, instead of showing them.
+   * Severities and default tooltips are those the daemon's own holder uses.
+   */
+  private static class RecordingHolder implements AnnotationHolder {
+    @NotNull private final AnnotationHolder myHolder;
+    private final List<Annotation> myAnnotations = new ArrayList<Annotation>();
+
+    RecordingHolder(@NotNull AnnotationHolder holder) {
+      myHolder = holder;
+    }
+
+    @NotNull
+    List<RecordedAnnotation> getRecorded(@Nullable PsiFile file) {
+      if (myAnnotations.isEmpty()) {
+        return Collections.emptyList();
+      }
+      final List<RecordedAnnotation> result = new ArrayList<RecordedAnnotation>(myAnnotations.size());
+      for (Annotation annotation : myAnnotations) {
+        final SmartPsiFileRange range = file == null ? null : SmartPointerManager.getInstance(file.getProject())
+          .createSmartPsiFileRangePointer(file, new TextRange(annotation.getStartOffset(), annotation.getEndOffset()));
+        result.add(new RecordedAnnotation(range, annotation));
+      }
+      return result;
+    }
+
+    @Override
+    public Annotation createErrorAnnotation(@NotNull PsiElement elt, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.ERROR, elt.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createErrorAnnotation(@NotNull ASTNode node, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.ERROR, node.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createErrorAnnotation(@NotNull TextRange range, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.ERROR, range, message);
+    }
+
+    @Override
+    public Annotation createWarningAnnotation(@NotNull PsiElement elt, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.WARNING, elt.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createWarningAnnotation(@NotNull ASTNode node, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.WARNING, node.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createWarningAnnotation(@NotNull TextRange range, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.WARNING, range, message);
+    }
+
+    @Override
+    public Annotation createWeakWarningAnnotation(@NotNull PsiElement elt, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.WEAK_WARNING, elt.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createWeakWarningAnnotation(@NotNull ASTNode node, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.WEAK_WARNING, node.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createWeakWarningAnnotation(@NotNull TextRange range, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.WEAK_WARNING, range, message);
+    }
+
+    @Override
+    public Annotation createInfoAnnotation(@NotNull PsiElement elt, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.INFO, elt.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createInfoAnnotation(@NotNull ASTNode node, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.INFO, node.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createInfoAnnotation(@NotNull TextRange range, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.INFO, range, message);
+    }
+
+    @Override
+    public Annotation createInformationAnnotation(@NotNull PsiElement elt, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.INFORMATION, elt.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createInformationAnnotation(@NotNull ASTNode node, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.INFORMATION, node.getTextRange(), message);
+    }
+
+    @Override
+    public Annotation createInformationAnnotation(@NotNull TextRange range, @Nullable String message) {
+      return createAnnotation(HighlightSeverity.INFORMATION, range, message);
+    }
+
+    @Override
+    public Annotation createAnnotation(@NotNull HighlightSeverity severity, @NotNull TextRange range, @Nullable String message) {
+      return createAnnotation(severity, range, message, message == null ? null : XmlStringUtil.wrapInHtml(XmlStringUtil.escapeString(message)));
+    }
+
+    // Not in the AnnotationHolder of every supported IDEA version, hence no @Override.
+    public Annotation createAnnotation(@NotNull HighlightSeverity severity,
+                                       @NotNull TextRange range,
+                                       @Nullable String message,
+                                       @Nullable String htmlTooltip) {
+      final Annotation annotation = new Annotation(range.getStartOffset(), range.getEndOffset(), severity, message, htmlTooltip);
+      myAnnotations.add(annotation);
+      return annotation;
+    }
+
+    @NotNull
+    @Override
+    public AnnotationSession getCurrentAnnotationSession() {
+      return myHolder.getCurrentAnnotationSession();
+    }
+
+    @Override
+    public boolean isBatchMode() {
+      return myHolder.isBatchMode();
+    }
+  }
+}
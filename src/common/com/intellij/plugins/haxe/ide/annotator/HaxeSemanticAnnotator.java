@@ -32,6 +32,7 @@ import com.intellij.plugins.haxe.model.type.SpecificTypeReference;
 import com.intellij.plugins.haxe.util.*;
 import com.intellij.psi.*;
 import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
 
@@ -45,15 +46,39 @@ public class HaxeSemanticAnnotator implements Annotator {
     if (element instanceof HaxePackageStatement) {
       PackageChecker.check((HaxePackageStatement)element, holder);
     } else if (element instanceof HaxeMethod) {
-      MethodChecker.check((HaxeMethod)element, holder);
+      HaxeSemanticAnalysisCache.annotate((HaxeMethod)element, holder, METHOD_CHECKER);
     } else if (element instanceof HaxeClass) {
-      ClassChecker.check((HaxeClass)element, holder);
+      HaxeSemanticAnalysisCache.annotate((HaxeClass)element, holder, CLASS_CHECKER);
     } if (element instanceof HaxeType) {
       TypeChecker.check((HaxeType)element, holder);
     } if (element instanceof HaxeVarDeclaration) {
-      FieldChecker.check((HaxeVarDeclaration)element, holder);
+      HaxeSemanticAnalysisCache.annotate((HaxeVarDeclaration)element, holder, FIELD_CHECKER);
     }
   }
+
+  private static final HaxeSemanticAnalysisCache.Checker<HaxeMethod> METHOD_CHECKER =
+    new HaxeSemanticAnalysisCache.Checker<HaxeMethod>() {
+      @Override
+      public void check(@NotNull HaxeMethod element, @NotNull AnnotationHolder holder) {
+        MethodChecker.check(element, holder);
+      }
+    };
+
+  private static final HaxeSemanticAnalysisCache.Checker<HaxeClass> CLASS_CHECKER =
+    new HaxeSemanticAnalysisCache.Checker<HaxeClass>() {
+      @Override
+      public void check(@NotNull HaxeClass element, @NotNull AnnotationHolder holder) {
+        ClassChecker.check(element, holder);
+      }
+    };
+
+  private static final HaxeSemanticAnalysisCache.Checker<HaxeVarDeclaration> FIELD_CHECKER =
+    new HaxeSemanticAnalysisCache.Checker<HaxeVarDeclaration>() {
+      @Override
+      public void check(@NotNull HaxeVarDeclaration element, @NotNull AnnotationHolder holder) {
+        FieldChecker.check(element, holder);
+      }
+    };
 }
 
 class TypeTagChecker {
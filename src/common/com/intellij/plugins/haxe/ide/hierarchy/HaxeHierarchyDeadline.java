@@ -0,0 +1,133 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.hierarchy;
+
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.plugins.haxe.config.HaxeProjectSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of a single hierarchy search (building the children of one node).
+ *
+ * When the budget runs out, the search is not cancelled: it stops at the next
+ * check of {@link #isExpired()} and returns what it found so far, so the tree
+ * shows partial results instead of none.  The user is told the results are
+ * incomplete when the search is {@link #stop() stopped}.
+ *
+ * Expiry is flagged by a task on the application's shared scheduler; a search
+ * doesn't start a timer thread of its own.
+ */
+public final class HaxeHierarchyDeadline {
+  private static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline");
+
+  public static final String NOTIFICATION_GROUP = "Haxe hierarchy";
+
+  /**
+   * The kinds of searches, with their default budgets.  The budgets may be
+   * overridden per project, see {@link HaxeProjectSettings#getHierarchySearchBudget}.
+   */
+  public enum SearchKind {
+    SUBTYPES("haxe.hierarchy.search.type", 20),
+    METHOD_OVERRIDES("haxe.hierarchy.search.method", 20),
+    CALLERS("haxe.hierarchy.search.call", 30),
+    CALLEES("haxe.hierarchy.search.call", 20);
+
+    private final String myPresentableNameKey;
+    private final int myDefaultBudgetSeconds;
+
+    SearchKind(@NotNull String presentableNameKey, int defaultBudgetSeconds) {
+      myPresentableNameKey = presentableNameKey;
+      myDefaultBudgetSeconds = defaultBudgetSeconds;
+    }
+
+    @NotNull
+    public String getPresentableName() {
+      return HaxeBundle.message(myPresentableNameKey);
+    }
+
+    public int getDefaultBudgetSeconds() {
+      return myDefaultBudgetSeconds;
+    }
+  }
+
+  private final Project myProject;
+  private final SearchKind myKind;
+  private final long myStartTime;
+  private final int myBudgetSeconds;
+  private final ScheduledFuture<?> myExpiry;
+  private volatile boolean myExpired;
+  private boolean myStopped;
+
+  private HaxeHierarchyDeadline(@NotNull Project project, @NotNull SearchKind kind, int budgetSeconds) {
+    myProject = project;
+    myKind = kind;
+    myBudgetSeconds = budgetSeconds;
+    myStartTime = System.currentTimeMillis();
+    myExpiry = JobScheduler.getScheduler().schedule(new Runnable() {
+      @Override
+      public void run() {
+        LOG.debug(myKind + " search ran out of time.");
+        myExpired = true;
+      }
+    }, budgetSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Start the clock for a search.  Every call must be paired with {@link #stop()}.
+   */
+  @NotNull
+  public static HaxeHierarchyDeadline start(@NotNull Project project, @NotNull SearchKind kind) {
+    int budget = HaxeProjectSettings.getInstance(project).getHierarchySearchBudget(kind.name(), kind.getDefaultBudgetSeconds());
+    return new HaxeHierarchyDeadline(project, kind, budget);
+  }
+
+  /**
+   * @return true once the budget has run out.  Searches should stop and return what they have.
+   */
+  public boolean isExpired() {
+    return myExpired;
+  }
+
+  /**
+   * Ends the search: the scheduled expiry is dropped, and if the budget ran
+   * out, the user is told that the results are incomplete.
+   */
+  public synchronized void stop() {
+    if (myStopped) {
+      return;
+    }
+    myStopped = true;
+    myExpiry.cancel(false);
+    LOG.debug(myKind + " search took " + (System.currentTimeMillis() - myStartTime) + " milliseconds.");
+    if (myExpired && !myProject.isDisposed()) {
+      Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP,
+                                                HaxeBundle.message("haxe.hierarchy.search.incomplete.title", myKind.getPresentableName()),
+                                                HaxeBundle.message("haxe.hierarchy.search.incomplete.text", myBudgetSeconds),
+                                                NotificationType.WARNING), myProject);
+    }
+  }
+}
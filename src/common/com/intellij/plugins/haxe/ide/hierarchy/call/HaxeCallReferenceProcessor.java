@@ -23,7 +23,7 @@ import com.intellij.ide.hierarchy.call.JavaCallHierarchyData;
 import com.intellij.ide.util.treeView.NodeDescriptor;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
+import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline;
 import com.intellij.plugins.haxe.lang.psi.HaxeNewExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeReferenceExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeSuperExpression;
@@ -42,7 +42,7 @@ public class HaxeCallReferenceProcessor implements CallReferenceProcessor {
   private static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.ide.hierarchy.call.HaxeCallReferenceProcessor");
 
   public static class CallData extends JavaCallHierarchyData {
-    HaxeHierarchyTimeoutHandler myTimeoutHandler;
+    HaxeHierarchyDeadline myDeadline;
 
     public CallData(PsiClass originalClass,
                                  PsiMethod methodToFind,
@@ -52,13 +52,13 @@ public class HaxeCallReferenceProcessor implements CallReferenceProcessor {
                                  NodeDescriptor nodeDescriptor,
                                  Map<PsiMember, NodeDescriptor> resultMap,
                                  Project project,
-                                 HaxeHierarchyTimeoutHandler timeoutHandler) {
+                                 HaxeHierarchyDeadline deadline) {
       super(originalClass, methodToFind, originalType, method, methodsToFind, nodeDescriptor, resultMap, project);
-      myTimeoutHandler = timeoutHandler;
+      myDeadline = deadline;
     }
 
-    public HaxeHierarchyTimeoutHandler getTimeoutHandler() {
-      return myTimeoutHandler;
+    public HaxeHierarchyDeadline getDeadline() {
+      return myDeadline;
     }
   }
 
@@ -79,10 +79,10 @@ public class HaxeCallReferenceProcessor implements CallReferenceProcessor {
     PsiClassType originalType = data.getOriginalType();
     Map<PsiMember, NodeDescriptor> methodToDescriptorMap = data.getResultMap();
     Project myProject = data.getProject();
-    HaxeHierarchyTimeoutHandler timeoutHandler = data.getTimeoutHandler();
+    HaxeHierarchyDeadline deadline = data.getDeadline();
 
-    // All done, if we time out.
-    if (timeoutHandler.checkAndCancelIfNecessary()) {
+    // All done, if we time out.  What was found so far stays in the result map.
+    if (deadline.isExpired()) {
       return false;
     }
 
@@ -21,7 +21,7 @@ import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
 import com.intellij.ide.hierarchy.HierarchyTreeStructure;
 import com.intellij.ide.hierarchy.call.CallHierarchyNodeDescriptor;
 import com.intellij.openapi.project.Project;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
+import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline;
 import com.intellij.plugins.haxe.lang.psi.HaxeCallExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
 import com.intellij.plugins.haxe.lang.psi.HaxeNewExpression;
@@ -52,7 +52,7 @@ public class HaxeCalleeMethodsTreeStructure extends HierarchyTreeStructure {
 
   @NotNull
   protected final Object[] buildChildren(@NotNull final HierarchyNodeDescriptor descriptor) {
-    final HaxeHierarchyTimeoutHandler timeoutHandler = new HaxeHierarchyTimeoutHandler();
+    final HaxeHierarchyDeadline deadline = HaxeHierarchyDeadline.start(myProject, HaxeHierarchyDeadline.SearchKind.CALLEES);
 
     try {
       final PsiMember enclosingElement = ((CallHierarchyNodeDescriptor)descriptor).getEnclosingElement();
@@ -76,7 +76,7 @@ public class HaxeCalleeMethodsTreeStructure extends HierarchyTreeStructure {
       final ArrayList<CallHierarchyNodeDescriptor> result = new ArrayList<CallHierarchyNodeDescriptor>();
 
       for (final PsiMethod calledMethod : methods) {
-        if (timeoutHandler.checkAndCancelIfNecessary()) {
+        if (deadline.isExpired()) {
           break;
         }
 
@@ -94,8 +94,8 @@ public class HaxeCalleeMethodsTreeStructure extends HierarchyTreeStructure {
       }
 
       // also add overriding methods as children
-      if (!timeoutHandler.isCanceled()) {
-        Query<PsiMethod> query = HaxeMethodsSearch.search(method, timeoutHandler);
+      if (!deadline.isExpired()) {
+        Query<PsiMethod> query = HaxeMethodsSearch.search(method, deadline);
         query.forEach(new Processor<PsiMethod>() {
           @Override
           public boolean process(PsiMethod overridingMethod) {
@@ -104,7 +104,7 @@ public class HaxeCalleeMethodsTreeStructure extends HierarchyTreeStructure {
                 new CallHierarchyNodeDescriptor(myProject, descriptor, overridingMethod, false, false);
               if (!result.contains(node)) result.add(node);
             }
-            return timeoutHandler.checkAndCancelIfNecessary();
+            return true;
           }
         });
       }
@@ -115,10 +115,7 @@ public class HaxeCalleeMethodsTreeStructure extends HierarchyTreeStructure {
       // This is in a finally clause because a cancellation would otherwise throw
       // right past us.
 
-      timeoutHandler.stop(); // Clean up.
-      if (timeoutHandler.isCanceled()) {
-        timeoutHandler.postCanceledDialog(myProject);
-      }
+      deadline.stop(); // Clean up, and tell the user if the results are partial.
     }
   }
 
@@ -26,7 +26,7 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.*;
 import com.intellij.openapi.project.Project;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
+import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline;
 import com.intellij.psi.*;
 import com.intellij.psi.search.SearchScope;
 import com.intellij.psi.search.searches.MethodReferencesSearch;
@@ -118,7 +118,7 @@ public class HaxeCallerMethodsTreeStructure extends HierarchyTreeStructure {
 
   @NotNull
   protected final Object[] buildChildrenInternal(@NotNull final HierarchyNodeDescriptor descriptor) {
-    final HaxeHierarchyTimeoutHandler timeoutHandler = new HaxeHierarchyTimeoutHandler();
+    final HaxeHierarchyDeadline deadline = HaxeHierarchyDeadline.start(myProject, HaxeHierarchyDeadline.SearchKind.CALLERS);
     // final HaxeDebugTimeLog timeLog = HaxeDebugTimeLog.startNew("buildChildren", HaxeDebugTimeLog.Since.StartAndPrevious);
 
     try {
@@ -145,7 +145,7 @@ public class HaxeCallerMethodsTreeStructure extends HierarchyTreeStructure {
       for (final PsiMethod methodToFind : methodsToFind) {
         final HaxeCallReferenceProcessor.CallData data =
           new HaxeCallReferenceProcessor.CallData(originalClass, methodToFind, originalType, method, methodsToFind,
-                                                  descriptor, methodToDescriptorMap, myProject, timeoutHandler);
+                                                  descriptor, methodToDescriptorMap, myProject, deadline);
 
         // timeLog.stampAndEcho("Looking for references in method: " + methodToFind.getName());
         MethodReferencesSearch.search(methodToFind, searchScope, true).forEach(new Processor<PsiReference>() {
@@ -154,16 +154,17 @@ public class HaxeCallerMethodsTreeStructure extends HierarchyTreeStructure {
             for (CallReferenceProcessor processor : CallReferenceProcessor.EP_NAME.getExtensions()) {
               if (!processor.process(reference, data)) break;
               // timeLog.stampAndEcho("processing entry in forEach()");
-              if (timeoutHandler.checkAndCancelIfNecessary()) break;
+              if (deadline.isExpired()) break;
             }
-            return !timeoutHandler.isCanceled();
+            return !deadline.isExpired();
           }
         });
 
         // timeLog.stampAndEcho("finished with " + methodToFind.getName());
-        if (timeoutHandler.checkAndCancelIfNecessary()) break;
+        if (deadline.isExpired()) break;
       }
 
+      // Partial, if the deadline expired.
       return methodToDescriptorMap.values().toArray(new Object[methodToDescriptorMap.size()]);
 
     } catch (ProcessCanceledException e) {
@@ -173,11 +174,7 @@ public class HaxeCallerMethodsTreeStructure extends HierarchyTreeStructure {
 
     } finally {
 
-      timeoutHandler.stop(); // Clean up.
-      if (timeoutHandler.isCanceled()) {
-        // timeLog.stampAndEcho("posting dialog with canceled message");
-        timeoutHandler.postCanceledDialog(myProject);
-      }
+      deadline.stop(); // Clean up, and tell the user if the results are partial.
     }
 
   }
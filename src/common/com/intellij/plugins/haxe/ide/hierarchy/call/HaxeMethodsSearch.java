@@ -20,7 +20,7 @@ package com.intellij.plugins.haxe.ide.hierarchy.call;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.openapi.util.Computable;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
+import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline;
 import com.intellij.psi.PsiAnonymousClass;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethod;
@@ -28,16 +28,21 @@ import com.intellij.psi.PsiModifier;
 import com.intellij.psi.search.SearchScope;
 import com.intellij.psi.search.searches.ExtensibleQueryFactory;
 import com.intellij.psi.search.searches.OverridingMethodsSearch;
+import com.intellij.util.AbstractQuery;
 import com.intellij.util.EmptyQuery;
+import com.intellij.util.Processor;
 import com.intellij.util.Query;
 import com.intellij.util.QueryExecutor;
 import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
 
 /*
  * Created by ebishton on 1/21/15.  Lifted from OverridingMethodsSearch and hacked
  * because (private static) cannotBeOverridden() was incorrect for Haxe.  (Haxe private == Java protected).
  *
  * And then, we needed to add timeout checks to the processing, so we added that here.
+ * (The query stops at the first overrider found after the deadline has expired, and
+ * keeps the ones found before.)
  */
 public class HaxeMethodsSearch extends ExtensibleQueryFactory<PsiMethod, HaxeMethodsSearch.SearchParameters> {
 
@@ -59,14 +64,31 @@ public class HaxeMethodsSearch extends ExtensibleQueryFactory<PsiMethod, HaxeMet
     super(epNameSpace);
   }
 
-  public static Query<PsiMethod> search(final PsiMethod method, SearchScope scope, final boolean checkDeep, HaxeHierarchyTimeoutHandler timeoutHandler) {
+  public static Query<PsiMethod> search(final PsiMethod method, SearchScope scope, final boolean checkDeep, HaxeHierarchyDeadline deadline) {
     if (ApplicationManager.getApplication().runReadAction(new Computable<Boolean>() {
       @Override
       public Boolean compute() {
         return cannotBeOverriden(method);
       }
     })) return EmptyQuery.getEmptyQuery(); // Optimization
-    return INSTANCE.createUniqueResultsQuery(new SearchParameters(method, scope, checkDeep));
+    return withDeadline(INSTANCE.createUniqueResultsQuery(new SearchParameters(method, scope, checkDeep)), deadline);
+  }
+
+  private static Query<PsiMethod> withDeadline(final Query<PsiMethod> query, final HaxeHierarchyDeadline deadline) {
+    return new AbstractQuery<PsiMethod>() {
+      @Override
+      protected boolean processResults(@NotNull final Processor<PsiMethod> consumer) {
+        if (deadline.isExpired()) {
+          return false;
+        }
+        return query.forEach(new Processor<PsiMethod>() {
+          @Override
+          public boolean process(PsiMethod method) {
+            return consumer.process(method) && !deadline.isExpired();
+          }
+        });
+      }
+    };
   }
 
   private static boolean cannotBeOverriden(final PsiMethod method) {
@@ -79,17 +101,17 @@ public class HaxeMethodsSearch extends ExtensibleQueryFactory<PsiMethod, HaxeMet
            || parentClass instanceof PsiAnonymousClass;
   }
 
-  public static Query<PsiMethod> search(final PsiMethod method, final boolean checkDeep, HaxeHierarchyTimeoutHandler timeoutHandler) {
+  public static Query<PsiMethod> search(final PsiMethod method, final boolean checkDeep, HaxeHierarchyDeadline deadline) {
     return search(method, ApplicationManager.getApplication().runReadAction(new Computable<SearchScope>() {
       @Override
       public SearchScope compute() {
         return method.getUseScope();
       }
-    }), checkDeep, timeoutHandler);
+    }), checkDeep, deadline);
   }
 
-  public static Query<PsiMethod> search(final PsiMethod method, HaxeHierarchyTimeoutHandler timeoutHandler) {
-    return search(method, true, timeoutHandler);
+  public static Query<PsiMethod> search(final PsiMethod method, HaxeHierarchyDeadline deadline) {
+    return search(method, true, deadline);
   }
 
 }
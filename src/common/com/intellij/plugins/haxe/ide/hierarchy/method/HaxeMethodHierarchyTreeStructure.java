@@ -21,6 +21,7 @@ import com.intellij.ide.hierarchy.HierarchyBrowserManager;
 import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
 import com.intellij.ide.hierarchy.HierarchyTreeStructure;
 import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline;
 import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyUtils;
 import com.intellij.plugins.haxe.ide.index.HaxeInheritanceDefinitionsSearchExecutor;
 import com.intellij.plugins.haxe.lang.psi.HaxeAnonymousType;
@@ -53,7 +54,11 @@ public class HaxeMethodHierarchyTreeStructure extends HierarchyTreeStructure {
 
   // This is really the only thing we were overriding from MethodHierarchyTreeStructure.
   public static List<HaxeClass> getSubclasses(HaxeClass theClass) {
-    final List<HaxeClass> subClasses = HaxeInheritanceDefinitionsSearchExecutor.getItemsByQName(theClass);
+    return getSubclasses(theClass, null);
+  }
+
+  public static List<HaxeClass> getSubclasses(HaxeClass theClass, @Nullable HaxeHierarchyDeadline deadline) {
+    final List<HaxeClass> subClasses = HaxeInheritanceDefinitionsSearchExecutor.getItemsByQName(theClass, deadline);
     return subClasses;
   }
 
@@ -79,18 +84,27 @@ public class HaxeMethodHierarchyTreeStructure extends HierarchyTreeStructure {
     if (theHaxeClass instanceof HaxeAnonymousType) return ArrayUtil.EMPTY_OBJECT_ARRAY;
     if (theHaxeClass.hasModifierProperty(HaxePsiModifier.FINAL)) return ArrayUtil.EMPTY_OBJECT_ARRAY;
 
-    final Collection<HaxeClass> subclasses = getSubclasses(theHaxeClass);
-
-    final List<HierarchyNodeDescriptor> descriptors = new ArrayList<HierarchyNodeDescriptor>(subclasses.size());
-    for (final PsiClass aClass : subclasses) {
-      if (HierarchyBrowserManager.getInstance(myProject).getState().HIDE_CLASSES_WHERE_METHOD_NOT_IMPLEMENTED) {
-        if (shouldHideClass(aClass)) {
-          continue;
+    final HaxeHierarchyDeadline deadline = HaxeHierarchyDeadline.start(myProject, HaxeHierarchyDeadline.SearchKind.METHOD_OVERRIDES);
+    final List<HierarchyNodeDescriptor> descriptors;
+    try {
+      final Collection<HaxeClass> subclasses = getSubclasses(theHaxeClass, deadline);
+
+      descriptors = new ArrayList<HierarchyNodeDescriptor>(subclasses.size());
+      for (final PsiClass aClass : subclasses) {
+        // Once out of time, show the rest rather than searching their subclasses.
+        if (HierarchyBrowserManager.getInstance(myProject).getState().HIDE_CLASSES_WHERE_METHOD_NOT_IMPLEMENTED
+            && !deadline.isExpired()) {
+          if (shouldHideClass(aClass, deadline)) {
+            continue;
+          }
         }
-      }
 
-      final HaxeMethodHierarchyNodeDescriptor d = new HaxeMethodHierarchyNodeDescriptor(myProject, descriptor, aClass, false, this);
-      descriptors.add(d);
+        final HaxeMethodHierarchyNodeDescriptor d = new HaxeMethodHierarchyNodeDescriptor(myProject, descriptor, aClass, false, this);
+        descriptors.add(d);
+      }
+    }
+    finally {
+      deadline.stop();
     }
 
     final PsiMethod existingMethod = ((HaxeMethodHierarchyNodeDescriptor)descriptor).getMethod(theHaxeClass, false);
@@ -108,18 +122,19 @@ public class HaxeMethodHierarchyTreeStructure extends HierarchyTreeStructure {
   }
 
 
-  private boolean shouldHideClass(final PsiClass psiClass) {
+  private boolean shouldHideClass(final PsiClass psiClass, @NotNull HaxeHierarchyDeadline deadline) {
     if (getMethod(psiClass, false) != null || isSuperClassForBaseClass(psiClass)) {
       return false;
     }
 
     if (hasBaseClassMethod(psiClass) || isAbstract(psiClass)) {
-      for (final PsiClass subclass : getSubclasses((HaxeClass)psiClass)) {
-        if (!shouldHideClass(subclass)) {
+      for (final PsiClass subclass : getSubclasses((HaxeClass)psiClass, deadline)) {
+        if (!shouldHideClass(subclass, deadline)) {
           return false;
         }
       }
-      return true;
+      // Not knowing all of the subclasses, we can't tell that it's safe to hide.
+      return !deadline.isExpired();
     }
 
     return false;
@@ -20,6 +20,7 @@ package com.intellij.plugins.haxe.ide.hierarchy.type;
 import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
 import com.intellij.ide.hierarchy.HierarchyTreeStructure;
 import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline;
 import com.intellij.plugins.haxe.ide.index.HaxeInheritanceDefinitionsSearchExecutor;
 import com.intellij.plugins.haxe.lang.psi.HaxeAnonymousType;
 import com.intellij.plugins.haxe.lang.psi.HaxeClass;
@@ -76,7 +77,13 @@ public class HaxeSubtypesHierarchyTreeStructure extends HierarchyTreeStructure {
 
     // Get the list of subtypes from the file-based indices.  Stub-based would
     // be faster, but we'll have to re-parent all of the PsiClass sub-classes.
-    subTypeList.addAll(getSubTypes(theHaxeClass));
+    final HaxeHierarchyDeadline deadline = HaxeHierarchyDeadline.start(myProject, HaxeHierarchyDeadline.SearchKind.SUBTYPES);
+    try {
+      subTypeList.addAll(getSubTypes(theHaxeClass, deadline));
+    }
+    finally {
+      deadline.stop();
+    }
 
     return typeListToObjArray(((HaxeTypeHierarchyNodeDescriptor) descriptor), subTypeList);
   }
@@ -135,8 +142,8 @@ public class HaxeSubtypesHierarchyTreeStructure extends HierarchyTreeStructure {
     return allSuperClasses;
   }
 
-  private static List<HaxeClass> getSubTypes(HaxeClass theClass) {
-    final List<HaxeClass> subClasses = HaxeInheritanceDefinitionsSearchExecutor.getItemsByQName(theClass);
+  private static List<HaxeClass> getSubTypes(HaxeClass theClass, HaxeHierarchyDeadline deadline) {
+    final List<HaxeClass> subClasses = HaxeInheritanceDefinitionsSearchExecutor.getItemsByQName(theClass, deadline);
     return subClasses;
   }
 }
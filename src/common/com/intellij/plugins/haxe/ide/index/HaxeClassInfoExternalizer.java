@@ -19,30 +19,37 @@ package com.intellij.plugins.haxe.ide.index;
 
 import com.intellij.plugins.haxe.HaxeComponentType;
 import com.intellij.util.io.DataExternalizer;
-import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.DataInputOutputUtil;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
 /**
+ * Stores the package as an id from {@link HaxeIndexNameEnumerator} and the
+ * component type as a varint. Keeps no state, so it is safe for concurrent indexing.
+ *
  * @author: Fedor.Korotkov
  */
 public class HaxeClassInfoExternalizer implements DataExternalizer<HaxeClassInfo> {
-  private final byte[] buffer = IOUtil.allocReadWriteUTFBuffer();
-
   @Override
   public void save(DataOutput out, HaxeClassInfo classInfo) throws IOException {
-    IOUtil.writeUTFFast(buffer, out, classInfo.getValue());
-    final HaxeComponentType haxeComponentType = classInfo.getType();
-    final int key = haxeComponentType == null ? -1 : haxeComponentType.getKey();
-    out.writeInt(key);
+    DataInputOutputUtil.writeINT(out, HaxeIndexNameEnumerator.enumerate(classInfo.getValue()));
+    writeType(out, classInfo.getType());
   }
 
   @Override
   public HaxeClassInfo read(DataInput in) throws IOException {
-    final String value = IOUtil.readUTFFast(buffer, in);
-    final int key = in.readInt();
-    return new HaxeClassInfo(value, HaxeComponentType.valueOf(key));
+    final String value = HaxeIndexNameEnumerator.valueOf(DataInputOutputUtil.readINT(in));
+    return new HaxeClassInfo(value, readType(in));
+  }
+
+  static void writeType(DataOutput out, HaxeComponentType type) throws IOException {
+    // Shifted by one so that "no type" (-1) still fits a single unsigned byte.
+    DataInputOutputUtil.writeINT(out, type == null ? 0 : type.getKey() + 1);
+  }
+
+  static HaxeComponentType readType(DataInput in) throws IOException {
+    return HaxeComponentType.valueOf(DataInputOutputUtil.readINT(in) - 1);
   }
 }
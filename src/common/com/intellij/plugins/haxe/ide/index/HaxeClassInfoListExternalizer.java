@@ -19,7 +19,7 @@ package com.intellij.plugins.haxe.ide.index;
 
 import com.intellij.plugins.haxe.HaxeComponentType;
 import com.intellij.util.io.DataExternalizer;
-import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.DataInputOutputUtil;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -28,30 +28,29 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Same encoding as {@link HaxeClassInfoExternalizer}, prefixed with a varint count;
+ * qualified names go through {@link HaxeIndexNameEnumerator}.
+ *
  * @author: Fedor.Korotkov
  */
 public class HaxeClassInfoListExternalizer implements DataExternalizer<List<HaxeClassInfo>> {
-  private final byte[] buffer = IOUtil.allocReadWriteUTFBuffer();
-
   @Override
   public void save(DataOutput out, List<HaxeClassInfo> value) throws IOException {
-    out.writeInt(value.size());
+    DataInputOutputUtil.writeINT(out, value.size());
     for (HaxeClassInfo classInfo : value) {
-      final HaxeComponentType haxeComponentType = classInfo.getType();
-      final int key = haxeComponentType == null ? -1 : haxeComponentType.getKey();
-      out.writeInt(key);
-      IOUtil.writeUTFFast(buffer, out, classInfo.getValue());
+      HaxeClassInfoExternalizer.writeType(out, classInfo.getType());
+      DataInputOutputUtil.writeINT(out, HaxeIndexNameEnumerator.enumerate(classInfo.getValue()));
     }
   }
 
   @Override
   public List<HaxeClassInfo> read(DataInput in) throws IOException {
-    final int size = in.readInt();
+    final int size = DataInputOutputUtil.readINT(in);
     final List<HaxeClassInfo> result = new ArrayList<HaxeClassInfo>(size);
     for (int i = 0; i < size; ++i) {
-      final int key = in.readInt();
-      final String value = IOUtil.readUTFFast(buffer, in);
-      result.add(new HaxeClassInfo(value, HaxeComponentType.valueOf(key)));
+      final HaxeComponentType type = HaxeClassInfoExternalizer.readType(in);
+      final String value = HaxeIndexNameEnumerator.valueOf(DataInputOutputUtil.readINT(in));
+      result.add(new HaxeClassInfo(value, type));
     }
     return result;
   }
@@ -18,9 +18,6 @@
 package com.intellij.plugins.haxe.ide.index;
 
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.plugins.haxe.lang.psi.HaxeClass;
-import com.intellij.plugins.haxe.util.HaxeResolveUtil;
-import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.Processor;
 import com.intellij.util.indexing.*;
@@ -39,7 +36,7 @@ import java.util.Map;
  */
 public class HaxeComponentFileNameIndex extends ScalarIndexExtension<String> {
   public static final ID<String, Void> HAXE_COMPONENT_FILE_NAME_INDEX = ID.create("HaxeComponentFileNameIndex");
-  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 4;
+  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 5;
   private DataIndexer<String, Void, FileContent> myDataIndexer = new MyDataIndexer();
 
   @NotNull
@@ -98,17 +95,14 @@ public class HaxeComponentFileNameIndex extends ScalarIndexExtension<String> {
     @Override
     @NotNull
     public Map<String, Void> map(final FileContent inputData) {
-      final PsiFile psiFile = inputData.getPsiFile();
-      final List<HaxeClass> classes = HaxeResolveUtil.findComponentDeclarations(psiFile);
-      if (classes.isEmpty()) {
+      final HaxeFileDeclarations fileDeclarations = HaxeFileDeclarationScanner.getDeclarations(inputData);
+      final List<HaxeFileDeclarations.Declaration> declarations = fileDeclarations.getDeclarations();
+      if (declarations.isEmpty()) {
         return Collections.emptyMap();
       }
-      final Map<String, Void> result = new THashMap<String, Void>(classes.size());
-      for (HaxeClass haxeClass : classes) {
-        final String className = haxeClass.getName();
-        if (className != null) {
-          result.put(haxeClass.getQualifiedName(), null);
-        }
+      final Map<String, Void> result = new THashMap<String, Void>(declarations.size());
+      for (HaxeFileDeclarations.Declaration declaration : declarations) {
+        result.put(fileDeclarations.getQualifiedName(declaration), null);
       }
       return result;
     }
@@ -20,9 +20,7 @@ package com.intellij.plugins.haxe.ide.index;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.plugins.haxe.HaxeComponentType;
 import com.intellij.plugins.haxe.HaxeFileType;
-import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 import com.intellij.plugins.haxe.lang.psi.HaxeComponent;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
 import com.intellij.psi.PsiFile;
@@ -43,7 +41,7 @@ import java.util.*;
  */
 public class HaxeComponentIndex extends FileBasedIndexExtension<String, HaxeClassInfo> {
   public static final ID<String, HaxeClassInfo> HAXE_COMPONENT_INDEX = ID.create("HaxeComponentIndex");
-  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 5;
+  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 6;
   private final DataIndexer<String, HaxeClassInfo, FileContent> myIndexer = new MyDataIndexer();
   private final DataExternalizer<HaxeClassInfo> myExternalizer = new HaxeClassInfoExternalizer();
 
@@ -122,18 +120,15 @@ public class HaxeComponentIndex extends FileBasedIndexExtension<String, HaxeClas
     @Override
     @NotNull
     public Map<String, HaxeClassInfo> map(final FileContent inputData) {
-      final PsiFile psiFile = inputData.getPsiFile();
-      final List<HaxeClass> classes = HaxeResolveUtil.findComponentDeclarations(psiFile);
-      if (classes.isEmpty()) {
+      final HaxeFileDeclarations fileDeclarations = HaxeFileDeclarationScanner.getDeclarations(inputData);
+      final List<HaxeFileDeclarations.Declaration> declarations = fileDeclarations.getDeclarations();
+      if (declarations.isEmpty()) {
         return Collections.emptyMap();
       }
-      final Map<String, HaxeClassInfo> result = new THashMap<String, HaxeClassInfo>(classes.size());
-      for (HaxeClass haxeClass : classes) {
-        if (haxeClass.getName() == null) {
-          continue;
-        }
-        final Pair<String, String> packageAndName = HaxeResolveUtil.splitQName(haxeClass.getQualifiedName());
-        final HaxeClassInfo info = new HaxeClassInfo(packageAndName.getFirst(), HaxeComponentType.typeOf(haxeClass));
+      final Map<String, HaxeClassInfo> result = new THashMap<String, HaxeClassInfo>(declarations.size());
+      for (HaxeFileDeclarations.Declaration declaration : declarations) {
+        final Pair<String, String> packageAndName = HaxeResolveUtil.splitQName(fileDeclarations.getQualifiedName(declaration));
+        final HaxeClassInfo info = new HaxeClassInfo(packageAndName.getFirst(), declaration.getType());
         result.put(packageAndName.getSecond(), info);
       }
       return result;
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.lang.lexer.HaxeFlexLexer;
+import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypeSets;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.indexing.FileContent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes.*;
+
+/**
+ * Reads the top-level declarations of a Haxe file straight from the lexer.
+ *
+ * The Haxe indexes only need package, imports, declaration names and supertypes,
+ * which don't justify building PSI for every file of the SDK and haxelibs. The
+ * result is stored on the {@link FileContent}, so all indexes share one scan per
+ * file. Each scan uses its own lexer, so indexing threads can run it concurrently.
+ */
+public class HaxeFileDeclarationScanner {
+  private static final Key<HaxeFileDeclarations> DECLARATIONS_KEY = Key.create("HAXE_FILE_DECLARATIONS");
+
+  // Significant tokens of the file; whitespace, comments and conditional compilation markers are dropped,
+  // just like the parser does.
+  private IElementType[] myTypes = new IElementType[256];
+  private int[] myStarts = new int[256];
+  private int[] myEnds = new int[256];
+  private int myCount;
+  private final CharSequence myText;
+
+  private String myPackageName;
+  private final List<HaxeFileDeclarations.Declaration> myDeclarations = new ArrayList<HaxeFileDeclarations.Declaration>();
+  private final List<String> myImports = new ArrayList<String>();
+  private final List<String> myInImports = new ArrayList<String>();
+  private final List<String> myInImportAliases = new ArrayList<String>();
+  private final List<String> myWildcardImports = new ArrayList<String>();
+  private final List<String> myUsings = new ArrayList<String>();
+
+  // Body of the current top-level class or abstract; null while in any other declaration.
+  private List<HaxeFileDeclarations.StaticFunction> myCurrentStaticFunctions;
+  private List<String> myCurrentTypeParameters;
+  private boolean myCurrentExtern;
+
+  @NotNull
+  public static HaxeFileDeclarations getDeclarations(@NotNull FileContent inputData) {
+    HaxeFileDeclarations declarations = inputData.getUserData(DECLARATIONS_KEY);
+    if (declarations == null) {
+      final long start = HaxeMetrics.INDEXING.start();
+      declarations = scan(inputData.getContentAsText(), FileUtil.getNameWithoutExtension(inputData.getFileName()));
+      HaxeMetrics.INDEXING.stop(start);
+      inputData.putUserData(DECLARATIONS_KEY, declarations);
+    }
+    return declarations;
+  }
+
+  @NotNull
+  public static HaxeFileDeclarations scan(@NotNull CharSequence text, @NotNull String fileName) {
+    final HaxeFileDeclarationScanner scanner = new HaxeFileDeclarationScanner(text);
+    scanner.tokenize();
+    scanner.parse();
+    return new HaxeFileDeclarations(scanner.myPackageName == null ? "" : scanner.myPackageName,
+                                    fileName,
+                                    scanner.myDeclarations,
+                                    scanner.myImports,
+                                    scanner.myInImports,
+                                    scanner.myInImportAliases,
+                                    scanner.myWildcardImports,
+                                    scanner.myUsings);
+  }
+
+  private HaxeFileDeclarationScanner(@NotNull CharSequence text) {
+    myText = text;
+  }
+
+  private void tokenize() {
+    final HaxeFlexLexer lexer = new HaxeFlexLexer();
+    lexer.start(myText);
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      if (!HaxeTokenTypeSets.WHITESPACES.contains(type) && !HaxeTokenTypeSets.COMMENTS.contains(type)) {
+        if (myCount == myTypes.length) {
+          final int newLength = myCount * 2;
+          final IElementType[] types = new IElementType[newLength];
+          System.arraycopy(myTypes, 0, types, 0, myCount);
+          myTypes = types;
+          myStarts = ArrayUtil.realloc(myStarts, newLength);
+          myEnds = ArrayUtil.realloc(myEnds, newLength);
+        }
+        myTypes[myCount] = type;
+        myStarts[myCount] = lexer.getTokenStart();
+        myEnds[myCount] = lexer.getTokenEnd();
+        myCount++;
+      }
+      lexer.advance();
+    }
+  }
+
+  private void parse() {
+    int braceDepth = 0;
+    int parenDepth = 0;
+    boolean extern = false;
+    boolean memberPublic = false;
+    boolean memberStatic = false;
+    int i = 0;
+    while (i < myCount) {
+      final IElementType type = myTypes[i];
+      if (type == PLCURLY) {
+        braceDepth++;
+        memberPublic = memberStatic = false;
+      }
+      else if (type == PRCURLY) {
+        braceDepth = Math.max(0, braceDepth - 1);
+        memberPublic = memberStatic = false;
+      }
+      else if (type == PLPAREN) {
+        parenDepth++;
+      }
+      else if (type == PRPAREN) {
+        parenDepth = Math.max(0, parenDepth - 1);
+      }
+      else if (braceDepth == 0 && parenDepth == 0) {
+        if (type == KPACKAGE) {
+          i = parsePackage(i + 1);
+          continue;
+        }
+        if (type == KIMPORT) {
+          i = parseImport(i + 1);
+          continue;
+        }
+        if (type == KUSING) {
+          i = parseUsing(i + 1);
+          continue;
+        }
+        if (type == KEXTERN) {
+          extern = true;
+        }
+        else if (type == KCLASS || type == KINTERFACE || type == KENUM || type == KABSTRACT || type == KTYPEDEF) {
+          i = parseDeclaration(i, extern);
+          extern = false;
+          continue;
+        }
+        else if (type == OSEMI) {
+          extern = false;
+        }
+      }
+      else if (braceDepth == 1 && parenDepth == 0 && myCurrentStaticFunctions != null) {
+        if (type == KPUBLIC) {
+          memberPublic = true;
+        }
+        else if (type == KSTATIC) {
+          memberStatic = true;
+        }
+        else if (type == KFUNCTION || type == KVAR || type == OSEMI) {
+          // Members of extern classes are public unless stated otherwise.
+          if (type == KFUNCTION && memberStatic && (memberPublic || myCurrentExtern)) {
+            readStaticFunction(i + 1);
+          }
+          memberPublic = memberStatic = false;
+        }
+      }
+      i++;
+    }
+  }
+
+  private int parsePackage(int i) {
+    final StringBuilder builder = new StringBuilder();
+    i = readQualifiedName(i, builder);
+    if (myPackageName == null && myDeclarations.isEmpty()) {
+      myPackageName = builder.toString();
+    }
+    return skipSemicolon(i);
+  }
+
+  private int parseImport(int i) {
+    final StringBuilder builder = new StringBuilder();
+    i = readQualifiedName(i, builder);
+    if (builder.length() == 0) {
+      return skipSemicolon(i);
+    }
+    if (i + 1 < myCount && myTypes[i] == ODOT && myTypes[i + 1] == OMUL) {
+      myWildcardImports.add(builder.toString());
+      return skipSemicolon(i + 2);
+    }
+    if (i + 1 < myCount && (myTypes[i] == OIN || isId(i, "as")) && myTypes[i + 1] == ID) {
+      myInImports.add(builder.toString());
+      myInImportAliases.add(getTokenText(i + 1));
+      return skipSemicolon(i + 2);
+    }
+    myImports.add(builder.toString());
+    return skipSemicolon(i);
+  }
+
+  private int parseUsing(int i) {
+    final StringBuilder builder = new StringBuilder();
+    i = readQualifiedName(i, builder);
+    if (builder.length() > 0) {
+      myUsings.add(builder.toString());
+    }
+    return skipSemicolon(i);
+  }
+
+  /**
+   * @param i index of the declaration keyword
+   * @return index of the first token after the declaration header; the body is left to the caller.
+   */
+  private int parseDeclaration(int i, boolean extern) {
+    final IElementType keyword = myTypes[i++];
+    if (i >= myCount || myTypes[i] != ID) {
+      return i;
+    }
+    final String name = getTokenText(i++);
+    final List<String> typeParameters = new ArrayList<String>();
+    i = readTypeParameters(i, typeParameters);
+
+    final List<String> superTypes = new ArrayList<String>();
+    if (keyword == KCLASS || keyword == KINTERFACE) {
+      while (i < myCount) {
+        if (myTypes[i] == KEXTENDS || myTypes[i] == KIMPLEMENTS) {
+          final StringBuilder builder = new StringBuilder();
+          i = skipAngleBrackets(readQualifiedName(i + 1, builder));
+          if (builder.length() > 0) {
+            superTypes.add(builder.toString());
+          }
+        }
+        else if (myTypes[i] == OCOMMA) {
+          i++;
+        }
+        else {
+          break;
+        }
+      }
+    }
+    else if (keyword == KTYPEDEF && i < myCount && myTypes[i] == OASSIGN) {
+      i++;
+      final boolean anonymous = i + 1 < myCount && myTypes[i] == PLCURLY;
+      if (anonymous && myTypes[i + 1] == OGREATER) {
+        // typedef Foo = { > Bar, ... }
+        final StringBuilder builder = new StringBuilder();
+        readQualifiedName(i + 2, builder);
+        if (builder.length() > 0) {
+          superTypes.add(builder.toString());
+        }
+      }
+      else if (!anonymous) {
+        final StringBuilder builder = new StringBuilder();
+        final int next = skipAngleBrackets(readQualifiedName(i, builder));
+        // Function types (A -> B) don't alias a class.
+        if (builder.length() > 0 && (next >= myCount || myTypes[next] != OARROW)) {
+          superTypes.add(builder.toString());
+        }
+        i = next;
+      }
+    }
+
+    if (keyword == KCLASS || keyword == KABSTRACT) {
+      myCurrentStaticFunctions = new ArrayList<HaxeFileDeclarations.StaticFunction>();
+      myCurrentTypeParameters = typeParameters;
+      myCurrentExtern = extern;
+    }
+    else {
+      myCurrentStaticFunctions = null;
+    }
+    myDeclarations.add(new HaxeFileDeclarations.Declaration(name, getComponentType(keyword), extern,
+                                                            superTypes.isEmpty() ? Collections.<String>emptyList() : superTypes,
+                                                            myCurrentStaticFunctions == null
+                                                            ? Collections.<HaxeFileDeclarations.StaticFunction>emptyList()
+                                                            : myCurrentStaticFunctions));
+    return i;
+  }
+
+  /**
+   * Records the function whose name is at <code>i</code> if it takes a parameter. Only looks ahead;
+   * the main loop still walks over the signature and body.
+   */
+  private void readStaticFunction(int i) {
+    if (i >= myCount || myTypes[i] != ID) {
+      return;
+    }
+    final String name = getTokenText(i++);
+    final List<String> typeParameters = new ArrayList<String>(myCurrentTypeParameters);
+    i = readTypeParameters(i, typeParameters);
+    if (i >= myCount || myTypes[i] != PLPAREN) {
+      return;
+    }
+    i++;
+    if (i < myCount && myTypes[i] == OQUEST) {
+      i++;
+    }
+    if (i >= myCount || myTypes[i] != ID) {
+      return;
+    }
+    i++;
+    String parameterType = null;
+    if (i < myCount && myTypes[i] == OCOLON) {
+      final StringBuilder builder = new StringBuilder();
+      final int next = skipAngleBrackets(readQualifiedName(i + 1, builder));
+      if (builder.length() > 0 && (next >= myCount || myTypes[next] != OARROW)) {
+        parameterType = builder.toString();
+      }
+    }
+    if ("Dynamic".equals(parameterType) || typeParameters.contains(parameterType)) {
+      parameterType = null;
+    }
+    myCurrentStaticFunctions.add(new HaxeFileDeclarations.StaticFunction(name, parameterType));
+  }
+
+  private static HaxeComponentType getComponentType(IElementType keyword) {
+    if (keyword == KINTERFACE) {
+      return HaxeComponentType.INTERFACE;
+    }
+    if (keyword == KENUM) {
+      return HaxeComponentType.ENUM;
+    }
+    if (keyword == KTYPEDEF) {
+      return HaxeComponentType.TYPEDEF;
+    }
+    return HaxeComponentType.CLASS;
+  }
+
+  private int readQualifiedName(int i, @NotNull StringBuilder builder) {
+    if (i >= myCount || myTypes[i] != ID) {
+      return i;
+    }
+    builder.append(myText, myStarts[i], myEnds[i]);
+    i++;
+    while (i + 1 < myCount && myTypes[i] == ODOT && myTypes[i + 1] == ID) {
+      builder.append('.').append(myText, myStarts[i + 1], myEnds[i + 1]);
+      i += 2;
+    }
+    return i;
+  }
+
+  private int readTypeParameters(int i, @NotNull List<String> names) {
+    final int end = skipAngleBrackets(i);
+    int angleDepth = 0;
+    int braceDepth = 0;
+    for (int k = i; k < end; k++) {
+      final IElementType type = myTypes[k];
+      if (type == OLESS) {
+        angleDepth++;
+      }
+      else if (type == OGREATER) {
+        angleDepth--;
+      }
+      else if (type == PLCURLY) {
+        braceDepth++;
+      }
+      else if (type == PRCURLY) {
+        braceDepth--;
+      }
+      else if (type == ID && angleDepth == 1 && braceDepth == 0 && (myTypes[k - 1] == OLESS || myTypes[k - 1] == OCOMMA)) {
+        names.add(getTokenText(k));
+      }
+    }
+    return end;
+  }
+
+  private int skipAngleBrackets(int i) {
+    if (i >= myCount || myTypes[i] != OLESS) {
+      return i;
+    }
+    int depth = 0;
+    while (i < myCount) {
+      final IElementType type = myTypes[i];
+      if (type == OLESS) {
+        depth++;
+      }
+      else if (type == OGREATER) {
+        if (--depth == 0) {
+          return i + 1;
+        }
+      }
+      else if (type == PLCURLY && (myTypes[i - 1] == OLESS || myTypes[i - 1] == OCOMMA)) {
+        // Anonymous type argument: Foo<{x:Int}>
+        i = skipBraces(i);
+        continue;
+      }
+      else if (type == PLCURLY || type == OSEMI) {
+        // Broken code; leave the rest to the main loop.
+        return i;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private int skipBraces(int i) {
+    int depth = 0;
+    while (i < myCount) {
+      final IElementType type = myTypes[i++];
+      if (type == PLCURLY) {
+        depth++;
+      }
+      else if (type == PRCURLY && --depth == 0) {
+        break;
+      }
+    }
+    return i;
+  }
+
+  private int skipSemicolon(int i) {
+    return i < myCount && myTypes[i] == OSEMI ? i + 1 : i;
+  }
+
+  private boolean isId(int i, @NotNull String text) {
+    if (myTypes[i] != ID || myEnds[i] - myStarts[i] != text.length()) {
+      return false;
+    }
+    for (int k = 0; k < text.length(); k++) {
+      if (myText.charAt(myStarts[i] + k) != text.charAt(k)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @NotNull
+  private String getTokenText(int i) {
+    return myText.subSequence(myStarts[i], myEnds[i]).toString();
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Top-level structure of a Haxe file as seen by the indexes: package, imports,
+ * usings and declarations with their supertypes.
+ *
+ * Produced by {@link HaxeFileDeclarationScanner} from the token stream, so no
+ * PSI is built. Immutable once scanned.
+ */
+public class HaxeFileDeclarations {
+  @NotNull private final String myPackageName;
+  @NotNull private final String myFileName;
+  @NotNull private final List<Declaration> myDeclarations;
+  @NotNull private final List<String> myImports;
+  @NotNull private final List<String> myInImports;
+  @NotNull private final List<String> myInImportAliases;
+  @NotNull private final List<String> myWildcardImports;
+  @NotNull private final List<String> myUsings;
+  private final boolean myHasPrimaryClass;
+
+  HaxeFileDeclarations(@NotNull String packageName,
+                       @NotNull String fileName,
+                       @NotNull List<Declaration> declarations,
+                       @NotNull List<String> imports,
+                       @NotNull List<String> inImports,
+                       @NotNull List<String> inImportAliases,
+                       @NotNull List<String> wildcardImports,
+                       @NotNull List<String> usings) {
+    myPackageName = packageName;
+    myFileName = fileName;
+    myDeclarations = declarations;
+    myImports = imports;
+    myInImports = inImports;
+    myInImportAliases = inImportAliases;
+    myWildcardImports = wildcardImports;
+    myUsings = usings;
+
+    boolean hasPrimaryClass = false;
+    for (Declaration declaration : declarations) {
+      if (fileName.equals(declaration.getName())) {
+        hasPrimaryClass = true;
+        break;
+      }
+    }
+    myHasPrimaryClass = hasPrimaryClass;
+  }
+
+  @NotNull
+  public String getPackageName() {
+    return myPackageName;
+  }
+
+  @NotNull
+  public List<Declaration> getDeclarations() {
+    return Collections.unmodifiableList(myDeclarations);
+  }
+
+  /**
+   * @return the qualified names of the <code>using</code> statements, in file order.
+   */
+  @NotNull
+  public List<String> getUsings() {
+    return Collections.unmodifiableList(myUsings);
+  }
+
+  /**
+   * Same rules as {@link com.intellij.plugins.haxe.lang.psi.HaxeQualifiedNameCache}:
+   * extra classes of a file that declares a class named after itself are qualified with the file name.
+   */
+  @NotNull
+  public String getQualifiedName(@NotNull Declaration declaration) {
+    String packageName = myPackageName;
+    if (!declaration.isExternClass() && !myFileName.equals(declaration.getName()) && myHasPrimaryClass) {
+      packageName = HaxeResolveUtil.joinQName(packageName, myFileName);
+    }
+    return HaxeResolveUtil.joinQName(packageName, declaration.getName());
+  }
+
+  /**
+   * Qualified names a type reference written in this file may stand for, following the lookup order of
+   * {@link com.intellij.plugins.haxe.lang.psi.HaxeImportTable#getQualifiedName}: classes of this file, imports, <code>in</code>/<code>as</code> imports,
+   * wildcard imports and finally the file's own package.
+   *
+   * Whether a package wildcard import provides the class can only be told by looking at other files, which an
+   * index must not do; such imports contribute a candidate each, next to the same-package name.
+   */
+  @NotNull
+  public List<String> resolveTypeCandidates(@NotNull String typeName) {
+    if (typeName.indexOf('.') != -1) {
+      return Collections.singletonList(typeName);
+    }
+    for (Declaration declaration : myDeclarations) {
+      if (typeName.equals(declaration.getName())) {
+        return Collections.singletonList(getQualifiedName(declaration));
+      }
+    }
+    final String suffix = "." + typeName;
+    for (String qName : myImports) {
+      if (qName.endsWith(suffix)) {
+        return Collections.singletonList(qName);
+      }
+    }
+    for (int i = 0; i < myInImportAliases.size(); i++) {
+      if (typeName.equals(myInImportAliases.get(i))) {
+        return Collections.singletonList(myInImports.get(i));
+      }
+    }
+    final List<String> result = new ArrayList<String>();
+    for (String wildcardQName : myWildcardImports) {
+      if (wildcardQName.endsWith(suffix) || wildcardQName.equals(typeName)) {
+        // import of a type's statics: import pack.Type.*;
+        result.add(wildcardQName);
+        return result;
+      }
+      if (Character.isUpperCase(typeName.charAt(0))) {
+        result.add(wildcardQName + suffix);
+      }
+    }
+    result.add(myPackageName.isEmpty() ? typeName : myPackageName + suffix);
+    return result;
+  }
+
+  public static class Declaration {
+    @NotNull private final String myName;
+    @Nullable private final HaxeComponentType myType;
+    private final boolean myExtern;
+    @NotNull private final List<String> mySuperTypes;
+    @NotNull private final List<StaticFunction> myStaticFunctions;
+
+    Declaration(@NotNull String name,
+                @Nullable HaxeComponentType type,
+                boolean extern,
+                @NotNull List<String> superTypes,
+                @NotNull List<StaticFunction> staticFunctions) {
+      myName = name;
+      myType = type;
+      myExtern = extern;
+      mySuperTypes = superTypes;
+      myStaticFunctions = staticFunctions;
+    }
+
+    @NotNull
+    public String getName() {
+      return myName;
+    }
+
+    @Nullable
+    public HaxeComponentType getType() {
+      return myType;
+    }
+
+    public boolean isTypedef() {
+      return myType == HaxeComponentType.TYPEDEF;
+    }
+
+    public boolean isExternClass() {
+      return myExtern && myType == HaxeComponentType.CLASS;
+    }
+
+    /**
+     * @return the types as written after <code>extends</code>/<code>implements</code>, without type parameters;
+     * for a typedef, the aliased or <code>{&gt; Type}</code>-extended type.
+     */
+    @NotNull
+    public List<String> getSuperTypes() {
+      return Collections.unmodifiableList(mySuperTypes);
+    }
+
+    /**
+     * @return the public static functions of a class or abstract, that take at least one parameter; <code>using</code>
+     * turns them into extensions of their first parameter's type.
+     */
+    @NotNull
+    public List<StaticFunction> getStaticFunctions() {
+      return Collections.unmodifiableList(myStaticFunctions);
+    }
+  }
+
+  public static class StaticFunction {
+    @NotNull private final String myName;
+    @Nullable private final String myFirstParameterType;
+
+    StaticFunction(@NotNull String name, @Nullable String firstParameterType) {
+      myName = name;
+      myFirstParameterType = firstParameterType;
+    }
+
+    @NotNull
+    public String getName() {
+      return myName;
+    }
+
+    /**
+     * @return the type of the first parameter as written, without type parameters; null if the parameter accepts
+     * any type: it is untyped, <code>Dynamic</code>, a type parameter, an anonymous or a function type.
+     */
+    @Nullable
+    public String getFirstParameterType() {
+      return myFirstParameterType;
+    }
+  }
+}
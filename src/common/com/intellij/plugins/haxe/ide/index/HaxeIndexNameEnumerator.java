@@ -0,0 +1,152 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.io.FlushingDaemon;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.PersistentStringEnumerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Package and qualified class names shared by the Haxe indexes.
+ *
+ * Index values store the id of a name rather than the name itself; the same
+ * package string appears in thousands of entries across the SDK and haxelibs.
+ * The enumerator lives next to the indexes, so it is dropped together with them.
+ * It is flushed every few seconds, like the indexes, so that ids they refer to
+ * survive a crash, and closed when the application is disposed.
+ */
+public class HaxeIndexNameEnumerator {
+  private static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.ide.index.HaxeIndexNameEnumerator");
+  private static final String NAMES_FILE = "haxe.names." + HaxeIndexUtil.BASE_INDEX_VERSION;
+
+  private static volatile PersistentStringEnumerator ourEnumerator;
+
+  private HaxeIndexNameEnumerator() {
+  }
+
+  public static int enumerate(@NotNull String name) throws IOException {
+    return getEnumerator().enumerate(name);
+  }
+
+  @NotNull
+  public static String valueOf(int id) throws IOException {
+    final String name = getEnumerator().valueOf(id);
+    if (name == null) {
+      throw new IOException("Unknown Haxe index name id: " + id);
+    }
+    return name;
+  }
+
+  @NotNull
+  private static PersistentStringEnumerator getEnumerator() throws IOException {
+    PersistentStringEnumerator enumerator = ourEnumerator;
+    if (enumerator == null) {
+      synchronized (HaxeIndexNameEnumerator.class) {
+        enumerator = ourEnumerator;
+        if (enumerator == null) {
+          enumerator = open();
+          ourEnumerator = enumerator;
+        }
+      }
+    }
+    return enumerator;
+  }
+
+  @NotNull
+  private static PersistentStringEnumerator open() throws IOException {
+    final File file = new File(PathManager.getIndexRoot(), NAMES_FILE);
+    PersistentStringEnumerator enumerator;
+    try {
+      enumerator = new PersistentStringEnumerator(file, true);
+    }
+    catch (IOException e) {
+      // The ids stored in the indexes are meaningless without the old enumerator.
+      LOG.info("Haxe index name enumerator is corrupted, rebuilding Haxe indexes", e);
+      IOUtil.deleteAllFilesStartingWith(file);
+      enumerator = new PersistentStringEnumerator(file, true);
+      requestIndexRebuild();
+    }
+    final PersistentStringEnumerator opened = enumerator;
+    final ScheduledFuture<?> flushing = FlushingDaemon.everyFiveSeconds(new Runnable() {
+      @Override
+      public void run() {
+        flush(opened);
+      }
+    });
+    final Application application = ApplicationManager.getApplication();
+    if (application != null) {
+      Disposer.register(application, new Disposable() {
+        @Override
+        public void dispose() {
+          flushing.cancel(false);
+          close(opened);
+        }
+      });
+    }
+    return enumerator;
+  }
+
+  private static void flush(@NotNull PersistentStringEnumerator enumerator) {
+    synchronized (HaxeIndexNameEnumerator.class) {
+      if (enumerator.isClosed() || !enumerator.isDirty()) {
+        return;
+      }
+      try {
+        enumerator.force();
+      }
+      catch (RuntimeException e) {
+        LOG.info(e);
+      }
+    }
+  }
+
+  private static void close(@NotNull PersistentStringEnumerator enumerator) {
+    synchronized (HaxeIndexNameEnumerator.class) {
+      if (ourEnumerator == enumerator) {
+        ourEnumerator = null;
+      }
+      try {
+        enumerator.close();
+      }
+      catch (IOException e) {
+        LOG.info(e);
+      }
+    }
+  }
+
+  private static void requestIndexRebuild() {
+    final FileBasedIndex index = FileBasedIndex.getInstance();
+    index.requestRebuild(HaxeComponentIndex.HAXE_COMPONENT_INDEX);
+    index.requestRebuild(HaxeInheritanceIndex.HAXE_INHERITANCE_INDEX);
+    index.requestRebuild(HaxeTypeDefInheritanceIndex.HAXE_TYPEDEF_INHERITANCE_INDEX);
+    index.requestRebuild(HaxeStaticExtensionIndex.HAXE_STATIC_EXTENSION_INDEX);
+    index.requestRebuild(HaxePackageIndex.HAXE_PACKAGE_INDEX);
+  }
+}
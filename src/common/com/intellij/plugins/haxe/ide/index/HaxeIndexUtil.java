@@ -21,5 +21,5 @@ package com.intellij.plugins.haxe.ide.index;
  * Created by fedorkorotkov.
  */
 public class HaxeIndexUtil {
-  public static int BASE_INDEX_VERSION = 1;
+  public static int BASE_INDEX_VERSION = 2;
 }
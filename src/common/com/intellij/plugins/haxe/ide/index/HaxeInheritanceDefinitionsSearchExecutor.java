@@ -21,6 +21,7 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyDeadline;
 import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
 import com.intellij.plugins.haxe.lang.psi.HaxeNamedComponent;
@@ -34,6 +35,7 @@ import com.intellij.util.QueryExecutor;
 import com.intellij.util.indexing.FileBasedIndex;
 import gnu.trove.THashSet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
@@ -45,6 +47,14 @@ import java.util.Set;
  */
 public class HaxeInheritanceDefinitionsSearchExecutor implements QueryExecutor<PsiElement, PsiElement> {
   public static List<HaxeClass> getItemsByQName(final HaxeClass haxeClass) {
+    return getItemsByQName(haxeClass, null);
+  }
+
+  /**
+   * Same as {@link #getItemsByQName(HaxeClass)}, but stops once the deadline
+   * expires, returning the subclasses found until then.
+   */
+  public static List<HaxeClass> getItemsByQName(final HaxeClass haxeClass, @Nullable final HaxeHierarchyDeadline deadline) {
     final List<HaxeClass> result = new ArrayList<HaxeClass>();
     DefinitionsSearch.search(haxeClass).forEach(new Processor<PsiElement>() {
       @Override
@@ -52,7 +62,7 @@ public class HaxeInheritanceDefinitionsSearchExecutor implements QueryExecutor<P
         if (element instanceof HaxeClass) {
           result.add((HaxeClass)element);
         }
-        return true;
+        return null == deadline || !deadline.isExpired();
       }
     });
     return result;
@@ -74,7 +84,7 @@ public class HaxeInheritanceDefinitionsSearchExecutor implements QueryExecutor<P
           return true;
         }
         if (haxeNamedComponent instanceof HaxeClass) {
-          processInheritors(((HaxeClass)haxeNamedComponent).getQualifiedName(), queryParameters, consumer);
+          return processInheritors(((HaxeClass)haxeNamedComponent).getQualifiedName(), queryParameters, consumer);
         }
         else if (HaxeComponentType.typeOf(haxeNamedComponent) == HaxeComponentType.METHOD ||
                  HaxeComponentType.typeOf(haxeNamedComponent) == HaxeComponentType.FIELD) {
@@ -84,12 +94,14 @@ public class HaxeInheritanceDefinitionsSearchExecutor implements QueryExecutor<P
           HaxeClass haxeClass = PsiTreeUtil.getParentOfType(haxeNamedComponent, HaxeClass.class);
           assert haxeClass != null;
 
-          processInheritors(haxeClass.getQualifiedName(), queryParameters, new Processor<PsiElement>() {
+          return processInheritors(haxeClass.getQualifiedName(), queryParameters, new Processor<PsiElement>() {
             @Override
             public boolean process(PsiElement element) {
               for (HaxeNamedComponent subHaxeNamedComponent : HaxeResolveUtil.getNamedSubComponents((HaxeClass)element)) {
                 if (nameToFind.equals(subHaxeNamedComponent.getName())) {
-                  consumer.process(subHaxeNamedComponent);
+                  if (!consumer.process(subHaxeNamedComponent)) {
+                    return false;
+                  }
                 }
               }
               return true;
@@ -119,7 +131,7 @@ public class HaxeInheritanceDefinitionsSearchExecutor implements QueryExecutor<P
           final HaxeClass subClass = HaxeResolveUtil.findClassByQName(subClassInfo.getValue(), context.getManager(), scope);
           if (subClass != null) {
             if (!consumer.process(subClass)) {
-              return true;
+              return false;
             }
             namesQueue.add(subClass.getQualifiedName());
           }
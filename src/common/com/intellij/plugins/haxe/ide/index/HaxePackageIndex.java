@@ -0,0 +1,202 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The Haxe package tree, keyed by qualified package name ("" for the root package).
+ *
+ * Built from the <code>package</code> statements, so it only holds packages that
+ * contain Haxe files and doesn't need the Java package machinery to walk source
+ * and library roots. Each file adds its classes to its own package and a
+ * sub-package entry to every enclosing one.
+ */
+public class HaxePackageIndex extends FileBasedIndexExtension<String, HaxePackageInfo> {
+  public static final ID<String, HaxePackageInfo> HAXE_PACKAGE_INDEX = ID.create("HaxePackageIndex");
+  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION;
+  private final DataIndexer<String, HaxePackageInfo, FileContent> myIndexer = new MyDataIndexer();
+  private final DataExternalizer<HaxePackageInfo> myExternalizer = new HaxePackageInfoExternalizer();
+
+  @NotNull
+  @Override
+  public ID<String, HaxePackageInfo> getName() {
+    return HAXE_PACKAGE_INDEX;
+  }
+
+  @Override
+  public int getVersion() {
+    return INDEX_VERSION;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @Override
+  public DataExternalizer<HaxePackageInfo> getValueExternalizer() {
+    return myExternalizer;
+  }
+
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return HaxeSdkInputFilter.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, HaxePackageInfo, FileContent> getIndexer() {
+    return myIndexer;
+  }
+
+  public static boolean packageExists(@NotNull String packageName, @NotNull GlobalSearchScope scope) {
+    return !FileBasedIndex.getInstance().getContainingFiles(HAXE_PACKAGE_INDEX, packageName, scope).isEmpty();
+  }
+
+  /**
+   * @return simple names of the child packages of <code>packageName</code>, sorted.
+   */
+  @NotNull
+  public static Set<String> getSubPackages(@NotNull String packageName, @NotNull GlobalSearchScope scope) {
+    final Set<String> result = new TreeSet<String>();
+    for (HaxePackageInfo info : FileBasedIndex.getInstance().getValues(HAXE_PACKAGE_INDEX, packageName, scope)) {
+      result.addAll(info.getSubPackages());
+    }
+    return result;
+  }
+
+  /**
+   * @return the qualified names of the packages that equal <code>packageName</code>, ignoring case; found by
+   * walking down the tree one segment at a time, as the index keys are case sensitive.
+   */
+  @NotNull
+  public static List<String> findPackagesIgnoreCase(@NotNull String packageName, @NotNull GlobalSearchScope scope) {
+    List<String> result = Collections.singletonList("");
+    if (packageName.isEmpty()) {
+      return result;
+    }
+    for (String segment : packageName.split("\\.")) {
+      final List<String> children = new ArrayList<String>();
+      for (String parent : result) {
+        for (String child : getSubPackages(parent, scope)) {
+          if (child.equalsIgnoreCase(segment)) {
+            children.add(HaxeResolveUtil.joinQName(parent, child));
+          }
+        }
+      }
+      if (children.isEmpty()) {
+        return children;
+      }
+      result = children;
+    }
+    return result;
+  }
+
+  /**
+   * @return simple names and types of the classes declared in <code>packageName</code>.
+   */
+  @NotNull
+  public static List<HaxeClassInfo> getClasses(@NotNull String packageName, @NotNull GlobalSearchScope scope) {
+    final List<HaxeClassInfo> result = new ArrayList<HaxeClassInfo>();
+    for (HaxePackageInfo info : FileBasedIndex.getInstance().getValues(HAXE_PACKAGE_INDEX, packageName, scope)) {
+      result.addAll(info.getClasses());
+    }
+    return result;
+  }
+
+  public static boolean containsClass(@NotNull String packageName, @NotNull String className, @NotNull GlobalSearchScope scope) {
+    for (HaxeClassInfo info : getClasses(packageName, scope)) {
+      if (className.equals(info.getValue())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the files declaring classes in <code>packageName</code>.
+   */
+  @NotNull
+  public static List<VirtualFile> getClassFiles(@NotNull String packageName, @NotNull GlobalSearchScope scope) {
+    final List<VirtualFile> result = new ArrayList<VirtualFile>();
+    FileBasedIndex.getInstance().processValues(HAXE_PACKAGE_INDEX, packageName, null, new FileBasedIndex.ValueProcessor<HaxePackageInfo>() {
+      @Override
+      public boolean process(VirtualFile file, HaxePackageInfo value) {
+        if (!value.getClasses().isEmpty()) {
+          result.add(file);
+        }
+        return true;
+      }
+    }, scope);
+    return result;
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, HaxePackageInfo, FileContent> {
+    @Override
+    @NotNull
+    public Map<String, HaxePackageInfo> map(final FileContent inputData) {
+      final HaxeFileDeclarations fileDeclarations = HaxeFileDeclarationScanner.getDeclarations(inputData);
+      final Map<String, List<HaxeClassInfo>> classesByPackage = new THashMap<String, List<HaxeClassInfo>>();
+      for (HaxeFileDeclarations.Declaration declaration : fileDeclarations.getDeclarations()) {
+        final Pair<String, String> packageAndName = HaxeResolveUtil.splitQName(fileDeclarations.getQualifiedName(declaration));
+        List<HaxeClassInfo> classes = classesByPackage.get(packageAndName.getFirst());
+        if (classes == null) {
+          classes = new ArrayList<HaxeClassInfo>();
+          classesByPackage.put(packageAndName.getFirst(), classes);
+        }
+        classes.add(new HaxeClassInfo(packageAndName.getSecond(), declaration.getType()));
+      }
+
+      final Map<String, HaxePackageInfo> result = new THashMap<String, HaxePackageInfo>();
+      final String packageName = fileDeclarations.getPackageName();
+      result.put(packageName, new HaxePackageInfo(getClasses(classesByPackage, packageName), Collections.<String>emptyList()));
+      String childPackage = packageName;
+      while (!childPackage.isEmpty()) {
+        final int dot = childPackage.lastIndexOf('.');
+        final String parentPackage = dot == -1 ? "" : childPackage.substring(0, dot);
+        result.put(parentPackage, new HaxePackageInfo(getClasses(classesByPackage, parentPackage),
+                                                      Collections.singletonList(childPackage.substring(dot + 1))));
+        childPackage = parentPackage;
+      }
+      return result;
+    }
+
+    @NotNull
+    private static List<HaxeClassInfo> getClasses(@NotNull Map<String, List<HaxeClassInfo>> classesByPackage, @NotNull String packageName) {
+      final List<HaxeClassInfo> classes = classesByPackage.get(packageName);
+      return classes == null ? Collections.<HaxeClassInfo>emptyList() : classes;
+    }
+  }
+}
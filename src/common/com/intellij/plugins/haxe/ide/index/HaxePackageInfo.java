@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What one file contributes to a package: the types it declares there
+ * and the child package that leads to its own package.
+ */
+public class HaxePackageInfo {
+  @NotNull private final List<HaxeClassInfo> classes;
+  @NotNull private final List<String> subPackages;
+
+  public HaxePackageInfo(@NotNull List<HaxeClassInfo> classes, @NotNull List<String> subPackages) {
+    this.classes = classes;
+    this.subPackages = subPackages;
+  }
+
+  /**
+   * @return simple names and types of the classes declared in the package.
+   */
+  @NotNull
+  public List<HaxeClassInfo> getClasses() {
+    return Collections.unmodifiableList(classes);
+  }
+
+  /**
+   * @return simple names of child packages.
+   */
+  @NotNull
+  public List<String> getSubPackages() {
+    return Collections.unmodifiableList(subPackages);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classes as in {@link HaxeClassInfoListExternalizer}, then the sub-package names;
+ * both lists prefixed with a varint count.
+ */
+public class HaxePackageInfoExternalizer implements DataExternalizer<HaxePackageInfo> {
+  @Override
+  public void save(DataOutput out, HaxePackageInfo value) throws IOException {
+    final List<HaxeClassInfo> classes = value.getClasses();
+    DataInputOutputUtil.writeINT(out, classes.size());
+    for (HaxeClassInfo classInfo : classes) {
+      HaxeClassInfoExternalizer.writeType(out, classInfo.getType());
+      DataInputOutputUtil.writeINT(out, HaxeIndexNameEnumerator.enumerate(classInfo.getValue()));
+    }
+    final List<String> subPackages = value.getSubPackages();
+    DataInputOutputUtil.writeINT(out, subPackages.size());
+    for (String subPackage : subPackages) {
+      DataInputOutputUtil.writeINT(out, HaxeIndexNameEnumerator.enumerate(subPackage));
+    }
+  }
+
+  @Override
+  public HaxePackageInfo read(DataInput in) throws IOException {
+    final int classCount = DataInputOutputUtil.readINT(in);
+    List<HaxeClassInfo> classes = Collections.emptyList();
+    if (classCount > 0) {
+      classes = new ArrayList<HaxeClassInfo>(classCount);
+      for (int i = 0; i < classCount; ++i) {
+        final HaxeComponentType type = HaxeClassInfoExternalizer.readType(in);
+        classes.add(new HaxeClassInfo(HaxeIndexNameEnumerator.valueOf(DataInputOutputUtil.readINT(in)), type));
+      }
+    }
+    final int subPackageCount = DataInputOutputUtil.readINT(in);
+    List<String> subPackages = Collections.emptyList();
+    if (subPackageCount > 0) {
+      subPackages = new ArrayList<String>(subPackageCount);
+      for (int i = 0; i < subPackageCount; ++i) {
+        subPackages.add(HaxeIndexNameEnumerator.valueOf(DataInputOutputUtil.readINT(in)));
+      }
+    }
+    return new HaxePackageInfo(classes, subPackages);
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.lang.psi.HaxeClassMemberTable;
+import com.intellij.plugins.haxe.lang.psi.HaxeNamedComponent;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.THashMap;
+import gnu.trove.THashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Public static functions keyed by the qualified name of their first parameter's type,
+ * so that <code>using</code> extensions of a type are found without walking every member
+ * of every used class. Functions whose first parameter takes any type
+ * (untyped, <code>Dynamic</code> or a type parameter) are stored under {@link #WILDCARD_KEY}.
+ */
+public class HaxeStaticExtensionIndex extends FileBasedIndexExtension<String, List<HaxeStaticExtensionInfo>> {
+  public static final ID<String, List<HaxeStaticExtensionInfo>> HAXE_STATIC_EXTENSION_INDEX = ID.create("HaxeStaticExtensionIndex");
+  public static final String WILDCARD_KEY = "*";
+  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION;
+  private final DataIndexer<String, List<HaxeStaticExtensionInfo>, FileContent> myIndexer = new MyDataIndexer();
+  private final DataExternalizer<List<HaxeStaticExtensionInfo>> myExternalizer = new HaxeStaticExtensionInfoListExternalizer();
+
+  @NotNull
+  @Override
+  public ID<String, List<HaxeStaticExtensionInfo>> getName() {
+    return HAXE_STATIC_EXTENSION_INDEX;
+  }
+
+  @Override
+  public int getVersion() {
+    return INDEX_VERSION;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @Override
+  public DataExternalizer<List<HaxeStaticExtensionInfo>> getValueExternalizer() {
+    return myExternalizer;
+  }
+
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return HaxeSdkInputFilter.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<HaxeStaticExtensionInfo>, FileContent> getIndexer() {
+    return myIndexer;
+  }
+
+  /**
+   * Extension methods of <code>extendedClass</code> provided by <code>usingClasses</code>, in <code>using</code> order.
+   *
+   * @param extendedClass null if the type of the receiver is unknown; only methods taking any type are returned then.
+   */
+  @NotNull
+  public static List<HaxeNamedComponent> getExtensionMethods(@Nullable HaxeClass extendedClass,
+                                                             @NotNull List<HaxeClass> usingClasses,
+                                                             @NotNull GlobalSearchScope scope) {
+    if (usingClasses.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final Map<String, Set<String>> methodsByClass = getExtensionMethodNames(extendedClass, usingClasses, scope);
+    final List<HaxeNamedComponent> result = new ArrayList<HaxeNamedComponent>();
+    for (HaxeClass usingClass : usingClasses) {
+      final Set<String> names = methodsByClass.get(usingClass.getQualifiedName());
+      if (names == null) {
+        continue;
+      }
+      for (String name : names) {
+        final HaxeNamedComponent method = HaxeClassMemberTable.getInstance(usingClass).findMethod(name);
+        if (method != null && method.getComponentName() != null) {
+          result.add(method);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the first extension method called <code>name</code>, following <code>using</code> order.
+   */
+  @Nullable
+  public static HaxeNamedComponent findExtensionMethod(@Nullable HaxeClass extendedClass,
+                                                       @NotNull List<HaxeClass> usingClasses,
+                                                       @NotNull String name,
+                                                       @NotNull GlobalSearchScope scope) {
+    if (usingClasses.isEmpty()) {
+      return null;
+    }
+    final Map<String, Set<String>> methodsByClass = getExtensionMethodNames(extendedClass, usingClasses, scope);
+    for (HaxeClass usingClass : usingClasses) {
+      final Set<String> names = methodsByClass.get(usingClass.getQualifiedName());
+      if (names != null && names.contains(name)) {
+        final HaxeNamedComponent method = HaxeClassMemberTable.getInstance(usingClass).findMethod(name);
+        if (method != null && method.getComponentName() != null) {
+          return method;
+        }
+      }
+    }
+    return null;
+  }
+
+  @NotNull
+  private static Map<String, Set<String>> getExtensionMethodNames(@Nullable HaxeClass extendedClass,
+                                                                  @NotNull List<HaxeClass> usingClasses,
+                                                                  @NotNull GlobalSearchScope scope) {
+    final Map<String, Set<String>> result = new THashMap<String, Set<String>>();
+    for (HaxeClass usingClass : usingClasses) {
+      final String qName = usingClass.getQualifiedName();
+      if (qName != null) {
+        result.put(qName, new LinkedHashSet<String>());
+      }
+    }
+    collectExtensionMethodNames(WILDCARD_KEY, scope, result);
+    final String extendedQName = extendedClass == null ? null : extendedClass.getQualifiedName();
+    if (extendedQName != null) {
+      collectExtensionMethodNames(extendedQName, scope, result);
+    }
+    return result;
+  }
+
+  private static void collectExtensionMethodNames(@NotNull String key,
+                                                  @NotNull GlobalSearchScope scope,
+                                                  @NotNull Map<String, Set<String>> result) {
+    for (List<HaxeStaticExtensionInfo> infos : FileBasedIndex.getInstance().getValues(HAXE_STATIC_EXTENSION_INDEX, key, scope)) {
+      for (HaxeStaticExtensionInfo info : infos) {
+        final Set<String> names = result.get(info.getClassQName());
+        if (names != null) {
+          names.add(info.getMethodName());
+        }
+      }
+    }
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, List<HaxeStaticExtensionInfo>, FileContent> {
+    @Override
+    @NotNull
+    public Map<String, List<HaxeStaticExtensionInfo>> map(final FileContent inputData) {
+      final HaxeFileDeclarations fileDeclarations = HaxeFileDeclarationScanner.getDeclarations(inputData);
+      Map<String, List<HaxeStaticExtensionInfo>> result = null;
+      for (HaxeFileDeclarations.Declaration declaration : fileDeclarations.getDeclarations()) {
+        if (declaration.getStaticFunctions().isEmpty()) {
+          continue;
+        }
+        if (result == null) {
+          result = new THashMap<String, List<HaxeStaticExtensionInfo>>();
+        }
+        final String classQName = fileDeclarations.getQualifiedName(declaration);
+        for (HaxeFileDeclarations.StaticFunction function : declaration.getStaticFunctions()) {
+          final HaxeStaticExtensionInfo value = new HaxeStaticExtensionInfo(classQName, function.getName());
+          final String parameterType = function.getFirstParameterType();
+          if (parameterType == null) {
+            put(result, WILDCARD_KEY, value);
+            continue;
+          }
+          final Set<String> keys = new THashSet<String>(fileDeclarations.resolveTypeCandidates(parameterType));
+          // Types that aren't imported may also come from the top-level package (String, Array, ...).
+          keys.add(parameterType);
+          for (String key : keys) {
+            put(result, key, value);
+          }
+        }
+      }
+      return result == null ? Collections.<String, List<HaxeStaticExtensionInfo>>emptyMap() : result;
+    }
+
+    private static void put(Map<String, List<HaxeStaticExtensionInfo>> map, String key, HaxeStaticExtensionInfo value) {
+      List<HaxeStaticExtensionInfo> infos = map.get(key);
+      if (infos == null) {
+        infos = new ArrayList<HaxeStaticExtensionInfo>();
+        map.put(key, infos);
+      }
+      infos.add(value);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A public static function that <code>using</code> its class adds to another type.
+ */
+public class HaxeStaticExtensionInfo {
+  @NotNull private final String classQName;
+  @NotNull private final String methodName;
+
+  public HaxeStaticExtensionInfo(@NotNull String classQName, @NotNull String methodName) {
+    this.classQName = classQName;
+    this.methodName = methodName;
+  }
+
+  @NotNull
+  public String getClassQName() {
+    return classQName;
+  }
+
+  @NotNull
+  public String getMethodName() {
+    return methodName;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A varint count followed by the class and method name ids from {@link HaxeIndexNameEnumerator}.
+ */
+public class HaxeStaticExtensionInfoListExternalizer implements DataExternalizer<List<HaxeStaticExtensionInfo>> {
+  @Override
+  public void save(DataOutput out, List<HaxeStaticExtensionInfo> value) throws IOException {
+    DataInputOutputUtil.writeINT(out, value.size());
+    for (HaxeStaticExtensionInfo info : value) {
+      DataInputOutputUtil.writeINT(out, HaxeIndexNameEnumerator.enumerate(info.getClassQName()));
+      DataInputOutputUtil.writeINT(out, HaxeIndexNameEnumerator.enumerate(info.getMethodName()));
+    }
+  }
+
+  @Override
+  public List<HaxeStaticExtensionInfo> read(DataInput in) throws IOException {
+    final int size = DataInputOutputUtil.readINT(in);
+    final List<HaxeStaticExtensionInfo> result = new ArrayList<HaxeStaticExtensionInfo>(size);
+    for (int i = 0; i < size; ++i) {
+      final String classQName = HaxeIndexNameEnumerator.valueOf(DataInputOutputUtil.readINT(in));
+      final String methodName = HaxeIndexNameEnumerator.valueOf(DataInputOutputUtil.readINT(in));
+      result.add(new HaxeStaticExtensionInfo(classQName, methodName));
+    }
+    return result;
+  }
+}
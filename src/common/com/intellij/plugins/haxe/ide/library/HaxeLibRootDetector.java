@@ -17,25 +17,33 @@
  */
 package com.intellij.plugins.haxe.ide.library;
 
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.roots.libraries.ui.RootDetector;
-import com.intellij.openapi.vfs.JarFileSystem;
-import com.intellij.openapi.vfs.VfsUtilCore;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.openapi.vfs.*;
 import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.haxelib.HaxelibRepository;
+import com.intellij.util.Processor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Finds the library roots under a haxelib repository (or any directory containing one).
+ *
+ * On the local file system, the libraries' <code>.current</code>/<code>.dev</code> markers are read first and only
+ * the active version of each library is looked at.  The directories are read from disk, not through the VFS, several
+ * libraries at a time, so that the versions that aren't used are never loaded into the VFS.
+ *
  * @author: Fedor.Korotkov
  */
 public class HaxeLibRootDetector extends RootDetector {
+  private static final String HAXE_EXTENSION = "." + HaxeFileType.DEFAULT_EXTENSION;
+
   protected HaxeLibRootDetector(OrderRootType rootType, String presentableRootTypeName) {
     super(rootType, false, presentableRootTypeName);
   }
@@ -52,6 +60,111 @@ public class HaxeLibRootDetector extends RootDetector {
     if (file.getFileSystem() instanceof JarFileSystem) {
       return;
     }
+    if (file.getFileSystem() instanceof LocalFileSystem) {
+      collectActiveRoots(VfsUtilCore.virtualToIoFile(file), result, progressIndicator);
+      return;
+    }
+    collectAllRoots(file, result, progressIndicator);
+  }
+
+  /**
+   * Collects the active version of every library found under <code>root</code>.
+   */
+  private static void collectActiveRoots(@NotNull File root, @NotNull List<VirtualFile> result, @Nullable final ProgressIndicator progressIndicator) {
+    final List<File> libraries = new ArrayList<File>();
+    findLibraryDirectories(root, libraries, progressIndicator);
+    if (libraries.isEmpty()) {
+      return;
+    }
+
+    final File[] roots = new File[libraries.size()];
+    final Map<File, Integer> positions = new HashMap<File, Integer>();
+    for (int i = 0; i < libraries.size(); i++) {
+      positions.put(libraries.get(i), i);
+    }
+    final AtomicInteger done = new AtomicInteger();
+    final int total = libraries.size();
+    if (progressIndicator != null) {
+      progressIndicator.setIndeterminate(false);
+    }
+
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(libraries, progressIndicator, false, new Processor<File>() {
+      @Override
+      public boolean process(File library) {
+        final File active = HaxelibRepository.findActiveVersionDirectory(library);
+        if (active != null && containsHaxeFiles(active, progressIndicator)) {
+          roots[positions.get(library)] = active;
+        }
+        if (progressIndicator != null) {
+          progressIndicator.setText2(library.getName().replace(',', '.'));
+          progressIndicator.setFraction((double)done.incrementAndGet() / total);
+        }
+        return true;
+      }
+    });
+
+    for (File dir : roots) {
+      if (dir != null) {
+        final VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(dir);
+        if (virtualFile != null) {
+          result.add(virtualFile);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the library directories at or under <code>dir</code>, without descending into them.
+   */
+  private static void findLibraryDirectories(@NotNull File dir, @NotNull List<File> libraries, @Nullable ProgressIndicator progressIndicator) {
+    if (progressIndicator != null) {
+      progressIndicator.checkCanceled();
+    }
+    if (HaxelibRepository.isLibraryDirectory(dir)) {
+      libraries.add(dir);
+      return;
+    }
+    final File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    Arrays.sort(children);
+    for (File child : children) {
+      if (child.isDirectory() && !child.getName().startsWith(".")) {
+        findLibraryDirectories(child, libraries, progressIndicator);
+      }
+    }
+  }
+
+  private static boolean containsHaxeFiles(@NotNull File dir, @Nullable ProgressIndicator progressIndicator) {
+    final LinkedList<File> queue = new LinkedList<File>();
+    queue.add(dir);
+    while (!queue.isEmpty()) {
+      if (progressIndicator != null) {
+        progressIndicator.checkCanceled();
+      }
+      final File[] children = queue.removeFirst().listFiles();
+      if (children == null) {
+        continue;
+      }
+      for (File child : children) {
+        if (child.getName().endsWith(HAXE_EXTENSION) && child.isFile()) {
+          return true;
+        }
+      }
+      for (File child : children) {
+        if (child.isDirectory()) {
+          queue.add(child);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Collects every version of every library, walking the VFS.  Used for file systems other than the local one.
+   */
+  private static void collectAllRoots(VirtualFile file, final List<VirtualFile> result, @Nullable final ProgressIndicator progressIndicator) {
     VfsUtilCore.visitChildrenRecursively(file, new VirtualFileVisitor() {
       @Override
       public boolean visitFile(@NotNull VirtualFile file) {
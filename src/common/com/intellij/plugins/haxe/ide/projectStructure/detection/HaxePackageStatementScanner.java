@@ -0,0 +1,249 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.projectStructure.detection;
+
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.intellij.util.text.CharArrayCharSequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+
+/**
+ * Reads the package statement at the top of a Haxe file without a lexer.
+ *
+ * Only the start of the file is read, up to the end of the package statement. Each thread reuses one scanner and
+ * its buffer; besides the name itself, nothing is allocated per file.
+ */
+public final class HaxePackageStatementScanner {
+  private static final int INITIAL_BUFFER_SIZE = 2048;
+  private static final String PACKAGE_KEYWORD = "package";
+
+  private static final ThreadLocal<HaxePackageStatementScanner> ourScanners = new ThreadLocal<HaxePackageStatementScanner>() {
+    @Override
+    protected HaxePackageStatementScanner initialValue() {
+      return new HaxePackageStatementScanner();
+    }
+  };
+
+  private char[] myBuffer = new char[INITIAL_BUFFER_SIZE];
+  // Set by scan(): the package name is text[myNameStart, myNameEnd), or malformed.
+  private int myNameStart;
+  private int myNameEnd;
+  private boolean myMalformed;
+
+  private HaxePackageStatementScanner() {
+  }
+
+  @NotNull
+  public static HaxePackageStatementScanner getInstance() {
+    return ourScanners.get();
+  }
+
+  /**
+   * @return the package name; an empty string if there is no package statement, null if it is malformed.
+   */
+  @Nullable
+  public String readPackageName(@NotNull CharSequence text) {
+    scan(text, true);
+    if (myMalformed) {
+      return null;
+    }
+    return myNameStart == myNameEnd ? "" : text.subSequence(myNameStart, myNameEnd).toString();
+  }
+
+  /**
+   * Reads the start of <code>file</code>, up to and including its package statement.
+   *
+   * @return the text read, backed by this scanner's buffer: it is only valid until the scanner is used again.
+   */
+  @NotNull
+  public CharSequence loadPrefix(@NotNull File file) throws IOException {
+    final Reader reader = new InputStreamReader(new FileInputStream(file), CharsetToolkit.UTF8_CHARSET);
+    try {
+      int length = 0;
+      while (true) {
+        final int read = reader.read(myBuffer, length, myBuffer.length - length);
+        if (read < 0) {
+          return new CharArrayCharSequence(myBuffer, 0, length);
+        }
+        length += read;
+        final CharSequence text = new CharArrayCharSequence(myBuffer, 0, length);
+        if (scan(text, false)) {
+          return text;
+        }
+        if (length == myBuffer.length) {
+          final char[] buffer = new char[myBuffer.length * 2];
+          System.arraycopy(myBuffer, 0, buffer, 0, length);
+          myBuffer = buffer;
+        }
+      }
+    }
+    finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Finds the package statement the way the lexer would: comments, white space and conditional compilation
+   * directives are skipped; no white space is allowed within the name.
+   *
+   * @param complete whether <code>text</code> is the whole file; if not, the scan stops when the text ends too early
+   *                 to tell.
+   * @return false if more text is needed.
+   */
+  private boolean scan(@NotNull CharSequence text, boolean complete) {
+    myNameStart = myNameEnd = 0;
+    myMalformed = false;
+    final int length = text.length();
+
+    int i = length > 0 && text.charAt(0) == '\uFEFF' ? 1 : 0;
+    i = skipWhiteSpaceAndComments(text, i);
+    if (i < 0 || i + PACKAGE_KEYWORD.length() >= length) {
+      // A file that ends within "package" or a comment has no package statement.
+      return complete;
+    }
+    if (!regionMatches(text, i, PACKAGE_KEYWORD) || isIdentifierPart(text.charAt(i + PACKAGE_KEYWORD.length()))) {
+      return true;
+    }
+    i = skipWhiteSpaceAndComments(text, i + PACKAGE_KEYWORD.length());
+    if (i < 0 || i >= length) {
+      return complete;
+    }
+
+    final int start = i;
+    while (i < length && isIdentifierStart(text.charAt(i))) {
+      i++;
+      while (i < length && isIdentifierPart(text.charAt(i))) {
+        i++;
+      }
+      if (i >= length) {
+        if (!complete) {
+          return false;
+        }
+        break;
+      }
+      if (text.charAt(i) != '.') {
+        break;
+      }
+      i++;
+    }
+    if (i >= length && !complete) {
+      return false;
+    }
+    myNameStart = start;
+    myNameEnd = i;
+    myMalformed = i > start && text.charAt(i - 1) == '.';
+    return true;
+  }
+
+  /**
+   * @return the offset of the next token, or -1 if the text ends within a block comment.
+   */
+  private static int skipWhiteSpaceAndComments(@NotNull CharSequence text, int i) {
+    final int length = text.length();
+    while (i < length) {
+      final char c = text.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      }
+      else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '/') {
+        while (i < length && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+          i++;
+        }
+      }
+      else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '*') {
+        i += 2;
+        while (i + 1 < length && !(text.charAt(i) == '*' && text.charAt(i + 1) == '/')) {
+          i++;
+        }
+        if (i + 1 >= length) {
+          return -1;
+        }
+        i += 2;
+      }
+      else if (c == '#') {
+        i = skipDirective(text, i + 1);
+      }
+      else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * Skips <code>#if cond</code>, <code>#elseif cond</code>, <code>#else</code>, <code>#end</code> and
+   * <code>#error</code>; <code>i</code> is the offset after the <code>#</code>.
+   */
+  private static int skipDirective(@NotNull CharSequence text, int i) {
+    final int length = text.length();
+    final int nameStart = i;
+    while (i < length && isIdentifierPart(text.charAt(i))) {
+      i++;
+    }
+    final boolean hasCondition = regionMatches(text, nameStart, "if") && i - nameStart == 2 ||
+                                 regionMatches(text, nameStart, "elseif") && i - nameStart == 6;
+    if (!hasCondition) {
+      return i;
+    }
+    while (i < length && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+      i++;
+    }
+    if (i < length && text.charAt(i) == '!') {
+      i++;
+    }
+    if (i < length && text.charAt(i) == '(') {
+      int depth = 0;
+      while (i < length && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+        final char c = text.charAt(i++);
+        if (c == '(') {
+          depth++;
+        }
+        else if (c == ')' && --depth == 0) {
+          break;
+        }
+      }
+      return i;
+    }
+    while (i < length && !Character.isWhitespace(text.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean regionMatches(@NotNull CharSequence text, int offset, @NotNull String s) {
+    if (offset + s.length() > text.length()) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      if (text.charAt(offset + i) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isIdentifierStart(char c) {
+    return Character.isLetter(c) || c == '_' || c == '$';
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return isIdentifierStart(c) || Character.isDigit(c);
+  }
+}
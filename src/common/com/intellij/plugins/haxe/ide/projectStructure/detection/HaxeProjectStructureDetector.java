@@ -26,20 +26,11 @@ import com.intellij.ide.util.projectWizard.ProjectJdkForModuleStep;
 import com.intellij.ide.util.projectWizard.importSources.DetectedProjectRoot;
 import com.intellij.ide.util.projectWizard.importSources.ProjectFromSourcesBuilder;
 import com.intellij.ide.util.projectWizard.importSources.ProjectStructureDetector;
-import com.intellij.ide.util.projectWizard.importSources.util.CommonSourceRootDetectionUtil;
-import com.intellij.lang.LanguageParserDefinitions;
-import com.intellij.lexer.Lexer;
-import com.intellij.openapi.util.Pair;
-import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.plugins.haxe.HaxeFileType;
-import com.intellij.plugins.haxe.HaxeLanguage;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkType;
-import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypeSets;
-import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.util.NullableFunction;
-import com.intellij.util.StringBuilderSpinAllocator;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.io.File;
@@ -52,9 +43,7 @@ import java.util.List;
 public class HaxeProjectStructureDetector extends ProjectStructureDetector {
   public static final NullableFunction<CharSequence, String> PACKAGE_NAME_FETCHER = new NullableFunction<CharSequence, String>() {
     public String fun(final CharSequence charSequence) {
-      Lexer lexer = LanguageParserDefinitions.INSTANCE.forLanguage(HaxeLanguage.INSTANCE).createLexer(null);
-      lexer.start(charSequence);
-      return readPackageName(charSequence, lexer);
+      return HaxePackageStatementScanner.getInstance().readPackageName(charSequence);
     }
   };
 
@@ -64,13 +53,20 @@ public class HaxeProjectStructureDetector extends ProjectStructureDetector {
                                                @NotNull File[] children,
                                                @NotNull File base,
                                                @NotNull List<DetectedProjectRoot> result) {
+    if (FileUtil.filesEqual(dir, base)) {
+      // The whole tree is read here, in parallel, rather than directory by directory on the wizard's thread.
+      final HaxeSourceRootWalker walker = new HaxeSourceRootWalker(base);
+      for (File root : walker.findRoots(ProgressManager.getInstance().getProgressIndicator())) {
+        result.add(new HaxeModuleSourceRoot(root));
+      }
+      return DirectoryProcessingResult.SKIP_CHILDREN;
+    }
     for (File child : children) {
-      if (child.isFile() && child.getName().endsWith(HaxeFileType.DEFAULT_EXTENSION)) {
-        Pair<File, String> root =
-          CommonSourceRootDetectionUtil.IO_FILE.suggestRootForFileWithPackageStatement(child, base, PACKAGE_NAME_FETCHER, false);
+      if (HaxeSourceRootWalker.isHaxeFile(child)) {
+        final File root = HaxeSourceRootWalker.suggestRoot(child, base);
         if (root != null) {
-          result.add(new HaxeModuleSourceRoot(root.getFirst()));
-          return DirectoryProcessingResult.skipChildrenAndParentsUpTo(root.getFirst());
+          result.add(new HaxeModuleSourceRoot(root));
+          return DirectoryProcessingResult.skipChildrenAndParentsUpTo(root);
         }
         else {
           return DirectoryProcessingResult.SKIP_CHILDREN;
@@ -92,44 +88,4 @@ public class HaxeProjectStructureDetector extends ProjectStructureDetector {
     steps.add(new ProjectJdkForModuleStep(builder.getContext(), HaxeSdkType.getInstance()));
     return steps;
   }
-
-  @Nullable
-  public static String readPackageName(final CharSequence charSequence, final Lexer lexer) {
-    skipWhiteSpaceAndComments(lexer);
-    if (!HaxeTokenTypes.KPACKAGE.equals(lexer.getTokenType())) {
-      return "";
-    }
-    lexer.advance();
-    skipWhiteSpaceAndComments(lexer);
-
-    return readQualifiedName(charSequence, lexer, false);
-  }
-
-  @Nullable
-  static String readQualifiedName(final CharSequence charSequence, final Lexer lexer, boolean allowStar) {
-    final StringBuilder buffer = StringBuilderSpinAllocator.alloc();
-    try {
-      while (true) {
-        if (lexer.getTokenType() != HaxeTokenTypes.ID && !(allowStar && lexer.getTokenType() != HaxeTokenTypes.OMUL)) break;
-        buffer.append(charSequence, lexer.getTokenStart(), lexer.getTokenEnd());
-        if (lexer.getTokenType() == HaxeTokenTypes.OMUL) break;
-        lexer.advance();
-        if (lexer.getTokenType() != HaxeTokenTypes.ODOT) break;
-        buffer.append('.');
-        lexer.advance();
-      }
-      String packageName = buffer.toString();
-      if (StringUtil.endsWithChar(packageName, '.')) return null;
-      return packageName;
-    }
-    finally {
-      StringBuilderSpinAllocator.dispose(buffer);
-    }
-  }
-
-  public static void skipWhiteSpaceAndComments(Lexer lexer) {
-    while (HaxeTokenTypeSets.COMMENTS.contains(lexer.getTokenType()) || HaxeTokenTypeSets.WHITESPACES.contains(lexer.getTokenType())) {
-      lexer.advance();
-    }
-  }
 }
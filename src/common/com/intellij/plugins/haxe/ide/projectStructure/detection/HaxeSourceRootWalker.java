@@ -0,0 +1,168 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.projectStructure.detection;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.util.projectWizard.importSources.util.CommonSourceRootDetectionUtil;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Finds the source roots under a directory, reading the directories in parallel.
+ *
+ * The tree is read one level at a time, the directories of a level concurrently on the shared job pool. As in the
+ * platform's own walk, the first Haxe file of a directory decides: either its package statement gives a root, or the
+ * directory is left out, and in both cases the subdirectories aren't read. Which roots are kept is then decided in
+ * file order, so the result doesn't depend on which thread finished first.
+ */
+final class HaxeSourceRootWalker {
+  private static final String HAXE_EXTENSION = "." + HaxeFileType.DEFAULT_EXTENSION;
+
+  /**
+   * Only loads the start of the file, up to its package statement.
+   */
+  static final CommonSourceRootDetectionUtil<File> PACKAGE_PREFIX_LOADER = new CommonSourceRootDetectionUtil<File>() {
+    @Override
+    protected String getName(File file) {
+      return file.getName();
+    }
+
+    @Override
+    protected File getParentFile(File file) {
+      return file.getParentFile();
+    }
+
+    @Override
+    protected CharSequence loadText(File file) throws IOException {
+      return HaxePackageStatementScanner.getInstance().loadPrefix(file);
+    }
+
+    @Override
+    protected boolean isFile(File file) {
+      return file.isFile();
+    }
+  };
+
+  @NotNull private final File myBase;
+  // Directories without Haxe files, to their subdirectories.
+  private final Map<File, File[]> mySubdirectories = new ConcurrentHashMap<File, File[]>();
+  // Directories with Haxe files, to the root their first file suggests. Those without a root are in neither map.
+  private final Map<File, File> mySuggestedRoots = new ConcurrentHashMap<File, File>();
+
+  HaxeSourceRootWalker(@NotNull File base) {
+    myBase = base;
+  }
+
+  @NotNull
+  List<File> findRoots(@Nullable final ProgressIndicator indicator) {
+    List<File> level = Collections.singletonList(myBase);
+    while (!level.isEmpty()) {
+      final Queue<File> nextLevel = new ConcurrentLinkedQueue<File>();
+      JobLauncher.getInstance().invokeConcurrentlyUnderProgress(level, indicator, false, new Processor<File>() {
+        @Override
+        public boolean process(File dir) {
+          if (indicator != null) {
+            indicator.checkCanceled();
+          }
+          processDirectory(dir, nextLevel);
+          return true;
+        }
+      });
+      level = new ArrayList<File>(nextLevel);
+    }
+
+    final List<File> roots = new ArrayList<File>();
+    collectRoots(myBase, roots);
+    return roots;
+  }
+
+  @Nullable
+  static File suggestRoot(@NotNull File file, @NotNull File base) {
+    final Pair<File, String> root = PACKAGE_PREFIX_LOADER
+      .suggestRootForFileWithPackageStatement(file, base, HaxeProjectStructureDetector.PACKAGE_NAME_FETCHER, false);
+    return root == null ? null : root.getFirst();
+  }
+
+  static boolean isHaxeFile(@NotNull File file) {
+    return file.getName().endsWith(HAXE_EXTENSION) && file.isFile();
+  }
+
+  private void processDirectory(@NotNull File dir, @NotNull Queue<File> nextLevel) {
+    final File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    Arrays.sort(children);
+    final FileTypeManager fileTypeManager = FileTypeManager.getInstance();
+    final List<File> subdirectories = new ArrayList<File>();
+    for (File child : children) {
+      if (fileTypeManager.isFileIgnored(child.getName())) {
+        continue;
+      }
+      if (isHaxeFile(child)) {
+        final File root = suggestRoot(child, myBase);
+        if (root != null) {
+          mySuggestedRoots.put(dir, root);
+        }
+        return;
+      }
+      if (child.isDirectory()) {
+        subdirectories.add(child);
+      }
+    }
+    mySubdirectories.put(dir, subdirectories.toArray(new File[subdirectories.size()]));
+    nextLevel.addAll(subdirectories);
+  }
+
+  /**
+   * Replays the walk in file order. Once a root is found, nothing else under it is looked at.
+   *
+   * @return the root whose remaining directories are to be skipped, or null to go on with the next sibling.
+   */
+  @Nullable
+  private File collectRoots(@NotNull File dir, @NotNull List<File> roots) {
+    final File suggestedRoot = mySuggestedRoots.get(dir);
+    if (suggestedRoot != null) {
+      roots.add(suggestedRoot);
+      return FileUtil.filesEqual(suggestedRoot, dir) ? null : suggestedRoot;
+    }
+    final File[] subdirectories = mySubdirectories.get(dir);
+    if (subdirectories == null) {
+      return null;
+    }
+    for (File subdirectory : subdirectories) {
+      final File skipUpTo = collectRoots(subdirectory, roots);
+      if (skipUpTo != null) {
+        return FileUtil.filesEqual(skipUpTo, dir) ? null : skipUpTo;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.lang.psi;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Members of a class together with everything it inherits, in override order
+ * (own members first, then supertypes breadth first), indexed by name.
+ *
+ * Built once per class and dropped on the next PSI modification, so member
+ * lookups no longer re-resolve the whole supertype chain every time.
+ */
+public class HaxeClassMemberTable {
+  private static final Key<CachedValue<HaxeClassMemberTable>> MEMBER_TABLE_KEY = Key.create("HAXE_CLASS_MEMBER_TABLE");
+
+  // Every member of every visited class, duplicates included, in override order.
+  private final List<HaxeNamedComponent> myAllMembers;
+  // First (i.e. overriding) member for each name.
+  private final Map<String, HaxeNamedComponent> myMembersByName;
+  // Members of the supertypes for each name, in override order.
+  private final Map<String, List<HaxeNamedComponent>> myInheritedMembersByName;
+  private final List<HaxeMethod> myMethods;
+  private final List<HaxeNamedComponent> myFields;
+
+  @NotNull
+  public static HaxeClassMemberTable getInstance(@NotNull final HaxeClass haxeClass) {
+    return CachedValuesManager.getManager(haxeClass.getProject()).getCachedValue(
+      haxeClass, MEMBER_TABLE_KEY, new CachedValueProvider<HaxeClassMemberTable>() {
+        @Nullable
+        @Override
+        public Result<HaxeClassMemberTable> compute() {
+          return Result.create(new HaxeClassMemberTable(haxeClass), PsiModificationTracker.MODIFICATION_COUNT);
+        }
+      }, false);
+  }
+
+  private HaxeClassMemberTable(@NotNull HaxeClass haxeClass) {
+    myAllMembers = new ArrayList<HaxeNamedComponent>();
+    myMembersByName = new LinkedHashMap<String, HaxeNamedComponent>();
+    myInheritedMembersByName = new LinkedHashMap<String, List<HaxeNamedComponent>>();
+
+    final Set<HaxeClass> visited = new HashSet<HaxeClass>();
+    final LinkedList<HaxeClass> classes = new LinkedList<HaxeClass>();
+    classes.add(haxeClass);
+    while (!classes.isEmpty()) {
+      final HaxeClass current = classes.pollFirst();
+      if (!visited.add(current)) {
+        continue;
+      }
+      final boolean inherited = current != haxeClass;
+      for (HaxeNamedComponent namedComponent : HaxeResolveUtil.getNamedSubComponents(current)) {
+        final String name = namedComponent.getName();
+        if (name == null) {
+          continue;
+        }
+        myAllMembers.add(namedComponent);
+        if (!myMembersByName.containsKey(name)) {
+          myMembersByName.put(name, namedComponent);
+        }
+        if (inherited) {
+          List<HaxeNamedComponent> inheritedMembers = myInheritedMembersByName.get(name);
+          if (inheritedMembers == null) {
+            inheritedMembers = new ArrayList<HaxeNamedComponent>(1);
+            myInheritedMembersByName.put(name, inheritedMembers);
+          }
+          inheritedMembers.add(namedComponent);
+        }
+      }
+      classes.addAll(HaxeResolveUtil.tyrResolveClassesByQName(current.getHaxeExtendsList()));
+      classes.addAll(HaxeResolveUtil.tyrResolveClassesByQName(current.getHaxeImplementsList()));
+    }
+
+    myMethods = new ArrayList<HaxeMethod>();
+    myFields = new ArrayList<HaxeNamedComponent>();
+    for (HaxeNamedComponent namedComponent : myMembersByName.values()) {
+      final HaxeComponentType type = HaxeComponentType.typeOf(namedComponent);
+      if (type == HaxeComponentType.METHOD) {
+        myMethods.add((HaxeMethod)namedComponent);
+      }
+      else if (type == HaxeComponentType.FIELD) {
+        myFields.add(namedComponent);
+      }
+    }
+  }
+
+  /**
+   * @return one member per name, the overriding one winning.
+   */
+  @NotNull
+  public Collection<HaxeNamedComponent> getMembers() {
+    return Collections.unmodifiableCollection(myMembersByName.values());
+  }
+
+  /**
+   * @return all members of the class and its supertypes, overridden ones included.
+   */
+  @NotNull
+  public List<HaxeNamedComponent> getAllMembers() {
+    return Collections.unmodifiableList(myAllMembers);
+  }
+
+  @NotNull
+  public List<HaxeMethod> getMethods() {
+    return Collections.unmodifiableList(myMethods);
+  }
+
+  @NotNull
+  public List<HaxeNamedComponent> getFields() {
+    return Collections.unmodifiableList(myFields);
+  }
+
+  @Nullable
+  public HaxeNamedComponent findMember(@NotNull String name) {
+    return myMembersByName.get(name);
+  }
+
+  @Nullable
+  public HaxeNamedComponent findMethod(@NotNull String name) {
+    return findMember(name, HaxeComponentType.METHOD);
+  }
+
+  @Nullable
+  public HaxeNamedComponent findField(@NotNull String name) {
+    return findMember(name, HaxeComponentType.FIELD);
+  }
+
+  /**
+   * @return the member of a supertype that a member called <code>name</code> would override or implement.
+   */
+  @Nullable
+  public HaxeNamedComponent findInheritedMember(@NotNull String name) {
+    final List<HaxeNamedComponent> inheritedMembers = myInheritedMembersByName.get(name);
+    return inheritedMembers == null ? null : inheritedMembers.get(0);
+  }
+
+  /**
+   * @return every member of a supertype called <code>name</code>, e.g. the method of the superclass and those of
+   * the interfaces that a member called <code>name</code> overrides or implements.
+   */
+  @NotNull
+  public List<HaxeNamedComponent> findInheritedMembers(@NotNull String name) {
+    final List<HaxeNamedComponent> inheritedMembers = myInheritedMembersByName.get(name);
+    return inheritedMembers == null ? Collections.<HaxeNamedComponent>emptyList() : Collections.unmodifiableList(inheritedMembers);
+  }
+
+  @Nullable
+  private HaxeNamedComponent findMember(@NotNull String name, @NotNull HaxeComponentType type) {
+    final HaxeNamedComponent result = myMembersByName.get(name);
+    return result != null && HaxeComponentType.typeOf(result) == type ? result : null;
+  }
+}
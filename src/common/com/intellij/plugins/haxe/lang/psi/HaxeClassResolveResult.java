@@ -107,17 +107,11 @@ public class HaxeClassResolveResult implements Cloneable {
   }
 
   private void merge(HaxeGenericSpecialization otherSpecializations) {
-    for (String key : otherSpecializations.map.keySet()) {
-      specialization.map.put(key, otherSpecializations.map.get(key));
-    }
+    specialization.putAll(otherSpecializations);
   }
 
   private void softMerge(HaxeGenericSpecialization otherSpecializations) {
-    for (String key : otherSpecializations.map.keySet()) {
-      if (!specialization.map.containsKey(key)) {
-        specialization.map.put(key, otherSpecializations.map.get(key));
-      }
-    }
+    specialization.putAllAbsent(otherSpecializations);
   }
 
   @Nullable
@@ -19,88 +19,220 @@ package com.intellij.plugins.haxe.lang.psi;
 
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ConcurrentWeakValueHashMap;
 import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Type parameter bindings, keyed by the declaring class (or generic method)
+ * and the parameter name.
+ *
+ * Keys are interned, so lookups don't build strings. The binding map is
+ * shared between a specialization and its clones and copied only when one
+ * of them is written to, which keeps clone() O(1).
+ *
  * @author: Fedor.Korotkov
  */
 public class HaxeGenericSpecialization implements Cloneable {
   public static final HaxeGenericSpecialization EMPTY = new HaxeGenericSpecialization();
-  final Map<String, HaxeClassResolveResult> map;
+
+  private Map<GenericKey, HaxeClassResolveResult> map;
+  // Set once map is visible to more than one specialization; the next write must copy it.
+  private volatile boolean myShared;
 
   public HaxeGenericSpecialization() {
-    this(new THashMap<String, HaxeClassResolveResult>());
+    this(Collections.<GenericKey, HaxeClassResolveResult>emptyMap(), true);
   }
 
-  @Override
-  protected HaxeGenericSpecialization clone() {
-    final Map<String, HaxeClassResolveResult> clonedMap = new THashMap<String, HaxeClassResolveResult>();
-    for (String key : map.keySet()) {
-      clonedMap.put(key, map.get(key));
-    }
-    return new HaxeGenericSpecialization(clonedMap);
+  private HaxeGenericSpecialization(Map<GenericKey, HaxeClassResolveResult> map, boolean shared) {
+    this.map = map;
+    this.myShared = shared;
   }
 
-  protected HaxeGenericSpecialization(Map<String, HaxeClassResolveResult> map) {
-    this.map = map;
+  @Override
+  protected HaxeGenericSpecialization clone() {
+    myShared = true;
+    return new HaxeGenericSpecialization(map, true);
   }
 
   public void put(PsiElement element, String genericName, HaxeClassResolveResult resolveResult) {
-    map.put(getGenericKey(element, genericName), resolveResult);
+    getWritableMap().put(GenericOwner.of(element).getKey(genericName), resolveResult);
   }
 
   public boolean containsKey(@Nullable PsiElement element, String genericName) {
-    return map.containsKey(getGenericKey(element, genericName));
+    return !map.isEmpty() && map.containsKey(GenericOwner.of(element).getKey(genericName));
   }
 
   public HaxeClassResolveResult get(@Nullable PsiElement element, String genericName) {
-    return map.get(getGenericKey(element, genericName));
+    return map.isEmpty() ? null : map.get(GenericOwner.of(element).getKey(genericName));
   }
 
   public HaxeGenericSpecialization getInnerSpecialization(PsiElement element) {
-    final String prefixToRemove = getGenericKey(element, "");
-    final Map<String, HaxeClassResolveResult> result = new THashMap<String, HaxeClassResolveResult>();
-    for (String key : map.keySet()) {
-      final HaxeClassResolveResult value = map.get(key);
-      String newKey = key;
-      if (newKey.startsWith(prefixToRemove)) {
-        newKey = newKey.substring(prefixToRemove.length());
+    final GenericOwner owner = GenericOwner.of(element);
+    if (owner == GenericOwner.NONE || !hasKeysOf(owner)) {
+      return clone();
+    }
+    final Map<GenericKey, HaxeClassResolveResult> result = new THashMap<GenericKey, HaxeClassResolveResult>(map.size());
+    for (Map.Entry<GenericKey, HaxeClassResolveResult> entry : map.entrySet()) {
+      final GenericKey key = entry.getKey();
+      result.put(key.owner == owner ? key.unbound() : key, entry.getValue());
+    }
+    return new HaxeGenericSpecialization(result, false);
+  }
+
+  /**
+   * Adds all bindings of <code>other</code>, replacing existing ones.
+   */
+  void putAll(@NotNull HaxeGenericSpecialization other) {
+    if (other.map.isEmpty()) {
+      return;
+    }
+    if (map.isEmpty()) {
+      shareMapOf(other);
+      return;
+    }
+    getWritableMap().putAll(other.map);
+  }
+
+  /**
+   * Adds the bindings of <code>other</code> that aren't bound here yet.
+   */
+  void putAllAbsent(@NotNull HaxeGenericSpecialization other) {
+    if (other.map.isEmpty()) {
+      return;
+    }
+    if (map.isEmpty()) {
+      shareMapOf(other);
+      return;
+    }
+    Map<GenericKey, HaxeClassResolveResult> writable = null;
+    for (Map.Entry<GenericKey, HaxeClassResolveResult> entry : other.map.entrySet()) {
+      if (!map.containsKey(entry.getKey())) {
+        if (writable == null) {
+          writable = getWritableMap();
+        }
+        writable.put(entry.getKey(), entry.getValue());
       }
-      result.put(newKey, value);
     }
-    return new HaxeGenericSpecialization(result);
   }
 
-  public static String getGenericKey(@Nullable PsiElement element, @NotNull String genericName) {
-    final StringBuilder result = new StringBuilder();
-    final HaxeNamedComponent namedComponent = PsiTreeUtil.getParentOfType(element, HaxeNamedComponent.class, false);
-    if (namedComponent instanceof HaxeClass) {
-      result.append(((HaxeClass)namedComponent).getQualifiedName());
+  private void shareMapOf(@NotNull HaxeGenericSpecialization other) {
+    other.myShared = true;
+    map = other.map;
+    myShared = true;
+  }
+
+  private boolean hasKeysOf(@NotNull GenericOwner owner) {
+    for (GenericKey key : map.keySet()) {
+      if (key.owner == owner) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @NotNull
+  private Map<GenericKey, HaxeClassResolveResult> getWritableMap() {
+    if (myShared) {
+      map = new THashMap<GenericKey, HaxeClassResolveResult>(map);
+      myShared = false;
+    }
+    return map;
+  }
+
+  /**
+   * The class or generic method a type parameter belongs to.
+   * One instance per distinct owner; compare with ==.
+   *
+   * The interning table holds the owners weakly: an owner is kept only as long as
+   * a binding refers to it, so names from closed projects don't pile up.
+   */
+  private static final class GenericOwner {
+    // Keyed by the class's qualified name, or "class#method" for generic methods.
+    private static final ConcurrentMap<String, GenericOwner> OWNERS = new ConcurrentWeakValueHashMap<String, GenericOwner>();
+    // Parameters not bound to any declaration, e.g. those of an inner specialization.
+    static final GenericOwner NONE = new GenericOwner();
+
+    private final ConcurrentMap<String, GenericKey> myKeys = new ConcurrentHashMap<String, GenericKey>();
+
+    @NotNull
+    static GenericOwner of(@Nullable PsiElement element) {
+      final HaxeNamedComponent namedComponent = PsiTreeUtil.getParentOfType(element, HaxeNamedComponent.class, false);
+      String className = null;
+      String methodName = null;
+      if (namedComponent instanceof HaxeClass) {
+        className = ((HaxeClass)namedComponent).getQualifiedName();
+      }
+      else if (namedComponent != null) {
+        HaxeClass haxeClass = PsiTreeUtil.getParentOfType(namedComponent, HaxeClass.class);
+        if (haxeClass instanceof HaxeAnonymousType) {
+          // class -> typeOrAnonymous -> anonymous
+          final PsiElement parent = haxeClass.getParent().getParent();
+          haxeClass = parent instanceof HaxeClass ? (HaxeClass)parent : haxeClass;
+        }
+        if (haxeClass != null) {
+          className = haxeClass.getQualifiedName();
+        }
+        if (PsiTreeUtil.getChildOfType(namedComponent, HaxeGenericParam.class) != null) {
+          // generic method
+          methodName = namedComponent.getName();
+        }
+      }
+      return intern(className == null ? "" : className, methodName == null ? "" : methodName);
     }
-    else if (namedComponent != null) {
-      HaxeClass haxeClass = PsiTreeUtil.getParentOfType(namedComponent, HaxeClass.class);
-      if (haxeClass instanceof HaxeAnonymousType) {
-        // class -> typeOrAnonymous -> anonymous
-        final PsiElement parent = haxeClass.getParent().getParent();
-        haxeClass = parent instanceof HaxeClass ? (HaxeClass)parent : haxeClass;
+
+    @NotNull
+    private static GenericOwner intern(@NotNull String className, @NotNull String methodName) {
+      if (className.isEmpty() && methodName.isEmpty()) {
+        return NONE;
       }
-      if (haxeClass != null) {
-        result.append(haxeClass.getQualifiedName());
+      final String key = methodName.isEmpty() ? className : className + "#" + methodName;
+      GenericOwner owner = OWNERS.get(key);
+      if (owner == null) {
+        final GenericOwner newOwner = new GenericOwner();
+        owner = OWNERS.putIfAbsent(key, newOwner);
+        if (owner == null) {
+          owner = newOwner;
+        }
       }
-      if (PsiTreeUtil.getChildOfType(namedComponent, HaxeGenericParam.class) != null) {
-        // generic method
-        result.append(":");
-        result.append(namedComponent.getName());
+      return owner;
+    }
+
+    @NotNull
+    GenericKey getKey(@NotNull String genericName) {
+      GenericKey key = myKeys.get(genericName);
+      if (key == null) {
+        final GenericKey newKey = new GenericKey(this, genericName);
+        key = myKeys.putIfAbsent(genericName, newKey);
+        if (key == null) {
+          key = newKey;
+        }
       }
+      return key;
     }
-    if (result.length() > 0) {
-      result.append("-");
+  }
+
+  /**
+   * An interned (owner, parameter name) pair; identity equality is enough.
+   */
+  private static final class GenericKey {
+    @NotNull final GenericOwner owner;
+    @NotNull final String name;
+
+    GenericKey(@NotNull GenericOwner owner, @NotNull String name) {
+      this.owner = owner;
+      this.name = name;
+    }
+
+    @NotNull
+    GenericKey unbound() {
+      return owner == GenericOwner.NONE ? this : GenericOwner.NONE.getKey(name);
     }
-    result.append(genericName);
-    return result.toString();
   }
 }
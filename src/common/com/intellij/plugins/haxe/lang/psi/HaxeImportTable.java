@@ -0,0 +1,207 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.lang.psi;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Imports of a Haxe file by the simple name they bring in, built once and dropped on the next PSI modification.
+ *
+ * Type names are qualified by {@link #getQualifiedName(String, boolean)} in this order:
+ * classes of the file first, then regular imports, <code>in</code> aliases, wildcard imports and the file's own
+ * package. Whether a package wildcard import provides a class takes an index query, so the qualified names are
+ * remembered as they are asked for.
+ */
+public class HaxeImportTable {
+  private static final Key<CachedValue<HaxeImportTable>> IMPORT_TABLE_KEY = Key.create("HAXE_IMPORT_TABLE");
+
+  @NotNull private final String myPackageName;
+  private final Map<String, String> myClasses = new HashMap<String, String>();
+  private final Map<String, String> myImports = new HashMap<String, String>();
+  private final List<String> myImportList = new ArrayList<String>();
+  private final Map<String, String> myInImports = new HashMap<String, String>();
+  private final List<HaxeImportStatementWithWildcard> myWildcardImports = new ArrayList<HaxeImportStatementWithWildcard>();
+
+  private final ConcurrentMap<String, String> myQualifiedNames = new ConcurrentHashMap<String, String>();
+  private final ConcurrentMap<String, String> myQualifiedNamesInPackage = new ConcurrentHashMap<String, String>();
+  private volatile List<HaxeNamedComponent> myWildcardTypeMembers;
+
+  @NotNull
+  public static HaxeImportTable getInstance(@NotNull final PsiFile file) {
+    return CachedValuesManager.getManager(file.getProject()).getCachedValue(
+      file, IMPORT_TABLE_KEY, new CachedValueProvider<HaxeImportTable>() {
+        @Nullable
+        @Override
+        public Result<HaxeImportTable> compute() {
+          return Result.create(new HaxeImportTable(file), PsiModificationTracker.MODIFICATION_COUNT);
+        }
+      }, false);
+  }
+
+  private HaxeImportTable(@NotNull PsiFile file) {
+    String packageName = null;
+    for (PsiElement child : file.getChildren()) {
+      if (child instanceof HaxePackageStatement) {
+        if (packageName == null) {
+          packageName = HaxeResolveUtil.getPackageName((HaxePackageStatement)child);
+        }
+      }
+      else if (child instanceof HaxeClass) {
+        final HaxeClass haxeClass = (HaxeClass)child;
+        final String name = haxeClass.getName();
+        if (name != null && !myClasses.containsKey(name)) {
+          myClasses.put(name, haxeClass.getQualifiedName());
+        }
+      }
+      else if (child instanceof HaxeImportStatementRegular) {
+        final HaxeExpression expression = ((HaxeImportStatementRegular)child).getReferenceExpression();
+        if (expression != null) {
+          final String qName = expression.getText();
+          myImportList.add(qName);
+          final int lastDot = qName.lastIndexOf('.');
+          if (lastDot != -1) {
+            putFirst(myImports, qName.substring(lastDot + 1), qName);
+          }
+        }
+      }
+      else if (child instanceof HaxeImportStatementWithInSupport) {
+        final HaxeImportStatementWithInSupport inImport = (HaxeImportStatementWithInSupport)child;
+        final HaxeIdentifier alias = inImport.getIdentifier();
+        final HaxeReferenceExpression expression = inImport.getReferenceExpression();
+        if (alias != null && expression != null) {
+          putFirst(myInImports, alias.getText(), expression.getText());
+        }
+      }
+      else if (child instanceof HaxeImportStatementWithWildcard) {
+        myWildcardImports.add((HaxeImportStatementWithWildcard)child);
+      }
+    }
+    myPackageName = packageName == null ? "" : packageName;
+  }
+
+  private static void putFirst(@NotNull Map<String, String> map, @NotNull String key, @NotNull String value) {
+    if (!map.containsKey(key)) {
+      map.put(key, value);
+    }
+  }
+
+  /**
+   * @param searchInSamePackage whether a name that isn't imported stands for a class of the file's package.
+   * @return the qualified name <code>name</code> stands for in this file; <code>name</code> itself if unknown.
+   */
+  @NotNull
+  public String getQualifiedName(@NotNull String name, boolean searchInSamePackage) {
+    final ConcurrentMap<String, String> cache = searchInSamePackage ? myQualifiedNamesInPackage : myQualifiedNames;
+    String qName = cache.get(name);
+    if (qName == null) {
+      qName = computeQualifiedName(name, searchInSamePackage);
+      cache.putIfAbsent(name, qName);
+    }
+    return qName;
+  }
+
+  @NotNull
+  private String computeQualifiedName(@NotNull String name, boolean searchInSamePackage) {
+    final String classQName = myClasses.get(name);
+    if (classQName != null) {
+      return classQName;
+    }
+    final String importQName = findImport(name);
+    if (importQName != null) {
+      return importQName;
+    }
+    final String inImportQName = myInImports.get(name);
+    if (inImportQName != null) {
+      return inImportQName;
+    }
+    for (HaxeImportStatementWithWildcard wildcardImport : myWildcardImports) {
+      if (UsefulPsiTreeUtil.importStatementWithWildcardForClassName(wildcardImport, name) ||
+          UsefulPsiTreeUtil.importStatementWithWildcardTypeForClassName(wildcardImport, name)) {
+        final String text = wildcardImport.getReferenceExpression().getText();
+        if (text.endsWith("." + name + ".*")) {
+          return text.substring(0, text.length() - 2);
+        }
+        return UsefulPsiTreeUtil.getPackageStatementForImportStatementWithWildcard(wildcardImport) + "." + name;
+      }
+    }
+    if (searchInSamePackage && !myPackageName.isEmpty()) {
+      return myPackageName + "." + name;
+    }
+    return name;
+  }
+
+  @Nullable
+  private String findImport(@NotNull String name) {
+    if (name.indexOf('.') == -1) {
+      return myImports.get(name);
+    }
+    // A partly qualified name: any import ending with it.
+    final String suffix = "." + name;
+    for (String qName : myImportList) {
+      if (qName.endsWith(suffix)) {
+        return qName;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the static members brought in by the wildcard imports of types, <code>import pack.Type.*;</code>
+   */
+  @NotNull
+  public List<HaxeNamedComponent> getWildcardTypeMembers() {
+    List<HaxeNamedComponent> members = myWildcardTypeMembers;
+    if (members == null) {
+      members = new ArrayList<HaxeNamedComponent>();
+      for (HaxeImportStatementWithWildcard wildcardImport : myWildcardImports) {
+        members.addAll(UsefulPsiTreeUtil.getImportStatementWithWildcardTypeNamedSubComponents(
+          wildcardImport, wildcardImport.getContainingFile()));
+      }
+      members = Collections.unmodifiableList(members);
+      myWildcardTypeMembers = members;
+    }
+    return members;
+  }
+
+  /**
+   * @return the static member named <code>name</code> brought in by a wildcard import of a type, if any.
+   */
+  @Nullable
+  public HaxeNamedComponent findWildcardTypeMember(@NotNull String name) {
+    for (HaxeNamedComponent member : getWildcardTypeMembers()) {
+      if (name.equals(member.getName())) {
+        return member;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.lang.psi;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local variables, local functions, parameters and loop variables of a function, including those of the functions
+ * nested in it, built once and dropped on the next PSI modification.
+ *
+ * Lookups follow the visibility rules of the tree walk in
+ * {@link com.intellij.plugins.haxe.lang.psi.impl.HaxePsiCompositeElementImpl#processDeclarations}: a block only
+ * sees the declarations of the statements before the one holding the reference, and the innermost scope wins.
+ */
+public class HaxeLocalSymbolTable {
+  private static final Key<CachedValue<HaxeLocalSymbolTable>> LOCAL_SYMBOL_TABLE_KEY = Key.create("HAXE_LOCAL_SYMBOL_TABLE");
+
+  // Order in which a single scope offers its declarations.
+  private static final int RANK_LOCAL_VAR = 0;
+  private static final int RANK_LOCAL_FUNCTION = 1;
+  private static final int RANK_PARAMETER = 2;
+  private static final int RANK_FOR = 3;
+
+  private final Map<String, List<Symbol>> mySymbols = new HashMap<String, List<Symbol>>();
+
+  /**
+   * @return the table of the outermost function around <code>element</code>, or null if it isn't in a function.
+   */
+  @Nullable
+  public static HaxeLocalSymbolTable getInstance(@NotNull PsiElement element) {
+    final PsiElement function = getOutermostFunction(element);
+    if (function == null) {
+      return null;
+    }
+    return CachedValuesManager.getManager(function.getProject()).getCachedValue(
+      function, LOCAL_SYMBOL_TABLE_KEY, new CachedValueProvider<HaxeLocalSymbolTable>() {
+        @Nullable
+        @Override
+        public Result<HaxeLocalSymbolTable> compute() {
+          return Result.create(new HaxeLocalSymbolTable(function), PsiModificationTracker.MODIFICATION_COUNT);
+        }
+      }, false);
+  }
+
+  @Nullable
+  private static PsiElement getOutermostFunction(@NotNull PsiElement element) {
+    PsiElement function = null;
+    PsiElement parent = element;
+    while ((parent = PsiTreeUtil.getParentOfType(parent, HaxeFunctionDeclarationWithAttributes.class,
+                                                 HaxeLocalFunctionDeclaration.class, HaxeFunctionLiteral.class)) != null) {
+      function = parent;
+      if (parent instanceof HaxeFunctionDeclarationWithAttributes) {
+        break;
+      }
+    }
+    return function;
+  }
+
+  private HaxeLocalSymbolTable(@NotNull PsiElement function) {
+    for (PsiElement element : PsiTreeUtil.findChildrenOfAnyType(function, HaxeLocalVarDeclarationPart.class,
+                                                                HaxeLocalFunctionDeclaration.class, HaxeParameter.class,
+                                                                HaxeForStatement.class)) {
+      final PsiElement parent = element.getParent();
+      if (element instanceof HaxeLocalVarDeclarationPart) {
+        final PsiElement scope = parent.getParent();
+        add(element, scope, isBlock(scope) ? parent : null, RANK_LOCAL_VAR);
+      }
+      else if (element instanceof HaxeLocalFunctionDeclaration) {
+        add(element, parent, isBlock(parent) ? element : null, RANK_LOCAL_FUNCTION);
+      }
+      else if (element instanceof HaxeParameter) {
+        // Only parameter lists are offered by their owner; catch parameters are not.
+        if (parent instanceof HaxeParameterList) {
+          add(element, parent.getParent(), null, RANK_PARAMETER);
+        }
+      }
+      else {
+        add(element, element, null, RANK_FOR);
+      }
+    }
+  }
+
+  private static boolean isBlock(@Nullable PsiElement scope) {
+    return scope instanceof HaxeBlockStatement || scope instanceof HaxeSwitchCaseBlock;
+  }
+
+  private void add(@NotNull PsiElement element, @Nullable PsiElement scope, @Nullable PsiElement anchor, int rank) {
+    // The resolver only accepts named components; a for statement is one through its implementation.
+    if (!(element instanceof HaxeNamedComponent)) {
+      return;
+    }
+    final HaxeComponentName componentName = ((HaxeNamedComponent)element).getComponentName();
+    if (componentName == null || scope == null) {
+      return;
+    }
+    final String name = componentName.getText();
+    List<Symbol> symbols = mySymbols.get(name);
+    if (symbols == null) {
+      symbols = new ArrayList<Symbol>(1);
+      mySymbols.put(name, symbols);
+    }
+    symbols.add(new Symbol(componentName, scope, anchor, rank));
+  }
+
+  /**
+   * @return the local declaration <code>name</code> stands for at <code>place</code>, or null if there is none.
+   */
+  @Nullable
+  public HaxeComponentName resolve(@NotNull String name, @NotNull PsiElement place) {
+    final List<Symbol> symbols = mySymbols.get(name);
+    if (symbols == null) {
+      return null;
+    }
+    Symbol best = null;
+    for (Symbol symbol : symbols) {
+      if (!symbol.isVisibleAt(place)) {
+        continue;
+      }
+      if (best == null ||
+          (best.scope == symbol.scope ? symbol.rank < best.rank : PsiTreeUtil.isAncestor(best.scope, symbol.scope, true))) {
+        best = symbol;
+      }
+    }
+    return best == null ? null : best.componentName;
+  }
+
+  private static class Symbol {
+    @NotNull final HaxeComponentName componentName;
+    @NotNull final PsiElement scope;
+    // For declarations in a block: the statement declaring them, which must precede the reference.
+    @Nullable final PsiElement anchor;
+    final int rank;
+
+    Symbol(@NotNull HaxeComponentName componentName, @NotNull PsiElement scope, @Nullable PsiElement anchor, int rank) {
+      this.componentName = componentName;
+      this.scope = scope;
+      this.anchor = anchor;
+      this.rank = rank;
+    }
+
+    boolean isVisibleAt(@NotNull PsiElement place) {
+      if (!PsiTreeUtil.isAncestor(scope, place, true)) {
+        return false;
+      }
+      if (anchor != null && anchor.getTextRange().getEndOffset() > place.getTextRange().getStartOffset()) {
+        return false;
+      }
+      if (scope instanceof HaxeForStatement) {
+        final HaxeIterable iterable = ((HaxeForStatement)scope).getIterable();
+        return iterable == null || !PsiTreeUtil.isAncestor(iterable, place, false);
+      }
+      return true;
+    }
+  }
+}
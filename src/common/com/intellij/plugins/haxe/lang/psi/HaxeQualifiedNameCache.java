@@ -0,0 +1,119 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.lang.psi;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Package, file name and qualified class names of a Haxe file, computed once
+ * and dropped on the next PSI modification.
+ *
+ * Indexers, the inheritance search and the type model all ask for qualified
+ * names over and over again; without this every call looked up the package
+ * statement and rebuilt the string.
+ */
+public class HaxeQualifiedNameCache {
+  private static final Key<CachedValue<HaxeQualifiedNameCache>> QUALIFIED_NAME_CACHE_KEY =
+    Key.create("HAXE_QUALIFIED_NAME_CACHE");
+
+  @NotNull private final String myPackageName;
+  @NotNull private final String myFileName;
+  private final boolean myHasPrimaryClass;
+  private final ConcurrentMap<HaxeClass, String> myQualifiedNames = new ConcurrentHashMap<HaxeClass, String>();
+
+  @NotNull
+  public static HaxeQualifiedNameCache getInstance(@NotNull final PsiFile file) {
+    return CachedValuesManager.getManager(file.getProject()).getCachedValue(
+      file, QUALIFIED_NAME_CACHE_KEY, new CachedValueProvider<HaxeQualifiedNameCache>() {
+        @Nullable
+        @Override
+        public Result<HaxeQualifiedNameCache> compute() {
+          return Result.create(new HaxeQualifiedNameCache(file), PsiModificationTracker.MODIFICATION_COUNT);
+        }
+      }, false);
+  }
+
+  private HaxeQualifiedNameCache(@NotNull PsiFile file) {
+    myPackageName = HaxeResolveUtil.getPackageName(PsiTreeUtil.getChildOfType(file, HaxePackageStatement.class));
+    myFileName = FileUtil.getNameWithoutExtension(file.getName());
+    myHasPrimaryClass = HaxeResolveUtil.findComponentDeclaration(file, myFileName) != null;
+  }
+
+  @NotNull
+  public String getPackageName() {
+    return myPackageName;
+  }
+
+  /**
+   * @return the file name without extension, which is also the name of the file's primary class.
+   */
+  @NotNull
+  public String getFileName() {
+    return myFileName;
+  }
+
+  /**
+   * Ancillary classes are the extra classes of a file that also declares a class
+   * named after the file; they are qualified with the file name.
+   */
+  public boolean isAncillaryClass(@NotNull HaxeClass haxeClass) {
+    return isAncillaryClass(haxeClass, haxeClass.getName());
+  }
+
+  @NotNull
+  public String getQualifiedName(@NotNull HaxeClass haxeClass) {
+    String qName = myQualifiedNames.get(haxeClass);
+    if (qName == null) {
+      qName = computeQualifiedName(haxeClass);
+      final String previous = myQualifiedNames.putIfAbsent(haxeClass, qName);
+      if (previous != null) {
+        qName = previous;
+      }
+    }
+    return qName;
+  }
+
+  @NotNull
+  private String computeQualifiedName(@NotNull HaxeClass haxeClass) {
+    final String name = haxeClass.getName();
+    String packageName = myPackageName;
+    if (isAncillaryClass(haxeClass, name)) {
+      packageName = HaxeResolveUtil.joinQName(packageName, myFileName);
+    }
+    return HaxeResolveUtil.joinQName(packageName, name);
+  }
+
+  private boolean isAncillaryClass(@NotNull HaxeClass haxeClass, @Nullable String name) {
+    return (!(haxeClass instanceof HaxeExternClassDeclaration)) &&
+           (!myFileName.equals(name)) &&
+           myHasPrimaryClass;
+  }
+}
@@ -21,15 +21,17 @@ import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.ide.index.HaxeStaticExtensionIndex;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
-import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.PackageReferenceSet;
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.PsiPackageReference;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.SmartList;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -46,11 +48,36 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
   public static final HaxeResolver INSTANCE = new HaxeResolver();
   public static final String IMPORT_EXTENSION = ".hx";
 
-  public static boolean isExtension = false;
+  /**
+   * The resolver is shared by all threads; everything it learns about a reference goes into the returned list,
+   * which the resolve cache keeps.
+   *
+   * @return whether <code>resolved</code> is a static extension method brought in by a <code>using</code> statement.
+   */
+  public static boolean isExtension(@Nullable List<? extends PsiElement> resolved) {
+    return resolved instanceof ExtensionResult;
+  }
 
   @Override
   public List<? extends PsiElement> resolve(@NotNull HaxeReference reference, boolean incompleteCode) {
-    isExtension = false;
+    final long start = HaxeMetrics.RESOLVE.start();
+    try {
+      final List<? extends PsiElement> result = doResolve(reference);
+      if (result == null || result.isEmpty()) {
+        HaxeMetrics.UNRESOLVED.increment();
+      }
+      return result;
+    }
+    finally {
+      HaxeMetrics.RESOLVE.stop(start);
+    }
+  }
+
+  private List<? extends PsiElement> doResolve(@NotNull HaxeReference reference) {
+    final HaxeComponentName local = resolveLocal(reference);
+    if (local != null) {
+      return toCandidateInfoArray(local);
+    }
 
     final HaxeType type = PsiTreeUtil.getParentOfType(reference, HaxeType.class);
     final HaxeClass haxeClassInType = HaxeResolveUtil.tryResolveClassByQName(type);
@@ -152,31 +179,10 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
       }
     }
 
-    List<PsiElement> importStatementWithWildcardList = ContainerUtil.findAll(psiFile.getChildren(), new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxeImportStatementWithWildcard &&
-               UsefulPsiTreeUtil.isImportStatementWildcardForType(UsefulPsiTreeUtil.getQNameForImportStatementWithWildcardType(
-                 (HaxeImportStatementWithWildcard)element));
-      }
-    });
-
-    for (PsiElement importStatementWithWildcard : importStatementWithWildcardList) {
-      HaxeImportStatementWithWildcard importStatementWithWildcard1 = (HaxeImportStatementWithWildcard)importStatementWithWildcard;
-      String qNameForImportStatementWithWildcardType =
-        UsefulPsiTreeUtil.getQNameForImportStatementWithWildcardType(importStatementWithWildcard1);
-
-      HaxeClass haxeClass = HaxeResolveUtil.findClassByQName(qNameForImportStatementWithWildcardType, importStatementWithWildcard1.getContext());
-
-      if (haxeClass != null) {
-        String referenceText = reference.getText();
-        HaxeNamedComponent namedSubComponent = HaxeResolveUtil.findNamedSubComponent(haxeClass, referenceText);
-
-        if (namedSubComponent != null && namedSubComponent.isStatic()) {
-          result.add(namedSubComponent.getComponentName().getIdentifier());
-          return result;
-        }
-      }
+    final HaxeNamedComponent wildcardTypeMember = HaxeImportTable.getInstance(psiFile).findWildcardTypeMember(reference.getText());
+    if (wildcardTypeMember != null) {
+      result.add(wildcardTypeMember.getComponentName().getIdentifier());
+      return result;
     }
 
     List<PsiElement> importStatementWithInSupportList = ContainerUtil.findAll(psiFile.getChildren(), new Condition<PsiElement>() {
@@ -207,6 +213,30 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
     return ContainerUtil.emptyList();
   }
 
+  /**
+   * Fast path for unqualified lowercase names, which in a function body are mostly locals and parameters:
+   * look them up in the function's symbol table before querying the indexes for classes and packages.
+   *
+   * @return the local declaration, or null if the reference isn't a local; the regular resolution decides then.
+   */
+  @Nullable
+  private static HaxeComponentName resolveLocal(@NotNull HaxeReference reference) {
+    if (!(reference instanceof HaxeReferenceExpression)) {
+      return null;
+    }
+    final String name = reference.getText();
+    if (name.isEmpty() || !(Character.isLowerCase(name.charAt(0)) || name.charAt(0) == '_')) {
+      return null;
+    }
+    if (HaxeResolveUtil.getLeftReference(reference) != null ||
+        PsiTreeUtil.getChildOfType(reference, HaxeReference.class) != null ||
+        PsiTreeUtil.getParentOfType(reference, HaxeType.class) != null) {
+      return null;
+    }
+    final HaxeLocalSymbolTable symbolTable = HaxeLocalSymbolTable.getInstance(reference);
+    return symbolTable == null ? null : symbolTable.resolve(name, reference);
+  }
+
   /**
    * Resolve a chain reference, given two references: the qualifier, and the name.
    *
@@ -296,23 +326,21 @@ public class HaxeResolver implements ResolveCache.AbstractResolver<HaxeReference
       return toCandidateInfoArray(componentName);
     }
     // try find using
-    for (HaxeClass haxeClass : HaxeResolveUtil.findUsingClasses(reference.getContainingFile())) {
-      final HaxeNamedComponent haxeNamedComponent = HaxeResolveUtil.findNamedSubComponent(haxeClass, reference.getCanonicalText());
-      if (haxeNamedComponent != null &&
-          haxeNamedComponent.isPublic() &&
-          haxeNamedComponent.isStatic() &&
-          haxeNamedComponent.getComponentName() != null) {
-        final HaxeClassResolveResult resolveResult = HaxeResolveUtil.findFirstParameterClass(haxeNamedComponent);
-        final boolean needToAdd = resolveResult.getHaxeClass() == null || resolveResult.getHaxeClass() == leftClass;
-        if (needToAdd) {
-          isExtension = true;
-          return toCandidateInfoArray(haxeNamedComponent.getComponentName());
-        }
-      }
+    final HaxeNamedComponent extension = HaxeStaticExtensionIndex.findExtensionMethod(
+      leftClass, HaxeResolveUtil.findUsingClasses(reference.getContainingFile()), reference.getCanonicalText(),
+      reference.getResolveScope());
+    if (extension != null && extension.getComponentName() != null) {
+      return new ExtensionResult(extension.getComponentName());
     }
     return Collections.emptyList();
   }
 
+  private static class ExtensionResult extends SmartList<PsiElement> {
+    ExtensionResult(@NotNull PsiElement element) {
+      super(element);
+    }
+  }
+
   private class ResolveScopeProcessor implements PsiScopeProcessor {
     private final List<PsiElement> result;
     final String name;
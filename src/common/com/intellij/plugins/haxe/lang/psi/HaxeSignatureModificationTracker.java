@@ -0,0 +1,130 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.lang.psi;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.plugins.haxe.HaxeLanguage;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts PSI changes that may alter what Haxe code outside the changed method sees:
+ * anything except edits inside the body of a class member function that declares its
+ * return type. Without a return type tag the type is inferred from the body, so any
+ * edit there may change what callers see.
+ *
+ * Results that depend on declarations only (types, signatures, class structure)
+ * stay valid while this count doesn't move, even though the global PSI
+ * modification count changes on every keystroke.
+ *
+ * Each method also counts the changes inside it, see {@link #getOwnModificationCount}.
+ */
+public class HaxeSignatureModificationTracker implements ModificationTracker {
+  private static final Key<Long> OWN_MODIFICATION_COUNT = Key.create("HAXE_OWN_MODIFICATION_COUNT");
+
+  private final AtomicLong myModificationCount = new AtomicLong();
+
+  public static HaxeSignatureModificationTracker getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, HaxeSignatureModificationTracker.class);
+  }
+
+  public HaxeSignatureModificationTracker(@NotNull Project project) {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+    }, project);
+  }
+
+  @Override
+  public long getModificationCount() {
+    return myModificationCount.get();
+  }
+
+  /**
+   * @return the number of changes seen inside a method, its body included, since its PSI was created;
+   * always zero for anything but a method.
+   */
+  public static long getOwnModificationCount(@NotNull PsiElement element) {
+    final Long count = element.getUserData(OWN_MODIFICATION_COUNT);
+    return count == null ? 0 : count;
+  }
+
+  private void processChange(@NotNull PsiTreeChangeEvent event) {
+    final PsiFile file = event.getFile();
+    if (file != null && file.getLanguage() != HaxeLanguage.INSTANCE) {
+      return;
+    }
+    if (file == null || !isInsideMemberFunctionBody(event.getParent())) {
+      myModificationCount.incrementAndGet();
+    }
+    for (PsiElement element = event.getParent(); element != null && !(element instanceof PsiFile); element = element.getParent()) {
+      if (element instanceof HaxeMethod) {
+        element.putUserData(OWN_MODIFICATION_COUNT, getOwnModificationCount(element) + 1);
+      }
+    }
+  }
+
+  private static boolean isInsideMemberFunctionBody(@Nullable PsiElement element) {
+    while (element != null && !(element instanceof PsiFile)) {
+      final PsiElement parent = element.getParent();
+      if (parent instanceof HaxeFunctionDeclarationWithAttributes) {
+        final HaxeFunctionDeclarationWithAttributes function = (HaxeFunctionDeclarationWithAttributes)parent;
+        return function.getTypeTag() != null && element == function.getBlockStatement();
+      }
+      if (parent instanceof HaxeExternFunctionDeclaration) {
+        final HaxeExternFunctionDeclaration function = (HaxeExternFunctionDeclaration)parent;
+        return function.getTypeTag() != null && element == function.getBlockStatement();
+      }
+      element = parent;
+    }
+    return false;
+  }
+}
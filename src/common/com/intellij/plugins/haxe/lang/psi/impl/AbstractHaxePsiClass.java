@@ -20,9 +20,8 @@ package com.intellij.plugins.haxe.lang.psi.impl;
 
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Pair;
-import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.plugins.haxe.HaxeComponentType;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.lang.psi.*;
@@ -36,9 +35,12 @@ import com.intellij.psi.impl.PsiSuperMethodImplUtil;
 import com.intellij.psi.impl.source.tree.ChildRole;
 import com.intellij.psi.impl.source.tree.java.PsiTypeParameterListImpl;
 import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
-import com.intellij.util.containers.ContainerUtil;
 import org.apache.log4j.Level;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -76,24 +78,18 @@ public abstract class AbstractHaxePsiClass extends AbstractHaxeNamedComponent im
     if (getParent() == null) {
       return name == null ? "" : name;
     }
-    final String fileName = FileUtil.getNameWithoutExtension(getContainingFile().getName());
-    String packageName = HaxeResolveUtil.getPackageName(getContainingFile());
-    if (isAncillaryClass(name, fileName)) {
-      packageName = HaxeResolveUtil.joinQName(packageName, fileName);
-    }
-    return HaxeResolveUtil.joinQName(packageName, name);
+    return HaxeQualifiedNameCache.getInstance(getContainingFile()).getQualifiedName(this);
   }
 
-  private HaxeClassModel _model = null;
-  public HaxeClassModel getModel() {
-    if (_model == null) _model = new HaxeClassModel(this);
-    return _model;
-  }
+  private static final Key<CachedValue<HaxeClassModel>> MODEL_KEY = Key.create("HAXE_CLASS_MODEL");
 
-  private boolean isAncillaryClass(String name, String fileName) {
-    return (!(this instanceof  HaxeExternClassDeclaration)) &&
-           (!fileName.equals(name)) &&
-           (HaxeResolveUtil.findComponentDeclaration(getContainingFile(), fileName) != null);
+  public HaxeClassModel getModel() {
+    return CachedValuesManager.getManager(getProject()).getCachedValue(this, MODEL_KEY, new CachedValueProvider<HaxeClassModel>() {
+      @Override
+      public Result<HaxeClassModel> compute() {
+        return Result.create(new HaxeClassModel(AbstractHaxePsiClass.this), PsiModificationTracker.MODIFICATION_COUNT);
+      }
+    }, false);
   }
 
   @Override
@@ -128,20 +124,13 @@ public abstract class AbstractHaxePsiClass extends AbstractHaxeNamedComponent im
   public List<HaxeMethod> getHaxeMethods() {
     // XXX: This implementation is equivalent to getAllMethods().  That
     //      may not be what we want.
-    final List<HaxeNamedComponent> alltypes = HaxeResolveUtil.findNamedSubComponents(this);
-    final List<HaxeNamedComponent> methods = HaxeResolveUtil.filterNamedComponentsByType(alltypes, HaxeComponentType.METHOD);
-    final List<HaxeMethod> result = new ArrayList<HaxeMethod>();
-    for ( HaxeNamedComponent method : methods ) {
-      result.add((HaxeMethod)method);
-    }
-    return result;
+    return new ArrayList<HaxeMethod>(HaxeClassMemberTable.getInstance(this).getMethods());
   }
 
   @NotNull
   @Override
   public List<HaxeNamedComponent> getHaxeFields() {
-    final List<HaxeNamedComponent> result = HaxeResolveUtil.findNamedSubComponents(this);
-    return HaxeResolveUtil.filterNamedComponentsByType(result, HaxeComponentType.FIELD);
+    return new ArrayList<HaxeNamedComponent>(HaxeClassMemberTable.getInstance(this).getFields());
   }
 
   @NotNull
@@ -153,22 +142,12 @@ public abstract class AbstractHaxePsiClass extends AbstractHaxeNamedComponent im
   @Nullable
   @Override
   public HaxeNamedComponent findHaxeFieldByName(@NotNull final String name) {
-    return ContainerUtil.find(getHaxeFields(), new Condition<HaxeNamedComponent>() {
-      @Override
-      public boolean value(HaxeNamedComponent component) {
-        return name.equals(component.getName());
-      }
-    });
+    return HaxeClassMemberTable.getInstance(this).findField(name);
   }
 
   @Override
   public HaxeNamedComponent findHaxeMethodByName(@NotNull final String name) {
-    return ContainerUtil.find(getHaxeMethods(), new Condition<HaxeNamedComponent>() {
-      @Override
-      public boolean value(HaxeNamedComponent component) {
-        return name.equals(component.getName());
-      }
-    });
+    return HaxeClassMemberTable.getInstance(this).findMethod(name);
   }
 
   @Override
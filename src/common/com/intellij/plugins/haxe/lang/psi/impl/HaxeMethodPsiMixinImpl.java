@@ -20,6 +20,7 @@ package com.intellij.plugins.haxe.lang.psi.impl;
 
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.model.HaxeMethodModel;
@@ -27,8 +28,12 @@ import com.intellij.psi.*;
 import com.intellij.psi.impl.PsiImplUtil;
 import com.intellij.psi.impl.PsiSuperMethodImplUtil;
 import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.MethodSignature;
 import com.intellij.psi.util.MethodSignatureBackedByPsiMethod;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import org.apache.log4j.Level;
 import org.jetbrains.annotations.NonNls;
@@ -72,10 +77,15 @@ public abstract class HaxeMethodPsiMixinImpl extends AbstractHaxeNamedComponent
     return (name != null) ? name : "<unnamed>";
   }
 
-  private HaxeMethodModel _model = null;
+  private static final Key<CachedValue<HaxeMethodModel>> MODEL_KEY = Key.create("HAXE_METHOD_MODEL");
+
   public HaxeMethodModel getModel() {
-    if (_model == null) _model = new HaxeMethodModel(this);
-    return _model;
+    return CachedValuesManager.getManager(getProject()).getCachedValue(this, MODEL_KEY, new CachedValueProvider<HaxeMethodModel>() {
+      @Override
+      public Result<HaxeMethodModel> compute() {
+        return Result.create(new HaxeMethodModel(HaxeMethodPsiMixinImpl.this), PsiModificationTracker.MODIFICATION_COUNT);
+      }
+    }, false);
   }
 
   @Nullable
@@ -17,20 +17,25 @@
  */
 package com.intellij.plugins.haxe.lang.psi.impl;
 
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.icons.AllIcons;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.ide.HaxeLookupElement;
+import com.intellij.plugins.haxe.ide.index.HaxePackageIndex;
+import com.intellij.plugins.haxe.ide.index.HaxeStaticExtensionIndex;
 import com.intellij.plugins.haxe.ide.refactoring.move.HaxeFileMoveHandler;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.model.type.HaxeTypeResolver;
 import com.intellij.plugins.haxe.util.HaxeAddImportHelper;
 import com.intellij.plugins.haxe.util.HaxeElementGenerator;
+import com.intellij.plugins.haxe.util.HaxeMetrics;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
 import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
 import com.intellij.psi.*;
@@ -38,12 +43,12 @@ import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.impl.source.tree.LeafPsiElement;
 import com.intellij.psi.impl.source.tree.SourceUtil;
 import com.intellij.psi.infos.CandidateInfo;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.IncorrectOperationException;
-import com.intellij.util.containers.ContainerUtil;
 import gnu.trove.THashSet;
 import org.apache.log4j.Level;
 import org.jetbrains.annotations.NotNull;
@@ -120,9 +125,9 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
   }
 
   public boolean resolveIsExtension() {
-    // @TODO: DIRTY HACK! to avoid rewriting all the code!
-    HaxeResolver.INSTANCE.resolve(this, true);
-    return HaxeResolver.isExtension;
+    // Same cache entry as resolve().
+    return HaxeResolver.isExtension(
+      ResolveCache.getInstance(getProject()).resolveWithCaching(this, HaxeResolver.INSTANCE, true, true));
   }
 
   @NotNull
@@ -592,6 +597,17 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
   @NotNull
   @Override
   public Object[] getVariants() {
+    final long start = HaxeMetrics.COMPLETION.start();
+    try {
+      return collectVariants();
+    }
+    finally {
+      HaxeMetrics.COMPLETION.stop(start);
+    }
+  }
+
+  @NotNull
+  private Object[] collectVariants() {
     final Set<HaxeComponentName> suggestedVariants = new THashSet<HaxeComponentName>();
     final Set<HaxeComponentName> suggestedVariantsExtensions = new THashSet<HaxeComponentName>();
 
@@ -625,7 +641,7 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
         addClassNonStaticMembersVariants(suggestedVariants, haxeClass,
                                          !(leftReference instanceof HaxeThisExpression));
         addUsingVariants(suggestedVariants, suggestedVariantsExtensions, haxeClass,
-                         HaxeResolveUtil.findUsingClasses(getContainingFile()));
+                         HaxeResolveUtil.findUsingClasses(getContainingFile()), getResolveScope());
         addChildClassVariants(suggestedVariants, haxeClass);
       }
     }
@@ -646,29 +662,27 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
     PsiElement leftTarget = leftReference != null ? leftReference.resolve() : null;
 
     if (leftTarget instanceof PsiPackage) {
-      return ArrayUtil.mergeArrays(variants, ((PsiPackage)leftTarget).getSubPackages());
+      return ArrayUtil.mergeArrays(variants, getSubPackageVariants(((PsiPackage)leftTarget).getQualifiedName()));
     }
     else if (leftReference == null) {
-      PsiPackage rootPackage = JavaPsiFacade.getInstance(getElement().getProject()).findPackage("");
-      return rootPackage == null ? variants : ArrayUtil.mergeArrays(variants, rootPackage.getSubPackages());
+      return ArrayUtil.mergeArrays(variants, getSubPackageVariants(""));
     }
     return variants;
   }
 
-  private void addImportStatementWithWildcardTypeClassVariants(Set<HaxeComponentName> suggestedVariants, PsiFile psiFile) {
-    List<PsiElement> importStatementWithWildcardList = ContainerUtil.findAll(psiFile.getChildren(), new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxeImportStatementWithWildcard;
-      }
-    });
+  @NotNull
+  private Object[] getSubPackageVariants(@NotNull String packageName) {
+    final Set<String> subPackages = HaxePackageIndex.getSubPackages(packageName, HaxeResolveUtil.getScopeForElement(this));
+    final List<LookupElement> result = new ArrayList<LookupElement>(subPackages.size());
+    for (String subPackage : subPackages) {
+      result.add(LookupElementBuilder.create(subPackage).withIcon(AllIcons.Nodes.Package));
+    }
+    return result.toArray();
+  }
 
-    for (PsiElement element : importStatementWithWildcardList) {
-      List<HaxeNamedComponent> namedSubComponents =
-        UsefulPsiTreeUtil.getImportStatementWithWildcardTypeNamedSubComponents((HaxeImportStatementWithWildcard)element, psiFile);
-      for (HaxeNamedComponent namedComponent : namedSubComponents) {
-        suggestedVariants.add(namedComponent.getComponentName());
-      }
+  private void addImportStatementWithWildcardTypeClassVariants(Set<HaxeComponentName> suggestedVariants, PsiFile psiFile) {
+    for (HaxeNamedComponent namedComponent : HaxeImportTable.getInstance(psiFile).getWildcardTypeMembers()) {
+      suggestedVariants.add(namedComponent.getComponentName());
     }
   }
 
@@ -694,18 +708,14 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
     }
   }
 
-  private static void addUsingVariants(Set<HaxeComponentName> variants, Set<HaxeComponentName> variantsWithExtension, @Nullable HaxeClass ourClass, List<HaxeClass> classes) {
-    for (HaxeClass haxeClass : classes) {
-      for (HaxeNamedComponent haxeNamedComponent : HaxeResolveUtil.findNamedSubComponents(haxeClass)) {
-        if (haxeNamedComponent.isPublic() && haxeNamedComponent.isStatic() && haxeNamedComponent.getComponentName() != null) {
-          final HaxeClassResolveResult resolveResult = HaxeResolveUtil.findFirstParameterClass(haxeNamedComponent);
-          final boolean needToAdd = resolveResult.getHaxeClass() == null || resolveResult.getHaxeClass() == ourClass;
-          if (needToAdd) {
-            variants.add(haxeNamedComponent.getComponentName());
-            variantsWithExtension.add(haxeNamedComponent.getComponentName());
-          }
-        }
-      }
+  private static void addUsingVariants(Set<HaxeComponentName> variants,
+                                       Set<HaxeComponentName> variantsWithExtension,
+                                       @Nullable HaxeClass ourClass,
+                                       List<HaxeClass> classes,
+                                       GlobalSearchScope scope) {
+    for (HaxeNamedComponent haxeNamedComponent : HaxeStaticExtensionIndex.getExtensionMethods(ourClass, classes, scope)) {
+      variants.add(haxeNamedComponent.getComponentName());
+      variantsWithExtension.add(haxeNamedComponent.getComponentName());
     }
   }
 
@@ -713,7 +723,7 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
     if (haxeClass == null) {
       return;
     }
-    for (HaxeNamedComponent namedComponent : HaxeResolveUtil.findNamedSubComponents(haxeClass)) {
+    for (HaxeNamedComponent namedComponent : HaxeClassMemberTable.getInstance(haxeClass).getMembers()) {
       final boolean needFilter = filterByAccess && !namedComponent.isPublic();
       if (!needFilter && namedComponent.getComponentName() != null) {
         suggestedVariants.add(namedComponent.getComponentName());
@@ -729,7 +739,7 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
     boolean extern = haxeClass.isExtern();
     boolean isEnum = haxeClass instanceof HaxeEnumDeclaration;
 
-    for (HaxeNamedComponent namedComponent : HaxeResolveUtil.findNamedSubComponents(haxeClass)) {
+    for (HaxeNamedComponent namedComponent : HaxeClassMemberTable.getInstance(haxeClass).getMembers()) {
       final boolean needFilter = filterByAccess && !namedComponent.isPublic();
       if ((extern || !needFilter) && (namedComponent.isStatic() || isEnum) && namedComponent.getComponentName() != null) {
         suggestedVariants.add(namedComponent.getComponentName());
@@ -744,7 +754,7 @@ abstract public class HaxeReferenceImpl extends HaxeExpressionImpl implements Ha
 
     boolean extern = haxeClass.isExtern();
 
-    for (HaxeNamedComponent namedComponent : HaxeResolveUtil.findNamedSubComponents(haxeClass)) {
+    for (HaxeNamedComponent namedComponent : HaxeClassMemberTable.getInstance(haxeClass).getMembers()) {
       final boolean needFilter = filterByAccess && !namedComponent.isPublic();
       if ((extern || !needFilter) && !namedComponent.isStatic() && namedComponent.getComponentName() != null) {
         suggestedVariants.add(namedComponent.getComponentName());
@@ -31,13 +31,32 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
+/**
+ * View of a class declaration. Obtain it through {@link HaxeClass#getModel()}: a model lives until the next
+ * PSI modification, so the member lists and compatible types it computes are memoized for that long.
+ */
 public class HaxeClassModel {
   public HaxeClass haxeClass;
 
+  private volatile List<HaxeMethodModel> _methods;
+  private volatile List<HaxeFieldModel> _fields;
+  private volatile List<HaxeMemberModel> _membersSelf;
+  private volatile Set<HaxeClassModel> _compatibleTypes;
+
   public HaxeClassModel(HaxeClass haxeClass) {
     this.haxeClass = haxeClass;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    return this == o || (o instanceof HaxeClassModel && haxeClass.equals(((HaxeClassModel)o).haxeClass));
+  }
+
+  @Override
+  public int hashCode() {
+    return haxeClass.hashCode();
+  }
+
   public HaxeClassReferenceModel getParentClassReference() {
     List<HaxeType> list = haxeClass.getHaxeExtendsList();
     if (list.size() == 0) return null;
@@ -146,13 +165,13 @@ public class HaxeClassModel {
   public boolean hasMethodSelf(String name) {
     HaxeMethodModel method = getMethod(name);
     if (method == null) return false;
-    return (method.getDeclaringClass() == this);
+    return this.equals(method.getDeclaringClass());
   }
 
   public HaxeMethodModel getMethodSelf(String name) {
     HaxeMethodModel method = getMethod(name);
     if (method == null) return null;
-    return (method.getDeclaringClass() == this) ? method : null;
+    return this.equals(method.getDeclaringClass()) ? method : null;
   }
 
   public HaxeMethodModel getConstructorSelf() {
@@ -180,25 +199,30 @@ public class HaxeClassModel {
   }
 
   public List<HaxeMemberModel> getMembers() {
-    LinkedList<HaxeMemberModel> members = new LinkedList<HaxeMemberModel>();
-    for (HaxeMethodModel method : getMethods()) members.add(method);
-    for (HaxeFieldModel field : getFields()) members.add(field);
+    List<HaxeMemberModel> members = new ArrayList<HaxeMemberModel>();
+    members.addAll(getMethods());
+    members.addAll(getFields());
     return members;
   }
 
   @NotNull
   public List<HaxeMemberModel> getMembersSelf() {
-    LinkedList<HaxeMemberModel> members = new LinkedList<HaxeMemberModel>();
-    HaxeClassBody body = HaxePsiUtils.getChild(haxeClass, HaxeClassBody.class);
-    if (body != null) {
-      for (PsiElement element : body.getChildren()) {
-        if (element instanceof HaxeMethod || element instanceof HaxeVarDeclaration) {
-          HaxeMemberModel model = HaxeMemberModel.fromPsi(element);
-          if (model != null) {
-            members.add(model);
+    List<HaxeMemberModel> members = _membersSelf;
+    if (members == null) {
+      members = new ArrayList<HaxeMemberModel>();
+      HaxeClassBody body = HaxePsiUtils.getChild(haxeClass, HaxeClassBody.class);
+      if (body != null) {
+        for (PsiElement element : body.getChildren()) {
+          if (element instanceof HaxeMethod || element instanceof HaxeVarDeclaration) {
+            HaxeMemberModel model = HaxeMemberModel.fromPsi(element);
+            if (model != null) {
+              members.add(model);
+            }
           }
         }
       }
+      members = Collections.unmodifiableList(members);
+      _membersSelf = members;
     }
     return members;
   }
@@ -214,25 +238,30 @@ public class HaxeClassModel {
   }
 
   public List<HaxeMethodModel> getMethods() {
-    List<HaxeMethodModel> models = new ArrayList<HaxeMethodModel>();
-    for (HaxeMethod method : haxeClass.getHaxeMethods()) {
-      models.add(method.getModel());
+    List<HaxeMethodModel> models = _methods;
+    if (models == null) {
+      models = new ArrayList<HaxeMethodModel>();
+      for (HaxeMethod method : haxeClass.getHaxeMethods()) {
+        models.add(method.getModel());
+      }
+      models = Collections.unmodifiableList(models);
+      _methods = models;
     }
     return models;
   }
 
   public List<HaxeMethodModel> getMethodsSelf() {
     List<HaxeMethodModel> models = new ArrayList<HaxeMethodModel>();
-    for (HaxeMethod method : haxeClass.getHaxeMethods()) {
-      if (method.getContainingClass() == this.haxeClass) models.add(method.getModel());
+    for (HaxeMethodModel method : getMethods()) {
+      if (method.getMethodPsi().getContainingClass() == this.haxeClass) models.add(method);
     }
     return models;
   }
 
   public List<HaxeMethodModel> getAncestorMethods() {
     List<HaxeMethodModel> models = new ArrayList<HaxeMethodModel>();
-    for (HaxeMethod method : haxeClass.getHaxeMethods()) {
-      if (method.getContainingClass() != this.haxeClass) models.add(method.getModel());
+    for (HaxeMethodModel method : getMethods()) {
+      if (method.getMethodPsi().getContainingClass() != this.haxeClass) models.add(method);
     }
     return models;
   }
@@ -267,35 +296,46 @@ public class HaxeClassModel {
   }
 
   public List<HaxeFieldModel> getFields() {
-    HaxeClassBody body = HaxePsiUtils.getChild(haxeClass, HaxeClassBody.class);
-    LinkedList<HaxeFieldModel> out = new LinkedList<HaxeFieldModel>();
-    if (body != null) {
-      for (HaxeVarDeclaration declaration : HaxePsiUtils.getChilds(body, HaxeVarDeclaration.class)) {
-        out.add(new HaxeFieldModel(declaration));
+    List<HaxeFieldModel> out = _fields;
+    if (out == null) {
+      out = new ArrayList<HaxeFieldModel>();
+      HaxeClassBody body = HaxePsiUtils.getChild(haxeClass, HaxeClassBody.class);
+      if (body != null) {
+        for (HaxeVarDeclaration declaration : HaxePsiUtils.getChilds(body, HaxeVarDeclaration.class)) {
+          out.add(new HaxeFieldModel(declaration));
+        }
       }
+      out = Collections.unmodifiableList(out);
+      _fields = out;
     }
     return out;
   }
 
   public List<HaxeFieldModel> getFieldsSelf() {
-    HaxeClassBody body = HaxePsiUtils.getChild(haxeClass, HaxeClassBody.class);
-    LinkedList<HaxeFieldModel> out = new LinkedList<HaxeFieldModel>();
-    if (body != null) {
-      for (HaxeVarDeclaration declaration : HaxePsiUtils.getChilds(body, HaxeVarDeclaration.class)) {
-        if (declaration.getContainingClass() == this.haxeClass) {
-          out.add(new HaxeFieldModel(declaration));
-        }
+    List<HaxeFieldModel> out = new ArrayList<HaxeFieldModel>();
+    for (HaxeFieldModel field : getFields()) {
+      if (field.getFieldPsi().getContainingClass() == this.haxeClass) {
+        out.add(field);
       }
     }
     return out;
   }
 
   public Set<HaxeClassModel> getCompatibleTypes() {
-    final Set<HaxeClassModel> output = new LinkedHashSet<HaxeClassModel>();
-    writeCompatibleTypes(output);
+    Set<HaxeClassModel> output = _compatibleTypes;
+    if (output == null) {
+      output = new LinkedHashSet<HaxeClassModel>();
+      writeCompatibleTypes(output);
+      output = Collections.unmodifiableSet(output);
+      _compatibleTypes = output;
+    }
     return output;
   }
 
+  public boolean isCompatibleWith(@NotNull HaxeClassModel other) {
+    return getCompatibleTypes().contains(other);
+  }
+
   public void writeCompatibleTypes(Set<HaxeClassModel> output) {
     // Own
     output.add(this);
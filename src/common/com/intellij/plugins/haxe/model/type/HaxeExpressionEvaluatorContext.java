@@ -32,6 +32,8 @@ public class HaxeExpressionEvaluatorContext {
   private List<SpecificTypeReference> returns = new ArrayList<SpecificTypeReference>();
   private List<PsiElement> returnElements = new ArrayList<PsiElement>();
   private List<ReturnInfo> returnInfos = new ArrayList<ReturnInfo>();
+  // Unification of returns, valid while no return is added.
+  private SpecificTypeReference returnType;
 
   public AnnotationHolder holder;
   private HaxeScope<SpecificTypeReference> scope = new HaxeScope<SpecificTypeReference>();
@@ -41,11 +43,15 @@ public class HaxeExpressionEvaluatorContext {
     this.returns.add(type);
     this.returnElements.add(element);
     this.returnInfos.add(new ReturnInfo(element, type));
+    this.returnType = null;
   }
 
   public SpecificTypeReference getReturnType() {
     if (returns.isEmpty()) return SpecificHaxeClassReference.getVoid(root);
-    return HaxeTypeUnifier.unify(returns);
+    if (returnType == null) {
+      returnType = HaxeTypeUnifier.unify(returns);
+    }
+    return returnType;
   }
 
   public List<SpecificTypeReference> getReturnValues() {
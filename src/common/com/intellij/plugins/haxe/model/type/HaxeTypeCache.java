@@ -0,0 +1,170 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
+import com.intellij.plugins.haxe.model.HaxeClassModel;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assignability and unification results of class type pairs, dropped on the next PSI modification.
+ *
+ * Both walk abstract from/to lists and the supertypes of each class; the semantic annotator asks for the same pairs
+ * over and over in assignment-heavy code and in functions with many returns.
+ *
+ * A type is identified by its text without constant and the file its name was resolved from: the same text means
+ * the same class within a file. Types without a valid context are not cached.
+ */
+public class HaxeTypeCache {
+  private static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.model.type.HaxeTypeCache");
+  private static final Key<CachedValue<HaxeTypeCache>> TYPE_CACHE_KEY = Key.create("HAXE_TYPE_CACHE");
+  private static final int MAX_ENTRIES = 4096;
+  private static final int LOG_INTERVAL = 10000;
+
+  /** Stands for a unification that gave no common class. */
+  private static final Object NO_COMMON_TYPE = new Object();
+
+  private final Map<Pair<TypeKey, TypeKey>, Boolean> myAssignable = createMap();
+  private final Map<Pair<TypeKey, TypeKey>, Object> myUnified = createMap();
+
+  private static final AtomicLong ourLookups = new AtomicLong();
+  private static final AtomicLong ourHits = new AtomicLong();
+
+  @Nullable
+  static HaxeTypeCache getInstance(@Nullable PsiElement context) {
+    if (context == null || !context.isValid()) {
+      return null;
+    }
+    final Project project = context.getProject();
+    return CachedValuesManager.getManager(project).getCachedValue(
+      project, TYPE_CACHE_KEY, new CachedValueProvider<HaxeTypeCache>() {
+        @Nullable
+        @Override
+        public Result<HaxeTypeCache> compute() {
+          return Result.create(new HaxeTypeCache(), PsiModificationTracker.MODIFICATION_COUNT);
+        }
+      }, false);
+  }
+
+  @Nullable
+  static Pair<TypeKey, TypeKey> createKey(@NotNull SpecificHaxeClassReference a, @NotNull SpecificHaxeClassReference b) {
+    final TypeKey aKey = TypeKey.create(a);
+    final TypeKey bKey = aKey == null ? null : TypeKey.create(b);
+    return bKey == null ? null : Pair.create(aKey, bKey);
+  }
+
+  @Nullable
+  Boolean getAssignable(@NotNull Pair<TypeKey, TypeKey> key) {
+    synchronized (myAssignable) {
+      return count(myAssignable.get(key));
+    }
+  }
+
+  void putAssignable(@NotNull Pair<TypeKey, TypeKey> key, boolean assignable) {
+    synchronized (myAssignable) {
+      myAssignable.put(key, assignable);
+    }
+  }
+
+  /**
+   * @return the common class model, {@link #NO_COMMON_TYPE} if there is none, or null if the pair wasn't unified yet.
+   */
+  @Nullable
+  Object getUnified(@NotNull Pair<TypeKey, TypeKey> key) {
+    synchronized (myUnified) {
+      return count(myUnified.get(key));
+    }
+  }
+
+  void putUnified(@NotNull Pair<TypeKey, TypeKey> key, @Nullable HaxeClassModel commonType) {
+    synchronized (myUnified) {
+      myUnified.put(key, commonType == null ? NO_COMMON_TYPE : commonType);
+    }
+  }
+
+  @Nullable
+  static HaxeClassModel toClassModel(@NotNull Object unified) {
+    return unified == NO_COMMON_TYPE ? null : (HaxeClassModel)unified;
+  }
+
+  @Nullable
+  private static <T> T count(@Nullable T value) {
+    if (value != null) {
+      ourHits.incrementAndGet();
+    }
+    final long lookups = ourLookups.incrementAndGet();
+    if (lookups % LOG_INTERVAL == 0 && LOG.isDebugEnabled()) {
+      LOG.debug("Type cache: " + lookups + " lookups, hit rate " + (ourHits.get() * 100 / lookups) + "%");
+    }
+    return value;
+  }
+
+  @NotNull
+  private static <V> Map<Pair<TypeKey, TypeKey>, V> createMap() {
+    return new LinkedHashMap<Pair<TypeKey, TypeKey>, V>(64, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Pair<TypeKey, TypeKey>, V> eldest) {
+        return size() > MAX_ENTRIES;
+      }
+    };
+  }
+
+  static final class TypeKey {
+    @NotNull private final String myText;
+    @NotNull private final PsiFile myFile;
+
+    private TypeKey(@NotNull String text, @NotNull PsiFile file) {
+      myText = text;
+      myFile = file;
+    }
+
+    @Nullable
+    static TypeKey create(@NotNull SpecificHaxeClassReference type) {
+      final PsiElement context = type.getElementContext();
+      final PsiFile file = context != null && context.isValid() ? context.getContainingFile() : null;
+      return file == null ? null : new TypeKey(type.toStringWithoutConstant(), file);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof TypeKey)) return false;
+      final TypeKey key = (TypeKey)o;
+      return myText.equals(key.myText) && myFile.equals(key.myFile);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * myText.hashCode() + myFile.hashCode();
+    }
+  }
+}
@@ -17,6 +17,7 @@
  */
 package com.intellij.plugins.haxe.model.type;
 
+import com.intellij.openapi.util.Pair;
 import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 import com.intellij.plugins.haxe.lang.psi.HaxeType;
 import com.intellij.plugins.haxe.lang.psi.HaxeTypeOrAnonymous;
@@ -57,6 +58,20 @@ public class HaxeTypeCompatible {
       return true;
     }
 
+    final HaxeTypeCache cache = HaxeTypeCache.getInstance(a.getElementContext());
+    final Pair<HaxeTypeCache.TypeKey, HaxeTypeCache.TypeKey> key = cache != null ? HaxeTypeCache.createKey(a, b) : null;
+    if (key == null) {
+      return computeAssignableType(a, b);
+    }
+    Boolean assignable = cache.getAssignable(key);
+    if (assignable == null) {
+      assignable = computeAssignableType(a, b);
+      cache.putAssignable(key, assignable);
+    }
+    return assignable;
+  }
+
+  static private boolean computeAssignableType(@NotNull SpecificHaxeClassReference a, @NotNull SpecificHaxeClassReference b) {
     // Check from abstracts
     HaxeClass thisClassPsi = (a.clazz != null) ? a.clazz.getHaxeClass() : null;
     if (thisClassPsi != null) {
@@ -178,8 +178,13 @@ public class HaxeTypeResolver {
     return createPrimitiveType("Void", element, null);
   }
 
-  // @TODO: hack to avoid stack overflow, until a proper non-static fix is done
-  static private Set<PsiElement> processedElements = new HashSet<PsiElement>();
+  // Elements being evaluated by the current thread; an element met again while evaluating itself is Dynamic.
+  static private final ThreadLocal<Set<PsiElement>> processedElements = new ThreadLocal<Set<PsiElement>>() {
+    @Override
+    protected Set<PsiElement> initialValue() {
+      return new HashSet<PsiElement>();
+    }
+  };
 
   static private void checkMethod(PsiElement element, HaxeExpressionEvaluatorContext context) {
     final SpecificTypeReference retval = context.getReturnType();
@@ -209,12 +214,12 @@ public class HaxeTypeResolver {
   @NotNull
   static public HaxeExpressionEvaluatorContext getPsiElementType(PsiElement element, @Nullable AnnotationHolder holder) {
     HaxeExpressionEvaluatorContext context = new HaxeExpressionEvaluatorContext();
-    if (processedElements.contains(element)) {
+    final Set<PsiElement> processed = processedElements.get();
+    if (!processed.add(element)) {
       context.result = SpecificHaxeClassReference.primitive("Dynamic", element);
       return context;
     }
 
-    processedElements.add(element);
     try {
       context.root = element;
       context.holder = holder;
@@ -222,7 +227,7 @@ public class HaxeTypeResolver {
       checkMethod(element.getParent(), context);
       return context;
     } finally {
-      processedElements.remove(element);
+      processed.remove(element);
     }
   }
 
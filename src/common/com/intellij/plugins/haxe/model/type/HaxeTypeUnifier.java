@@ -17,7 +17,9 @@
  */
 package com.intellij.plugins.haxe.model.type;
 
+import com.intellij.openapi.util.Pair;
 import com.intellij.plugins.haxe.model.HaxeClassModel;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -64,24 +66,46 @@ public class HaxeTypeUnifier {
   static public SpecificTypeReference unifyTypes(SpecificHaxeClassReference a, SpecificHaxeClassReference b) {
     if (a.isDynamic()) return a.withoutConstantValue();
     if (b.isDynamic()) return b.withoutConstantValue();
-    if (a.getHaxeClassModel() == null) return SpecificTypeReference.getDynamic(null);
-    if (b.getHaxeClassModel() == null) return SpecificTypeReference.getDynamic(null);
-    final Set<HaxeClassModel> atypes = a.getHaxeClassModel().getCompatibleTypes();
-    final Set<HaxeClassModel> btypes = b.getHaxeClassModel().getCompatibleTypes();
-    // @TODO: this could be really slow, hotspot for optimizing
-    for (HaxeClassModel type : atypes) {
-      if (btypes.contains(type)) {
-        // @TODO: generics
-        return SpecificHaxeClassReference.withoutGenerics(
-          new HaxeClassReference(type)
-        );
+
+    final HaxeTypeCache cache = HaxeTypeCache.getInstance(a.getElementContext());
+    final Pair<HaxeTypeCache.TypeKey, HaxeTypeCache.TypeKey> key = cache != null ? HaxeTypeCache.createKey(a, b) : null;
+    HaxeClassModel commonType;
+    if (key == null) {
+      commonType = findCommonType(a, b);
+    } else {
+      final Object unified = cache.getUnified(key);
+      if (unified != null) {
+        commonType = HaxeTypeCache.toClassModel(unified);
+      } else {
+        commonType = findCommonType(a, b);
+        cache.putUnified(key, commonType);
       }
     }
+    if (commonType != null) {
+      // @TODO: generics
+      return SpecificHaxeClassReference.withoutGenerics(
+        new HaxeClassReference(commonType)
+      );
+    }
 
     // @TODO: Do a proper unification
     return SpecificTypeReference.getDynamic(a.getElementContext());
   }
 
+  @Nullable
+  static private HaxeClassModel findCommonType(SpecificHaxeClassReference a, SpecificHaxeClassReference b) {
+    final HaxeClassModel aModel = a.getHaxeClassModel();
+    final HaxeClassModel bModel = aModel != null ? b.getHaxeClassModel() : null;
+    if (bModel == null) return null;
+    final Set<HaxeClassModel> btypes = bModel.getCompatibleTypes();
+    for (HaxeClassModel type : aModel.getCompatibleTypes()) {
+      if (btypes.contains(type)) {
+        return type;
+      }
+    }
+    return null;
+  }
+
   static public SpecificTypeReference unify(SpecificTypeReference[] types) {
     return unify(Arrays.asList(types));
   }
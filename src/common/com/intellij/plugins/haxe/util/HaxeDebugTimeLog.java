@@ -23,12 +23,15 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.LinkedList;
 
 /**
  * Create, track, and log time stamps for debugging purposes.
  * Has a static interface for simple time stamps as well.
+ *
+ * The time a log covers can also be recorded in a {@link HaxeMetrics} histogram (see recordTo()),
+ * so that it shows up in the plugin's performance metrics.
  */
 public final class HaxeDebugTimeLog {
 
@@ -37,8 +40,9 @@ public final class HaxeDebugTimeLog {
 
   // For logging time stamps that go on another logger.
   Logger myLog;
-  LinkedList<TimeStamp> myTimeStamps;
+  ArrayList<TimeStamp> myTimeStamps;
   Since mySince;
+  final long myStartNanos;
 
   private SimpleDateFormat myDateFormatter;   // Re-used by internalFormat to avoid churn.
   private Date myDate;                        // Re-used by internalFormat to avoid churn.
@@ -65,9 +69,10 @@ public final class HaxeDebugTimeLog {
 
   public HaxeDebugTimeLog(@NotNull Logger log, Since since) {
     myLog = log;
-    myTimeStamps = new LinkedList<TimeStamp>();
+    myTimeStamps = new ArrayList<TimeStamp>();
     mySince = since;
-    myDateFormatter = new SimpleDateFormat("yyyy-mm-dd HH:mm:ss.SSS");
+    myStartNanos = System.nanoTime();
+    myDateFormatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
     myDate = new Date(System.currentTimeMillis());
   }
 
@@ -127,7 +132,7 @@ public final class HaxeDebugTimeLog {
    * @return
    */
   public static String formatTime(long timeMillis) {
-    SimpleDateFormat f = new SimpleDateFormat("yyyy-mm-dd HH:mm:ss.SSS");
+    SimpleDateFormat f = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
     Date d = new Date(timeMillis);
     return f.format(d);
   }
@@ -212,7 +217,7 @@ public final class HaxeDebugTimeLog {
    */
   public synchronized void stampAndEcho(@Nullable String message, Since since) {
     TimeStamp ts = new TimeStamp(message);
-    TimeStamp previous = myTimeStamps.isEmpty() ? null : myTimeStamps.getLast();
+    TimeStamp previous = myTimeStamps.isEmpty() ? null : getLast();
     myTimeStamps.add(ts);
     switch (since) {
       default:
@@ -221,13 +226,13 @@ public final class HaxeDebugTimeLog {
         ts.log();
         break;
       case Start:
-        ts.log(myLog, false, myTimeStamps.getFirst(), previous);
+        ts.log(myLog, false, getFirst(), previous);
         break;
       case Previous:
         ts.log(myLog, false, null, previous);
         break;
       case StartAndPrevious:
-        ts.log(myLog, false, myTimeStamps.getFirst(), previous);
+        ts.log(myLog, false, getFirst(), previous);
         break;
     }
   }
@@ -244,8 +249,8 @@ public final class HaxeDebugTimeLog {
     if (milliseconds < 0 || myTimeStamps.isEmpty()) {
       return;
     }
-    TimeStamp first = myTimeStamps.getFirst();
-    TimeStamp last = myTimeStamps.getLast();
+    TimeStamp first = getFirst();
+    TimeStamp last = getLast();
     if (null == last) {
       return;
     }
@@ -254,12 +259,24 @@ public final class HaxeDebugTimeLog {
     }
   }
 
+  /**
+   * Record the time elapsed since this log was created in a histogram.
+   * Does nothing while metrics collection is off.
+   *
+   * @param histogram where to record the time.
+   */
+  public void recordTo(@NotNull HaxeMetrics.Histogram histogram) {
+    if (HaxeMetrics.isEnabled()) {
+      histogram.record(System.nanoTime() - myStartNanos);
+    }
+  }
+
   /**
    * Print the entire time log, nicely formatted, as one entry to the Logger.
    */
   public synchronized void print() {
     StringBuilder sb = new StringBuilder(2048);
-    TimeStamp first = myTimeStamps.getFirst();
+    TimeStamp first = getFirst();
     TimeStamp previous = null;
     sb.append("Log entries: \n");
     for (TimeStamp ts : myTimeStamps) {
@@ -271,6 +288,14 @@ public final class HaxeDebugTimeLog {
     myLog.debug(sb.toString());
   }
 
+  private TimeStamp getFirst() {
+    return myTimeStamps.get(0);
+  }
+
+  private TimeStamp getLast() {
+    return myTimeStamps.get(myTimeStamps.size() - 1);
+  }
+
   /**
    * Encapsulate a time stamp.
    */
@@ -17,79 +17,216 @@
  */
 package com.intellij.plugins.haxe.util;
 
-import com.intellij.plugins.haxe.haxelib.HaxelibCache;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.plugins.haxe.haxelib.HaxelibCommandUtils;
 import com.intellij.plugins.haxe.ide.HXMLCompletionItem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Created by as3boyan on 15.11.14.
+ *
+ * Meta tags and defines known to the Haxe compiler, as reported by
+ * 'haxe --help-metas' and 'haxe --help-defines'.
+ *
+ * Different SDKs know different metas, so the lists are kept per SDK.  They
+ * are loaded on a pooled thread (usually when the project opens; see
+ * {@link #preload}), and until they are there, lookups simply return nothing
+ * rather than waiting for the compiler.
  */
 public class HaxeHelpCache {
-  static HaxeHelpCache instance = null;
+  static final Logger LOG = Logger.getInstance("#com.intellij.plugins.haxe.util.HaxeHelpCache");
+
+  private static final HaxeHelpCache instance = new HaxeHelpCache();
+
   public static final Pattern META_TAG_PATTERN = Pattern.compile("@:([^\\r\\n\\t\\s]+)[^:]+:[\\t\\s]+([^\\r\\n]+)");
   public static final Pattern DEFINE_PATTERN = Pattern.compile("([^\\r\\n\\t\\s]+)[^:]+:[\\t\\s]([^\\r\\n]+)");
 
-  public List<HXMLCompletionItem> getMetaTags() {
-    return metaTags;
+  /** Finished lookups, by SDK. */
+  private final ConcurrentMap<String, HelpData> myHelpData = new ConcurrentHashMap<String, HelpData>();
+  /** SDKs for which a load has been started, so that it is only started once. */
+  private final ConcurrentMap<String, Boolean> myLoading = new ConcurrentHashMap<String, Boolean>();
+
+  public static HaxeHelpCache getInstance() {
+    return instance;
+  }
+
+  private HaxeHelpCache() {
   }
-  public List<HXMLCompletionItem> getDefines() {
-    return defines;
+
+  /**
+   * Start loading the help for the module's SDK in the background, unless it's
+   * already loaded (or loading).
+   */
+  public void preload(@Nullable Module module) {
+    getHelpData(module);
   }
 
-  private static List<HXMLCompletionItem> metaTags;
-  private static List<HXMLCompletionItem> defines;
+  /**
+   * @return the meta tags known to the module's SDK, sorted by name; empty if they
+   * haven't been loaded yet.
+   */
+  @NotNull
+  public List<HXMLCompletionItem> getMetaTags(@Nullable Module module) {
+    HelpData data = getHelpData(module);
+    return data == null ? Collections.<HXMLCompletionItem>emptyList() : data.metaTags.getAll();
+  }
 
-  public HaxeHelpCache() {
-    load();
+  /**
+   * @return the meta tags whose names start with the prefix, ignoring case.
+   */
+  @NotNull
+  public List<HXMLCompletionItem> getMetaTags(@Nullable Module module, @NotNull String prefix) {
+    HelpData data = getHelpData(module);
+    return data == null ? Collections.<HXMLCompletionItem>emptyList() : data.metaTags.getStartingWith(prefix);
   }
 
-  public static HaxeHelpCache getInstance() {
-    if (instance == null) {
-      instance = new HaxeHelpCache();
+  /**
+   * @return the defines known to the module's SDK, sorted by name; empty if they
+   * haven't been loaded yet.
+   */
+  @NotNull
+  public List<HXMLCompletionItem> getDefines(@Nullable Module module) {
+    HelpData data = getHelpData(module);
+    return data == null ? Collections.<HXMLCompletionItem>emptyList() : data.defines.getAll();
+  }
+
+  /**
+   * @return the defines whose names start with the prefix, ignoring case.
+   */
+  @NotNull
+  public List<HXMLCompletionItem> getDefines(@Nullable Module module, @NotNull String prefix) {
+    HelpData data = getHelpData(module);
+    return data == null ? Collections.<HXMLCompletionItem>emptyList() : data.defines.getStartingWith(prefix);
+  }
+
+  @Nullable
+  private HelpData getHelpData(@Nullable Module module) {
+    final String haxePath = HaxeHelpUtil.getHaxePath(module);
+    final String key = getSdkKey(module, haxePath);
+
+    HelpData data = myHelpData.get(key);
+    if (data == null && myLoading.putIfAbsent(key, Boolean.TRUE) == null) {
+      ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            myHelpData.put(key, load(haxePath));
+          }
+          finally {
+            myLoading.remove(key);
+          }
+        }
+      });
     }
+    return data;
+  }
 
-    return instance;
+  /**
+   * The same compiler path may be reused by an upgraded SDK, so the version is part of the key.
+   */
+  @NotNull
+  private static String getSdkKey(@Nullable Module module, @NotNull String haxePath) {
+    Sdk sdk = module == null ? null : ModuleRootManager.getInstance(module).getSdk();
+    String version = sdk == null ? null : sdk.getVersionString();
+    return version == null ? haxePath : haxePath + "@" + version;
+  }
+
+  @NotNull
+  private static HelpData load(@NotNull String haxePath) {
+    LOG.debug("Loading compiler help from " + haxePath);
+    return new HelpData(new ItemIndex(parse(haxePath, "--help-metas", META_TAG_PATTERN)),
+                        new ItemIndex(parse(haxePath, "--help-defines", DEFINE_PATTERN)));
   }
 
-  private void load() {
+  @NotNull
+  private static List<HXMLCompletionItem> parse(@NotNull String haxePath, @NotNull String option, @NotNull Pattern pattern) {
     ArrayList<String> commandLineArguments = new ArrayList<String>();
-    String haxePath = HaxeHelpUtil.getHaxePath(HaxelibCache.getHaxeModule());
     commandLineArguments.add(haxePath);
-    commandLineArguments.add("--help-metas");
+    commandLineArguments.add(option);
 
     List<String> strings = HaxelibCommandUtils.getProcessStdout(commandLineArguments);
 
-    metaTags = new ArrayList<HXMLCompletionItem>();
-
+    List<HXMLCompletionItem> items = new ArrayList<HXMLCompletionItem>();
+    Matcher matcher = pattern.matcher("");
     for (int i = 0, size = strings.size(); i < size; i++) {
-      String string = strings.get(i);
-      Matcher matcher = META_TAG_PATTERN.matcher(string);
-
-      if (matcher.find()) {
-        metaTags.add(new HXMLCompletionItem(matcher.group(1), matcher.group(2)));
+      if (matcher.reset(strings.get(i)).find()) {
+        items.add(new HXMLCompletionItem(matcher.group(1), matcher.group(2)));
       }
     }
+    return items;
+  }
 
-    commandLineArguments.clear();
-    commandLineArguments.add(haxePath);
-    commandLineArguments.add("--help-defines");
+  private static class HelpData {
+    final ItemIndex metaTags;
+    final ItemIndex defines;
 
-    strings = HaxelibCommandUtils.getProcessStdout(commandLineArguments);
+    HelpData(@NotNull ItemIndex metaTags, @NotNull ItemIndex defines) {
+      this.metaTags = metaTags;
+      this.defines = defines;
+    }
+  }
 
-    defines = new ArrayList<HXMLCompletionItem>();
+  /**
+   * An immutable list of items, sorted by name (ignoring case) so that all names
+   * with a given prefix form one contiguous range.
+   */
+  private static class ItemIndex {
+    private static final Comparator<HXMLCompletionItem> BY_NAME = new Comparator<HXMLCompletionItem>() {
+      @Override
+      public int compare(HXMLCompletionItem o1, HXMLCompletionItem o2) {
+        return o1.name.compareToIgnoreCase(o2.name);
+      }
+    };
+
+    private final HXMLCompletionItem[] myItems;
+    private final String[] myNames;
+    private final List<HXMLCompletionItem> myAll;
+
+    ItemIndex(@NotNull List<HXMLCompletionItem> items) {
+      myItems = items.toArray(new HXMLCompletionItem[items.size()]);
+      Arrays.sort(myItems, BY_NAME);
+      myNames = new String[myItems.length];
+      for (int i = 0; i < myItems.length; i++) {
+        myNames[i] = myItems[i].name.toLowerCase();
+      }
+      myAll = Collections.unmodifiableList(Arrays.asList(myItems));
+    }
 
-    for (int i = 0; i < strings.size(); i++) {
-      String string = strings.get(i);
-      Matcher matcher = DEFINE_PATTERN.matcher(string);
+    @NotNull
+    List<HXMLCompletionItem> getAll() {
+      return myAll;
+    }
 
-      if (matcher.find()) {
-        defines.add(new HXMLCompletionItem(matcher.group(1), matcher.group(2)));
+    @NotNull
+    List<HXMLCompletionItem> getStartingWith(@NotNull String prefix) {
+      if (prefix.isEmpty()) {
+        return myAll;
+      }
+      final String lowerPrefix = prefix.toLowerCase();
+      int from = Arrays.binarySearch(myNames, lowerPrefix);
+      if (from < 0) {
+        from = -from - 1;
+      }
+      int to = from;
+      while (to < myNames.length && myNames[to].startsWith(lowerPrefix)) {
+        to++;
       }
+      return myAll.subList(from, to);
     }
   }
 }
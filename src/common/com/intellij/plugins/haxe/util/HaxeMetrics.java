@@ -0,0 +1,409 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Plugin-wide performance counters and latency histograms.
+ *
+ * Collection is off unless switched on at runtime (see the Tools | Haxe Performance Metrics menu), or with
+ * <code>-Dhaxe.metrics=true</code>. While it is off, measuring costs a volatile read: no clock is read and nothing
+ * is allocated. The collected numbers can be shown as a report or saved as JSON for offline analysis.
+ *
+ * Usage:
+ * <pre>
+ *   final long start = HaxeMetrics.RESOLVE.start();
+ *   try {
+ *     ...
+ *   }
+ *   finally {
+ *     HaxeMetrics.RESOLVE.stop(start);
+ *   }
+ * </pre>
+ */
+public final class HaxeMetrics {
+  private static volatile boolean ourEnabled = Boolean.getBoolean("haxe.metrics");
+  private static volatile long ourCollectingSince = System.currentTimeMillis();
+
+  private static final ConcurrentMap<String, Counter> ourCounters = new ConcurrentHashMap<String, Counter>();
+  private static final ConcurrentMap<String, Histogram> ourHistograms = new ConcurrentHashMap<String, Histogram>();
+
+  public static final Histogram RESOLVE = histogram("resolve");
+  public static final Histogram COMPLETION = histogram("completion.variants");
+  public static final Histogram INDEXING = histogram("indexing.scan");
+  public static final Histogram EXTERNAL_PROCESS = histogram("process.run");
+  public static final Histogram CLASSPATH_SYNC = histogram("classpath.sync");
+  public static final Histogram CLASSPATH_RESYNC = histogram("classpath.resync");
+  public static final Histogram HAXELIB_CLASSPATH = histogram("classpath.haxelib");
+  public static final Histogram DEBUGGER_ROUND_TRIP = histogram("debugger.roundTrip");
+
+  public static final Counter UNRESOLVED = counter("resolve.unresolved");
+  public static final Counter PROCESS_TIMED_OUT = counter("process.timedOut");
+  public static final Counter PROCESS_NOT_STARTED = counter("process.notStarted");
+  public static final Counter HAXELIB_CACHE_HITS = counter("classpath.haxelib.cacheHits");
+  public static final Counter HAXELIB_CACHE_MISSES = counter("classpath.haxelib.cacheMisses");
+
+  private HaxeMetrics() {
+  }
+
+  public static boolean isEnabled() {
+    return ourEnabled;
+  }
+
+  public static void setEnabled(boolean enabled) {
+    if (enabled && !ourEnabled) {
+      ourCollectingSince = System.currentTimeMillis();
+    }
+    ourEnabled = enabled;
+  }
+
+  /**
+   * @return when the current numbers started being collected, in milliseconds since the epoch.
+   */
+  public static long getCollectingSince() {
+    return ourCollectingSince;
+  }
+
+  /**
+   * @return the counter with the given name, created on first use.
+   */
+  @NotNull
+  public static Counter counter(@NotNull String name) {
+    Counter counter = ourCounters.get(name);
+    if (counter == null) {
+      final Counter newCounter = new Counter(name);
+      counter = ourCounters.putIfAbsent(name, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * @return the histogram with the given name, created on first use.
+   */
+  @NotNull
+  public static Histogram histogram(@NotNull String name) {
+    Histogram histogram = ourHistograms.get(name);
+    if (histogram == null) {
+      final Histogram newHistogram = new Histogram(name);
+      histogram = ourHistograms.putIfAbsent(name, newHistogram);
+      if (histogram == null) {
+        histogram = newHistogram;
+      }
+    }
+    return histogram;
+  }
+
+  /**
+   * @return the counters, sorted by name.
+   */
+  @NotNull
+  public static List<Counter> getCounters() {
+    final List<Counter> counters = new ArrayList<Counter>(ourCounters.values());
+    Collections.sort(counters, new Comparator<Counter>() {
+      @Override
+      public int compare(Counter c1, Counter c2) {
+        return c1.getName().compareTo(c2.getName());
+      }
+    });
+    return counters;
+  }
+
+  /**
+   * @return the histograms, sorted by name.
+   */
+  @NotNull
+  public static List<Histogram> getHistograms() {
+    final List<Histogram> histograms = new ArrayList<Histogram>(ourHistograms.values());
+    Collections.sort(histograms, new Comparator<Histogram>() {
+      @Override
+      public int compare(Histogram h1, Histogram h2) {
+        return h1.getName().compareTo(h2.getName());
+      }
+    });
+    return histograms;
+  }
+
+  /**
+   * Clears all the numbers collected so far.
+   */
+  public static void reset() {
+    for (Counter counter : ourCounters.values()) {
+      counter.reset();
+    }
+    for (Histogram histogram : ourHistograms.values()) {
+      histogram.reset();
+    }
+    ourCollectingSince = System.currentTimeMillis();
+  }
+
+  /**
+   * @return a plain text table of the histograms and counters, for people to read.
+   */
+  @NotNull
+  public static String buildReport() {
+    final StringBuilder sb = new StringBuilder(2048);
+    sb.append("Collecting since ").append(HaxeDebugTimeLog.formatTime(ourCollectingSince));
+    sb.append(ourEnabled ? "" : " (collection is off)").append("\n\n");
+    sb.append(String.format("%-32s %9s %10s %10s %10s %10s %10s\n", "latency (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+    for (Histogram histogram : getHistograms()) {
+      final long count = histogram.getCount();
+      sb.append(String.format("%-32s %9d %10.2f %10.2f %10.2f %10.2f %10.2f\n", histogram.getName(), count,
+                              count == 0 ? 0.0 : toMillis(histogram.getTotalNanos() / count),
+                              toMillis(histogram.getPercentileNanos(0.5)), toMillis(histogram.getPercentileNanos(0.9)),
+                              toMillis(histogram.getPercentileNanos(0.99)), toMillis(histogram.getMaxNanos())));
+    }
+    sb.append('\n');
+    sb.append(String.format("%-32s %9s\n", "counter", "value"));
+    for (Counter counter : getCounters()) {
+      sb.append(String.format("%-32s %9d\n", counter.getName(), counter.get()));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return all the numbers as a JSON object: times are in nanoseconds, and each histogram lists its non-empty
+   * buckets by their upper bound.
+   */
+  @NotNull
+  public static String toJson() {
+    final StringBuilder sb = new StringBuilder(4096);
+    sb.append("{\n");
+    sb.append("  \"collectingSince\": ").append(ourCollectingSince).append(",\n");
+    sb.append("  \"dumpedAt\": ").append(System.currentTimeMillis()).append(",\n");
+    sb.append("  \"enabled\": ").append(ourEnabled).append(",\n");
+    sb.append("  \"counters\": {");
+    String separator = "\n";
+    for (Counter counter : getCounters()) {
+      sb.append(separator).append("    ");
+      appendJsonString(sb, counter.getName());
+      sb.append(": ").append(counter.get());
+      separator = ",\n";
+    }
+    sb.append("\n  },\n");
+    sb.append("  \"histograms\": {");
+    separator = "\n";
+    for (Histogram histogram : getHistograms()) {
+      sb.append(separator).append("    ");
+      appendJsonString(sb, histogram.getName());
+      sb.append(": {\"count\": ").append(histogram.getCount());
+      sb.append(", \"totalNanos\": ").append(histogram.getTotalNanos());
+      sb.append(", \"maxNanos\": ").append(histogram.getMaxNanos());
+      sb.append(", \"buckets\": {");
+      String bucketSeparator = "";
+      for (int i = 0; i < Histogram.BUCKET_COUNT; i++) {
+        final long bucketCount = histogram.getBucketCount(i);
+        if (bucketCount != 0) {
+          sb.append(bucketSeparator).append('"').append(Histogram.getBucketUpperBoundNanos(i)).append("\": ").append(bucketCount);
+          bucketSeparator = ", ";
+        }
+      }
+      sb.append("}}");
+      separator = ",\n";
+    }
+    sb.append("\n  }\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  private static void appendJsonString(@NotNull StringBuilder sb, @NotNull String s) {
+    sb.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      }
+      else if (c < ' ') {
+        sb.append(String.format("\\u%04x", (int)c));
+      }
+      else {
+        sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1000000.0;
+  }
+
+  /**
+   * A named count of events.
+   */
+  public static final class Counter {
+    @NotNull private final String myName;
+    private final AtomicLong myValue = new AtomicLong();
+
+    private Counter(@NotNull String name) {
+      myName = name;
+    }
+
+    @NotNull
+    public String getName() {
+      return myName;
+    }
+
+    public void increment() {
+      if (ourEnabled) {
+        myValue.incrementAndGet();
+      }
+    }
+
+    public void add(long delta) {
+      if (ourEnabled) {
+        myValue.addAndGet(delta);
+      }
+    }
+
+    public long get() {
+      return myValue.get();
+    }
+
+    private void reset() {
+      myValue.set(0);
+    }
+  }
+
+  /**
+   * A named latency distribution.
+   *
+   * Durations are counted in power-of-two buckets: bucket <code>i</code> holds the durations of at most
+   * <code>2^i</code> microseconds (and more than half that), so recording is a few atomic adds and percentiles are
+   * accurate to a factor of two.
+   */
+  public static final class Histogram {
+    /** Returned by {@link #start()} while collection is off. */
+    public static final long NOT_MEASURED = Long.MIN_VALUE;
+
+    static final int BUCKET_COUNT = 40;
+
+    @NotNull private final String myName;
+    private final AtomicLongArray myBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong myCount = new AtomicLong();
+    private final AtomicLong myTotalNanos = new AtomicLong();
+    private final AtomicLong myMaxNanos = new AtomicLong();
+
+    private Histogram(@NotNull String name) {
+      myName = name;
+    }
+
+    @NotNull
+    public String getName() {
+      return myName;
+    }
+
+    /**
+     * @return the start time to pass to {@link #stop}; {@link #NOT_MEASURED} while collection is off.
+     */
+    public long start() {
+      return ourEnabled ? System.nanoTime() : NOT_MEASURED;
+    }
+
+    /**
+     * Records the time elapsed since <code>start</code>, which {@link #start()} returned.
+     */
+    public void stop(long start) {
+      if (start != NOT_MEASURED) {
+        record(System.nanoTime() - start);
+      }
+    }
+
+    public void record(long nanos) {
+      if (!ourEnabled) {
+        return;
+      }
+      if (nanos < 0) {
+        nanos = 0;
+      }
+      myBuckets.incrementAndGet(getBucket(nanos));
+      myCount.incrementAndGet();
+      myTotalNanos.addAndGet(nanos);
+      long max = myMaxNanos.get();
+      while (nanos > max && !myMaxNanos.compareAndSet(max, nanos)) {
+        max = myMaxNanos.get();
+      }
+    }
+
+    public long getCount() {
+      return myCount.get();
+    }
+
+    public long getTotalNanos() {
+      return myTotalNanos.get();
+    }
+
+    public long getMaxNanos() {
+      return myMaxNanos.get();
+    }
+
+    long getBucketCount(int bucket) {
+      return myBuckets.get(bucket);
+    }
+
+    /**
+     * @param fraction between 0 and 1, e.g. 0.9 for the 90th percentile.
+     * @return the upper bound of the bucket the percentile falls into, capped at the largest duration recorded.
+     */
+    public long getPercentileNanos(double fraction) {
+      final long count = myCount.get();
+      if (count == 0) {
+        return 0;
+      }
+      final long rank = Math.max(1, (long)Math.ceil(count * fraction));
+      long seen = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        seen += myBuckets.get(i);
+        if (seen >= rank) {
+          return Math.min(getBucketUpperBoundNanos(i), getMaxNanos());
+        }
+      }
+      return getMaxNanos();
+    }
+
+    static int getBucket(long nanos) {
+      final long micros = nanos / 1000 + (nanos % 1000 == 0 ? 0 : 1);
+      final int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+      return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    static long getBucketUpperBoundNanos(int bucket) {
+      return (1L << bucket) * 1000;
+    }
+
+    private void reset() {
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        myBuckets.set(i, 0);
+      }
+      myCount.set(0);
+      myTotalNanos.set(0);
+      myMaxNanos.set(0);
+    }
+  }
+}
@@ -130,8 +130,7 @@ public class HaxeResolveUtil {
   @NotNull
   @NonNls
   public static String getPackageName(@Nullable final PsiFile file) {
-    final HaxePackageStatement packageStatement = PsiTreeUtil.getChildOfType(file, HaxePackageStatement.class);
-    return getPackageName(packageStatement);
+    return file == null ? "" : HaxeQualifiedNameCache.getInstance(file).getPackageName();
   }
 
   @NotNull
@@ -251,11 +250,19 @@ public class HaxeResolveUtil {
 
   @NotNull
   public static List<HaxeNamedComponent> findNamedSubComponents(boolean unique, @NotNull HaxeClass... rootHaxeClasses) {
+    if (rootHaxeClasses.length == 1) {
+      final HaxeClassMemberTable memberTable = HaxeClassMemberTable.getInstance(rootHaxeClasses[0]);
+      return new ArrayList<HaxeNamedComponent>(unique ? memberTable.getMembers() : memberTable.getAllMembers());
+    }
     final List<HaxeNamedComponent> unfilteredResult = new ArrayList<HaxeNamedComponent>();
+    final Set<HaxeClass> visited = new THashSet<HaxeClass>();
     final LinkedList<HaxeClass> classes = new LinkedList<HaxeClass>();
     classes.addAll(Arrays.asList(rootHaxeClasses));
     while (!classes.isEmpty()) {
       final HaxeClass haxeClass = classes.pollFirst();
+      if (!visited.add(haxeClass)) {
+        continue;
+      }
       for (HaxeNamedComponent namedComponent : getNamedSubComponents(haxeClass)) {
         if (namedComponent.getName() != null) {
           unfilteredResult.add(namedComponent);
@@ -272,7 +279,7 @@ public class HaxeResolveUtil {
   }
 
   public static Map<String, HaxeNamedComponent> namedComponentToMap(List<HaxeNamedComponent> unfilteredResult) {
-    final Map<String, HaxeNamedComponent> result = new HashMap<String, HaxeNamedComponent>();
+    final Map<String, HaxeNamedComponent> result = new LinkedHashMap<String, HaxeNamedComponent>();
     for (HaxeNamedComponent haxeNamedComponent : unfilteredResult) {
       // need order
       if (result.containsKey(haxeNamedComponent.getName())) continue;
@@ -606,9 +613,7 @@ public class HaxeResolveUtil {
     //1. try searchInSamePackage, ex if type is Bar, be referenced in foo.Foo then we will find class foo.Bar
     //note if there are 2 class: Bar & foo.Bar then we need resolve foo.Bar instead of Bar.
     if (name != null && name.indexOf('.') == -1) {
-      final PsiFile psiFile = type.getContainingFile();
-      final PsiElement[] fileChildren = psiFile.getChildren();
-      String nameWithPackage = getQName(fileChildren, name, true);
+      String nameWithPackage = getQName(type.getContainingFile(), name, true);
       result = findClassByQName(nameWithPackage, type.getContext());
     }
     else {
@@ -624,118 +629,12 @@ public class HaxeResolveUtil {
     return result;
   }
 
-  public static String getQName(PsiElement[] fileChildren, final String result, boolean searchInSamePackage) {
-    final HaxeImportStatementRegular importStatement = (HaxeImportStatementRegular)ContainerUtil.find(fileChildren, new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxeImportStatementRegular &&
-               UsefulPsiTreeUtil.importStatementForClassName((HaxeImportStatementRegular)element, result);
-      }
-    });
-
-    final HaxeImportStatementWithInSupport importStatementWithInSupport = (HaxeImportStatementWithInSupport)ContainerUtil.find(fileChildren, new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxeImportStatementWithInSupport &&
-               UsefulPsiTreeUtil.importInStatementForClassName(((HaxeImportStatementWithInSupport)element), result);
-      }
-    });
-
-    final List<PsiElement> importStatementWithWildcardList = ContainerUtil.findAll(fileChildren, new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxeImportStatementWithWildcard;
-      }
-    });
-
-    final HaxeImportStatementWithWildcard importStatementWithWildcard = (HaxeImportStatementWithWildcard)ContainerUtil.find(importStatementWithWildcardList, new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxeImportStatementWithWildcard &&
-               (UsefulPsiTreeUtil.importStatementWithWildcardForClassName((HaxeImportStatementWithWildcard)element, result) ||
-                UsefulPsiTreeUtil.importStatementWithWildcardTypeForClassName(
-                  (HaxeImportStatementWithWildcard)element, result));
-      }
-    });
-
-    /*String qName = null;
-
-    for (PsiElement element : importStatementWithWildcardList) {
-      HaxeImportStatementWithWildcard importStatementWithWildcard1 = (HaxeImportStatementWithWildcard)element;
-      List<HaxeNamedComponent> namedSubComponents = UsefulPsiTreeUtil
-        .getImportStatementWithWildcardTypeNamedSubComponents(importStatementWithWildcard1, element.getContainingFile());
-
-      for (HaxeNamedComponent namedComponent : namedSubComponents) {
-        if (namedComponent.getName().equals(result)) {
-          //namedComponent.getComponentName()
-          //namedComponent.getText()
-          qName = UsefulPsiTreeUtil.getQNameForImportStatementWithWildcardType(importStatementWithWildcard1) + "." + result;
-          break;
-        }
-      }
-    }*/
-
-    /*
-    final HaxeImportStatementWithWildcard importStatementWithWildcardType = (HaxeImportStatementWithWildcard)ContainerUtil.find(importStatementWithWildcardList, new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        if (element instanceof HaxeImportStatementWithWildcard) {
-          HaxeImportStatementWithWildcard importStatementWithWildcard1 = (HaxeImportStatementWithWildcard)element;
-          List<HaxeNamedComponent> namedSubComponents = UsefulPsiTreeUtil
-            .getImportStatementWithWildcardTypeNamedSubComponents(importStatementWithWildcard1, element.getContainingFile());
-
-          for (HaxeNamedComponent namedComponent : namedSubComponents) {
-            if (namedComponent.getName().equals(result)) {
-              qName = UsefulPsiTreeUtil.getQNameForImportStatementWithWildcardType(importStatementWithWildcard1) + "." + result;
-              return true;
-            }
-          }
-        }
-
-        return false;
-      }
-    });
-    */
-
-    final HaxeExpression importStatementExpression = importStatement == null ? null : importStatement.getReferenceExpression();
-    final HaxeExpression importStatementWithInExpression = importStatementWithInSupport == null ? null : importStatementWithInSupport.getReferenceExpression();
-    final String packageName = getPackageName((HaxePackageStatement)ContainerUtil.find(fileChildren, new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxePackageStatement;
-      }
-    }));
-
-    final HaxeClass classForType = (HaxeClass)ContainerUtil.find(fileChildren, new Condition<PsiElement>() {
-      @Override
-      public boolean value(PsiElement element) {
-        return element instanceof HaxeClass && result.equals(((HaxeClass)element).getName());
-      }
-    });
-
-    if (classForType != null) {
-      return classForType.getQualifiedName();
-    }
-    else if (importStatement != null && importStatementExpression != null) {
-      return importStatementExpression.getText();
-    }
-    else if (importStatementWithInSupport != null && importStatementWithInExpression != null) {
-      return importStatementWithInExpression.getText();
-    }
-    else if (importStatementWithWildcard != null) {
-      String text = importStatementWithWildcard.getReferenceExpression().getText();
-
-      if (text.endsWith("." + result + ".*")) {
-        return text.substring(0, text.length() - 2);
-      }
-      else {
-        return UsefulPsiTreeUtil.getPackageStatementForImportStatementWithWildcard(importStatementWithWildcard) + "." + result;
-      }
-    }
-    else if (searchInSamePackage && !packageName.isEmpty()) {
-      return packageName + "." + result;
-    }
-    return result;
+  /**
+   * @return the qualified name the type name <code>result</code> stands for in <code>file</code>; see {@link HaxeImportTable}.
+   */
+  @NotNull
+  public static String getQName(@NotNull PsiFile file, @NotNull String result, boolean searchInSamePackage) {
+    return HaxeImportTable.getInstance(file).getQualifiedName(result, searchInSamePackage);
   }
 
   @Nullable
@@ -23,8 +23,10 @@ import com.intellij.openapi.roots.PackageIndex;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.ide.index.HaxePackageIndex;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtil;
@@ -170,10 +172,19 @@ public class UsefulPsiTreeUtil {
     List<HaxeClass> classList = new ArrayList<HaxeClass>();
 
     String packageStatement = getPackageStatementForImportStatementWithWildcard(importStatementWithWildcard);
-    Project project = importStatementWithWildcard.getProject();
-    VirtualFile[] virtualDirectoriesForPackage = getVirtualDirectoriesForPackage(packageStatement, project);
-    for (VirtualFile file : virtualDirectoriesForPackage) {
-      populateClassesList(classList, project, file);
+    GlobalSearchScope scope = HaxeResolveUtil.getScopeForElement(importStatementWithWildcard);
+    PsiManager psiManager = importStatementWithWildcard.getManager();
+    for (VirtualFile virtualFile : HaxePackageIndex.getClassFiles(packageStatement, scope)) {
+      PsiFile psiFile = psiManager.findFile(virtualFile);
+      if (psiFile == null) {
+        continue;
+      }
+      String nameWithoutExtension = virtualFile.getNameWithoutExtension();
+      for (HaxeClass haxeClass : HaxeResolveUtil.findComponentDeclarations(psiFile)) {
+        if (nameWithoutExtension.equals(haxeClass.getName())) {
+          classList.add(haxeClass);
+        }
+      }
     }
     return classList;
   }
@@ -209,31 +220,7 @@ public class UsefulPsiTreeUtil {
     }
 
     String packageStatement = getPackageStatementForImportStatementWithWildcard(importStatementWithWildcard);
-    Project project = importStatementWithWildcard.getProject();
-    VirtualFile[] virtualDirectoriesForPackage = getVirtualDirectoriesForPackage(packageStatement, project);
-    for (VirtualFile file : virtualDirectoriesForPackage) {
-      VirtualFile[] files = file.getChildren();
-      for (VirtualFile virtualFile : files) {
-        if (virtualFile.getFileType().equals(HaxeFileType.HAXE_FILE_TYPE)) {
-          PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
-
-          String nameWithoutExtension = virtualFile.getNameWithoutExtension();
-
-          if (!nameWithoutExtension.equals(classname)) {
-            continue;
-          }
-
-          List<HaxeClass> haxeClassList = HaxeResolveUtil.findComponentDeclarations(psiFile);
-          for (HaxeClass haxeClass : haxeClassList) {
-            if (haxeClass.getName().equals(classname)) {
-              return true;
-            }
-          }
-        }
-      }
-    }
-
-    return false;
+    return HaxePackageIndex.containsClass(packageStatement, classname, HaxeResolveUtil.getScopeForElement(importStatementWithWildcard));
   }
 
   @Nullable
@@ -0,0 +1,5 @@
+#if (flash || js)
+package haxe;
+#end
+
+class Lib {}
@@ -0,0 +1,3 @@
+package not.matching;
+
+class Other {}
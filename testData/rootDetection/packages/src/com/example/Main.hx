@@ -0,0 +1,6 @@
+/*
+ * License header
+ */
+package com.example;
+
+class Main {}
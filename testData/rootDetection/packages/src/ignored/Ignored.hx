@@ -0,0 +1,4 @@
+// Wrong package, but the directory is under src and is not looked at.
+package nowhere;
+
+class Ignored {}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.util.HaxeTestUtils;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class HaxeProjectXmlEvaluatorTest extends TestCase {
+  private static final String DATA_PATH = HaxeTestUtils.BASE_TEST_DATA_PATH + "/haxelib/projectxml";
+
+  private File myRoot;
+  private String myRootPath;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    // A copy, so the tests can change the files.
+    myRoot = FileUtil.createTempDirectory("haxe", "projectxml");
+    FileUtil.copyDir(new File(DATA_PATH), myRoot);
+    myRootPath = FileUtil.toSystemIndependentName(myRoot.getCanonicalPath());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtil.delete(myRoot);
+    super.tearDown();
+  }
+
+  private HaxeProjectXmlEvaluator.Result evaluate(String targetFlag, String flags) {
+    final HaxeProjectXmlEvaluator.Result result = HaxeProjectXmlEvaluator.getInstance().evaluate(
+      new File(myRoot, "project.xml"), HaxeProjectXmlEvaluator.getTargetDefines(targetFlag, flags));
+    assertNotNull(result);
+    return result;
+  }
+
+  private List<String> paths(String... relativePaths) {
+    final String[] paths = new String[relativePaths.length];
+    for (int i = 0; i < relativePaths.length; i++) {
+      paths[i] = myRootPath + "/" + relativePaths[i];
+    }
+    return Arrays.asList(paths);
+  }
+
+  public void testFlashTarget() {
+    final HaxeProjectXmlEvaluator.Result result = evaluate("flash", null);
+    assertEquals(Arrays.asList("openfl", "actuate", "flash-only", "web-lib"), result.getHaxelibs());
+    assertEquals(paths("Source", "shared/src", "web/src"), result.getClasspaths());
+    assertEquals(paths("project.xml", "shared/include.xml", "web/include.xml"), result.getFiles());
+  }
+
+  public void testNativeDebugTarget() {
+    final HaxeProjectXmlEvaluator.Result result = evaluate("windows", "-debug -Dfoo=1");
+    assertEquals(Arrays.asList("openfl", "hxcpp", "hscript", "native-lib"), result.getHaxelibs());
+    assertEquals(paths("Source", "shared/src", "native/src"), result.getClasspaths());
+  }
+
+  public void testIncludedFilesAreTracked() {
+    evaluate("flash", null);
+    final File projectFile = new File(myRoot, "project.xml");
+    assertTrue(HaxeProjectXmlEvaluator.getInstance().isReadFrom(projectFile, myRootPath + "/web/include.xml"));
+    assertFalse(HaxeProjectXmlEvaluator.getInstance().isReadFrom(projectFile, myRootPath + "/native/include.xml"));
+  }
+
+  public void testChangedIncludeIsReadAgain() throws Exception {
+    assertEquals(Arrays.asList("openfl", "actuate", "flash-only", "web-lib"), evaluate("flash", null).getHaxelibs());
+
+    final File include = new File(myRoot, "web/include.xml");
+    FileUtil.writeToFile(include, "<project><haxelib name=\"other-lib\"/></project>");
+    // The content changed, even if the time stamp didn't.
+    include.setLastModified(include.lastModified() + 2000);
+
+    final HaxeProjectXmlEvaluator.Result result = evaluate("flash", null);
+    assertEquals(Arrays.asList("openfl", "actuate", "flash-only", "other-lib"), result.getHaxelibs());
+    assertEquals(paths("Source", "shared/src"), result.getClasspaths());
+  }
+
+  public void testHaxelibIncludeIsRead() throws Exception {
+    final File repositoryRoot = new File(myRoot, "repository");
+    FileUtil.writeToFile(new File(repositoryRoot, "openfl/.current"), "3.0.0");
+    FileUtil.writeToFile(new File(repositoryRoot, "openfl/3,0,0/include.xml"),
+                         "<project><haxelib name=\"lime\"/><source path=\"extra\" if=\"web\"/></project>");
+
+    final HaxeProjectXmlEvaluator.Result result = HaxeProjectXmlEvaluator.getInstance().evaluate(
+      new File(myRoot, "project.xml"), HaxeProjectXmlEvaluator.getTargetDefines("flash", null),
+      new HaxelibRepository(repositoryRoot));
+    assertNotNull(result);
+    assertEquals(Arrays.asList("openfl", "lime", "actuate", "flash-only", "web-lib"), result.getHaxelibs());
+    assertEquals(paths("Source", "repository/openfl/3,0,0/extra", "shared/src", "web/src"), result.getClasspaths());
+    assertTrue(result.getFiles().contains(myRootPath + "/repository/openfl/3,0,0/include.xml"));
+  }
+
+  public void testMalformedProjectFile() throws Exception {
+    final File file = new File(myRoot, "broken.xml");
+    FileUtil.writeToFile(file, "<project><haxelib name=\"a\"></project>");
+    assertNull(HaxeProjectXmlEvaluator.getInstance().evaluate(file, Collections.<String>emptySet()));
+  }
+
+  public void testConditions() {
+    final HashSet<String> defines = new HashSet<String>(Arrays.asList("flash", "web"));
+    assertTrue(HaxeProjectXmlEvaluator.matches("flash", defines));
+    assertTrue(HaxeProjectXmlEvaluator.matches("html5 || flash", defines));
+    assertTrue(HaxeProjectXmlEvaluator.matches("flash web", defines));
+    assertTrue(HaxeProjectXmlEvaluator.matches("flash && !cpp", defines));
+    assertFalse(HaxeProjectXmlEvaluator.matches("flash cpp", defines));
+    assertFalse(HaxeProjectXmlEvaluator.matches("!web", defines));
+    assertFalse(HaxeProjectXmlEvaluator.matches("", defines));
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
+
+public class HaxelibBuildFileWatcherTest extends HaxeCodeInsightFixtureTestCase {
+  private HaxeModuleSettings mySettings;
+  private int myOldBuildConfig;
+  private String myOldHxmlPath;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    mySettings = HaxeModuleSettings.getInstance(myFixture.getModule());
+    myOldBuildConfig = mySettings.getBuildConfig();
+    myOldHxmlPath = mySettings.getHxmlPath();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    mySettings.setBuildConfig(myOldBuildConfig);
+    mySettings.setHxmlPath(myOldHxmlPath);
+    super.tearDown();
+  }
+
+  public void testBuildFileNames() {
+    assertTrue(HaxelibBuildFileWatcher.isBuildFileName("/work/game/project.xml"));
+    assertTrue(HaxelibBuildFileWatcher.isBuildFileName("/work/game/game.nmml"));
+    assertTrue(HaxelibBuildFileWatcher.isBuildFileName("/work/game/build.hxml"));
+    assertFalse(HaxelibBuildFileWatcher.isBuildFileName("/work/game/src/Main.hx"));
+  }
+
+  public void testBuildFileOfHxmlModule() {
+    mySettings.setBuildConfig(HaxeModuleSettings.USE_HXML);
+    mySettings.setHxmlPath("/work/game/build.hxml");
+    assertEquals("/work/game/build.hxml", HaxelibBuildFileWatcher.getBuildFilePath(myFixture.getModule()));
+  }
+
+  public void testNoBuildFileForProperties() {
+    mySettings.setBuildConfig(HaxeModuleSettings.USE_PROPERTIES);
+    mySettings.setHxmlPath("/work/game/build.hxml");
+    assertNull(HaxelibBuildFileWatcher.getBuildFilePath(myFixture.getModule()));
+  }
+
+  public void testNoBuildFileWhenPathIsEmpty() {
+    mySettings.setBuildConfig(HaxeModuleSettings.USE_HXML);
+    mySettings.setHxmlPath("");
+    assertNull(HaxelibBuildFileWatcher.getBuildFilePath(myFixture.getModule()));
+  }
+}
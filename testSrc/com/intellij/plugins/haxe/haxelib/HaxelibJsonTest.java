@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class HaxelibJsonTest extends TestCase {
+  public void testObject() {
+    final Map<String, Object> json = HaxelibJson.parseObject(" {\"name\": \"lime\", \"tags\": [\"a\", \"b\"], \"n\": 1} ");
+    assertNotNull(json);
+    assertEquals("lime", json.get("name"));
+    assertEquals(Arrays.asList("a", "b"), json.get("tags"));
+    assertEquals("1", json.get("n"));
+  }
+
+  public void testTopLevelMustBeObject() {
+    assertNull(HaxelibJson.parseObject("[{\"name\": \"lime\"}]"));
+    assertNull(HaxelibJson.parseObject("\"lime\""));
+    assertNull(HaxelibJson.parseObject("   "));
+  }
+
+  public void testTrailingTextRejected() {
+    assertNull(HaxelibJson.parseObject("{\"name\": \"lime\"} x"));
+    assertNull(HaxelibJson.parseObject("{\"name\": \"lime\""));
+  }
+}
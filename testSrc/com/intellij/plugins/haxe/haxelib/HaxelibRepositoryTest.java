@@ -0,0 +1,136 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.plugins.haxe.util.HaxeTestUtils;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks the repository reader against output recorded from the haxelib command on the same repository
+ * (testData/haxelib/cli, with the repository path replaced by $REPO).
+ */
+public class HaxelibRepositoryTest extends TestCase {
+  private static final String DATA_PATH = HaxeTestUtils.BASE_TEST_DATA_PATH + "/haxelib";
+
+  private File myRoot;
+  private HaxelibRepository myRepository;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    // A copy, so the tests can add .dev files.
+    myRoot = FileUtil.createTempDirectory("haxelib", "repository");
+    FileUtil.copyDir(new File(DATA_PATH, "repository"), myRoot);
+    myRepository = new HaxelibRepository(myRoot);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtil.delete(myRoot);
+    super.tearDown();
+  }
+
+  private List<String> readCliOutput(String name) throws IOException {
+    final String rootPath = FileUtil.toSystemIndependentName(myRoot.getPath());
+    final List<String> lines = new ArrayList<String>();
+    for (String line : FileUtil.loadLines(new File(DATA_PATH + "/cli", name))) {
+      lines.add(line.replace("$REPO", rootPath));
+    }
+    return lines;
+  }
+
+  private List<String> getClasspath(String libraryName) {
+    final List<String> paths = new ArrayList<String>();
+    for (File file : myRepository.getClasspath(libraryName)) {
+      paths.add(FileUtil.toSystemIndependentName(file.getPath()));
+    }
+    return paths;
+  }
+
+  private static List<String> normalize(List<String> paths) {
+    final List<String> result = new ArrayList<String>();
+    for (String path : paths) {
+      result.add(StringUtil.trimEnd(path, "/"));
+    }
+    return result;
+  }
+
+  public void testInstalledLibrariesMatchList() throws IOException {
+    assertEquals(HaxelibClasspathUtils.parseHaxelibListOutput(readCliOutput("list.txt")), myRepository.getInstalledLibraries());
+  }
+
+  public void testClasspathMatchesPath() throws IOException {
+    assertEquals(normalize(HaxelibClasspathUtils.parseHaxelibPathOutput(readCliOutput("path-alpha.txt"))), getClasspath("alpha"));
+    assertEquals(normalize(HaxelibClasspathUtils.parseHaxelibPathOutput(readCliOutput("path-gamma.txt"))), getClasspath("gamma"));
+  }
+
+  public void testCurrentVersions() {
+    assertEquals("1.0.0", myRepository.getCurrentVersion("alpha"));
+    assertEquals("2.1.0", myRepository.getCurrentVersion("beta"));
+    assertEquals("0.1.0", myRepository.getCurrentVersion("my.lib"));
+    assertNull(myRepository.getCurrentVersion("not-a-lib"));
+    assertTrue(getClasspath("unknown").isEmpty());
+  }
+
+  public void testSetIsNoticedWithoutInvalidate() throws IOException {
+    assertEquals("1.0.0", myRepository.getCurrentVersion("alpha"));
+
+    final File current = new File(myRoot, "alpha/.current");
+    FileUtil.writeToFile(current, "0.9.0");
+    // The content changed, even if the time stamp didn't.
+    current.setLastModified(current.lastModified() + 2000);
+
+    assertEquals("0.9.0", myRepository.getCurrentVersion("alpha"));
+  }
+
+  public void testInstallIsNoticedWithoutInvalidate() throws IOException {
+    assertFalse(myRepository.isInstalled("epsilon"));
+
+    FileUtil.writeToFile(new File(myRoot, "epsilon/.current"), "1.0.0");
+    assertTrue(new File(myRoot, "epsilon/1,0,0").mkdirs());
+    myRoot.setLastModified(myRoot.lastModified() + 2000);
+
+    assertTrue(myRepository.isInstalled("epsilon"));
+    assertEquals("1.0.0", myRepository.getCurrentVersion("epsilon"));
+  }
+
+  public void testNamesIgnoreCase() {
+    assertTrue(myRepository.isInstalled("ALPHA"));
+    assertEquals("1.0.0", myRepository.getCurrentVersion("Alpha"));
+    assertFalse(myRepository.isInstalled("not-a-lib"));
+  }
+
+  public void testDevCheckoutWinsAfterInvalidate() throws IOException {
+    assertEquals(Arrays.asList(FileUtil.toSystemIndependentName(new File(myRoot, "delta/1,0,0").getPath())), getClasspath("delta"));
+
+    final File devDir = new File(DATA_PATH, "delta-dev");
+    FileUtil.writeToFile(new File(myRoot, "delta/.dev"), devDir.getAbsolutePath());
+    myRepository.invalidate();
+
+    assertEquals("dev", myRepository.getCurrentVersion("delta"));
+    assertEquals(Arrays.asList(FileUtil.toSystemIndependentName(new File(devDir, "src").getAbsolutePath())), getClasspath("delta"));
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+
+public class HaxeCompilerCompletionCacheTest extends HaxeCodeInsightFixtureTestCase {
+  private HaxeCompilerCompletionCache.DisplayKey createKey(String text, int anchorOffset, int caretOffset) {
+    final Module module = myFixture.getModule();
+    return new HaxeCompilerCompletionCache.DisplayKey(module, "hxml", "/work/Main.hx", text, anchorOffset, caretOffset);
+  }
+
+  public void testTypedIdentifierIsIgnored() {
+    final String before = "class Main { function f() { foo.";
+    final String after = " } }";
+    assertEquals(createKey(before + after, before.length(), before.length()),
+                 createKey(before + "ba" + after, before.length(), before.length() + 2));
+  }
+
+  public void testDifferentTextWithSameHash() {
+    // "Aa" and "BB" have the same String.hashCode().
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+    final String prefix = "class Main { var ";
+    final String suffix = " = 1; function f() { this. } }";
+    final int anchor = (prefix + "Aa" + suffix).indexOf("this.") + 5;
+    assertFalse(createKey(prefix + "Aa" + suffix, anchor, anchor).equals(createKey(prefix + "BB" + suffix, anchor, anchor)));
+  }
+}
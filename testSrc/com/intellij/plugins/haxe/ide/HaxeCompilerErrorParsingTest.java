@@ -19,7 +19,12 @@ package com.intellij.plugins.haxe.ide;
 
 import com.intellij.openapi.compiler.CompilerMessageCategory;
 import com.intellij.plugins.haxe.compilation.HaxeCompilerError;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerOutputParser;
 import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author: Fedor.Korotkov
@@ -104,4 +109,50 @@ public class HaxeCompilerErrorParsingTest extends TestCase {
     assertEquals(18, compilerError.getLine());
     assertEquals(-1, compilerError.getColumn());
   }
+
+  public void testBareError() {
+    final String error = "Type Error: Unknown identifier";
+    final HaxeCompilerError compilerError = HaxeCompilerError.create("/trees/test", error, false);
+
+    assertNotNull(compilerError);
+    assertEquals(CompilerMessageCategory.ERROR, compilerError.getCategory());
+    assertEquals("", compilerError.getPath());
+    assertEquals(" (Type) Unknown identifier", compilerError.getErrorMessage());
+  }
+
+  public void testInformation() {
+    final HaxeCompilerError compilerError = HaxeCompilerError.create("/trees/test", "  Running build  ", false);
+
+    assertNotNull(compilerError);
+    assertEquals(CompilerMessageCategory.INFORMATION, compilerError.getCategory());
+    assertEquals("Running build", compilerError.getErrorMessage());
+  }
+
+  public void testOutputSplitAcrossChunks() {
+    final List<HaxeCompilerError> errors = new ArrayList<HaxeCompilerError>();
+    final HaxeCompilerOutputParser parser = new HaxeCompilerOutputParser("/trees/test", false, new HaxeCompilerOutputParser.Consumer() {
+      @Override
+      public void consume(@NotNull String line, @NotNull HaxeCompilerError error) {
+        errors.add(error);
+      }
+    });
+    parser.append("hello/HelloWorld.hx:18: lines 18-24 : Warn");
+    parser.append("ing : Danger, Will Robinson!\r\nsrc/Main.hx:5: char");
+    parser.append("acters 0-21 : Class not found : StringTools212\n\nDone");
+    assertEquals(2, errors.size());
+    parser.flush();
+    assertEquals(3, errors.size());
+
+    assertEquals(CompilerMessageCategory.WARNING, errors.get(0).getCategory());
+    assertEquals("/trees/test/hello/HelloWorld.hx", errors.get(0).getPath());
+    assertEquals("Danger, Will Robinson!", errors.get(0).getErrorMessage());
+
+    assertEquals(CompilerMessageCategory.ERROR, errors.get(1).getCategory());
+    assertEquals("/trees/test/src/Main.hx", errors.get(1).getPath());
+    assertEquals(5, errors.get(1).getLine());
+    assertEquals(0, errors.get(1).getColumn());
+
+    assertEquals(CompilerMessageCategory.INFORMATION, errors.get(2).getCategory());
+    assertEquals("Done", errors.get(2).getErrorMessage());
+  }
 }
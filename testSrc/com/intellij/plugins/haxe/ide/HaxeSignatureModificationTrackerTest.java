@@ -0,0 +1,58 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeSignatureModificationTracker;
+import com.intellij.psi.PsiDocumentManager;
+
+public class HaxeSignatureModificationTrackerTest extends HaxeCodeInsightFixtureTestCase {
+  private static final String TEXT = "class Foo {\n  public function bar(a:Int):Int {\n    return a;\n  }\n}\n";
+
+  private long modify(final String before, final String after) {
+    final HaxeSignatureModificationTracker tracker = HaxeSignatureModificationTracker.getInstance(getProject());
+    final long count = tracker.getModificationCount();
+    final Document document = myFixture.getEditor().getDocument();
+    new WriteCommandAction.Simple(getProject()) {
+      @Override
+      protected void run() throws Throwable {
+        final int offset = document.getText().indexOf(before);
+        document.replaceString(offset, offset + before.length(), after);
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+      }
+    }.execute();
+    return tracker.getModificationCount() - count;
+  }
+
+  public void testBodyEditKeepsSignatures() {
+    myFixture.configureByText("Foo.hx", TEXT);
+    assertEquals(0, modify("return a;", "return a + 1;"));
+  }
+
+  public void testBodyEditWithoutReturnTypeChangesSignatures() {
+    myFixture.configureByText("Foo.hx", "class Foo {\n  public function bar(a:Int) {\n    return a;\n  }\n}\n");
+    assertTrue(modify("return a;", "return a + 0.5;") > 0);
+  }
+
+  public void testParameterEditChangesSignatures() {
+    myFixture.configureByText("Foo.hx", TEXT);
+    assertTrue(modify("a:Int", "a:Float") > 0);
+  }
+}
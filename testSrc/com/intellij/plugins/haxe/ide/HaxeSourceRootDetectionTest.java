@@ -65,4 +65,8 @@ public class HaxeSourceRootDetectionTest extends PlatformTestCase {
   public void testModules() throws Throwable {
     doTest("src", "module1/src", "module2/src");
   }
+
+  public void testPackages() throws Throwable {
+    doTest("src", "lib");
+  }
 }
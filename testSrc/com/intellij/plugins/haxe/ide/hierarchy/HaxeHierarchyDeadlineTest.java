@@ -0,0 +1,78 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.hierarchy;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.config.HaxeProjectSettings;
+import com.intellij.plugins.haxe.ide.index.HaxeInheritanceDefinitionsSearchExecutor;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.PsiFile;
+import org.jdom.Element;
+
+public class HaxeHierarchyDeadlineTest extends HaxeCodeInsightFixtureTestCase {
+  private static final String KIND = HaxeHierarchyDeadline.SearchKind.SUBTYPES.name();
+
+  @Override
+  protected void tearDown() throws Exception {
+    HaxeProjectSettings.getInstance(getProject()).setHierarchySearchBudget(KIND, 0);
+    super.tearDown();
+  }
+
+  public void testBudgetIsPersisted() {
+    final HaxeProjectSettings settings = HaxeProjectSettings.getInstance(getProject());
+    assertEquals(20, settings.getHierarchySearchBudget(KIND, 20));
+
+    settings.setHierarchySearchBudget(KIND, 45);
+    final Element state = settings.getState();
+    settings.setHierarchySearchBudget(KIND, 0);
+    assertEquals(20, settings.getHierarchySearchBudget(KIND, 20));
+
+    settings.loadState(state);
+    assertEquals(45, settings.getHierarchySearchBudget(KIND, 20));
+  }
+
+  public void testExpiresAfterBudget() throws Exception {
+    HaxeProjectSettings.getInstance(getProject()).setHierarchySearchBudget(KIND, 1);
+    final HaxeHierarchyDeadline deadline = HaxeHierarchyDeadline.start(getProject(), HaxeHierarchyDeadline.SearchKind.SUBTYPES);
+    try {
+      assertFalse(deadline.isExpired());
+      final long giveUp = System.currentTimeMillis() + 10000;
+      while (!deadline.isExpired() && System.currentTimeMillis() < giveUp) {
+        Thread.sleep(50);
+      }
+      assertTrue(deadline.isExpired());
+    }
+    finally {
+      deadline.stop();
+    }
+  }
+
+  public void testSearchKeepsResultsFoundBeforeExpiry() {
+    final PsiFile file = myFixture.configureByText("Base.hx", "class Base {}\nclass A extends Base {}\nclass B extends Base {}\n");
+    final HaxeClass base = HaxeResolveUtil.findComponentDeclaration(file, "Base");
+
+    final HaxeHierarchyDeadline deadline = HaxeHierarchyDeadline.start(getProject(), HaxeHierarchyDeadline.SearchKind.SUBTYPES);
+    try {
+      assertEquals(2, HaxeInheritanceDefinitionsSearchExecutor.getItemsByQName(base, deadline).size());
+    }
+    finally {
+      deadline.stop();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class HaxeFileDeclarationScannerTest extends TestCase {
+  public void testDeclarationsAndSuperTypes() {
+    final HaxeFileDeclarations declarations = HaxeFileDeclarationScanner.scan(
+      "package foo.bar;\n" +
+      "import haxe.ds.StringMap;\n" +
+      "class Main<T:{x:Int}> extends StringMap<Array<T>> implements IFoo {\n" +
+      "  function test() { var c = { a: 1 }; }\n" +
+      "}\n" +
+      "interface IFoo {}\n" +
+      "typedef Point = { > Base, y:Int }\n" +
+      "typedef Callback = Int -> Void;\n", "Main");
+
+    assertEquals("foo.bar", declarations.getPackageName());
+    final List<HaxeFileDeclarations.Declaration> list = declarations.getDeclarations();
+    assertEquals(4, list.size());
+
+    final HaxeFileDeclarations.Declaration main = list.get(0);
+    assertEquals("Main", main.getName());
+    assertEquals(HaxeComponentType.CLASS, main.getType());
+    assertEquals(Arrays.asList("StringMap", "IFoo"), main.getSuperTypes());
+    assertEquals("foo.bar.Main", declarations.getQualifiedName(main));
+
+    final HaxeFileDeclarations.Declaration iFoo = list.get(1);
+    assertEquals(HaxeComponentType.INTERFACE, iFoo.getType());
+    assertEquals("foo.bar.Main.IFoo", declarations.getQualifiedName(iFoo));
+
+    assertEquals(Collections.singletonList("Base"), list.get(2).getSuperTypes());
+    assertTrue(list.get(3).getSuperTypes().isEmpty());
+
+    assertEquals(Collections.singletonList("haxe.ds.StringMap"), declarations.resolveTypeCandidates("StringMap"));
+    assertEquals(Collections.singletonList("foo.bar.Main.IFoo"), declarations.resolveTypeCandidates("IFoo"));
+    assertEquals(Collections.singletonList("foo.bar.Base"), declarations.resolveTypeCandidates("Base"));
+  }
+
+  public void testImports() {
+    final HaxeFileDeclarations declarations = HaxeFileDeclarationScanner.scan(
+      "import a.b.*;\n" +
+      "import c.D in E;\n" +
+      "using f.G;\n" +
+      "class Test extends E {}\n", "Test");
+
+    assertEquals("", declarations.getPackageName());
+    assertEquals(Collections.singletonList("f.G"), declarations.getUsings());
+    assertEquals(Collections.singletonList("c.D"), declarations.resolveTypeCandidates("E"));
+    assertEquals(Arrays.asList("a.b.Base", "Base"), declarations.resolveTypeCandidates("Base"));
+  }
+
+  public void testTypeStaticsImport() {
+    final HaxeFileDeclarations declarations = HaxeFileDeclarationScanner.scan(
+      "package p;\n" +
+      "import pack.MyFoo.*;\n" +
+      "class Test extends Foo implements MyFoo {}\n", "Test");
+
+    // MyFoo ends with "Foo", but that doesn't make it an import of Foo.
+    assertEquals(Arrays.asList("pack.MyFoo.Foo", "p.Foo"), declarations.resolveTypeCandidates("Foo"));
+    assertEquals(Collections.singletonList("pack.MyFoo"), declarations.resolveTypeCandidates("MyFoo"));
+  }
+
+  public void testStaticFunctions() {
+    final HaxeFileDeclarations declarations = HaxeFileDeclarationScanner.scan(
+      "class Tools<T> {\n" +
+      "  public static function length(s:String):Int { return s.length; }\n" +
+      "  static public inline function first<E>(a:Array<E>):E { return a[0]; }\n" +
+      "  public static function any(e:E, ?x:T):Void {}\n" +
+      "  public static function pick<E:{x:Int, y:Int}>(e:E):Void {}\n" +
+      "  public static function apply(f:Int->Void):Void {}\n" +
+      "  public static function none():Void {}\n" +
+      "  static function hidden(s:String):Void {}\n" +
+      "  public function member(s:String):Void {}\n" +
+      "}\n", "Tools");
+
+    final List<HaxeFileDeclarations.StaticFunction> functions = declarations.getDeclarations().get(0).getStaticFunctions();
+    assertEquals(5, functions.size());
+    assertEquals("length", functions.get(0).getName());
+    assertEquals("String", functions.get(0).getFirstParameterType());
+    assertEquals("first", functions.get(1).getName());
+    assertEquals("Array", functions.get(1).getFirstParameterType());
+    assertEquals("any", functions.get(2).getName());
+    assertEquals("E", functions.get(2).getFirstParameterType());
+    assertEquals("pick", functions.get(3).getName());
+    assertNull(functions.get(3).getFirstParameterType());
+    assertEquals("apply", functions.get(4).getName());
+    assertNull(functions.get(4).getFirstParameterType());
+  }
+}
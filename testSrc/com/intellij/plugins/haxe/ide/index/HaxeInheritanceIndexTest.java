@@ -0,0 +1,59 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class HaxeInheritanceIndexTest extends HaxeCodeInsightFixtureTestCase {
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    myFixture.addFileToProject("a/Base.hx", "package a;\nclass Base {}\n");
+    myFixture.addFileToProject("b/Api.hx", "package b;\ninterface Api {}\n");
+    myFixture.addFileToProject("a/Child.hx", "package a;\nimport b.Api;\nclass Child extends Base implements Api {}\n");
+    myFixture.addFileToProject("a/Alias.hx", "package a;\ntypedef Alias = Base;\n");
+  }
+
+  private List<String> getSubtypes(ID<String, List<HaxeClassInfo>> index, String superType) {
+    final List<String> result = new ArrayList<String>();
+    for (List<HaxeClassInfo> infos : FileBasedIndex.getInstance().getValues(index, superType, GlobalSearchScope.allScope(getProject()))) {
+      for (HaxeClassInfo info : infos) {
+        result.add(info.getValue());
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  public void testClassesGoToInheritanceIndex() {
+    assertOrderedEquals(getSubtypes(HaxeInheritanceIndex.HAXE_INHERITANCE_INDEX, "a.Base"), "a.Child");
+    assertOrderedEquals(getSubtypes(HaxeInheritanceIndex.HAXE_INHERITANCE_INDEX, "b.Api"), "a.Child");
+  }
+
+  public void testTypedefsGoToTypeDefIndex() {
+    assertOrderedEquals(getSubtypes(HaxeTypeDefInheritanceIndex.HAXE_TYPEDEF_INHERITANCE_INDEX, "a.Base"), "a.Alias");
+    assertEmpty(getSubtypes(HaxeTypeDefInheritanceIndex.HAXE_TYPEDEF_INHERITANCE_INDEX, "b.Api"));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.psi.search.GlobalSearchScope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HaxePackageIndexTest extends HaxeCodeInsightFixtureTestCase {
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    myFixture.addFileToProject("a/b/c/Foo.hx", "package a.b.c;\nclass Foo {}\nclass FooHelper {}\n");
+    myFixture.addFileToProject("a/b/Bar.hx", "package a.b;\ninterface Bar {}\n");
+    myFixture.addFileToProject("a/d/Baz.hx", "package a.d;\nenum Baz {}\n");
+  }
+
+  private GlobalSearchScope getScope() {
+    return GlobalSearchScope.allScope(getProject());
+  }
+
+  public void testSubPackages() {
+    assertEquals(Arrays.asList("a"), new ArrayList<String>(HaxePackageIndex.getSubPackages("", getScope())));
+    assertEquals(Arrays.asList("b", "d"), new ArrayList<String>(HaxePackageIndex.getSubPackages("a", getScope())));
+    assertEquals(Arrays.asList("c"), new ArrayList<String>(HaxePackageIndex.getSubPackages("a.b", getScope())));
+    assertTrue(HaxePackageIndex.getSubPackages("a.b.c", getScope()).isEmpty());
+    assertTrue(HaxePackageIndex.packageExists("a.d", getScope()));
+    assertFalse(HaxePackageIndex.packageExists("a.e", getScope()));
+  }
+
+  public void testPackagesIgnoreCase() {
+    assertEquals(Arrays.asList("a.b.c"), HaxePackageIndex.findPackagesIgnoreCase("A.B.c", getScope()));
+    assertEquals(Arrays.asList("a.d"), HaxePackageIndex.findPackagesIgnoreCase("a.D", getScope()));
+    assertEquals(Arrays.asList(""), HaxePackageIndex.findPackagesIgnoreCase("", getScope()));
+    assertTrue(HaxePackageIndex.findPackagesIgnoreCase("A.e", getScope()).isEmpty());
+  }
+
+  public void testClassesInPackage() {
+    final List<HaxeClassInfo> classes = HaxePackageIndex.getClasses("a.b.c", getScope());
+    assertEquals(1, classes.size());
+    assertEquals("Foo", classes.get(0).getValue());
+
+    assertTrue(HaxePackageIndex.containsClass("a.b", "Bar", getScope()));
+    assertFalse(HaxePackageIndex.containsClass("a.b", "Foo", getScope()));
+    assertTrue(HaxePackageIndex.getClasses("a", getScope()).isEmpty());
+    assertEquals(1, HaxePackageIndex.getClassFiles("a.d", getScope()).size());
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.library;
+
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.util.HaxeTestUtils;
+import com.intellij.testFramework.PlatformTestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeLibRootDetectorTest extends PlatformTestCase {
+  private File myRoot;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myRoot = createTempDirectory();
+    FileUtil.copyDir(new File(HaxeTestUtils.BASE_TEST_DATA_PATH + "/haxelib", "repository"), new File(myRoot, "lib"));
+  }
+
+  private List<String> detect(File dir) {
+    final VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(dir);
+    assertNotNull(virtualFile);
+    final List<VirtualFile> roots = new ArrayList<VirtualFile>();
+    HaxeLibRootDetector.collectRoots(virtualFile, roots, new EmptyProgressIndicator());
+    final List<String> result = new ArrayList<String>();
+    for (VirtualFile root : roots) {
+      final String relativePath = FileUtil.getRelativePath(myRoot, VfsUtilCore.virtualToIoFile(root));
+      assertNotNull(relativePath);
+      result.add(FileUtil.toSystemIndependentName(relativePath));
+    }
+    return result;
+  }
+
+  public void testOnlyActiveVersionsWithHaxeFiles() throws Exception {
+    assertOrderedEquals(detect(myRoot), "lib/alpha/1,0,0", "lib/beta/2,1,0", "lib/gamma/2,0,0");
+  }
+
+  public void testLibraryDirectory() throws Exception {
+    assertOrderedEquals(detect(new File(myRoot, "lib/gamma")), "lib/gamma/2,0,0");
+  }
+
+  public void testDevelopmentCheckout() throws Exception {
+    final File checkout = new File(myRoot, "checkout/delta");
+    FileUtil.writeToFile(new File(checkout, "src/Delta.hx"), "class Delta {}");
+    FileUtil.writeToFile(new File(myRoot, "lib/delta/.dev"), checkout.getPath());
+    assertOrderedEquals(detect(new File(myRoot, "lib")), "lib/alpha/1,0,0", "lib/beta/2,1,0", "checkout/delta", "lib/gamma/2,0,0");
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.ide.projectStructure.detection;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.io.File;
+
+public class HaxePackageStatementScannerTest extends TestCase {
+  private static void doTest(String text, String expected) {
+    assertEquals(expected, HaxePackageStatementScanner.getInstance().readPackageName(text));
+  }
+
+  public void testPackage() {
+    doTest("package foo.bar;\nclass Foo {}", "foo.bar");
+  }
+
+  public void testCommentsAndWhiteSpace() {
+    doTest("/**\n * doc\n */\n// line\n  package /* here */ foo ;", "foo");
+  }
+
+  public void testNoPackage() {
+    doTest("class Foo {}", "");
+    doTest("packages.Foo;", "");
+    doTest("/* unterminated", "");
+  }
+
+  public void testEmptyPackage() {
+    doTest("package;", "");
+  }
+
+  public void testMalformedPackage() {
+    doTest("package foo.;", null);
+  }
+
+  public void testConditionalCompilation() {
+    doTest("#if flash\npackage a.b;\n#end", "a.b");
+    doTest("#if (js && !(flash || cpp)) package c.d; #else package e.f; #end", "c.d");
+  }
+
+  public void testByteOrderMark() {
+    doTest("\uFEFFpackage foo;", "foo");
+  }
+
+  public void testLoadPrefixStopsAfterPackageStatement() throws Exception {
+    final StringBuilder text = new StringBuilder("package big.file;\n");
+    for (int i = 0; i < 10000; i++) {
+      text.append("// filler\n");
+    }
+    final File file = FileUtil.createTempFile("Big", ".hx");
+    try {
+      FileUtil.writeToFile(file, text.toString());
+      final HaxePackageStatementScanner scanner = HaxePackageStatementScanner.getInstance();
+      final CharSequence prefix = scanner.loadPrefix(file);
+      assertTrue(prefix.length() < text.length());
+      assertEquals("big.file", scanner.readPackageName(prefix));
+    }
+    finally {
+      FileUtil.delete(file);
+    }
+  }
+
+  public void testLoadPrefixReadsPastLongHeader() throws Exception {
+    final StringBuilder text = new StringBuilder("/*\n");
+    for (int i = 0; i < 1000; i++) {
+      text.append(" * license text\n");
+    }
+    text.append(" */\npackage after.header;\n");
+    final File file = FileUtil.createTempFile("Header", ".hx");
+    try {
+      FileUtil.writeToFile(file, text.toString());
+      final HaxePackageStatementScanner scanner = HaxePackageStatementScanner.getInstance();
+      assertEquals("after.header", scanner.readPackageName(scanner.loadPrefix(file)));
+    }
+    finally {
+      FileUtil.delete(file);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.model;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+
+public class HaxeClassModelTest extends HaxeCodeInsightFixtureTestCase {
+  private HaxeClass configure() {
+    final PsiFile file = myFixture.configureByText("Foo.hx", "class Foo {\n  var a:Int;\n  function bar() {}\n}\n");
+    return HaxeResolveUtil.findComponentDeclaration(file, "Foo");
+  }
+
+  public void testModelIsReusedUntilModification() {
+    final HaxeClass haxeClass = configure();
+    final HaxeClassModel model = haxeClass.getModel();
+    assertSame(model, haxeClass.getModel());
+    assertSame(model.getMethods(), model.getMethods());
+    assertSame(model.getMethods().get(0), haxeClass.getModel().getMethodSelf("bar"));
+    assertEquals(1, model.getFields().size());
+
+    final Document document = myFixture.getEditor().getDocument();
+    new WriteCommandAction.Simple(getProject()) {
+      @Override
+      protected void run() throws Throwable {
+        document.insertString(document.getTextLength() - 2, "\n  var b:Int;");
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+      }
+    }.execute();
+
+    final HaxeClass updated = HaxeResolveUtil.findComponentDeclaration(myFixture.getFile(), "Foo");
+    final HaxeClassModel updatedModel = updated.getModel();
+    assertNotSame(model, updatedModel);
+    assertEquals(2, updatedModel.getFields().size());
+    assertTrue(updatedModel.hasMethodSelf("bar"));
+  }
+}
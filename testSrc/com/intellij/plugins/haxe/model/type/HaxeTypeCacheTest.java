@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.model.type;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+
+public class HaxeTypeCacheTest extends HaxeCodeInsightFixtureTestCase {
+  private PsiElement configure() {
+    final PsiFile file = myFixture.configureByText("Foo.hx", "class Base {}\nclass A extends Base {}\nclass B extends Base {}\n");
+    return file.getFirstChild();
+  }
+
+  private static SpecificHaxeClassReference type(String name, PsiElement context) {
+    return SpecificTypeReference.primitive(name, context);
+  }
+
+  public void testUnificationIsStableWhenCached() {
+    final PsiElement context = configure();
+    final SpecificTypeReference first = HaxeTypeUnifier.unify(type("A", context), type("B", context));
+    final SpecificTypeReference second = HaxeTypeUnifier.unify(type("A", context), type("B", context));
+    assertEquals("Base", first.toStringWithoutConstant());
+    assertEquals(first.toStringWithoutConstant(), second.toStringWithoutConstant());
+  }
+
+  public void testAssignabilityIsStableWhenCached() {
+    final PsiElement context = configure();
+    assertFalse(type("A", context).canAssign(type("B", context)));
+    assertFalse(type("A", context).canAssign(type("B", context)));
+    assertTrue(type("A", context).canAssign(type("A", context)));
+  }
+
+  public void testTypesWithoutContextAreNotCached() {
+    assertNull(HaxeTypeCache.getInstance(null));
+    assertNull(HaxeTypeCache.TypeKey.create(type("A", null)));
+  }
+}
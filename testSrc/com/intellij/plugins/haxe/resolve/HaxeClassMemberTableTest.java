@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.lang.psi.HaxeClassMemberTable;
+import com.intellij.plugins.haxe.lang.psi.HaxeFile;
+import com.intellij.plugins.haxe.lang.psi.HaxeNamedComponent;
+import com.intellij.psi.util.PsiTreeUtil;
+
+public class HaxeClassMemberTableTest extends HaxeCodeInsightFixtureTestCase {
+  private static final String DIAMOND =
+    "interface Base { function base():Void; }\n" +
+    "interface Left extends Base { function left():Void; }\n" +
+    "interface Right extends Base { function right():Void; }\n" +
+    "class Test implements Left implements Right {\n" +
+    "  var field:Int;\n" +
+    "  public function base():Void {}\n" +
+    "  public function left():Void {}\n" +
+    "  public function right():Void {}\n" +
+    "}\n";
+
+  private HaxeClass findClass(String name) {
+    final HaxeFile file = (HaxeFile)myFixture.configureByText("Test.hx", DIAMOND);
+    for (HaxeClass haxeClass : PsiTreeUtil.findChildrenOfType(file, HaxeClass.class)) {
+      if (name.equals(haxeClass.getName())) {
+        return haxeClass;
+      }
+    }
+    fail("Class " + name + " not found");
+    return null;
+  }
+
+  public void testOwnMembersOverrideInherited() {
+    final HaxeClass testClass = findClass("Test");
+    final HaxeClassMemberTable table = HaxeClassMemberTable.getInstance(testClass);
+
+    final HaxeNamedComponent base = table.findMethod("base");
+    assertNotNull(base);
+    assertEquals(testClass, PsiTreeUtil.getParentOfType(base, HaxeClass.class));
+
+    final HaxeNamedComponent inheritedBase = table.findInheritedMember("base");
+    assertNotNull(inheritedBase);
+    assertEquals("Base", PsiTreeUtil.getParentOfType(inheritedBase, HaxeClass.class).getName());
+
+    assertNotNull(table.findField("field"));
+    assertNull(table.findMethod("field"));
+    assertNull(table.findField("base"));
+    assertEquals(4, table.getMembers().size());
+  }
+
+  public void testDiamondIsExpandedOnce() {
+    final HaxeClassMemberTable table = HaxeClassMemberTable.getInstance(findClass("Test"));
+    int baseCount = 0;
+    for (HaxeNamedComponent component : table.getAllMembers()) {
+      if ("base".equals(component.getName())) {
+        baseCount++;
+      }
+    }
+    // Test.base and Base.base; Base is reachable through both Left and Right.
+    assertEquals(2, baseCount);
+  }
+
+  public void testTableIsCached() {
+    final HaxeClass testClass = findClass("Test");
+    assertSame(HaxeClassMemberTable.getInstance(testClass), HaxeClassMemberTable.getInstance(testClass));
+  }
+
+  public void testAllInheritedMembersWithName() {
+    final HaxeClassMemberTable table = HaxeClassMemberTable.getInstance(findClass("Test"));
+    assertEquals(1, table.findInheritedMembers("left").size());
+    assertEquals(0, table.findInheritedMembers("field").size());
+
+    final HaxeFile file = (HaxeFile)myFixture.configureByText("Impl.hx",
+      "interface Runnable { function run():Void; }\n" +
+      "class Task { public function run():Void {} }\n" +
+      "class Impl extends Task implements Runnable { override public function run():Void {} }\n");
+    HaxeClass impl = null;
+    for (HaxeClass haxeClass : PsiTreeUtil.findChildrenOfType(file, HaxeClass.class)) {
+      if ("Impl".equals(haxeClass.getName())) {
+        impl = haxeClass;
+      }
+    }
+    assertNotNull(impl);
+    // Task.run and Runnable.run: the marker lists both.
+    assertEquals(2, HaxeClassMemberTable.getInstance(impl).findInheritedMembers("run").size());
+  }
+}
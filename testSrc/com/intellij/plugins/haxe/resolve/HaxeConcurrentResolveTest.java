@@ -0,0 +1,130 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeReference;
+import com.intellij.plugins.haxe.lang.psi.HaxeResolver;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Resolves the same references from many threads at once; every thread must see what a single thread sees.
+ */
+public class HaxeConcurrentResolveTest extends HaxeCodeInsightFixtureTestCase {
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 20;
+
+  private List<HaxeReference> configure() {
+    myFixture.addFileToProject("util/StringTools.hx",
+                               "package util;\nclass StringTools {\n  public static function shout(s:String):String { return s; }\n}\n");
+    final StringBuilder text = new StringBuilder("import util.StringTools;\nusing util.StringTools;\nclass Foo {\n");
+    for (int i = 0; i < 50; i++) {
+      text.append("  function f").append(i).append("(p:String) {\n")
+        .append("    var local = p;\n")
+        .append("    local.shout();\n")
+        .append("    StringTools.shout(local);\n")
+        .append("  }\n");
+    }
+    text.append("}\n");
+    final PsiFile file = myFixture.configureByText("Foo.hx", text.toString());
+    return new ArrayList<HaxeReference>(PsiTreeUtil.findChildrenOfType(file, HaxeReference.class));
+  }
+
+  public void testConcurrentResolveMatchesSequential() throws Exception {
+    final List<HaxeReference> references = configure();
+    assertTrue(references.size() > 500);
+
+    final List<Result> expected = resolveAll(references);
+    int resolved = 0;
+    for (Result result : expected) {
+      if (result.target != null) resolved++;
+    }
+    // At least the locals, the parameters and the StringTools qualifiers.
+    assertTrue(resolved >= 150);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final Collection<Callable<List<Result>>> tasks = new ArrayList<Callable<List<Result>>>();
+      for (int i = 0; i < THREADS * ROUNDS; i++) {
+        tasks.add(new Callable<List<Result>>() {
+          @Override
+          public List<Result> call() throws Exception {
+            return ApplicationManager.getApplication().runReadAction(new Computable<List<Result>>() {
+              @Override
+              public List<Result> compute() {
+                return resolveAll(references);
+              }
+            });
+          }
+        });
+      }
+      for (Future<List<Result>> future : executor.invokeAll(tasks)) {
+        assertEquals(expected, future.get(60, TimeUnit.SECONDS));
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<Result> resolveAll(List<HaxeReference> references) {
+    final List<Result> results = new ArrayList<Result>(references.size());
+    for (HaxeReference reference : references) {
+      // Bypass the resolve cache, so the resolver itself runs concurrently.
+      final List<? extends PsiElement> resolved = HaxeResolver.INSTANCE.resolve(reference, true);
+      results.add(new Result(resolved.isEmpty() ? null : resolved.get(0), HaxeResolver.isExtension(resolved)));
+    }
+    return results;
+  }
+
+  private static class Result {
+    final PsiElement target;
+    final boolean isExtension;
+
+    Result(PsiElement target, boolean isExtension) {
+      this.target = target;
+      this.isExtension = isExtension;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Result)) return false;
+      final Result result = (Result)o;
+      return isExtension == result.isExtension && (target == null ? result.target == null : target.equals(result.target));
+    }
+
+    @Override
+    public int hashCode() {
+      return (target == null ? 0 : target.hashCode()) * 2 + (isExtension ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+      return target + (isExtension ? " (extension)" : "");
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.plugins.haxe.lang.psi.HaxeClassResolveResult;
+import com.intellij.plugins.haxe.lang.psi.HaxeGenericSpecialization;
+import junit.framework.TestCase;
+
+public class HaxeGenericSpecializationTest extends TestCase {
+  public void testCloneIsIsolatedFromOriginal() {
+    final HaxeClassResolveResult first = HaxeClassResolveResult.create(null);
+    final HaxeClassResolveResult second = HaxeClassResolveResult.create(null);
+
+    final HaxeGenericSpecialization original = new HaxeGenericSpecialization();
+    original.put(null, "T", first);
+
+    final HaxeGenericSpecialization inner = original.getInnerSpecialization(null);
+    inner.put(null, "T", second);
+    inner.put(null, "U", second);
+
+    assertSame(first, original.get(null, "T"));
+    assertFalse(original.containsKey(null, "U"));
+    assertSame(second, inner.get(null, "T"));
+    assertSame(second, inner.get(null, "U"));
+  }
+
+  public void testOriginalWritesDoNotLeakIntoInner() {
+    final HaxeClassResolveResult first = HaxeClassResolveResult.create(null);
+
+    final HaxeGenericSpecialization original = new HaxeGenericSpecialization();
+    final HaxeGenericSpecialization inner = original.getInnerSpecialization(null);
+    original.put(null, "T", first);
+
+    assertTrue(original.containsKey(null, "T"));
+    assertFalse(inner.containsKey(null, "T"));
+    assertNull(inner.get(null, "T"));
+  }
+}
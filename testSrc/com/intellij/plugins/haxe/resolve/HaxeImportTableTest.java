@@ -0,0 +1,55 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeImportTable;
+import com.intellij.psi.PsiFile;
+
+public class HaxeImportTableTest extends HaxeCodeInsightFixtureTestCase {
+  private HaxeImportTable configure() {
+    myFixture.addFileToProject("lib/Wild.hx", "package lib;\nclass Wild {}\n");
+    myFixture.addFileToProject("util/Tools.hx", "package util;\nclass Tools {\n  public static function helper() {}\n}\n");
+    final PsiFile file = myFixture.configureByText(
+      "Foo.hx",
+      "package foo;\n" +
+      "import a.b.Imported;\n" +
+      "import c.Original in Alias;\n" +
+      "import lib.*;\n" +
+      "import util.Tools.*;\n" +
+      "class Foo {}\n" +
+      "class Local {}\n");
+    return HaxeImportTable.getInstance(file);
+  }
+
+  public void testQualifiedNames() {
+    final HaxeImportTable table = configure();
+    assertEquals("foo.Foo.Local", table.getQualifiedName("Local", true));
+    assertEquals("a.b.Imported", table.getQualifiedName("Imported", true));
+    assertEquals("c.Original", table.getQualifiedName("Alias", true));
+    assertEquals("lib.Wild", table.getQualifiedName("Wild", true));
+    assertEquals("foo.Unknown", table.getQualifiedName("Unknown", true));
+    assertEquals("Unknown", table.getQualifiedName("Unknown", false));
+  }
+
+  public void testWildcardTypeMembers() {
+    final HaxeImportTable table = configure();
+    assertNotNull(table.findWildcardTypeMember("helper"));
+    assertNull(table.findWildcardTypeMember("missing"));
+  }
+}
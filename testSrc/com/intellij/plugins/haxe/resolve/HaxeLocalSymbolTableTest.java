@@ -0,0 +1,95 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.plugins.haxe.lang.psi.HaxeLocalSymbolTable;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+
+public class HaxeLocalSymbolTableTest extends HaxeCodeInsightFixtureTestCase {
+  private static final String TEXT =
+    "class Foo {\n" +
+    "  var x:Int;\n" +
+    "  function bar(x:Int, y:Int) {\n" +
+    "    var a = x;\n" +
+    "    {\n" +
+    "      var b = y;\n" +
+    "      var x = b;\n" +
+    "      trace(x);\n" +
+    "    }\n" +
+    "    for (i in a...y) trace(i);\n" +
+    "    var f = function(a) { return a; };\n" +
+    "  }\n" +
+    "}\n";
+
+  private PsiFile myFile;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    myFile = myFixture.configureByText("Foo.hx", TEXT);
+  }
+
+  private PsiElement resolve(String context, int delta) {
+    final PsiReference reference = myFile.findReferenceAt(TEXT.indexOf(context) + delta);
+    assertNotNull(context, reference);
+    return reference.resolve();
+  }
+
+  private int declarationOffset(String context, int delta) {
+    return TEXT.indexOf(context) + delta;
+  }
+
+  public void testParameterBeforeShadowingLocal() {
+    final PsiElement target = resolve("var a = x", "var a = ".length());
+    assertEquals(declarationOffset("bar(x", "bar(".length()), target.getTextOffset());
+  }
+
+  public void testInnerBlockLocalShadowsParameter() {
+    final PsiElement target = resolve("trace(x)", "trace(".length());
+    assertEquals(declarationOffset("var x = b", "var ".length()), target.getTextOffset());
+  }
+
+  public void testEarlierLocalOfSameBlock() {
+    final PsiElement target = resolve("var x = b", "var x = ".length());
+    assertEquals(declarationOffset("var b", "var ".length()), target.getTextOffset());
+  }
+
+  public void testLoopVariable() {
+    final PsiElement target = resolve("trace(i)", "trace(".length());
+    assertEquals(declarationOffset("for (i", "for (".length()), target.getTextOffset());
+    final PsiElement iterable = resolve("a...y", 0);
+    assertEquals(declarationOffset("var a", "var ".length()), iterable.getTextOffset());
+  }
+
+  public void testFunctionLiteralParameter() {
+    final PsiElement target = resolve("return a", "return ".length());
+    assertEquals(declarationOffset("function(a", "function(".length()), target.getTextOffset());
+  }
+
+  public void testNoLocalOutsideFunctions() {
+    assertNull(HaxeLocalSymbolTable.getInstance(myFile.findElementAt(TEXT.indexOf("var x:Int"))));
+    final HaxeLocalSymbolTable symbolTable = HaxeLocalSymbolTable.getInstance(myFile.findElementAt(TEXT.indexOf("trace(i)")));
+    assertNotNull(symbolTable);
+    final HaxeComponentName unknown = symbolTable.resolve("unknown", myFile.findElementAt(TEXT.indexOf("trace(i)")));
+    assertNull(unknown);
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.resolve;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.plugins.haxe.lang.psi.HaxeQualifiedNameCache;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+
+public class HaxeQualifiedNameCacheTest extends HaxeCodeInsightFixtureTestCase {
+  private PsiFile configure() {
+    return myFixture.configureByText("Bar.hx", "package foo;\nclass Bar {}\nclass Helper {}\n");
+  }
+
+  public void testAncillaryClassIsQualifiedWithFileName() {
+    final PsiFile file = configure();
+    final HaxeClass bar = HaxeResolveUtil.findComponentDeclaration(file, "Bar");
+    final HaxeClass helper = HaxeResolveUtil.findComponentDeclaration(file, "Helper");
+    assertNotNull(bar);
+    assertNotNull(helper);
+
+    final HaxeQualifiedNameCache cache = HaxeQualifiedNameCache.getInstance(file);
+    assertEquals("foo", cache.getPackageName());
+    assertFalse(cache.isAncillaryClass(bar));
+    assertTrue(cache.isAncillaryClass(helper));
+    assertEquals("foo.Bar", bar.getQualifiedName());
+    assertEquals("foo.Bar.Helper", helper.getQualifiedName());
+  }
+
+  public void testPackageChangeInvalidatesCache() {
+    final PsiFile file = configure();
+    assertEquals("foo", HaxeResolveUtil.getPackageName(file));
+
+    final Document document = myFixture.getEditor().getDocument();
+    new WriteCommandAction.Simple(getProject()) {
+      @Override
+      protected void run() throws Throwable {
+        document.replaceString(0, "package foo;".length(), "package baz;");
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+      }
+    }.execute();
+
+    assertEquals("baz", HaxeResolveUtil.getPackageName(file));
+    final HaxeClass bar = HaxeResolveUtil.findComponentDeclaration(file, "Bar");
+    assertNotNull(bar);
+    assertEquals("baz.Bar", bar.getQualifiedName());
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ * Copyright 2014-2014 AS3Boyan
+ * Copyright 2014-2014 Elias Ku
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.plugins.haxe.util;
+
+import junit.framework.TestCase;
+
+public class HaxeMetricsTest extends TestCase {
+  private boolean myWasEnabled;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myWasEnabled = HaxeMetrics.isEnabled();
+    HaxeMetrics.setEnabled(true);
+    HaxeMetrics.reset();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    HaxeMetrics.reset();
+    HaxeMetrics.setEnabled(myWasEnabled);
+    super.tearDown();
+  }
+
+  public void testNothingIsRecordedWhileDisabled() {
+    final HaxeMetrics.Histogram histogram = HaxeMetrics.histogram("test.disabled");
+    final HaxeMetrics.Counter counter = HaxeMetrics.counter("test.disabled");
+    HaxeMetrics.setEnabled(false);
+    final long start = histogram.start();
+    assertEquals(HaxeMetrics.Histogram.NOT_MEASURED, start);
+    histogram.stop(start);
+    histogram.record(1000);
+    counter.increment();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, counter.get());
+  }
+
+  public void testSameNameSameMetric() {
+    assertSame(HaxeMetrics.counter("test.same"), HaxeMetrics.counter("test.same"));
+    assertSame(HaxeMetrics.histogram("test.same"), HaxeMetrics.histogram("test.same"));
+  }
+
+  public void testBuckets() {
+    assertEquals(0, HaxeMetrics.Histogram.getBucket(0));
+    assertEquals(0, HaxeMetrics.Histogram.getBucket(1000));
+    assertEquals(1, HaxeMetrics.Histogram.getBucket(1001));
+    assertEquals(1, HaxeMetrics.Histogram.getBucket(2000));
+    assertEquals(2, HaxeMetrics.Histogram.getBucket(3000));
+    assertEquals(10, HaxeMetrics.Histogram.getBucket(1024000));
+    assertEquals(HaxeMetrics.Histogram.BUCKET_COUNT - 1, HaxeMetrics.Histogram.getBucket(Long.MAX_VALUE));
+  }
+
+  public void testPercentiles() {
+    final HaxeMetrics.Histogram histogram = HaxeMetrics.histogram("test.percentiles");
+    for (int i = 0; i < 90; i++) {
+      histogram.record(1000000);  // 1ms
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(100000000);  // 100ms
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(100000000, histogram.getMaxNanos());
+    // Within the power-of-two bucket of the recorded value.
+    final long p50 = histogram.getPercentileNanos(0.5);
+    assertTrue(p50 >= 1000000 && p50 < 2 * 1000000);
+    assertTrue(histogram.getPercentileNanos(0.9) < 2 * 1000000);
+    assertEquals(100000000, histogram.getPercentileNanos(0.99));
+  }
+
+  public void testTimeLogRecordsElapsedTime() throws Exception {
+    final HaxeMetrics.Histogram histogram = HaxeMetrics.histogram("test.timeLog");
+    final HaxeDebugTimeLog timeLog = HaxeDebugTimeLog.startNew("test");
+    Thread.sleep(5);
+    timeLog.recordTo(histogram);
+    assertEquals(1, histogram.getCount());
+    assertTrue(histogram.getMaxNanos() >= 5000000);
+  }
+
+  public void testReset() {
+    final HaxeMetrics.Histogram histogram = HaxeMetrics.histogram("test.reset");
+    final HaxeMetrics.Counter counter = HaxeMetrics.counter("test.reset");
+    histogram.record(5000);
+    counter.add(3);
+    HaxeMetrics.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMaxNanos());
+    assertEquals(0, histogram.getPercentileNanos(0.5));
+    assertEquals(0, counter.get());
+  }
+
+  public void testJson() {
+    HaxeMetrics.counter("test.\"quoted\"").increment();
+    HaxeMetrics.histogram("test.json").record(3000);
+    final String json = HaxeMetrics.toJson();
+    assertTrue(json, json.contains("\"test.\\\"quoted\\\"\": 1"));
+    assertTrue(json, json.contains("\"test.json\": {\"count\": 1, \"totalNanos\": 3000, \"maxNanos\": 3000, \"buckets\": {\"4000\": 1}}"));
+  }
+}